@@ -20,7 +20,10 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A static class that serves as a central point to execute common tasks.
@@ -38,6 +41,11 @@ public class ArchTaskExecutor extends TaskExecutor {
     @NonNull
     private TaskExecutor mDefaultTaskExecutor;
 
+    @NonNull
+    private volatile MainThreadBatch mMainThreadBatch = new MainThreadBatch();
+    private final AtomicLong mBatchedTaskCount = new AtomicLong();
+    private final AtomicLong mMainThreadBatchCount = new AtomicLong();
+
     @NonNull
     private static final Executor sMainThreadExecutor = new Executor() {
         @Override
@@ -47,12 +55,7 @@ public class ArchTaskExecutor extends TaskExecutor {
     };
 
     @NonNull
-    private static final Executor sIOThreadExecutor = new Executor() {
-        @Override
-        public void execute(Runnable command) {
-            getInstance().executeOnDiskIO(command);
-        }
-    };
+    private static final Executor sIOThreadExecutor = new IOThreadExecutor(null);
 
     private ArchTaskExecutor() {
         mDefaultTaskExecutor = new DefaultTaskExecutor();
@@ -89,6 +92,9 @@ public class ArchTaskExecutor extends TaskExecutor {
      */
     public void setDelegate(@Nullable TaskExecutor taskExecutor) {
         mDelegate = taskExecutor == null ? mDefaultTaskExecutor : taskExecutor;
+        // The previous delegate may never run the batch it was given, e.g. if it is a test
+        // executor that was shut down, so start a new one.
+        mMainThreadBatch = new MainThreadBatch();
     }
 
     @Override
@@ -96,11 +102,48 @@ public class ArchTaskExecutor extends TaskExecutor {
         mDelegate.executeOnDiskIO(runnable);
     }
 
+    @Override
+    public void executeOnDiskIO(@NonNull Object key, @NonNull Runnable runnable) {
+        mDelegate.executeOnDiskIO(key, runnable);
+    }
+
+    @Override
+    public void executeOnDiskIOWithPriority(@NonNull Object key, @NonNull Runnable runnable) {
+        mDelegate.executeOnDiskIOWithPriority(key, runnable);
+    }
+
     @Override
     public void postToMainThread(Runnable runnable) {
         mDelegate.postToMainThread(runnable);
     }
 
+    /**
+     * Posts the given task to the main thread together with the other tasks posted by this method
+     * until the main thread gets to them, so that a burst of tasks from any number of threads
+     * costs a single main thread message. The tasks run in the order they are posted.
+     *
+     * @param runnable The runnable to run on the main thread.
+     */
+    public void postToMainThreadBatched(@NonNull Runnable runnable) {
+        mBatchedTaskCount.incrementAndGet();
+        mMainThreadBatch.add(runnable);
+    }
+
+    /**
+     * Returns the number of tasks posted with {@link #postToMainThreadBatched(Runnable)}.
+     */
+    public long getBatchedTaskCount() {
+        return mBatchedTaskCount.get();
+    }
+
+    /**
+     * Returns the number of main thread messages that the tasks posted with
+     * {@link #postToMainThreadBatched(Runnable)} were run in.
+     */
+    public long getMainThreadBatchCount() {
+        return mMainThreadBatchCount.get();
+    }
+
     @NonNull
     public static Executor getMainThreadExecutor() {
         return sMainThreadExecutor;
@@ -111,8 +154,102 @@ public class ArchTaskExecutor extends TaskExecutor {
         return sIOThreadExecutor;
     }
 
+    /**
+     * Returns an executor that runs its tasks with
+     * {@link #executeOnDiskIO(Object, Runnable)} using the given key.
+     *
+     * @param key The key that identifies the group of the tasks, e.g. the name of a database.
+     * @return An executor for the disk IO tasks of the group.
+     */
+    @NonNull
+    public static Executor getIOThreadExecutor(@NonNull Object key) {
+        return new IOThreadExecutor(key);
+    }
+
+    /**
+     * Returns an executor that runs the tasks of the given executor with
+     * {@link #executeOnDiskIOWithPriority(Object, Runnable)}, for tasks whose result the UI is
+     * waiting for.
+     * <p>
+     * Only the executors returned by {@link #getIOThreadExecutor()} and
+     * {@link #getIOThreadExecutor(Object)} have a priority lane. Any other executor is returned
+     * as is, so that the tasks still run where the caller asked for them to run.
+     *
+     * @param executor The executor that the tasks would otherwise run on.
+     * @return An executor that runs the tasks ahead of the ones that are not urgent, if possible.
+     */
+    @NonNull
+    public static Executor getPriorityExecutor(@NonNull Executor executor) {
+        if (executor instanceof IOThreadExecutor) {
+            return ((IOThreadExecutor) executor).mPriorityExecutor;
+        }
+        return executor;
+    }
+
     @Override
     public boolean isMainThread() {
         return mDelegate.isMainThread();
     }
+
+    private static final class IOThreadExecutor implements Executor {
+        @Nullable
+        private final Object mKey;
+        @NonNull
+        final Executor mPriorityExecutor;
+
+        IOThreadExecutor(@Nullable final Object key) {
+            mKey = key;
+            mPriorityExecutor = new Executor() {
+                @Override
+                public void execute(Runnable command) {
+                    // Unkeyed tasks are keyed by themselves, so that a task that is submitted
+                    // again and again, like a refresh, does not spread over all the shards.
+                    getInstance().executeOnDiskIOWithPriority(key != null ? key : command,
+                            command);
+                }
+            };
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (mKey == null) {
+                getInstance().executeOnDiskIO(command);
+            } else {
+                getInstance().executeOnDiskIO(mKey, command);
+            }
+        }
+    }
+
+    private final class MainThreadBatch implements Runnable {
+        private final ConcurrentLinkedQueue<Runnable> mTasks = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean mScheduled = new AtomicBoolean();
+
+        MainThreadBatch() {
+        }
+
+        void add(Runnable runnable) {
+            mTasks.add(runnable);
+            if (mScheduled.compareAndSet(false, true)) {
+                mMainThreadBatchCount.incrementAndGet();
+                postToMainThread(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            // Clear the flag first, so that a task added while the queue is drained is either
+            // run by this message or schedules the next one.
+            mScheduled.set(false);
+            // Only run the tasks that are already queued. A task that posts again, like a value
+            // that is posted from its own observer, waits for the next message, so that the
+            // other messages of the main thread are not starved.
+            for (int count = mTasks.size(); count > 0; count--) {
+                Runnable task = mTasks.poll();
+                if (task == null) {
+                    break;
+                }
+                task.run();
+            }
+        }
+    }
 }
@@ -0,0 +1,353 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.arch.core.executor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link TaskExecutor} that splits the disk IO work into shards, each with its own queue and
+ * thread.
+ * <p>
+ * Tasks submitted with a key, such as the name of the database they access, always go to the
+ * same shard, so a component that floods the disk IO executor only delays its own tasks. Tasks
+ * without a key go to the shard with the shortest queue. A thread runs the tasks of its own shard
+ * first and only takes tasks from other shards when its own queue is empty, so the threads are
+ * never idle while there is work to do.
+ * <p>
+ * Each shard also has a priority lane for tasks that the UI is waiting on, see
+ * {@link #executeOnDiskIOWithPriority(Object, Runnable)}. Threads empty the priority lanes of all
+ * shards before they run any other task.
+ * <p>
+ * The queue depth and the time tasks spend in the queue are tracked for each shard and can be
+ * read with {@link #getStats(int)}.
+ * <p>
+ * To use it, install it with {@link ArchTaskExecutor#setDelegate(TaskExecutor)}.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
+public class ShardedTaskExecutor extends DefaultTaskExecutor {
+    private static final String THREAD_NAME_STEM = "arch_disk_io_%d";
+    private static final int DEFAULT_SHARD_COUNT = 4;
+
+    private final ReentrantLock mLock = new ReentrantLock();
+    private final Condition mNotEmpty = mLock.newCondition();
+    private final Shard[] mShards;
+    // The shard an unkeyed task looks at first, so that ties do not always go to the same shard.
+    private int mNextShard;
+
+    /**
+     * Creates a ShardedTaskExecutor with as many shards as the threads of
+     * {@link DefaultTaskExecutor}.
+     */
+    public ShardedTaskExecutor() {
+        this(DEFAULT_SHARD_COUNT);
+    }
+
+    /**
+     * Creates a ShardedTaskExecutor.
+     *
+     * @param shardCount The number of shards, which is also the number of threads.
+     */
+    public ShardedTaskExecutor(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shardCount must be positive");
+        }
+        mShards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            mShards[i] = new Shard(i);
+        }
+    }
+
+    @Override
+    public void executeOnDiskIO(@NonNull Runnable runnable) {
+        mLock.lock();
+        try {
+            Shard shortest = null;
+            for (int i = 0; i < mShards.length; i++) {
+                Shard shard = mShards[(mNextShard + i) % mShards.length];
+                if (shortest == null || shard.queueDepth() < shortest.queueDepth()) {
+                    shortest = shard;
+                }
+            }
+            mNextShard = (mNextShard + 1) % mShards.length;
+            //noinspection ConstantConditions
+            enqueueLocked(shortest, runnable, false);
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    @Override
+    public void executeOnDiskIO(@NonNull Object key, @NonNull Runnable runnable) {
+        mLock.lock();
+        try {
+            enqueueLocked(mShards[getShard(key)], runnable, false);
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    @Override
+    public void executeOnDiskIOWithPriority(@NonNull Object key, @NonNull Runnable runnable) {
+        mLock.lock();
+        try {
+            enqueueLocked(mShards[getShard(key)], runnable, true);
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of shards.
+     */
+    public int getShardCount() {
+        return mShards.length;
+    }
+
+    /**
+     * Returns the shard that tasks with the given key are queued in.
+     *
+     * @param key The key the tasks are submitted with.
+     * @return The index of the shard.
+     */
+    public int getShard(@NonNull Object key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return (hash & Integer.MAX_VALUE) % mShards.length;
+    }
+
+    /**
+     * Returns a snapshot of the queue statistics of a shard.
+     *
+     * @param shard The index of the shard, between 0 and {@link #getShardCount()}.
+     * @return The current statistics of the shard.
+     */
+    @NonNull
+    public Stats getStats(int shard) {
+        mLock.lock();
+        try {
+            Shard s = mShards[shard];
+            return new Stats(s.queueDepth(), s.mMaxQueueDepth, s.mCompletedTaskCount,
+                    s.mTotalQueueTimeNanos, s.mMaxQueueTimeNanos, s.mTotalRunTimeNanos);
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    private void enqueueLocked(Shard shard, Runnable runnable, boolean priority) {
+        Task task = new Task(runnable, System.nanoTime());
+        if (priority) {
+            shard.mPriorityQueue.add(task);
+        } else {
+            shard.mQueue.add(task);
+        }
+        shard.mMaxQueueDepth = Math.max(shard.mMaxQueueDepth, shard.queueDepth());
+        if (shard.mThread == null) {
+            startThreadLocked(shard);
+        } else {
+            mNotEmpty.signal();
+        }
+    }
+
+    private void startThreadLocked(final Shard shard) {
+        shard.mThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runTasks(shard);
+            }
+        }, String.format(THREAD_NAME_STEM, shard.mIndex));
+        shard.mThread.start();
+    }
+
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    void runTasks(Shard home) {
+        try {
+            while (true) {
+                Task task;
+                Shard owner;
+                mLock.lock();
+                try {
+                    while ((owner = findWorkLocked(home)) == null) {
+                        mNotEmpty.awaitUninterruptibly();
+                    }
+                    task = owner.mPriorityQueue.isEmpty()
+                            ? owner.mQueue.poll() : owner.mPriorityQueue.poll();
+                    long queueTime = System.nanoTime() - task.mEnqueueTimeNanos;
+                    owner.mTotalQueueTimeNanos += queueTime;
+                    owner.mMaxQueueTimeNanos = Math.max(owner.mMaxQueueTimeNanos, queueTime);
+                } finally {
+                    mLock.unlock();
+                }
+
+                long start = System.nanoTime();
+                task.mRunnable.run();
+                long runTime = System.nanoTime() - start;
+
+                mLock.lock();
+                try {
+                    owner.mCompletedTaskCount++;
+                    owner.mTotalRunTimeNanos += runTime;
+                } finally {
+                    mLock.unlock();
+                }
+            }
+        } finally {
+            // Only reached if a task threw, which ends this thread the same way it ends a thread
+            // of a ThreadPoolExecutor. Replace it so that the shard keeps running.
+            mLock.lock();
+            try {
+                home.mThread = null;
+                if (findWorkLocked(home) != null) {
+                    startThreadLocked(home);
+                }
+            } finally {
+                mLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the shard that the thread of {@code home} should take its next task from, or null
+     * if all queues are empty.
+     */
+    private Shard findWorkLocked(Shard home) {
+        for (int i = 0; i < mShards.length; i++) {
+            Shard shard = mShards[(home.mIndex + i) % mShards.length];
+            if (!shard.mPriorityQueue.isEmpty()) {
+                return shard;
+            }
+        }
+        for (int i = 0; i < mShards.length; i++) {
+            Shard shard = mShards[(home.mIndex + i) % mShards.length];
+            if (!shard.mQueue.isEmpty()) {
+                return shard;
+            }
+        }
+        return null;
+    }
+
+    private static final class Shard {
+        final int mIndex;
+        final ArrayDeque<Task> mQueue = new ArrayDeque<>();
+        final ArrayDeque<Task> mPriorityQueue = new ArrayDeque<>();
+        Thread mThread;
+
+        int mMaxQueueDepth;
+        long mCompletedTaskCount;
+        long mTotalQueueTimeNanos;
+        long mMaxQueueTimeNanos;
+        long mTotalRunTimeNanos;
+
+        Shard(int index) {
+            mIndex = index;
+        }
+
+        int queueDepth() {
+            return mQueue.size() + mPriorityQueue.size();
+        }
+    }
+
+    private static final class Task {
+        final Runnable mRunnable;
+        final long mEnqueueTimeNanos;
+
+        Task(Runnable runnable, long enqueueTimeNanos) {
+            mRunnable = runnable;
+            mEnqueueTimeNanos = enqueueTimeNanos;
+        }
+    }
+
+    /**
+     * Queue statistics of a shard of a {@link ShardedTaskExecutor}.
+     */
+    public static final class Stats {
+        private final int mQueueDepth;
+        private final int mMaxQueueDepth;
+        private final long mCompletedTaskCount;
+        private final long mTotalQueueTimeNanos;
+        private final long mMaxQueueTimeNanos;
+        private final long mTotalRunTimeNanos;
+
+        Stats(int queueDepth, int maxQueueDepth, long completedTaskCount,
+                long totalQueueTimeNanos, long maxQueueTimeNanos, long totalRunTimeNanos) {
+            mQueueDepth = queueDepth;
+            mMaxQueueDepth = maxQueueDepth;
+            mCompletedTaskCount = completedTaskCount;
+            mTotalQueueTimeNanos = totalQueueTimeNanos;
+            mMaxQueueTimeNanos = maxQueueTimeNanos;
+            mTotalRunTimeNanos = totalRunTimeNanos;
+        }
+
+        /**
+         * Returns the number of tasks waiting in the queue of the shard.
+         */
+        public int getQueueDepth() {
+            return mQueueDepth;
+        }
+
+        /**
+         * Returns the largest number of tasks that waited in the queue of the shard at once.
+         */
+        public int getMaxQueueDepth() {
+            return mMaxQueueDepth;
+        }
+
+        /**
+         * Returns the number of tasks of the shard that finished running, on any thread.
+         */
+        public long getCompletedTaskCount() {
+            return mCompletedTaskCount;
+        }
+
+        /**
+         * Returns the total time that the started tasks of the shard waited in the queue.
+         */
+        public long getTotalQueueTimeNanos() {
+            return mTotalQueueTimeNanos;
+        }
+
+        /**
+         * Returns the longest time that a task of the shard waited in the queue.
+         */
+        public long getMaxQueueTimeNanos() {
+            return mMaxQueueTimeNanos;
+        }
+
+        /**
+         * Returns the total time that the completed tasks of the shard took to run.
+         */
+        public long getTotalRunTimeNanos() {
+            return mTotalRunTimeNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{queueDepth=" + mQueueDepth
+                    + ", maxQueueDepth=" + mMaxQueueDepth
+                    + ", completedTaskCount=" + mCompletedTaskCount
+                    + ", totalQueueTimeNanos=" + mTotalQueueTimeNanos
+                    + ", maxQueueTimeNanos=" + mMaxQueueTimeNanos
+                    + ", totalRunTimeNanos=" + mTotalRunTimeNanos + "}";
+        }
+    }
+}
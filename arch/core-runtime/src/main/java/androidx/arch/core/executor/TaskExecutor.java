@@ -36,6 +36,34 @@ public abstract class TaskExecutor {
      */
     public abstract void executeOnDiskIO(@NonNull Runnable runnable);
 
+    /**
+     * Executes the given task in the disk IO thread pool, grouping it with the other tasks that
+     * are submitted with the same key, for example the tasks that access the same database.
+     * <p>
+     * By default, the key is ignored and this is the same as {@link #executeOnDiskIO(Runnable)}.
+     *
+     * @param key      The key that identifies the group of the task.
+     * @param runnable The runnable to run in the disk IO thread pool.
+     * @see ShardedTaskExecutor
+     */
+    public void executeOnDiskIO(@NonNull Object key, @NonNull Runnable runnable) {
+        executeOnDiskIO(runnable);
+    }
+
+    /**
+     * Executes the given task in the disk IO thread pool ahead of the tasks that are not urgent.
+     * Use this for tasks whose result the UI is waiting for.
+     * <p>
+     * By default, this is the same as {@link #executeOnDiskIO(Object, Runnable)}.
+     *
+     * @param key      The key that identifies the group of the task.
+     * @param runnable The runnable to run in the disk IO thread pool.
+     * @see ShardedTaskExecutor
+     */
+    public void executeOnDiskIOWithPriority(@NonNull Object key, @NonNull Runnable runnable) {
+        executeOnDiskIO(key, runnable);
+    }
+
     /**
      * Posts the given task to the main thread.
      *
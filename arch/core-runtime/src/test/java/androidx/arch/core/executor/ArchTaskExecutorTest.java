@@ -0,0 +1,164 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.arch.core.executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import androidx.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+@RunWith(JUnit4.class)
+public class ArchTaskExecutorTest {
+    private RecordingTaskExecutor mTaskExecutor;
+
+    @Before
+    public void setup() {
+        mTaskExecutor = new RecordingTaskExecutor();
+        ArchTaskExecutor.getInstance().setDelegate(mTaskExecutor);
+    }
+
+    @After
+    public void tearDown() {
+        ArchTaskExecutor.getInstance().setDelegate(null);
+    }
+
+    @Test
+    public void priorityExecutor_keyed() {
+        Runnable task = new NoOp();
+        ArchTaskExecutor.getPriorityExecutor(ArchTaskExecutor.getIOThreadExecutor("db"))
+                .execute(task);
+        assertEquals(1, mTaskExecutor.mPriorityTasks.size());
+        assertSame(task, mTaskExecutor.mPriorityTasks.get(0));
+        assertEquals("db", mTaskExecutor.mPriorityKeys.get(0));
+        assertEquals(0, mTaskExecutor.mTasks.size());
+    }
+
+    @Test
+    public void priorityExecutor_unkeyedTaskIsItsOwnKey() {
+        Runnable task = new NoOp();
+        ArchTaskExecutor.getPriorityExecutor(ArchTaskExecutor.getIOThreadExecutor())
+                .execute(task);
+        assertEquals(1, mTaskExecutor.mPriorityTasks.size());
+        assertSame(task, mTaskExecutor.mPriorityKeys.get(0));
+    }
+
+    @Test
+    public void priorityExecutor_otherExecutorReturnedAsIs() {
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        };
+        assertSame(executor, ArchTaskExecutor.getPriorityExecutor(executor));
+    }
+
+    @Test
+    public void ioThreadExecutor_keepsNormalLane() {
+        ArchTaskExecutor.getIOThreadExecutor().execute(new NoOp());
+        ArchTaskExecutor.getIOThreadExecutor("db").execute(new NoOp());
+        assertEquals(2, mTaskExecutor.mTasks.size());
+        assertEquals(0, mTaskExecutor.mPriorityTasks.size());
+    }
+
+    @Test
+    public void mainThreadBatch_runsQueuedTasksInOneMessage() {
+        final List<String> order = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final String name = "task" + i;
+            ArchTaskExecutor.getInstance().postToMainThreadBatched(new Runnable() {
+                @Override
+                public void run() {
+                    order.add(name);
+                }
+            });
+        }
+        assertEquals(1, mTaskExecutor.mMainThreadTasks.size());
+        mTaskExecutor.mMainThreadTasks.remove(0).run();
+        assertEquals("[task0, task1, task2]", order.toString());
+        assertEquals(0, mTaskExecutor.mMainThreadTasks.size());
+    }
+
+    @Test
+    public void mainThreadBatch_yieldsToRepostedTasks() {
+        final int[] runs = new int[1];
+        ArchTaskExecutor.getInstance().postToMainThreadBatched(new Runnable() {
+            @Override
+            public void run() {
+                // Stop at some point, so that a batch that never yields fails instead of
+                // spinning forever.
+                if (++runs[0] < 100) {
+                    ArchTaskExecutor.getInstance().postToMainThreadBatched(this);
+                }
+            }
+        });
+        assertEquals(1, mTaskExecutor.mMainThreadTasks.size());
+
+        mTaskExecutor.mMainThreadTasks.remove(0).run();
+        // The task posted itself again, which waits for the next message.
+        assertEquals(1, runs[0]);
+        assertEquals(1, mTaskExecutor.mMainThreadTasks.size());
+
+        mTaskExecutor.mMainThreadTasks.remove(0).run();
+        assertEquals(2, runs[0]);
+        assertEquals(1, mTaskExecutor.mMainThreadTasks.size());
+    }
+
+    private static class NoOp implements Runnable {
+        @Override
+        public void run() {
+        }
+    }
+
+    private static class RecordingTaskExecutor extends TaskExecutor {
+        final List<Runnable> mTasks = new ArrayList<>();
+        final List<Object> mPriorityKeys = new ArrayList<>();
+        final List<Runnable> mPriorityTasks = new ArrayList<>();
+        final List<Runnable> mMainThreadTasks = new ArrayList<>();
+
+        @Override
+        public void executeOnDiskIO(@NonNull Runnable runnable) {
+            mTasks.add(runnable);
+        }
+
+        @Override
+        public void executeOnDiskIOWithPriority(@NonNull Object key, @NonNull Runnable runnable) {
+            mPriorityKeys.add(key);
+            mPriorityTasks.add(runnable);
+        }
+
+        @Override
+        public void postToMainThread(@NonNull Runnable runnable) {
+            mMainThreadTasks.add(runnable);
+        }
+
+        @Override
+        public boolean isMainThread() {
+            return true;
+        }
+    }
+}
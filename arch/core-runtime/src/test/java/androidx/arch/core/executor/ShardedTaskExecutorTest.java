@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.arch.core.executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(JUnit4.class)
+public class ShardedTaskExecutorTest {
+    @Test
+    public void runsAllTasks() throws InterruptedException {
+        ShardedTaskExecutor executor = new ShardedTaskExecutor(3);
+        final CountDownLatch latch = new CountDownLatch(300);
+        Runnable countDown = new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        };
+        for (int i = 0; i < 100; i++) {
+            executor.executeOnDiskIO(countDown);
+            executor.executeOnDiskIO("db" + i, countDown);
+            executor.executeOnDiskIOWithPriority("db" + i, countDown);
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+        // The counters are updated after the tasks return, so wait for the last ones.
+        long deadline = System.currentTimeMillis() + 10000;
+        long completed;
+        do {
+            completed = 0;
+            for (int i = 0; i < executor.getShardCount(); i++) {
+                completed += executor.getStats(i).getCompletedTaskCount();
+            }
+        } while (completed < 300 && System.currentTimeMillis() < deadline);
+        assertEquals(300, completed);
+    }
+
+    @Test
+    public void sameKeySameShard() {
+        ShardedTaskExecutor executor = new ShardedTaskExecutor(5);
+        for (int i = 0; i < 100; i++) {
+            String key = "db" + i;
+            int shard = executor.getShard(key);
+            assertTrue(shard >= 0 && shard < 5);
+            assertEquals(shard, executor.getShard(new String(key)));
+        }
+    }
+
+    @Test
+    public void priorityTasksRunFirst() throws InterruptedException {
+        ShardedTaskExecutor executor = new ShardedTaskExecutor(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(4);
+        final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        executor.executeOnDiskIO("db", new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                done.countDown();
+            }
+        });
+        // Queue the other tasks once the thread is blocked, or it could start with the priority
+        // task.
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        executor.executeOnDiskIO("db", new RecordingTask("a", order, done));
+        executor.executeOnDiskIO("other", new RecordingTask("b", order, done));
+        executor.executeOnDiskIOWithPriority("db", new RecordingTask("ui", order, done));
+
+        ShardedTaskExecutor.Stats stats = executor.getStats(0);
+        assertEquals(3, stats.getQueueDepth());
+        assertTrue(stats.getMaxQueueDepth() >= 3);
+
+        blocked.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals("[ui, a, b]", order.toString());
+    }
+
+    @Test
+    public void keepsRunningAfterTaskThrows() throws InterruptedException {
+        ShardedTaskExecutor executor = new ShardedTaskExecutor(1);
+        final Thread.UncaughtExceptionHandler handler =
+                Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+            @Override
+            public void uncaughtException(Thread t, Throwable e) {
+            }
+        });
+        try {
+            executor.executeOnDiskIO(new Runnable() {
+                @Override
+                public void run() {
+                    throw new IllegalStateException();
+                }
+            });
+            final CountDownLatch latch = new CountDownLatch(1);
+            executor.executeOnDiskIO(new Runnable() {
+                @Override
+                public void run() {
+                    latch.countDown();
+                }
+            });
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(handler);
+        }
+    }
+
+    private static class RecordingTask implements Runnable {
+        private final String mName;
+        private final List<String> mOrder;
+        private final CountDownLatch mDone;
+
+        RecordingTask(String name, List<String> order, CountDownLatch done) {
+            mName = name;
+            mOrder = order;
+            mDone = done;
+        }
+
+        @Override
+        public void run() {
+            mOrder.add(mName);
+            mDone.countDown();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.benchmark
+
+import java.io.File
+
+/**
+ * The parts of running a benchmark that differ between an Android device and a host JVM, for the
+ * benchmark code shared with the Android library.
+ */
+internal object BenchmarkPlatform {
+    /**
+     * System property with the directory of the reports, set by benchmark-host.gradle.
+     */
+    private const val OUTPUT_DIR_PROPERTY = "androidx.benchmark.output.dir"
+
+    /** The directory that [ResultWriter] writes the reports to. */
+    val reportDirectory: File
+        get() = File(System.getProperty(OUTPUT_DIR_PROPERTY) ?: "benchmark_reports")
+
+    /** Prepended to the names of the results to flag unreliable runs. */
+    val warningPrefix: String
+        get() = ""
+
+    /**
+     * Prints the results of a finished benchmark to the standard output, which Gradle keeps in
+     * the test report.
+     */
+    fun reportStatus(state: BenchmarkState, testName: String) {
+        println(state.ideSummaryLine(testName))
+        logInfo(BenchmarkState.TAG, testName + state.summaryLine())
+        logInfo(BenchmarkState.CSV_TAG, state.csvLine(testName))
+    }
+
+    fun createAllocationCounter(): AllocationCounter? = AllocationCounter.createJvm()
+
+    fun startProfiling() {
+        // attach a JVM profiler to the test process instead
+    }
+
+    fun stopProfiling() {
+    }
+
+    fun logInfo(tag: String, message: String) {
+        println("$tag: $message")
+    }
+
+    fun logDebug(tag: String, message: String) {
+        println("$tag: $message")
+    }
+}
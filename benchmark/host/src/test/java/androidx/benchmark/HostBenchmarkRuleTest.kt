@@ -0,0 +1,55 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.benchmark
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+
+@RunWith(JUnit4::class)
+class HostBenchmarkRuleTest {
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private var sink: Any? = null
+
+    @Test
+    fun measureRepeated() {
+        benchmarkRule.measureRepeated {
+            sink = runWithTimingDisabled { ByteArray(1000) }
+            sink = Any()
+        }
+        val report = benchmarkRule.getState().getReport()
+        assertEquals(5, report.data.size)
+        assertTrue(report.warmupIterations > 0)
+
+        val sampleStats = report.sampleStats!!
+        assertTrue(sampleStats.min <= sampleStats.percentile999)
+
+        // HotSpot only tracks allocated bytes
+        assertNull(report.allocationsPerIteration)
+        val bytes = report.allocatedBytesPerIteration
+        assertNotNull(bytes)
+        assertTrue("allocated bytes $bytes should not include paused allocations",
+            bytes!! > 0 && bytes < 1000)
+    }
+}
@@ -29,6 +29,8 @@ import java.util.concurrent.TimeUnit
 @LargeTest
 @RunWith(JUnit4::class)
 class BenchmarkStateTest {
+    private var sink: Any? = null
+
     private fun ms2ns(ms: Long): Long = TimeUnit.MILLISECONDS.toNanos(ms)
 
     @Test
@@ -46,6 +48,30 @@ class BenchmarkStateTest {
                 ms2ns(2) < median && median < ms2ns(4))
     }
 
+    @Test
+    fun samplesAndAllocations() {
+        val state = BenchmarkState()
+        while (state.keepRunning()) {
+            state.pauseTiming()
+            // allocations while paused aren't counted
+            sink = ByteArray(1000)
+            state.resumeTiming()
+            sink = Any()
+        }
+        val report = state.getReport()
+        val sampleStats = report.sampleStats!!
+        assertTrue(sampleStats.min <= sampleStats.percentile99)
+        assertTrue(sampleStats.percentile99 <= sampleStats.max)
+        assertTrue(sampleStats.histogramCounts.sum() >= 2)
+
+        val allocations = report.allocationsPerIteration!!
+        assertTrue("allocations $allocations should be about 1",
+            allocations >= 1.0 && allocations < 1.5)
+        val bytes = report.allocatedBytesPerIteration!!
+        assertTrue("allocated bytes $bytes should not include paused allocations",
+            bytes > 0 && bytes < 1000)
+    }
+
     @Test
     fun ideSummary() {
         val summary1 = BenchmarkState().apply {
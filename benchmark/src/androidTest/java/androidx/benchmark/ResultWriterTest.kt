@@ -103,4 +103,52 @@ class ResultWriterTest {
             manager.fullFileContent
         )
     }
+
+    @Test
+    fun validateJsonWithSamplesAndAllocations() {
+        val manager = ResultWriter.fileManagers.find { it.extension == "json" }!!
+        manager.currentContent = manager.initial
+        manager.append(
+            report.copy(
+                sampleStats = Stats(listOf(100, 100, 101, 120)),
+                allocationsPerIteration = 2.0,
+                allocatedBytesPerIteration = 48.0
+            ),
+            "MethodA",
+            "package.Class1"
+        )
+        assertEquals("""
+            { "results": [
+                {
+                    "name": "MethodA",
+                    "classname": "package.Class1",
+                    "nanos": 100,
+                    "warmupIterations": 8000,
+                    "repeatIterations": 100000,
+                    "runs": [
+                        100,
+                        101,
+                        102
+                    ],
+                    "iterationNanos": {
+                        "min": 100,
+                        "median": 100,
+                        "p90": 101,
+                        "p95": 101,
+                        "p99": 101,
+                        "p99_9": 101,
+                        "max": 120
+                    },
+                    "histogram": [
+                        { "nanos": 96, "count": 3 },
+                        { "nanos": 120, "count": 1 }
+                    ],
+                    "allocations": 2.0,
+                    "allocatedBytes": 48.0
+                }
+            ]}
+            """.trimIndent(),
+            manager.fullFileContent
+        )
+    }
 }
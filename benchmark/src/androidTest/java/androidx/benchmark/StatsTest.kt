@@ -17,6 +17,7 @@
 package androidx.benchmark
 
 import androidx.test.filters.SmallTest
+import org.junit.Assert.assertArrayEquals
 import org.junit.Assert.assertEquals
 import org.junit.Assert.assertTrue
 import org.junit.Test
@@ -49,4 +50,20 @@ class StatsTest {
         assertEquals(90, stats.percentile90)
         assertEquals(95, stats.percentile95)
     }
+
+    @Test
+    fun tailPercentiles() {
+        val stats = Stats((1L..1000L).toList())
+        assertEquals(900, stats.percentile90)
+        assertEquals(990, stats.percentile99)
+        assertEquals(999, stats.percentile999)
+    }
+
+    @Test
+    fun histogram() {
+        val stats = Stats(listOf(1, 1, 7, 8, 9, 100, 103, 104))
+        // values below 8 get their own bucket, 96..103 share a bucket 1/8 of 64..127 wide
+        assertArrayEquals(longArrayOf(1, 7, 8, 9, 96, 104), stats.histogramBucketStarts)
+        assertArrayEquals(intArrayOf(2, 1, 1, 1, 2, 1), stats.histogramCounts)
+    }
 }
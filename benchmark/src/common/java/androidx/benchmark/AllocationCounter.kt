@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.benchmark
+
+import java.lang.reflect.Method
+
+/**
+ * Counts the allocations of the current thread during the allocation pass of a benchmark.
+ *
+ * Counting is started and stopped around each stretch of iterations, so that allocations made
+ * while the timing is paused are not counted.
+ */
+internal abstract class AllocationCounter {
+    /**
+     * The number of allocations counted since [reset], or null if the platform only counts the
+     * allocated bytes.
+     */
+    val count: Long?
+        get() = if (countsAllocations) totalCount else null
+
+    /** The number of bytes allocated since [reset]. */
+    var bytes = 0L
+        private set
+
+    private var totalCount = 0L
+    private var startCount = 0L
+    private var startBytes = 0L
+
+    protected abstract val countsAllocations: Boolean
+
+    /** Bytes that reading the counters allocates, subtracted from each start/stop pair. */
+    protected open val overheadBytes = 0L
+
+    protected abstract fun currentCount(): Long
+
+    protected abstract fun currentBytes(): Long
+
+    protected open fun enable() {}
+
+    protected open fun disable() {}
+
+    fun reset() {
+        totalCount = 0
+        bytes = 0
+    }
+
+    fun start() {
+        enable()
+        startCount = currentCount()
+        startBytes = currentBytes()
+    }
+
+    fun stop() {
+        val endCount = currentCount()
+        val endBytes = currentBytes()
+        disable()
+        totalCount += endCount - startCount
+        bytes += endBytes - startBytes - overheadBytes
+    }
+
+    /**
+     * Uses `com.sun.management.ThreadMXBean` of HotSpot based JVMs, which only tracks the
+     * allocated bytes. It isn't part of the Android SDK, so it is called through reflection.
+     */
+    private class Jvm(
+        private val threadMXBean: Any,
+        private val getThreadAllocatedBytes: Method
+    ) : AllocationCounter() {
+        override val countsAllocations = false
+
+        override val overheadBytes: Long
+
+        init {
+            // the reflective call boxes its argument and result, and allocates more the first
+            // time it is made
+            readBytes()
+            val first = readBytes()
+            overheadBytes = readBytes() - first
+        }
+
+        override fun currentCount() = 0L
+
+        override fun currentBytes() = readBytes()
+
+        private fun readBytes(): Long {
+            return getThreadAllocatedBytes.invoke(threadMXBean, Thread.currentThread().id) as Long
+        }
+    }
+
+    companion object {
+        /**
+         * Returns a counter that uses the ThreadMXBean of the JVM, or null if the JVM doesn't
+         * track the allocated bytes of threads.
+         */
+        fun createJvm(): AllocationCounter? {
+            return try {
+                val factory = Class.forName("java.lang.management.ManagementFactory")
+                val threadMXBean = factory.getMethod("getThreadMXBean").invoke(null)
+                val beanClass = Class.forName("com.sun.management.ThreadMXBean")
+                if (!beanClass.isInstance(threadMXBean)) {
+                    return null
+                }
+                val method = beanClass.getMethod(
+                    "getThreadAllocatedBytes",
+                    Long::class.javaPrimitiveType
+                )
+                Jvm(threadMXBean, method)
+            } catch (e: Exception) {
+                null
+            }
+        }
+    }
+}
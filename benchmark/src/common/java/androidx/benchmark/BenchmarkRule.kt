@@ -16,9 +16,6 @@
 
 package androidx.benchmark
 
-import android.app.Activity
-import android.util.Log
-import androidx.test.platform.app.InstrumentationRegistry
 import org.junit.Assert.assertFalse
 import org.junit.Assert.assertTrue
 import org.junit.rules.TestRule
@@ -26,7 +23,8 @@ import org.junit.runner.Description
 import org.junit.runners.model.Statement
 
 /**
- * JUnit rule for benchmarking code on an Android device.
+ * JUnit rule for benchmarking code on an Android device, or on a host JVM with the
+ * benchmark-host library.
  *
  * In Kotlin, benchmark with [measureRepeated]:
  *
@@ -67,6 +65,8 @@ import org.junit.runners.model.Statement
  * - In csv form in Logcat with the tag "BenchmarkCsv"
  * - To the instrumentation status result Bundle on the gradle command line
  *
+ * On a host JVM the summary and csv lines are printed to the standard output instead.
+ *
  * Every test in the Class using this @Rule must contain a single benchmark.
  */
 class BenchmarkRule : TestRule {
@@ -152,7 +152,10 @@ class BenchmarkRule : TestRule {
             override fun evaluate() {
                 applied = true
                 var invokeMethodName = description.methodName
-                Log.i(TAG, "Running ${description.className}#$invokeMethodName")
+                BenchmarkPlatform.logInfo(
+                    TAG,
+                    "Running ${description.className}#$invokeMethodName"
+                )
 
                 // validate and simplify the function name.
                 // First, remove the "test" prefix which normally comes from CTS test.
@@ -179,11 +182,9 @@ class BenchmarkRule : TestRule {
 
                 base.evaluate()
 
-                val fullTestName = WarningState.WARNING_PREFIX +
-                        description.testClass.simpleName + "." + invokeMethodName
-                InstrumentationRegistry.getInstrumentation().sendStatus(
-                    Activity.RESULT_OK,
-                    internalState.getFullStatusReport(fullTestName)
+                BenchmarkPlatform.reportStatus(
+                    internalState,
+                    description.testClass.simpleName + "." + invokeMethodName
                 )
 
                 ResultWriter.appendStats(
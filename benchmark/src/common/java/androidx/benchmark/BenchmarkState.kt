@@ -16,13 +16,6 @@
 
 package androidx.benchmark
 
-import android.os.Build
-import android.os.Bundle
-import android.os.Debug
-import android.util.Log
-import androidx.test.platform.app.InstrumentationRegistry
-
-import java.io.File
 import java.text.NumberFormat
 import java.util.ArrayList
 import java.util.concurrent.TimeUnit
@@ -82,6 +75,18 @@ class BenchmarkState internal constructor() {
     // Individual duration in nano seconds.
     private val results = ArrayList<Long>()
 
+    // Durations of single iterations, measured after the timed runs.
+    private var samples = LongArray(0)
+    private var sampleCount = 0
+    private var sampleStats: Stats? = null
+
+    // Allocations per iteration, counted after the samples. Null when the platform doesn't
+    // count them.
+    private val allocationCounter = BenchmarkPlatform.createAllocationCounter()
+    private var allocationIterations = 0
+    private var allocationsPerIteration: Double? = null
+    private var allocatedBytesPerIteration: Double? = null
+
     /**
      * Get the end of run benchmark statistics.
      *
@@ -137,6 +142,9 @@ class BenchmarkState internal constructor() {
         }
         pausedTimeNs = System.nanoTime()
         paused = true
+        if (state == ALLOCATIONS) {
+            allocationCounter!!.stop()
+        }
     }
 
     /**
@@ -167,6 +175,9 @@ class BenchmarkState internal constructor() {
                 "Unable to resume the benchmark. The benchmark is already running."
             )
         }
+        if (state == ALLOCATIONS) {
+            allocationCounter!!.start()
+        }
         pausedDurationNs += System.nanoTime() - pausedTimeNs
         pausedTimeNs = 0
         paused = false
@@ -179,14 +190,8 @@ class BenchmarkState internal constructor() {
     }
 
     private fun beginBenchmark() {
-        if (ENABLE_PROFILING && Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
-            // TODO: support data dir for old platforms
-            val f = File(
-                InstrumentationRegistry.getInstrumentation().context.dataDir,
-                "benchprof"
-            )
-            Log.d(TAG, "Tracing to: " + f.absolutePath)
-            Debug.startMethodTracingSampling(f.absolutePath, 16 * 1024 * 1024, 100)
+        if (ENABLE_PROFILING) {
+            BenchmarkPlatform.startProfiling()
         }
         val idealIterations =
             (TARGET_TEST_DURATION_NS / warmupManager.estimatedIterationTime).toInt()
@@ -207,11 +212,11 @@ class BenchmarkState internal constructor() {
         repeatCount++
         if (repeatCount >= REPEAT_COUNT) {
             if (ENABLE_PROFILING) {
-                Debug.stopMethodTracing()
+                BenchmarkPlatform.stopProfiling()
             }
             internalStats = Stats(results)
-            state = FINISHED
-            return false
+            beginSampling()
+            return true
         }
         pausedDurationNs = 0
         iterationsRemaining = maxIterations
@@ -219,6 +224,62 @@ class BenchmarkState internal constructor() {
         return true
     }
 
+    /**
+     * Times the next iterations one by one, for the percentiles and histogram of the iteration
+     * time. Each sample includes the overhead of reading the clock, so the timed runs remain the
+     * reference for the mean time.
+     */
+    private fun beginSampling() {
+        samples = LongArray(Math.max(Math.min(maxIterations, MAX_SAMPLE_COUNT), 2))
+        sampleCount = 0
+        pausedDurationNs = 0
+        // leave iterationsRemaining at 0 so that each iteration calls keepRunningInternal()
+        iterationsRemaining = 0
+        state = SAMPLING
+        startTimeNs = System.nanoTime()
+    }
+
+    private fun nextSample(): Boolean {
+        val currentTime = System.nanoTime()
+        samples[sampleCount++] = currentTime - startTimeNs - pausedDurationNs
+        if (sampleCount < samples.size) {
+            pausedDurationNs = 0
+            startTimeNs = System.nanoTime()
+            return true
+        }
+        sampleStats = Stats(samples)
+        return beginAllocationCounting()
+    }
+
+    /**
+     * Runs the iterations of the allocation pass, outside of the timed runs because counting
+     * allocations slows them down.
+     */
+    private fun beginAllocationCounting(): Boolean {
+        val counter = allocationCounter ?: return finish()
+        allocationIterations = Math.min(maxIterations, MAX_ALLOCATION_ITERATIONS)
+        // this call runs the first iteration
+        iterationsRemaining = allocationIterations - 1
+        state = ALLOCATIONS
+        counter.reset()
+        counter.start()
+        return true
+    }
+
+    private fun endAllocationCounting(): Boolean {
+        val counter = allocationCounter!!
+        counter.stop()
+        allocationsPerIteration = counter.count?.let { it.toDouble() / allocationIterations }
+        allocatedBytesPerIteration = counter.bytes.toDouble() / allocationIterations
+        return finish()
+    }
+
+    private fun finish(): Boolean {
+        iterationsRemaining = -1
+        state = FINISHED
+        return false
+    }
+
     /**
      * Inline fast-path function for inner benchmark loop.
      *
@@ -285,6 +346,14 @@ class BenchmarkState internal constructor() {
                 }
                 return true
             }
+            SAMPLING -> {
+                throwIfPaused()
+                return nextSample()
+            }
+            ALLOCATIONS -> {
+                throwIfPaused()
+                return endAllocationCounting()
+            }
             FINISHED -> throw IllegalStateException("The benchmark has finished.")
             else -> throw IllegalStateException("The benchmark is in unknown state.")
         }
@@ -299,21 +368,24 @@ class BenchmarkState internal constructor() {
         }
     }
 
-    private fun mean(): Long = stats.mean.toLong()
+    internal fun mean(): Long = stats.mean.toLong()
 
-    private fun median(): Long = stats.median
+    internal fun median(): Long = stats.median
 
-    private fun min(): Long = stats.min
+    internal fun min(): Long = stats.min
 
-    private fun standardDeviation(): Long = stats.standardDeviation.toLong()
+    internal fun standardDeviation(): Long = stats.standardDeviation.toLong()
 
-    private fun count(): Long = maxIterations.toLong()
+    internal fun count(): Long = maxIterations.toLong()
 
     internal data class Report(
         val nanos: Long,
         val data: List<Long>,
         val repeatIterations: Int,
-        val warmupIterations: Int
+        val warmupIterations: Int,
+        val sampleStats: Stats? = null,
+        val allocationsPerIteration: Double? = null,
+        val allocatedBytesPerIteration: Double? = null
     )
 
     internal fun getReport(): Report {
@@ -321,27 +393,37 @@ class BenchmarkState internal constructor() {
             nanos = min(),
             data = results,
             repeatIterations = maxIterations,
-            warmupIterations = warmupIteration
+            warmupIterations = warmupIteration,
+            sampleStats = sampleStats,
+            allocationsPerIteration = allocationsPerIteration,
+            allocatedBytesPerIteration = allocatedBytesPerIteration
         )
     }
 
-    private fun summaryLine() = "Summary: " +
+    internal fun summaryLine() = "Summary: " +
             "median=${median()}ns, " +
             "mean=${mean()}ns, " +
             "min=${min()}ns, " +
             "stddev=${standardDeviation()}ns, " +
             "count=${count()}, " +
+            sampleSummary() +
+            allocationSummary() +
             results.mapIndexed { index, value ->
                 "No $index result is $value"
             }.joinToString(", ")
 
-    private fun ideSummaryLineWrapped(key: String): String {
-        val warningLines = WarningState.acquireWarningStringForLogging()?.split("\n") ?: listOf()
-        return (warningLines + ideSummaryLine(key))
-            // remove first line if empty
-            .filterIndexed { index, it -> index != 0 || !it.isEmpty() }
-            // join, prepending key to everything but first string, to make each line look the same
-            .joinToString("\n$STUDIO_OUTPUT_KEY_ID: ")
+    internal fun csvLine(key: String) = results.joinToString(prefix = "$key, ", separator = ", ")
+
+    private fun sampleSummary() = sampleStats?.let {
+        "p90=${it.percentile90}ns, " +
+                "p99=${it.percentile99}ns, " +
+                "p99.9=${it.percentile999}ns, "
+    } ?: ""
+
+    private fun allocationSummary(): String {
+        val bytes = allocatedBytesPerIteration ?: return ""
+        val count = allocationsPerIteration?.let { "allocations=$it, " } ?: ""
+        return "${count}allocatedBytes=$bytes, "
     }
 
     // NOTE: this summary line will use default locale to determine separators. As
@@ -354,35 +436,10 @@ class BenchmarkState internal constructor() {
         key
     )
 
-    /**
-     * Acquires a status report bundle
-     *
-     * @param key Run identifier, prepended to bundle properties.
-     */
-    internal fun getFullStatusReport(key: String): Bundle {
-        Log.i(TAG, key + summaryLine())
-        Log.i(CSV_TAG, results.joinToString(prefix = "$key, ", separator = ", "))
-        val status = Bundle()
-
-        val prefix = WarningState.WARNING_PREFIX
-        status.putLong("${prefix}median", median())
-        status.putLong("${prefix}mean", mean())
-        status.putLong("${prefix}min", min())
-        status.putLong("${prefix}standardDeviation", standardDeviation())
-        status.putLong("${prefix}count", count())
-        status.putString(
-            STUDIO_OUTPUT_KEY_PREFIX + STUDIO_OUTPUT_KEY_ID,
-            ideSummaryLineWrapped(key)
-        )
-        return status
-    }
-
     /** @hide */
     companion object {
-        private const val TAG = "Benchmark"
-        private const val CSV_TAG = "BenchmarkCsv"
-        private const val STUDIO_OUTPUT_KEY_PREFIX = "android.studio.display."
-        private const val STUDIO_OUTPUT_KEY_ID = "benchmark"
+        internal const val TAG = "Benchmark"
+        internal const val CSV_TAG = "BenchmarkCsv"
 
         private const val ENABLE_PROFILING = false
 
@@ -390,15 +447,19 @@ class BenchmarkState internal constructor() {
         private const val WARMUP = 1 // The benchmark is warming up.
         private const val RUNNING = 2 // The benchmark is running.
         private const val FINISHED = 3 // The benchmark has stopped.
+        private const val SAMPLING = 4 // The benchmark is timing single iterations.
+        private const val ALLOCATIONS = 5 // The benchmark is counting allocations.
 
         // values determined empirically
         private val TARGET_TEST_DURATION_NS = TimeUnit.MILLISECONDS.toNanos(500)
         private const val MAX_TEST_ITERATIONS = 1000000
         private const val MIN_TEST_ITERATIONS = 10
         private const val REPEAT_COUNT = 5
+        private const val MAX_SAMPLE_COUNT = 10000
+        private const val MAX_ALLOCATION_ITERATIONS = 1000
 
         init {
-            Log.i(CSV_TAG, (0 until REPEAT_COUNT).joinToString(
+            BenchmarkPlatform.logInfo(CSV_TAG, (0 until REPEAT_COUNT).joinToString(
                 prefix = "Benchmark, ",
                 separator = ", "
             ) { "Result $it" })
@@ -16,7 +16,6 @@
 
 package androidx.benchmark
 
-import androidx.test.platform.app.InstrumentationRegistry
 import java.io.File
 
 internal object ResultWriter {
@@ -41,6 +40,34 @@ internal object ResultWriter {
         return joinToString(",\n") { "|            $it" }
     }
 
+    private fun Stats.toJsonWithMargin(): String {
+        val histogram = histogramBucketStarts.indices.joinToString(",\n") {
+            "|            { \"nanos\": ${histogramBucketStarts[it]}, " +
+                    "\"count\": ${histogramCounts[it]} }"
+        }
+        return """|        "iterationNanos": {
+        |            "min": $min,
+        |            "median": $median,
+        |            "p90": $percentile90,
+        |            "p95": $percentile95,
+        |            "p99": $percentile99,
+        |            "p99_9": $percentile999,
+        |            "max": $max
+        |        },
+        |        "histogram": [
+        $histogram
+        |        ]"""
+    }
+
+    private fun BenchmarkState.Report.toJsonExtras(): String {
+        val extras = listOfNotNull(
+            sampleStats?.toJsonWithMargin(),
+            allocationsPerIteration?.let { "|        \"allocations\": $it" },
+            allocatedBytesPerIteration?.let { "|        \"allocatedBytes\": $it" }
+        )
+        return extras.joinToString("") { ",\n$it" }
+    }
+
     private fun BenchmarkState.Report.toJson(name: String, className: String): String {
         return "\n" + """
         |    {
@@ -51,7 +78,7 @@ internal object ResultWriter {
         |        "repeatIterations": $repeatIterations,
         |        "runs": [
         ${data.toJsonWithMargin()}
-        |        ]
+        |        ]${toJsonExtras()}
         |    }
     """.trimMargin()
     }
@@ -63,9 +90,8 @@ internal object ResultWriter {
         val separator: String? = null,
         val reportFormatter: (BenchmarkState.Report, String, String) -> String
     ) {
-        private val context = InstrumentationRegistry.getInstrumentation().targetContext!!
-        val file =
-            File("/data/data/${context.packageName}/benchmark_reports/benchmarkdata.$extension")
+        val file: File
+            get() = File(BenchmarkPlatform.reportDirectory, "benchmarkdata.$extension")
         var currentContent = initial
 
         val fullFileContent: String
@@ -101,7 +127,7 @@ internal object ResultWriter {
 
     fun appendStats(name: String, className: String, report: BenchmarkState.Report) {
         for (fileManager in fileManagers) {
-            fileManager.append(report, WarningState.WARNING_PREFIX + name, className)
+            fileManager.append(report, BenchmarkPlatform.warningPrefix + name, className)
             fileManager.file.run {
                 if (!exists()) {
                     parentFile.mkdirs()
@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.benchmark;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Provides statistics such as mean, median, min, max, percentiles and a histogram, given a list
+ * of input values.
+ */
+final class Stats {
+    /**
+     * Each power of two range of the histogram is split into 2^HISTOGRAM_SUB_BUCKET_BITS buckets,
+     * so a bucket is at most 1/8 of its lower bound wide.
+     */
+    private static final int HISTOGRAM_SUB_BUCKET_BITS = 3;
+
+    private long mMedian, mMin, mMax, mPercentile90, mPercentile95, mPercentile99, mPercentile999;
+    private double mMean, mStandardDeviation;
+    private long[] mHistogramBucketStarts;
+    private int[] mHistogramCounts;
+
+    /* Calculate stats in constructor. */
+    public Stats(@NonNull List<Long> values) {
+        this(toArray(values));
+    }
+
+    /* Calculate stats in constructor. */
+    public Stats(@NonNull long[] values) {
+        // make a copy since we're modifying it
+        values = Arrays.copyOf(values, values.length);
+        final int size = values.length;
+        if (size < 2) {
+            throw new IllegalArgumentException("At least two results are necessary.");
+        }
+
+        Arrays.sort(values);
+
+        mMin = values[0];
+        mMax = values[size - 1];
+
+        mMedian = size % 2 == 0
+                ? (values[size / 2] + values[size / 2 - 1]) / 2
+                : values[size / 2];
+        mPercentile90 = getPercentile(values, 90);
+        mPercentile95 = getPercentile(values, 95);
+        mPercentile99 = getPercentile(values, 99);
+        mPercentile999 = getPerMille(values, 999);
+
+        for (int i = 0; i < size; ++i) {
+            mMean += values[i];
+        }
+        mMean /= (double) size;
+
+        for (int i = 0; i < size; ++i) {
+            final double tmp = values[i] - mMean;
+            mStandardDeviation += tmp * tmp;
+        }
+        mStandardDeviation = Math.sqrt(mStandardDeviation / (double) (size - 1));
+
+        computeHistogram(values);
+    }
+
+    public double getMean() {
+        return mMean;
+    }
+
+    public long getMedian() {
+        return mMedian;
+    }
+
+    public long getMax() {
+        return mMax;
+    }
+
+    public long getMin() {
+        return mMin;
+    }
+
+    public double getStandardDeviation() {
+        return mStandardDeviation;
+    }
+
+    public long getPercentile90() {
+        return mPercentile90;
+    }
+
+    public long getPercentile95() {
+        return mPercentile95;
+    }
+
+    public long getPercentile99() {
+        return mPercentile99;
+    }
+
+    public long getPercentile999() {
+        return mPercentile999;
+    }
+
+    /**
+     * Returns the lower bounds of the non-empty histogram buckets, in ascending order.
+     */
+    @NonNull
+    public long[] getHistogramBucketStarts() {
+        return mHistogramBucketStarts;
+    }
+
+    /**
+     * Returns the number of values in each bucket of {@link #getHistogramBucketStarts()}.
+     */
+    @NonNull
+    public int[] getHistogramCounts() {
+        return mHistogramCounts;
+    }
+
+    /**
+     * Returns the lower bound of the histogram bucket of the given value. Values below
+     * 2^HISTOGRAM_SUB_BUCKET_BITS have their own bucket, larger values share a bucket with the
+     * values that have the same HISTOGRAM_SUB_BUCKET_BITS + 1 highest bits.
+     */
+    static long getHistogramBucketStart(long value) {
+        if (value < (1 << HISTOGRAM_SUB_BUCKET_BITS)) {
+            return Math.max(value, 0);
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - HISTOGRAM_SUB_BUCKET_BITS;
+        return (value >> shift) << shift;
+    }
+
+    private void computeHistogram(long[] sortedValues) {
+        long[] starts = new long[sortedValues.length];
+        int[] counts = new int[sortedValues.length];
+        int buckets = 0;
+        for (long value : sortedValues) {
+            long start = getHistogramBucketStart(value);
+            if (buckets == 0 || starts[buckets - 1] != start) {
+                starts[buckets++] = start;
+            }
+            counts[buckets - 1]++;
+        }
+        mHistogramBucketStarts = Arrays.copyOf(starts, buckets);
+        mHistogramCounts = Arrays.copyOf(counts, buckets);
+    }
+
+    private static long getPercentile(long[] values, int percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException(
+                    "invalid percentile " + percentile + ", should be 0-100");
+        }
+        return getPerMille(values, percentile * 10);
+    }
+
+    private static long getPerMille(long[] values, int perMille) {
+        int idx = (int) ((values.length - 1) * (long) perMille / 1000);
+        return values[idx];
+    }
+
+    private static long[] toArray(List<Long> values) {
+        long[] array = new long[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+}
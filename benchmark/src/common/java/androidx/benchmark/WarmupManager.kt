@@ -16,8 +16,6 @@
 
 package androidx.benchmark
 
-import android.util.Log
-
 import java.util.concurrent.TimeUnit
 
 /**
@@ -76,7 +74,7 @@ internal class WarmupManager {
             if (similarIterationCount > MIN_SIMILAR_ITERATIONS ||
                 totalDuration >= MAX_DURATION_NS) {
                 // benchmark has stabilized, or we're out of time
-                Log.d(
+                BenchmarkPlatform.logDebug(
                     "WarmupManager", String.format(
                         "Complete: t=%.3f, iter=%d, fastAvg=%3.0f, slowAvg=%3.0f",
                         totalDuration / 1e9,
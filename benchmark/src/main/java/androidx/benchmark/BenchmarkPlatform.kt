@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.benchmark
+
+import android.app.Activity
+import android.os.Build
+import android.os.Debug
+import android.util.Log
+import androidx.test.platform.app.InstrumentationRegistry
+import java.io.File
+
+/**
+ * The parts of running a benchmark that differ between an Android device and a host JVM, for the
+ * benchmark code shared with the host runner.
+ */
+internal object BenchmarkPlatform {
+    /** The directory that [ResultWriter] writes the reports to. */
+    val reportDirectory: File
+        get() {
+            val context = InstrumentationRegistry.getInstrumentation().targetContext
+            return File("/data/data/${context.packageName}/benchmark_reports")
+        }
+
+    /** Prepended to the names of the results to flag unreliable runs. */
+    val warningPrefix: String
+        get() = WarningState.WARNING_PREFIX
+
+    /**
+     * Sends the results of a finished benchmark as instrumentation status, which shows them in
+     * Android Studio and on the gradle command line.
+     */
+    fun reportStatus(state: BenchmarkState, testName: String) {
+        InstrumentationRegistry.getInstrumentation().sendStatus(
+            Activity.RESULT_OK,
+            state.getFullStatusReport(WarningState.WARNING_PREFIX + testName)
+        )
+    }
+
+    fun createAllocationCounter(): AllocationCounter? {
+        if (System.getProperty("java.vm.name") == "Dalvik") {
+            return ArtAllocationCounter()
+        }
+        return AllocationCounter.createJvm()
+    }
+
+    fun startProfiling() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            // TODO: support data dir for old platforms
+            val f = File(
+                InstrumentationRegistry.getInstrumentation().context.dataDir,
+                "benchprof"
+            )
+            Log.d(BenchmarkState.TAG, "Tracing to: " + f.absolutePath)
+            Debug.startMethodTracingSampling(f.absolutePath, 16 * 1024 * 1024, 100)
+        }
+    }
+
+    fun stopProfiling() {
+        Debug.stopMethodTracing()
+    }
+
+    fun logInfo(tag: String, message: String) {
+        Log.i(tag, message)
+    }
+
+    fun logDebug(tag: String, message: String) {
+        Log.d(tag, message)
+    }
+
+    /**
+     * Uses the allocation statistics of ART. Enabling them instruments every allocation, which is
+     * why they are only enabled outside of the timed runs.
+     */
+    @Suppress("DEPRECATION")
+    private class ArtAllocationCounter : AllocationCounter() {
+        override val countsAllocations = true
+
+        override fun enable() = Debug.startAllocCounting()
+
+        override fun disable() = Debug.stopAllocCounting()
+
+        override fun currentCount() = Debug.getThreadAllocCount().toLong()
+
+        override fun currentBytes() = Debug.getThreadAllocSize().toLong()
+    }
+}
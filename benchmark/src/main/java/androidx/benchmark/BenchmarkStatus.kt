@@ -0,0 +1,64 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.benchmark
+
+import android.os.Bundle
+import android.util.Log
+
+private const val STUDIO_OUTPUT_KEY_PREFIX = "android.studio.display."
+private const val STUDIO_OUTPUT_KEY_ID = "benchmark"
+
+private fun BenchmarkState.ideSummaryLineWrapped(key: String): String {
+    val warningLines = WarningState.acquireWarningStringForLogging()?.split("\n") ?: listOf()
+    return (warningLines + ideSummaryLine(key))
+        // remove first line if empty
+        .filterIndexed { index, it -> index != 0 || !it.isEmpty() }
+        // join, prepending key to everything but first string, to make each line look the same
+        .joinToString("\n$STUDIO_OUTPUT_KEY_ID: ")
+}
+
+/**
+ * Acquires a status report bundle
+ *
+ * @param key Run identifier, prepended to bundle properties.
+ */
+internal fun BenchmarkState.getFullStatusReport(key: String): Bundle {
+    Log.i(BenchmarkState.TAG, key + summaryLine())
+    Log.i(BenchmarkState.CSV_TAG, csvLine(key))
+    val status = Bundle()
+
+    val prefix = WarningState.WARNING_PREFIX
+    status.putLong("${prefix}median", median())
+    status.putLong("${prefix}mean", mean())
+    status.putLong("${prefix}min", min())
+    status.putLong("${prefix}standardDeviation", standardDeviation())
+    status.putLong("${prefix}count", count())
+    val report = getReport()
+    report.sampleStats?.let {
+        status.putLong("${prefix}percentile90", it.percentile90)
+        status.putLong("${prefix}percentile95", it.percentile95)
+        status.putLong("${prefix}percentile99", it.percentile99)
+        status.putLong("${prefix}percentile999", it.percentile999)
+    }
+    report.allocationsPerIteration?.let { status.putDouble("${prefix}allocations", it) }
+    report.allocatedBytesPerIteration?.let { status.putDouble("${prefix}allocatedBytes", it) }
+    status.putString(
+        STUDIO_OUTPUT_KEY_PREFIX + STUDIO_OUTPUT_KEY_ID,
+        ideSummaryLineWrapped(key)
+    )
+    return status
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection.benchmark
+
+import androidx.benchmark.BenchmarkRule
+import androidx.benchmark.measureRepeated
+import androidx.collection.ArrayMap
+import androidx.collection.ArraySet
+import androidx.test.filters.LargeTest
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+
+/**
+ * Compares [ArrayMap] and [ArraySet] with [HashMap] and [HashSet] on both sides of the size at
+ * which they start indexing their entries with a hash table.
+ */
+@LargeTest
+@RunWith(Parameterized::class)
+class ArrayMapBenchmark(private val size: Int) {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val keys = Array(size) { "key $it" }
+    private val missingKeys = Array(size) { "missing $it" }
+
+    private val arrayMap = ArrayMap<String, String>()
+    private val hashMap = HashMap<String, String>()
+    private val arraySet = ArraySet<String>()
+
+    init {
+        for (key in keys) {
+            arrayMap[key] = key
+            hashMap[key] = key
+            arraySet.add(key)
+        }
+    }
+
+    @Test
+    fun arrayMap_put() {
+        benchmarkRule.measureRepeated {
+            val map = ArrayMap<String, String>()
+            for (key in keys) {
+                map[key] = key
+            }
+        }
+    }
+
+    @Test
+    fun hashMap_put() {
+        benchmarkRule.measureRepeated {
+            val map = HashMap<String, String>()
+            for (key in keys) {
+                map[key] = key
+            }
+        }
+    }
+
+    @Test
+    fun arraySet_add() {
+        benchmarkRule.measureRepeated {
+            val set = ArraySet<String>()
+            for (key in keys) {
+                set.add(key)
+            }
+        }
+    }
+
+    @Test
+    fun hashSet_add() {
+        benchmarkRule.measureRepeated {
+            val set = HashSet<String>()
+            for (key in keys) {
+                set.add(key)
+            }
+        }
+    }
+
+    @Test
+    fun arrayMap_get() {
+        var found = 0
+        benchmarkRule.measureRepeated {
+            for (i in 0 until size) {
+                if (arrayMap[keys[i]] != null) found++
+                if (arrayMap[missingKeys[i]] != null) found++
+            }
+        }
+        check(found != -1)
+    }
+
+    @Test
+    fun hashMap_get() {
+        var found = 0
+        benchmarkRule.measureRepeated {
+            for (i in 0 until size) {
+                if (hashMap[keys[i]] != null) found++
+                if (hashMap[missingKeys[i]] != null) found++
+            }
+        }
+        check(found != -1)
+    }
+
+    @Test
+    fun arraySet_contains() {
+        var found = 0
+        benchmarkRule.measureRepeated {
+            for (i in 0 until size) {
+                if (arraySet.contains(keys[i])) found++
+                if (arraySet.contains(missingKeys[i])) found++
+            }
+        }
+        check(found != -1)
+    }
+
+    @Test
+    fun arrayMap_removeAndPut() {
+        benchmarkRule.measureRepeated {
+            for (key in keys) {
+                arrayMap.remove(key)
+                arrayMap[key] = key
+            }
+        }
+    }
+
+    @Test
+    fun hashMap_removeAndPut() {
+        benchmarkRule.measureRepeated {
+            for (key in keys) {
+                hashMap.remove(key)
+                hashMap[key] = key
+            }
+        }
+    }
+
+    @Test
+    fun arrayMap_iterate() {
+        var length = 0
+        benchmarkRule.measureRepeated {
+            for (i in 0 until arrayMap.size) {
+                length += arrayMap.valueAt(i).length
+            }
+        }
+        check(length != -1)
+    }
+
+    companion object {
+        @JvmStatic
+        @Parameterized.Parameters(name = "size={0}")
+        fun parameters() = listOf(10, 100, 1_000, 10_000, 100_000)
+    }
+}
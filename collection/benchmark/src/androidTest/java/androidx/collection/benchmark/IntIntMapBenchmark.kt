@@ -0,0 +1,143 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection.benchmark
+
+import androidx.benchmark.BenchmarkRule
+import androidx.benchmark.measureRepeated
+import androidx.collection.IntIntMap
+import androidx.collection.SparseArrayCompat
+import androidx.test.filters.LargeTest
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+import java.util.Random
+
+/**
+ * Compares [IntIntMap] with [HashMap] and [SparseArrayCompat] when filling a map with random keys
+ * and when looking up keys that are present and absent.
+ */
+@LargeTest
+@RunWith(Parameterized::class)
+class IntIntMapBenchmark(private val size: Int) {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val keys = IntArray(size)
+    private val missingKeys = IntArray(size)
+
+    private val intIntMap = IntIntMap()
+    private val hashMap = HashMap<Int, Int>()
+    private val sparseArray = SparseArrayCompat<Int>()
+
+    init {
+        val random = Random(size.toLong())
+        val used = HashSet<Int>()
+        for (i in 0 until size) {
+            var key = random.nextInt()
+            while (!used.add(key)) {
+                key = random.nextInt()
+            }
+            keys[i] = key
+        }
+        for (i in 0 until size) {
+            var key = random.nextInt()
+            while (!used.add(key)) {
+                key = random.nextInt()
+            }
+            missingKeys[i] = key
+        }
+        for (i in 0 until size) {
+            intIntMap.put(keys[i], i)
+            hashMap[keys[i]] = i
+            sparseArray.put(keys[i], i)
+        }
+    }
+
+    @Test
+    fun intIntMap_put() {
+        benchmarkRule.measureRepeated {
+            val map = IntIntMap()
+            for (i in 0 until size) {
+                map.put(keys[i], i)
+            }
+        }
+    }
+
+    @Test
+    fun hashMap_put() {
+        benchmarkRule.measureRepeated {
+            val map = HashMap<Int, Int>()
+            for (i in 0 until size) {
+                map[keys[i]] = i
+            }
+        }
+    }
+
+    @Test
+    fun sparseArray_put() {
+        benchmarkRule.measureRepeated {
+            val map = SparseArrayCompat<Int>()
+            for (i in 0 until size) {
+                map.put(keys[i], i)
+            }
+        }
+    }
+
+    @Test
+    fun intIntMap_get() {
+        var sum = 0
+        benchmarkRule.measureRepeated {
+            for (i in 0 until size) {
+                sum += intIntMap.get(keys[i])
+                sum += intIntMap.get(missingKeys[i], -1)
+            }
+        }
+        check(sum != 1)
+    }
+
+    @Test
+    fun hashMap_get() {
+        var sum = 0
+        benchmarkRule.measureRepeated {
+            for (i in 0 until size) {
+                sum += hashMap[keys[i]]!!
+                sum += hashMap[missingKeys[i]] ?: -1
+            }
+        }
+        check(sum != 1)
+    }
+
+    @Test
+    fun sparseArray_get() {
+        var sum = 0
+        benchmarkRule.measureRepeated {
+            for (i in 0 until size) {
+                sum += sparseArray.get(keys[i])!!
+                sum += sparseArray.get(missingKeys[i], -1)
+            }
+        }
+        check(sum != 1)
+    }
+
+    companion object {
+        @JvmStatic
+        @Parameterized.Parameters(name = "size={0}")
+        fun parameters() = listOf(10, 100, 1_000, 10_000)
+    }
+}
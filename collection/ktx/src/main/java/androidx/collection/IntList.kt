@@ -0,0 +1,52 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+@file:Suppress("NOTHING_TO_INLINE") // Aliases to public API.
+
+package androidx.collection
+
+/** Returns a new [IntList] with the specified contents. */
+fun intListOf(vararg values: Int): IntList {
+    val list = IntList(values.size)
+    @Suppress("LoopToCallChain") // Causes needless copy to a list.
+    for (value in values) {
+        list.add(value)
+    }
+    return list
+}
+
+/** Returns the number of values in the collection. */
+inline val IntList.size get() = size()
+
+/** Return true when the collection contains elements. */
+inline fun IntList.isNotEmpty() = size() != 0
+
+/** Adds [value] to the end of the collection. */
+inline operator fun IntList.plusAssign(value: Int) = add(value)
+
+/** Performs the given [action] for each value. */
+inline fun IntList.forEach(action: (value: Int) -> Unit) {
+    for (index in 0 until size()) {
+        action(get(index))
+    }
+}
+
+/** Return an iterator over the collection's values. */
+operator fun IntList.iterator(): IntIterator = object : IntIterator() {
+    var index = 0
+    override fun hasNext() = index < size()
+    override fun nextInt() = get(index++)
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+@file:Suppress("NOTHING_TO_INLINE") // Aliases to public API.
+
+package androidx.collection
+
+/** Returns the number of key/value pairs in the collection. */
+inline val LongLongMap.size get() = size()
+
+/** Returns true if the collection contains [key]. */
+inline operator fun LongLongMap.contains(key: Long) = containsKey(key)
+
+/** Allows the use of the index operator for storing values in the collection. */
+inline operator fun LongLongMap.set(key: Long, value: Long) = put(key, value)
+
+/** Return the value corresponding to [key], or from [defaultValue] when not present. */
+inline fun LongLongMap.getOrElse(key: Long, defaultValue: () -> Long): Long {
+    val index = indexOfKey(key)
+    return if (index >= 0) valueAt(index) else defaultValue()
+}
+
+/** Return true when the collection contains elements. */
+inline fun LongLongMap.isNotEmpty() = size() != 0
+
+/** Performs the given [action] for each key/value entry. */
+inline fun LongLongMap.forEach(action: (key: Long, value: Long) -> Unit) {
+    for (index in 0 until size()) {
+        action(keyAt(index), valueAt(index))
+    }
+}
+
+/** Return an iterator over the collection's keys. */
+fun LongLongMap.keyIterator(): LongIterator = object : LongIterator() {
+    var index = 0
+    override fun hasNext() = index < size()
+    override fun nextLong() = keyAt(index++)
+}
+
+/** Return an iterator over the collection's values. */
+fun LongLongMap.valueIterator(): LongIterator = object : LongIterator() {
+    var index = 0
+    override fun hasNext() = index < size()
+    override fun nextLong() = valueAt(index++)
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection
+
+import androidx.testutils.fail
+import com.google.common.truth.Truth.assertThat
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class IntIntMapTest {
+    @Test fun sizeProperty() {
+        val map = IntIntMap()
+        assertEquals(0, map.size)
+        map.put(1, 1)
+        assertEquals(1, map.size)
+    }
+
+    @Test fun containsOperator() {
+        val map = IntIntMap()
+        assertFalse(1 in map)
+        map.put(1, 1)
+        assertTrue(1 in map)
+    }
+
+    @Test fun indexOperators() {
+        val map = IntIntMap()
+        map[1] = 2
+        assertEquals(2, map[1])
+    }
+
+    @Test fun getOrElse() {
+        val map = IntIntMap()
+        assertEquals(3, map.getOrElse(1) { 3 })
+        map.put(1, 2)
+        assertEquals(2, map.getOrElse(1) { fail() })
+    }
+
+    @Test fun isNotEmpty() {
+        val map = IntIntMap()
+        assertFalse(map.isNotEmpty())
+        map.put(1, 1)
+        assertTrue(map.isNotEmpty())
+    }
+
+    @Test fun forEach() {
+        val map = IntIntMap()
+        map.forEach { _, _ -> fail() }
+
+        map.put(1, 10)
+        map.put(2, 20)
+        map.put(6, 60)
+
+        val keys = mutableListOf<Int>()
+        val values = mutableListOf<Int>()
+        map.forEach { key, value ->
+            keys.add(key)
+            values.add(value)
+        }
+        assertThat(keys).containsExactly(1, 2, 6)
+        assertThat(values).containsExactly(10, 20, 60)
+    }
+
+    @Test fun keyIterator() {
+        val map = IntIntMap()
+        assertFalse(map.keyIterator().hasNext())
+
+        map.put(1, 10)
+        map.put(2, 20)
+
+        val iterator = map.keyIterator()
+        assertTrue(iterator.hasNext())
+        assertEquals(1, iterator.nextInt())
+        assertTrue(iterator.hasNext())
+        assertEquals(2, iterator.nextInt())
+        assertFalse(iterator.hasNext())
+    }
+
+    @Test fun valueIterator() {
+        val map = IntIntMap()
+        assertFalse(map.valueIterator().hasNext())
+
+        map.put(1, 10)
+        map.put(2, 20)
+
+        val iterator = map.valueIterator()
+        assertTrue(iterator.hasNext())
+        assertEquals(10, iterator.nextInt())
+        assertTrue(iterator.hasNext())
+        assertEquals(20, iterator.nextInt())
+        assertFalse(iterator.hasNext())
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection
+
+import androidx.testutils.fail
+import com.google.common.truth.Truth.assertThat
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class IntListTest {
+    @Test fun intListOfValues() {
+        val list = intListOf(1, 2, 2)
+        assertEquals(3, list.size)
+        assertArrayEquals(intArrayOf(1, 2, 2), list.toArray())
+    }
+
+    @Test fun indexOperators() {
+        val list = intListOf(1, 2)
+        list[0] = 3
+        assertEquals(3, list[0])
+        assertTrue(2 in list)
+    }
+
+    @Test fun plusAssign() {
+        val list = IntList()
+        list += 1
+        list += 2
+        assertArrayEquals(intArrayOf(1, 2), list.toArray())
+    }
+
+    @Test fun isNotEmpty() {
+        val list = IntList()
+        assertFalse(list.isNotEmpty())
+        list.add(1)
+        assertTrue(list.isNotEmpty())
+    }
+
+    @Test fun forEach() {
+        IntList().forEach { fail() }
+
+        val values = mutableListOf<Int>()
+        intListOf(3, 1, 2).forEach { values.add(it) }
+        assertThat(values).containsExactly(3, 1, 2).inOrder()
+    }
+
+    @Test fun iterator() {
+        val values = mutableListOf<Int>()
+        for (value in intListOf(3, 1, 2)) {
+            values.add(value)
+        }
+        assertThat(values).containsExactly(3, 1, 2).inOrder()
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection
+
+import androidx.testutils.fail
+import com.google.common.truth.Truth.assertThat
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class IntSetTest {
+    @Test fun intSetOfValues() {
+        val set = intSetOf(1, 2, 2, 3)
+        assertEquals(3, set.size)
+        assertTrue(2 in set)
+        assertFalse(4 in set)
+    }
+
+    @Test fun isNotEmpty() {
+        val set = IntSet()
+        assertFalse(set.isNotEmpty())
+        set.add(1)
+        assertTrue(set.isNotEmpty())
+    }
+
+    @Test fun forEach() {
+        val set = IntSet()
+        set.forEach { fail() }
+
+        set.add(1)
+        set.add(2)
+
+        val values = mutableListOf<Int>()
+        set.forEach { values.add(it) }
+        assertThat(values).containsExactly(1, 2)
+    }
+
+    @Test fun iterator() {
+        val values = mutableListOf<Int>()
+        for (value in intSetOf(1, 2)) {
+            values.add(value)
+        }
+        assertThat(values).containsExactly(1, 2)
+    }
+}
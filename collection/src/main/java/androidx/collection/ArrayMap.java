@@ -38,11 +38,14 @@ import java.util.Set;
  * <p>If you don't need the standard Java container APIs provided here (iterators etc),
  * consider using {@link SimpleArrayMap} instead.</p>
  *
- * <p>Note that this implementation is not intended to be appropriate for data structures
- * that may contain large numbers of items.  It is generally slower than a traditional
+ * <p>Note that this implementation is generally slower than a traditional
  * HashMap, since lookups require a binary search and adds and removes require inserting
  * and deleting entries in the array.  For containers holding up to hundreds of items,
- * the performance difference is not significant, less than 50%.</p>
+ * the performance difference is not significant, less than 50%.  Once a map grows past
+ * about a thousand items, it also indexes them with a hash table, so that lookups, adds and
+ * removes take constant time; it then appends new items instead of keeping them sorted, and
+ * fills the index of a removed item with the last one.  It goes back to the sorted layout when
+ * an item is added after it has shrunk to a few hundred items.</p>
  *
  * <p>Because this container is intended to better balance memory use, unlike most other
  * standard Java containers it will shrink its array as items are removed from it.  Currently
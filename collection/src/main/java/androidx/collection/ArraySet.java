@@ -20,6 +20,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import java.lang.reflect.Array;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map;
@@ -32,11 +33,14 @@ import java.util.Set;
  * separate from ArrayMap, however, so the Object array contains only one item for each
  * entry in the set (instead of a pair for a mapping).
  *
- * <p>Note that this implementation is not intended to be appropriate for data structures
- * that may contain large numbers of items.  It is generally slower than a traditional
+ * <p>Note that this implementation is generally slower than a traditional
  * HashSet, since lookups require a binary search and adds and removes require inserting
  * and deleting entries in the array.  For containers holding up to hundreds of items,
- * the performance difference is not significant, less than 50%.</p>
+ * the performance difference is not significant, less than 50%.  Once a set grows past
+ * about a thousand items, it also indexes them with a hash table, so that lookups, adds and
+ * removes take constant time; it then appends new items instead of keeping them sorted, and
+ * fills the index of a removed item with the last one.  It goes back to the sorted layout when
+ * an item is added after it has shrunk to a few hundred items.</p>
  *
  * <p>Because this container is intended to better balance memory use, unlike most other
  * standard Java containers it will shrink its array as items are removed from it.  Currently
@@ -72,11 +76,26 @@ public final class ArraySet<E> implements Collection<E>, Set<E> {
     private static @Nullable Object[] sTwiceBaseCache;
     private static int sTwiceBaseCacheSize;
 
+    /**
+     * Once a set grows past this many values, they are also indexed by an open addressing hash
+     * table. See {@link SimpleArrayMap#HASHED_SIZE}.
+     */
+    static final int HASHED_SIZE = SimpleArrayMap.HASHED_SIZE;
+
+    /**
+     * A hashed set goes back to arrays sorted by hash when a value is added while it holds fewer
+     * than this many values.
+     */
+    static final int UNHASHED_SIZE = SimpleArrayMap.UNHASHED_SIZE;
+
     private int[] mHashes;
     @SuppressWarnings("WeakerAccess") /* synthetic access */
     Object[] mArray;
     @SuppressWarnings("WeakerAccess") /* synthetic access */
     int mSize;
+    // For each slot of the hash table, the index of its value plus one, or 0 if the slot is
+    // empty. Null while the values are sorted by hash.
+    @Nullable int[] mSlots;
     private MapCollections<E, E> mCollections;
 
     private int indexOf(Object key, int hash) {
@@ -87,6 +106,11 @@ public final class ArraySet<E> implements Collection<E>, Set<E> {
             return ~0;
         }
 
+        final int[] slots = mSlots;
+        if (slots != null) {
+            return indexOfHashed(slots, key, hash);
+        }
+
         int index = ContainerHelpers.binarySearch(mHashes, N, hash);
 
         // If the hash code wasn't found, then we have no entry for this key.
@@ -125,6 +149,11 @@ public final class ArraySet<E> implements Collection<E>, Set<E> {
             return ~0;
         }
 
+        final int[] slots = mSlots;
+        if (slots != null) {
+            return indexOfHashed(slots, null, 0);
+        }
+
         int index = ContainerHelpers.binarySearch(mHashes, N, 0);
 
         // If the hash code wasn't found, then we have no entry for this key.
@@ -155,6 +184,91 @@ public final class ArraySet<E> implements Collection<E>, Set<E> {
         return ~end;
     }
 
+    private int indexOfHashed(int[] slots, @Nullable Object key, int hash) {
+        final int mask = slots.length - 1;
+        for (int slot = ContainerHelpers.hash(hash) & mask; slots[slot] != 0;
+                slot = (slot + 1) & mask) {
+            final int index = slots[slot] - 1;
+            if (mHashes[index] == hash) {
+                final Object candidate = mArray[index];
+                if (key == null ? candidate == null : key.equals(candidate)) {
+                    return index;
+                }
+            }
+        }
+
+        // Key not found -- new values of a hashed set are appended.
+        return ~mSize;
+    }
+
+    /**
+     * Builds the hash table for the current values, sized for the capacity of the arrays.
+     */
+    private void rehash() {
+        mSlots = new int[ContainerHelpers.hashTableSize(mHashes.length)];
+        for (int i = 0; i < mSize; i++) {
+            insertSlot(mHashes[i], i);
+        }
+    }
+
+    /**
+     * Drops the hash table and sorts the values by hash again.
+     */
+    private void unhash() {
+        final int size = mSize;
+        final long[] order = new long[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = ((long) mHashes[i] << 32) | i;
+        }
+        Arrays.sort(order);
+
+        final int[] hashes = new int[mHashes.length];
+        final Object[] array = new Object[mArray.length];
+        for (int i = 0; i < size; i++) {
+            final int from = (int) order[i];
+            hashes[i] = mHashes[from];
+            array[i] = mArray[from];
+        }
+        mHashes = hashes;
+        mArray = array;
+        mSlots = null;
+    }
+
+    private void insertSlot(int hash, int index) {
+        final int[] slots = mSlots;
+        final int mask = slots.length - 1;
+        int slot = ContainerHelpers.hash(hash) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = index + 1;
+    }
+
+    private int slotOf(int index) {
+        final int[] slots = mSlots;
+        final int mask = slots.length - 1;
+        int slot = ContainerHelpers.hash(mHashes[index]) & mask;
+        while (slots[slot] != index + 1) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Empties the slot, moving back the values that were pushed past it by collisions.
+    private void removeSlot(int slot) {
+        final int[] slots = mSlots;
+        final int mask = slots.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; slots[next] != 0; next = (next + 1) & mask) {
+            final int home = ContainerHelpers.hash(mHashes[slots[next] - 1]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                slots[hole] = slots[next];
+                hole = next;
+            }
+        }
+        slots[hole] = 0;
+    }
+
     @SuppressWarnings("ArrayToString")
     private void allocArrays(final int size) {
         if (size == (BASE_SIZE * 2)) {
@@ -285,6 +399,7 @@ public final class ArraySet<E> implements Collection<E>, Set<E> {
             mArray = OBJECT;
             mSize = 0;
         }
+        mSlots = null;
     }
 
     /**
@@ -301,6 +416,9 @@ public final class ArraySet<E> implements Collection<E>, Set<E> {
                 System.arraycopy(oarray, 0, mArray, 0, mSize);
             }
             freeArrays(ohashes, oarray, mSize);
+            if (mSlots != null) {
+                rehash();
+            }
         }
     }
 
@@ -368,6 +486,16 @@ public final class ArraySet<E> implements Collection<E>, Set<E> {
         }
 
         index = ~index;
+        if (mSlots == null ? mSize >= HASHED_SIZE : mSize < UNHASHED_SIZE) {
+            // Only switch layouts when adding a value, which moves values around anyway, so
+            // that removing values while iterating over indices keeps working.
+            if (mSlots == null) {
+                rehash();
+            } else {
+                unhash();
+            }
+            index = ~(value == null ? indexOfNull() : indexOf(value, hash));
+        }
         if (mSize >= mHashes.length) {
             final int n = mSize >= (BASE_SIZE * 2) ? (mSize + (mSize >> 1))
                     : (mSize >= BASE_SIZE ? (BASE_SIZE * 2) : BASE_SIZE);
@@ -385,6 +513,9 @@ public final class ArraySet<E> implements Collection<E>, Set<E> {
             }
 
             freeArrays(ohashes, oarray, mSize);
+            if (mSlots != null) {
+                rehash();
+            }
         }
 
         if (index < mSize) {
@@ -398,6 +529,9 @@ public final class ArraySet<E> implements Collection<E>, Set<E> {
 
         mHashes[index] = hash;
         mArray[index] = value;
+        if (mSlots != null) {
+            insertSlot(hash, index);
+        }
         mSize++;
         return true;
     }
@@ -414,6 +548,10 @@ public final class ArraySet<E> implements Collection<E>, Set<E> {
                 System.arraycopy(array.mHashes, 0, mHashes, 0, N);
                 System.arraycopy(array.mArray, 0, mArray, 0, N);
                 mSize = N;
+                if (array.mSlots != null) {
+                    // The values are not sorted by hash.
+                    rehash();
+                }
             }
         } else {
             for (int i = 0; i < N; i++) {
@@ -444,6 +582,10 @@ public final class ArraySet<E> implements Collection<E>, Set<E> {
      * @return Returns the value that was stored at this index.
      */
     public E removeAt(int index) {
+        if (mSlots != null) {
+            return removeAtHashed(index);
+        }
+
         final Object old = mArray[index];
         if (mSize <= 1) {
             // Now empty.
@@ -494,6 +636,40 @@ public final class ArraySet<E> implements Collection<E>, Set<E> {
         return (E) old;
     }
 
+    private E removeAtHashed(int index) {
+        final Object old = mArray[index];
+        final int nsize = mSize - 1;
+        removeSlot(slotOf(index));
+        if (index < nsize) {
+            // Fill the hole with the last value instead of shifting all of the values after it.
+            mSlots[slotOf(nsize)] = index + 1;
+            mHashes[index] = mHashes[nsize];
+            mArray[index] = mArray[nsize];
+        }
+        mArray[nsize] = null;
+        mSize = nsize;
+
+        if (nsize == 0) {
+            freeArrays(mHashes, mArray, 0);
+            mHashes = INT;
+            mArray = OBJECT;
+            mSlots = null;
+        } else if (mHashes.length > (BASE_SIZE * 2) && nsize < mHashes.length / 3) {
+            final int n = nsize > (BASE_SIZE * 2) ? (nsize + (nsize >> 1)) : (BASE_SIZE * 2);
+
+            if (DEBUG) System.out.println(TAG + " remove: shrink from " + mHashes.length + " to " + n);
+
+            final int[] ohashes = mHashes;
+            final Object[] oarray = mArray;
+            allocArrays(n);
+            System.arraycopy(ohashes, 0, mHashes, 0, nsize);
+            System.arraycopy(oarray, 0, mArray, 0, nsize);
+            freeArrays(ohashes, oarray, nsize);
+            rehash();
+        }
+        return (E) old;
+    }
+
     /**
      * Perform a {@link #remove(Object)} of all values in <var>array</var>
      * @param array The array whose contents are to be removed.
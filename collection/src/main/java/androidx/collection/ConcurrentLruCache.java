@@ -0,0 +1,748 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import static androidx.annotation.RestrictTo.Scope.LIBRARY;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A cache like {@link LruCache} that can be used by many threads at once.
+ *
+ * <p>The entries are split into segments by the hash of their keys, and each segment has its own
+ * lock and a share of the maximum size. Threads that use keys of different segments never wait
+ * for each other. Because every segment is trimmed on its own, entries are evicted in the order
+ * of the chosen policy within a segment, not across the whole cache, and an entry larger than the
+ * share of its segment is evicted right away.
+ *
+ * <p>Two eviction policies are available:
+ * <ul>
+ *     <li>{@link #POLICY_LRU} evicts the least recently used entry, like {@link LruCache}.</li>
+ *     <li>{@link #POLICY_TINY_LFU} keeps new entries in a small LRU window and, when the window
+ *     is full, only lets an entry into the rest of the cache if it was requested more often than
+ *     the entry it would replace. The request frequencies are estimated with a small, periodically
+ *     aged count-min sketch of the key hashes. This protects frequently used entries from being
+ *     flushed by scans of entries that are used once.</li>
+ * </ul>
+ *
+ * <p>The {@link #sizeOf}, {@link #entryRemoved} and {@link #create} hooks behave as they do in
+ * {@link LruCache}, and are called without holding any lock.
+ */
+public class ConcurrentLruCache<K, V> {
+    /** Evicts the least recently used entry of a segment. */
+    public static final int POLICY_LRU = 0;
+    /** Admits entries into the main part of a segment based on their estimated frequency. */
+    public static final int POLICY_TINY_LFU = 1;
+
+    /** @hide */
+    @RestrictTo(LIBRARY)
+    @IntDef({POLICY_LRU, POLICY_TINY_LFU})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface EvictionPolicy {
+    }
+
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 8;
+
+    private final Segment[] mSegments;
+    private final int mSegmentMask;
+    private final int mPolicy;
+
+    // guarded by this
+    private int mMaxSize;
+
+    /**
+     * Creates a least recently used cache.
+     *
+     * @param maxSize for caches that do not override {@link #sizeOf}, this is
+     *     the maximum number of entries in the cache. For all other caches,
+     *     this is the maximum sum of the sizes of the entries in this cache.
+     */
+    public ConcurrentLruCache(int maxSize) {
+        this(maxSize, DEFAULT_CONCURRENCY_LEVEL, POLICY_LRU);
+    }
+
+    /**
+     * @param maxSize for caches that do not override {@link #sizeOf}, this is
+     *     the maximum number of entries in the cache. For all other caches,
+     *     this is the maximum sum of the sizes of the entries in this cache.
+     * @param concurrencyLevel the number of threads expected to use the cache at the same time.
+     *     The cache is split into at least this many segments, unless maxSize is smaller.
+     * @param policy the eviction policy, either {@link #POLICY_LRU} or
+     *     {@link #POLICY_TINY_LFU}.
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentLruCache(int maxSize, int concurrencyLevel, @EvictionPolicy int policy) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("concurrencyLevel <= 0");
+        }
+        if (policy != POLICY_LRU && policy != POLICY_TINY_LFU) {
+            throw new IllegalArgumentException("Unknown eviction policy " + policy);
+        }
+        int segmentCount = Integer.highestOneBit(Math.min(concurrencyLevel, 1 << 16));
+        if (segmentCount < concurrencyLevel) {
+            segmentCount <<= 1;
+        }
+        // every segment must be able to hold an entry
+        segmentCount = Math.min(segmentCount, Integer.highestOneBit(maxSize));
+
+        mPolicy = policy;
+        mMaxSize = maxSize;
+        mSegmentMask = segmentCount - 1;
+        // Segment is an inner class of a generic class, so the array has to be created raw
+        @SuppressWarnings({"unchecked", "rawtypes"}) Segment[] segments =
+                new ConcurrentLruCache.Segment[segmentCount];
+        mSegments = segments;
+        for (int i = 0; i < segmentCount; i++) {
+            mSegments[i] = new Segment(segmentMaxSize(maxSize, i));
+        }
+    }
+
+    /**
+     * Sets the size of the cache.
+     *
+     * @param maxSize The new maximum size.
+     */
+    public void resize(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        synchronized (this) {
+            mMaxSize = maxSize;
+        }
+        for (int i = 0; i < mSegments.length; i++) {
+            final Segment segment = mSegments[i];
+            synchronized (segment) {
+                segment.mMaxSize = segmentMaxSize(maxSize, i);
+            }
+            trimSegment(segment, -2);
+        }
+    }
+
+    /**
+     * Returns the eviction policy of the cache.
+     *
+     * @return {@link #POLICY_LRU} or {@link #POLICY_TINY_LFU}.
+     */
+    @EvictionPolicy
+    public final int getEvictionPolicy() {
+        return mPolicy;
+    }
+
+    /**
+     * Returns the value for {@code key} if it exists in the cache or can be
+     * created by {@code #create}. If a value was returned, it is moved to the
+     * head of the queue of its segment. This returns null if a value is not
+     * cached and cannot be created.
+     */
+    @Nullable
+    public final V get(@NonNull K key) {
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        }
+
+        final int hash = ContainerHelpers.hash(key.hashCode());
+        final Segment segment = segmentFor(hash);
+        V mapValue;
+        synchronized (segment) {
+            mapValue = segment.get(key, hash);
+            if (mapValue != null) {
+                segment.mHitCount++;
+                return mapValue;
+            }
+            segment.mMissCount++;
+        }
+
+        /*
+         * Attempt to create a value. This may take a long time, and the map
+         * may be different when create() returns. If a conflicting value was
+         * added to the map while create() was working, we leave that value in
+         * the map and release the created value.
+         */
+
+        V createdValue = create(key);
+        if (createdValue == null) {
+            return null;
+        }
+
+        synchronized (segment) {
+            segment.mCreateCount++;
+            mapValue = segment.peek(key);
+            if (mapValue == null) {
+                segment.put(key, createdValue);
+            }
+        }
+
+        if (mapValue != null) {
+            entryRemoved(false, key, createdValue, mapValue);
+            return mapValue;
+        } else {
+            trimSegment(segment, -2);
+            return createdValue;
+        }
+    }
+
+    /**
+     * Caches {@code value} for {@code key}. The value is moved to the head of
+     * the queue of its segment.
+     *
+     * @return the previous value mapped by {@code key}.
+     */
+    @Nullable
+    public final V put(@NonNull K key, @NonNull V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException("key == null || value == null");
+        }
+
+        final Segment segment = segmentFor(ContainerHelpers.hash(key.hashCode()));
+        V previous;
+        synchronized (segment) {
+            segment.mPutCount++;
+            previous = segment.put(key, value);
+        }
+
+        if (previous != null) {
+            entryRemoved(false, key, previous, value);
+        }
+
+        trimSegment(segment, -2);
+        return previous;
+    }
+
+    /**
+     * Removes the entry for {@code key} if it exists.
+     *
+     * @return the previous value mapped by {@code key}.
+     */
+    @Nullable
+    public final V remove(@NonNull K key) {
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        }
+
+        final Segment segment = segmentFor(ContainerHelpers.hash(key.hashCode()));
+        V previous;
+        synchronized (segment) {
+            previous = segment.remove(key);
+        }
+
+        if (previous != null) {
+            entryRemoved(false, key, previous, null);
+        }
+
+        return previous;
+    }
+
+    /**
+     * Remove entries until the total of remaining entries is at or below the
+     * requested size. Each segment is trimmed to its share of the requested size.
+     *
+     * @param maxSize the maximum size of the cache before returning. May be -1
+     *            to evict even 0-sized elements.
+     */
+    public void trimToSize(int maxSize) {
+        for (int i = 0; i < mSegments.length; i++) {
+            trimSegment(mSegments[i], maxSize < 0 ? -1 : segmentMaxSize(maxSize, i));
+        }
+    }
+
+    /**
+     * Called for entries that have been evicted or removed. This method is
+     * invoked when a value is evicted to make space, removed by a call to
+     * {@link #remove}, or replaced by a call to {@link #put}. The default
+     * implementation does nothing.
+     *
+     * <p>The method is called without synchronization: other threads may
+     * access the cache while this method is executing.
+     *
+     * @param evicted true if the entry is being removed to make space, false
+     *     if the removal was caused by a {@link #put} or {@link #remove}.
+     * @param newValue the new value for {@code key}, if it exists. If non-null,
+     *     this removal was caused by a {@link #put}. Otherwise it was caused by
+     *     an eviction or a {@link #remove}.
+     */
+    protected void entryRemoved(boolean evicted, @NonNull K key, @NonNull V oldValue,
+            @Nullable V newValue) {
+    }
+
+    /**
+     * Called after a cache miss to compute a value for the corresponding key.
+     * Returns the computed value or null if no value can be computed. The
+     * default implementation returns null.
+     *
+     * <p>The method is called without synchronization: other threads may
+     * access the cache while this method is executing.
+     *
+     * <p>If a value for {@code key} exists in the cache when this method
+     * returns, the created value will be released with {@link #entryRemoved}
+     * and discarded. This can occur when multiple threads request the same key
+     * at the same time (causing multiple values to be created), or when one
+     * thread calls {@link #put} while another is creating a value for the same
+     * key.
+     */
+    @Nullable
+    protected V create(@NonNull K key) {
+        return null;
+    }
+
+    /**
+     * Returns the size of the entry for {@code key} and {@code value} in
+     * user-defined units.  The default implementation returns 1 so that size
+     * is the number of entries and max size is the maximum number of entries.
+     *
+     * <p>An entry's size must not change while it is in the cache. This method is called while
+     * the lock of the entry's segment is held.
+     */
+    protected int sizeOf(@NonNull K key, @NonNull V value) {
+        return 1;
+    }
+
+    /**
+     * Clear the cache, calling {@link #entryRemoved} on each removed entry.
+     */
+    public final void evictAll() {
+        trimToSize(-1); // -1 will evict 0-sized elements
+    }
+
+    /**
+     * For caches that do not override {@link #sizeOf}, this returns the number
+     * of entries in the cache. For all other caches, this returns the sum of
+     * the sizes of the entries in this cache.
+     */
+    public final int size() {
+        int size = 0;
+        for (Segment segment : mSegments) {
+            synchronized (segment) {
+                size += segment.mSize;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * For caches that do not override {@link #sizeOf}, this returns the maximum
+     * number of entries in the cache. For all other caches, this returns the
+     * maximum sum of the sizes of the entries in this cache.
+     */
+    public synchronized final int maxSize() {
+        return mMaxSize;
+    }
+
+    /**
+     * Returns the number of times {@link #get} returned a value that was
+     * already present in the cache.
+     */
+    public final int hitCount() {
+        int count = 0;
+        for (Segment segment : mSegments) {
+            synchronized (segment) {
+                count += segment.mHitCount;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of times {@link #get} returned null or required a new
+     * value to be created.
+     */
+    public final int missCount() {
+        int count = 0;
+        for (Segment segment : mSegments) {
+            synchronized (segment) {
+                count += segment.mMissCount;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of times {@link #create(Object)} returned a value.
+     */
+    public final int createCount() {
+        int count = 0;
+        for (Segment segment : mSegments) {
+            synchronized (segment) {
+                count += segment.mCreateCount;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of times {@link #put} was called.
+     */
+    public final int putCount() {
+        int count = 0;
+        for (Segment segment : mSegments) {
+            synchronized (segment) {
+                count += segment.mPutCount;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of values that have been evicted.
+     */
+    public final int evictionCount() {
+        int count = 0;
+        for (Segment segment : mSegments) {
+            synchronized (segment) {
+                count += segment.mEvictionCount;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns a copy of the current contents of the cache. The entries of each segment are
+     * ordered from the first to the last to be evicted.
+     */
+    @NonNull
+    public final Map<K, V> snapshot() {
+        final LinkedHashMap<K, V> snapshot = new LinkedHashMap<>();
+        for (Segment segment : mSegments) {
+            synchronized (segment) {
+                if (segment.mMain != null) {
+                    snapshot.putAll(segment.mMain);
+                }
+                snapshot.putAll(segment.mWindow);
+            }
+        }
+        return snapshot;
+    }
+
+    @Override
+    public final String toString() {
+        int hits = hitCount();
+        int misses = missCount();
+        int accesses = hits + misses;
+        int hitPercent = accesses != 0 ? (100 * hits / accesses) : 0;
+        return String.format(Locale.US,
+                "ConcurrentLruCache[maxSize=%d,hits=%d,misses=%d,hitRate=%d%%]",
+                maxSize(), hits, misses, hitPercent);
+    }
+
+    private Segment segmentFor(int hash) {
+        // the low bits pick the slot in the frequency sketch
+        return mSegments[(hash >>> 16) & mSegmentMask];
+    }
+
+    private int segmentMaxSize(int maxSize, int index) {
+        final int count = mSegments.length;
+        return maxSize / count + (index < maxSize % count ? 1 : 0);
+    }
+
+    /**
+     * Evicts entries of the segment until it fits the given size, or its own maximum size if
+     * the given size is -2.
+     */
+    private void trimSegment(Segment segment, int maxSize) {
+        while (true) {
+            K key;
+            V value;
+            synchronized (segment) {
+                Map.Entry<K, V> toEvict = segment.evictOne(maxSize == -2 ? segment.mMaxSize
+                        : maxSize);
+                if (toEvict == null) {
+                    break;
+                }
+                key = toEvict.getKey();
+                value = toEvict.getValue();
+            }
+
+            entryRemoved(true, key, value, null);
+        }
+    }
+
+    int safeSizeOf(K key, V value) {
+        int result = sizeOf(key, value);
+        if (result < 0) {
+            throw new IllegalStateException("Negative size: " + key + "=" + value);
+        }
+        return result;
+    }
+
+    /**
+     * A part of the cache with its own lock. All of its fields are guarded by the segment.
+     */
+    private final class Segment {
+        // The LRU list of new entries for POLICY_TINY_LFU, or of all entries for POLICY_LRU.
+        final LinkedHashMap<K, V> mWindow = new LinkedHashMap<>(0, 0.75f, true);
+        // The LRU list of the entries admitted from the window, only for POLICY_TINY_LFU.
+        @Nullable
+        final LinkedHashMap<K, V> mMain;
+        @Nullable
+        final FrequencySketch mSketch;
+
+        int mMaxSize;
+        int mSize;
+        int mWindowSize;
+
+        int mPutCount;
+        int mCreateCount;
+        int mEvictionCount;
+        int mHitCount;
+        int mMissCount;
+
+        Segment(int maxSize) {
+            mMaxSize = maxSize;
+            if (mPolicy == POLICY_TINY_LFU) {
+                mMain = new LinkedHashMap<>(0, 0.75f, true);
+                mSketch = new FrequencySketch(maxSize);
+            } else {
+                mMain = null;
+                mSketch = null;
+            }
+        }
+
+        V get(K key, int hash) {
+            if (mSketch != null) {
+                mSketch.increment(hash);
+            }
+            V value = mWindow.get(key);
+            if (value == null && mMain != null) {
+                value = mMain.get(key);
+            }
+            return value;
+        }
+
+        // Returns the value without counting an access.
+        V peek(K key) {
+            V value = mWindow.get(key);
+            if (value == null && mMain != null) {
+                value = mMain.get(key);
+            }
+            return value;
+        }
+
+        V put(K key, V value) {
+            if (mSketch != null) {
+                mSketch.increment(ContainerHelpers.hash(key.hashCode()));
+            }
+            final int size = safeSizeOf(key, value);
+            V previous;
+            if (mMain != null && mMain.containsKey(key)) {
+                previous = mMain.put(key, value);
+            } else {
+                previous = mWindow.put(key, value);
+                mWindowSize += size;
+                if (previous != null) {
+                    mWindowSize -= safeSizeOf(key, previous);
+                }
+            }
+            mSize += size;
+            if (previous != null) {
+                mSize -= safeSizeOf(key, previous);
+            }
+            return previous;
+        }
+
+        V remove(K key) {
+            V previous = mWindow.remove(key);
+            if (previous != null) {
+                final int size = safeSizeOf(key, previous);
+                mWindowSize -= size;
+                mSize -= size;
+            } else if (mMain != null) {
+                previous = mMain.remove(key);
+                if (previous != null) {
+                    mSize -= safeSizeOf(key, previous);
+                }
+            }
+            return previous;
+        }
+
+        /**
+         * Moves entries from the window to the main list while there is room, and removes the
+         * next entry to evict if the segment is larger than maxSize.
+         *
+         * @return The evicted entry, or null if the segment fits.
+         */
+        @Nullable
+        Map.Entry<K, V> evictOne(int maxSize) {
+            if (mSize < 0 || (mWindow.isEmpty() && (mMain == null || mMain.isEmpty())
+                    && mSize != 0)) {
+                throw new IllegalStateException(ConcurrentLruCache.this.getClass().getName()
+                        + ".sizeOf() is reporting inconsistent results!");
+            }
+
+            if (mMain != null) {
+                final int windowMaxSize = Math.max(1, maxSize / 100);
+                while (mWindowSize > windowMaxSize) {
+                    final Map.Entry<K, V> candidate = eldest(mWindow);
+                    if (mSize <= maxSize) {
+                        // there is room, so the candidate does not need to compete
+                        moveToMain(candidate);
+                        continue;
+                    }
+                    final Map.Entry<K, V> victim = eldest(mMain);
+                    if (victim != null && frequency(candidate) > frequency(victim)) {
+                        moveToMain(candidate);
+                        return removeEldest(mMain, false);
+                    }
+                    return removeEldest(mWindow, true);
+                }
+            }
+
+            if (mSize <= maxSize) {
+                return null;
+            }
+            if (mMain != null && !mMain.isEmpty()) {
+                return removeEldest(mMain, false);
+            }
+            if (!mWindow.isEmpty()) {
+                return removeEldest(mWindow, true);
+            }
+            return null;
+        }
+
+        private int frequency(Map.Entry<K, V> entry) {
+            //noinspection ConstantConditions
+            return mSketch.frequency(ContainerHelpers.hash(entry.getKey().hashCode()));
+        }
+
+        private void moveToMain(Map.Entry<K, V> entry) {
+            final K key = entry.getKey();
+            final V value = entry.getValue();
+            mWindow.remove(key);
+            mWindowSize -= safeSizeOf(key, value);
+            //noinspection ConstantConditions
+            mMain.put(key, value);
+        }
+
+        private Map.Entry<K, V> removeEldest(LinkedHashMap<K, V> map, boolean window) {
+            final Iterator<Map.Entry<K, V>> iterator = map.entrySet().iterator();
+            final Map.Entry<K, V> entry = iterator.next();
+            final K key = entry.getKey();
+            final V value = entry.getValue();
+            iterator.remove();
+            final int size = safeSizeOf(key, value);
+            mSize -= size;
+            if (window) {
+                mWindowSize -= size;
+            }
+            mEvictionCount++;
+            return new SimpleEntry<>(key, value);
+        }
+
+        @Nullable
+        private Map.Entry<K, V> eldest(LinkedHashMap<K, V> map) {
+            return map.isEmpty() ? null : map.entrySet().iterator().next();
+        }
+    }
+
+    /**
+     * Estimates how often keys were requested with a count-min sketch of 4-bit counters, two to a
+     * byte. There are 16 counters per entry the segment can hold, for up to
+     * {@link #MAX_ENTRIES} entries. All counters are halved after ten increments per entry, so
+     * that the estimates follow changes in popularity.
+     */
+    static final class FrequencySketch {
+        private static final int MAX_ENTRIES = 1 << 10;
+        private static final int MAX_COUNT = 15;
+        private static final int[] SEEDS = {0x97CB3127, 0xB492B66F, 0x9AE16A3B, 0xC2B2AE35};
+
+        private final byte[] mTable;
+        private final int mMask;
+        private final int mSampleSize;
+        private int mAdditions;
+
+        FrequencySketch(int maxSize) {
+            final int entries = Integer.highestOneBit(
+                    Math.max(1, Math.min(maxSize, MAX_ENTRIES)) * 2 - 1);
+            mTable = new byte[entries * 8];
+            mMask = entries * 16 - 1;
+            mSampleSize = entries * 10;
+        }
+
+        void increment(int hash) {
+            boolean added = false;
+            for (int i = 0; i < SEEDS.length; i++) {
+                final int index = indexOf(hash, i);
+                final int shift = (index & 1) << 2;
+                if (((mTable[index >> 1] >> shift) & MAX_COUNT) < MAX_COUNT) {
+                    mTable[index >> 1] += (byte) (1 << shift);
+                    added = true;
+                }
+            }
+            if (added && ++mAdditions == mSampleSize) {
+                reset();
+            }
+        }
+
+        int frequency(int hash) {
+            int frequency = MAX_COUNT;
+            for (int i = 0; i < SEEDS.length; i++) {
+                final int index = indexOf(hash, i);
+                frequency = Math.min(frequency,
+                        (mTable[index >> 1] >> ((index & 1) << 2)) & MAX_COUNT);
+            }
+            return frequency;
+        }
+
+        private int indexOf(int hash, int i) {
+            int h = (hash + SEEDS[i]) * SEEDS[i];
+            return (h ^ (h >>> 16)) & mMask;
+        }
+
+        private void reset() {
+            for (int i = 0; i < mTable.length; i++) {
+                mTable[i] = (byte) (((mTable[i] & 0xFF) >>> 1) & 0x77);
+            }
+            mAdditions /= 2;
+        }
+    }
+
+    private static final class SimpleEntry<K, V> implements Map.Entry<K, V> {
+        private final K mKey;
+        private final V mValue;
+
+        SimpleEntry(K key, V value) {
+            mKey = key;
+            mValue = value;
+        }
+
+        @Override
+        public K getKey() {
+            return mKey;
+        }
+
+        @Override
+        public V getValue() {
+            return mValue;
+        }
+
+        @Override
+        public V setValue(V value) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
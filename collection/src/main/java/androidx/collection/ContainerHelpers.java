@@ -80,6 +80,31 @@ class ContainerHelpers {
         return ~lo;  // value not present
     }
 
+    /**
+     * Returns the number of slots of the open addressing table used for the given number of
+     * entries by the primitive hash containers, a power of two that keeps the table at most half
+     * full.
+     */
+    static int hashTableSize(int capacity) {
+        if (capacity == 0) {
+            return 0;
+        }
+        if (capacity > 1 << 29) {
+            throw new IllegalArgumentException("capacity must be <= 2^29");
+        }
+        return Integer.highestOneBit(capacity * 2 - 1) << 1;
+    }
+
+    // Spreads the bits of the key so that keys with a common stride don't collide in the table.
+    static int hash(int key) {
+        final int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    static int hash(long key) {
+        return hash((int) (key ^ (key >>> 32)));
+    }
+
     private ContainerHelpers() {
     }
 }
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * IntList is a growable list of int values that does not box them, with O(1) random access and
+ * amortized O(1) append. The list automatically grows its capacity when more values are added
+ * than it can hold.
+ */
+public class IntList implements Cloneable {
+    private int[] mValues;
+    private int mSize;
+
+    /**
+     * Creates a new empty IntList.
+     */
+    public IntList() {
+        this(8);
+    }
+
+    /**
+     * Creates a new empty IntList that will not require any additional memory allocation to
+     * store the specified number of values. If you supply an initial capacity of 0, the list will
+     * be initialized with a light-weight representation not requiring any additional array
+     * allocations.
+     */
+    public IntList(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("capacity must be >= 0");
+        }
+        mValues = initialCapacity == 0 ? ContainerHelpers.EMPTY_INTS : new int[initialCapacity];
+    }
+
+    @Override
+    public IntList clone() {
+        IntList clone;
+        try {
+            clone = (IntList) super.clone();
+            clone.mValues = mValues.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e); // Cannot happen as we implement Cloneable.
+        }
+        return clone;
+    }
+
+    /**
+     * Adds the value to the end of the list.
+     */
+    public void add(int value) {
+        ensureCapacity(mSize + 1);
+        mValues[mSize++] = value;
+    }
+
+    /**
+     * Inserts the value at the given index, moving the values at and after it one index up.
+     *
+     * @param index The index to insert at, in the range <code>0...size()</code>.
+     */
+    public void add(int index, int value) {
+        if (index < 0 || index > mSize) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        ensureCapacity(mSize + 1);
+        System.arraycopy(mValues, index, mValues, index + 1, mSize - index);
+        mValues[index] = value;
+        mSize++;
+    }
+
+    /**
+     * Adds all of the values of {@code other} to the end of this list.
+     */
+    public void addAll(@NonNull IntList other) {
+        ensureCapacity(mSize + other.mSize);
+        System.arraycopy(other.mValues, 0, mValues, mSize, other.mSize);
+        mSize += other.mSize;
+    }
+
+    /**
+     * Returns the value at the given index.
+     */
+    public int get(int index) {
+        checkIndex(index);
+        return mValues[index];
+    }
+
+    /**
+     * Replaces the value at the given index.
+     *
+     * @return The value previously at the index.
+     */
+    public int set(int index, int value) {
+        checkIndex(index);
+        final int old = mValues[index];
+        mValues[index] = value;
+        return old;
+    }
+
+    /**
+     * Removes the value at the given index, moving the values after it one index down.
+     *
+     * @return The removed value.
+     */
+    public int removeAt(int index) {
+        checkIndex(index);
+        final int old = mValues[index];
+        System.arraycopy(mValues, index + 1, mValues, index, mSize - index - 1);
+        mSize--;
+        return old;
+    }
+
+    /**
+     * Returns the index of the first occurrence of the value, or -1 if the list does not contain
+     * it.
+     */
+    public int indexOf(int value) {
+        for (int i = 0; i < mSize; i++) {
+            if (mValues[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Returns true if the list contains the specified value. */
+    public boolean contains(int value) {
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * Returns the number of values in this list.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Return true if size() is 0.
+     * @return true if size() is 0.
+     */
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * Removes all values from this list.
+     */
+    public void clear() {
+        mSize = 0;
+    }
+
+    /**
+     * Makes sure the list can hold the given number of values without growing again.
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > mValues.length) {
+            mValues = Arrays.copyOf(mValues, Math.max(minCapacity, mValues.length * 2));
+        }
+    }
+
+    /**
+     * Returns a new array holding the values of this list.
+     */
+    @NonNull
+    public int[] toArray() {
+        return Arrays.copyOf(mValues, mSize);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This implementation composes a string by iterating over its values.
+     */
+    @Override
+    public String toString() {
+        if (mSize <= 0) {
+            return "[]";
+        }
+
+        StringBuilder buffer = new StringBuilder(mSize * 14);
+        buffer.append('[');
+        for (int i = 0; i < mSize; i++) {
+            if (i > 0) {
+                buffer.append(", ");
+            }
+            buffer.append(mValues[i]);
+        }
+        buffer.append(']');
+        return buffer.toString();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * IntSet is a set of int values that does not box them. Unlike {@link ArraySet}, it finds values
+ * with a hash table, so lookups, insertions and removals take constant time on average however
+ * many values it holds, and adding a value does not allocate unless the set has to grow.
+ *
+ * <p>The values are stored in an array that can be iterated over using {@link #valueAt(int)}
+ * with indices from 0 to {@link #size()} - 1. The order of the values is not defined: removing a
+ * value moves the last value into its index, so iterate backwards to remove values while
+ * iterating.</p>
+ */
+public class IntSet implements Cloneable {
+    private int[] mValues;
+    // Open addressing table of the index of each value + 1, or 0 for an empty slot. Its length is
+    // a power of two and at least twice the capacity, so there is always an empty slot.
+    private int[] mSlots;
+    private int mSize;
+
+    /**
+     * Creates a new empty IntSet.
+     */
+    public IntSet() {
+        this(8);
+    }
+
+    /**
+     * Creates a new empty IntSet that will not require any additional memory allocation to store
+     * the specified number of values. If you supply an initial capacity of 0, the set will be
+     * initialized with a light-weight representation not requiring any additional array
+     * allocations.
+     */
+    public IntSet(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("capacity must be >= 0");
+        }
+        if (initialCapacity == 0) {
+            mValues = ContainerHelpers.EMPTY_INTS;
+            mSlots = ContainerHelpers.EMPTY_INTS;
+        } else {
+            mValues = new int[initialCapacity];
+            mSlots = new int[ContainerHelpers.hashTableSize(initialCapacity)];
+        }
+    }
+
+    @Override
+    public IntSet clone() {
+        IntSet clone;
+        try {
+            clone = (IntSet) super.clone();
+            clone.mValues = mValues.clone();
+            clone.mSlots = mSlots.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e); // Cannot happen as we implement Cloneable.
+        }
+        return clone;
+    }
+
+    /**
+     * Adds the specified value to the set.
+     *
+     * @return true if the set did not already contain the value.
+     */
+    public boolean add(int value) {
+        if (indexOf(value) >= 0) {
+            return false;
+        }
+        if (mSize == mValues.length) {
+            resize(mSize < 4 ? 8 : mSize * 2);
+        }
+        final int i = mSize++;
+        mValues[i] = value;
+        insertSlot(value, i);
+        return true;
+    }
+
+    /**
+     * Adds all of the values of {@code other} to this set.
+     */
+    public void addAll(@NonNull IntSet other) {
+        final int required = mSize + other.mSize;
+        if (required > mValues.length) {
+            resize(required);
+        }
+        for (int i = 0, size = other.mSize; i < size; i++) {
+            add(other.mValues[i]);
+        }
+    }
+
+    /**
+     * Removes the specified value from the set, if it is present.
+     *
+     * @return true if the set contained the value.
+     */
+    public boolean remove(int value) {
+        int i = indexOf(value);
+        if (i < 0) {
+            return false;
+        }
+        removeAt(i);
+        return true;
+    }
+
+    /**
+     * Removes the value at the given index. The last value is moved to this index.
+     */
+    public void removeAt(int index) {
+        checkIndex(index);
+        removeSlot(slotOf(index));
+        final int last = --mSize;
+        if (index != last) {
+            mValues[index] = mValues[last];
+            mSlots[slotOf(last)] = index + 1;
+        }
+    }
+
+    /**
+     * Returns the number of values in this set.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Return true if size() is 0.
+     * @return true if size() is 0.
+     */
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * Given an index in the range <code>0...size()-1</code>, returns
+     * the value stored at that index.
+     */
+    public int valueAt(int index) {
+        checkIndex(index);
+        return mValues[index];
+    }
+
+    /**
+     * Returns the index for which {@link #valueAt} would return the
+     * specified value, or -1 if the set does not contain it.
+     */
+    public int indexOf(int value) {
+        final int[] slots = mSlots;
+        if (slots.length == 0) {
+            return -1;
+        }
+        final int mask = slots.length - 1;
+        for (int slot = ContainerHelpers.hash(value) & mask; ; slot = (slot + 1) & mask) {
+            final int entry = slots[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            if (mValues[entry - 1] == value) {
+                return entry - 1;
+            }
+        }
+    }
+
+    /** Returns true if the set contains the specified value. */
+    public boolean contains(int value) {
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * Removes all values from this set.
+     */
+    public void clear() {
+        mSize = 0;
+        Arrays.fill(mSlots, 0);
+    }
+
+    /**
+     * Returns a new array holding the values of this set, in the order of their indices.
+     */
+    @NonNull
+    public int[] toArray() {
+        return Arrays.copyOf(mValues, mSize);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This implementation composes a string by iterating over its values.
+     */
+    @Override
+    public String toString() {
+        if (mSize <= 0) {
+            return "{}";
+        }
+
+        StringBuilder buffer = new StringBuilder(mSize * 14);
+        buffer.append('{');
+        for (int i = 0; i < mSize; i++) {
+            if (i > 0) {
+                buffer.append(", ");
+            }
+            buffer.append(mValues[i]);
+        }
+        buffer.append('}');
+        return buffer.toString();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+    }
+
+    private void resize(int capacity) {
+        mValues = Arrays.copyOf(mValues, capacity);
+        final int tableSize = ContainerHelpers.hashTableSize(capacity);
+        if (tableSize != mSlots.length) {
+            mSlots = new int[tableSize];
+            for (int i = 0; i < mSize; i++) {
+                insertSlot(mValues[i], i);
+            }
+        }
+    }
+
+    private void insertSlot(int value, int index) {
+        final int mask = mSlots.length - 1;
+        int slot = ContainerHelpers.hash(value) & mask;
+        while (mSlots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        mSlots[slot] = index + 1;
+    }
+
+    private int slotOf(int index) {
+        final int mask = mSlots.length - 1;
+        int slot = ContainerHelpers.hash(mValues[index]) & mask;
+        while (mSlots[slot] != index + 1) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Empties the slot, moving back the values after it that would not be found otherwise.
+    private void removeSlot(int slot) {
+        final int[] slots = mSlots;
+        final int mask = slots.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; slots[next] != 0; next = (next + 1) & mask) {
+            final int home = ContainerHelpers.hash(mValues[slots[next] - 1]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                slots[hole] = slots[next];
+                hole = next;
+            }
+        }
+        slots[hole] = 0;
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * LongLongMap maps long keys to long values without boxing either of them. Unlike
+ * {@link LongSparseArray}, it finds keys with a hash table, so lookups, insertions and removals take
+ * constant time on average however many entries it holds, and adding an entry does not
+ * allocate unless the map has to grow.
+ *
+ * <p>The entries are stored in arrays that can be iterated over using {@link #keyAt(int)} and
+ * {@link #valueAt(int)} with indices from 0 to {@link #size()} - 1. The order of the entries is
+ * not defined: removing an entry moves the last entry into its index, so iterate backwards to
+ * remove entries while iterating.</p>
+ */
+public class LongLongMap implements Cloneable {
+    private long[] mKeys;
+    private long[] mValues;
+    // Open addressing table of the index of each entry + 1, or 0 for an empty slot. Its length is
+    // a power of two and at least twice the capacity, so there is always an empty slot.
+    private int[] mSlots;
+    private int mSize;
+
+    /**
+     * Creates a new LongLongMap containing no mappings.
+     */
+    public LongLongMap() {
+        this(8);
+    }
+
+    /**
+     * Creates a new LongLongMap containing no mappings that will not require any additional memory
+     * allocation to store the specified number of mappings. If you supply an initial capacity of
+     * 0, the map will be initialized with a light-weight representation not requiring any
+     * additional array allocations.
+     */
+    public LongLongMap(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("capacity must be >= 0");
+        }
+        if (initialCapacity == 0) {
+            mKeys = ContainerHelpers.EMPTY_LONGS;
+            mValues = ContainerHelpers.EMPTY_LONGS;
+            mSlots = ContainerHelpers.EMPTY_INTS;
+        } else {
+            mKeys = new long[initialCapacity];
+            mValues = new long[initialCapacity];
+            mSlots = new int[ContainerHelpers.hashTableSize(initialCapacity)];
+        }
+    }
+
+    @Override
+    public LongLongMap clone() {
+        LongLongMap clone;
+        try {
+            clone = (LongLongMap) super.clone();
+            clone.mKeys = mKeys.clone();
+            clone.mValues = mValues.clone();
+            clone.mSlots = mSlots.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e); // Cannot happen as we implement Cloneable.
+        }
+        return clone;
+    }
+
+    /**
+     * Gets the value mapped from the specified key, or <code>0</code>
+     * if no such mapping has been made.
+     */
+    public long get(long key) {
+        return get(key, 0);
+    }
+
+    /**
+     * Gets the value mapped from the specified key, or the specified value
+     * if no such mapping has been made.
+     */
+    public long get(long key, long valueIfKeyNotFound) {
+        int i = indexOfKey(key);
+        return i < 0 ? valueIfKeyNotFound : mValues[i];
+    }
+
+    /**
+     * Adds a mapping from the specified key to the specified value,
+     * replacing the previous mapping from the specified key if there
+     * was one.
+     */
+    public void put(long key, long value) {
+        int i = indexOfKey(key);
+        if (i >= 0) {
+            mValues[i] = value;
+            return;
+        }
+        if (mSize == mKeys.length) {
+            resize(mSize < 4 ? 8 : mSize * 2);
+        }
+        i = mSize++;
+        mKeys[i] = key;
+        mValues[i] = value;
+        insertSlot(key, i);
+    }
+
+    /**
+     * Copies all of the mappings from the {@code other} to this map. The effect of this call is
+     * equivalent to that of calling {@link #put(long, long)} on this map once for each mapping
+     * from key to value in {@code other}.
+     */
+    public void putAll(@NonNull LongLongMap other) {
+        final int required = mSize + other.mSize;
+        if (required > mKeys.length) {
+            resize(required);
+        }
+        for (int i = 0, size = other.mSize; i < size; i++) {
+            put(other.mKeys[i], other.mValues[i]);
+        }
+    }
+
+    /**
+     * Removes the mapping from the specified key, if there was any.
+     *
+     * @return true if there was a mapping from the key.
+     */
+    public boolean remove(long key) {
+        int i = indexOfKey(key);
+        if (i < 0) {
+            return false;
+        }
+        removeAt(i);
+        return true;
+    }
+
+    /**
+     * Removes the mapping at the given index. The last mapping is moved to this index.
+     */
+    public void removeAt(int index) {
+        checkIndex(index);
+        removeSlot(slotOf(index));
+        final int last = --mSize;
+        if (index != last) {
+            mKeys[index] = mKeys[last];
+            mValues[index] = mValues[last];
+            mSlots[slotOf(last)] = index + 1;
+        }
+    }
+
+    /**
+     * Returns the number of key-value mappings that this map currently stores.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Return true if size() is 0.
+     * @return true if size() is 0.
+     */
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * Given an index in the range <code>0...size()-1</code>, returns
+     * the key from the <code>index</code>th key-value mapping that this
+     * map stores.
+     */
+    public long keyAt(int index) {
+        checkIndex(index);
+        return mKeys[index];
+    }
+
+    /**
+     * Given an index in the range <code>0...size()-1</code>, returns
+     * the value from the <code>index</code>th key-value mapping that this
+     * map stores.
+     */
+    public long valueAt(int index) {
+        checkIndex(index);
+        return mValues[index];
+    }
+
+    /**
+     * Given an index in the range <code>0...size()-1</code>, sets a new
+     * value for the <code>index</code>th key-value mapping that this
+     * map stores.
+     */
+    public void setValueAt(int index, long value) {
+        checkIndex(index);
+        mValues[index] = value;
+    }
+
+    /**
+     * Returns the index for which {@link #keyAt} would return the
+     * specified key, or -1 if the specified
+     * key is not mapped.
+     */
+    public int indexOfKey(long key) {
+        final int[] slots = mSlots;
+        if (slots.length == 0) {
+            return -1;
+        }
+        final int mask = slots.length - 1;
+        for (int slot = ContainerHelpers.hash(key) & mask; ; slot = (slot + 1) & mask) {
+            final int entry = slots[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            if (mKeys[entry - 1] == key) {
+                return entry - 1;
+            }
+        }
+    }
+
+    /** Returns true if the specified key is mapped. */
+    public boolean containsKey(long key) {
+        return indexOfKey(key) >= 0;
+    }
+
+    /**
+     * Removes all key-value mappings from this map.
+     */
+    public void clear() {
+        mSize = 0;
+        Arrays.fill(mSlots, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This implementation composes a string by iterating over its mappings.
+     */
+    @Override
+    public String toString() {
+        if (mSize <= 0) {
+            return "{}";
+        }
+
+        StringBuilder buffer = new StringBuilder(mSize * 28);
+        buffer.append('{');
+        for (int i = 0; i < mSize; i++) {
+            if (i > 0) {
+                buffer.append(", ");
+            }
+            buffer.append(mKeys[i]);
+            buffer.append('=');
+            buffer.append(mValues[i]);
+        }
+        buffer.append('}');
+        return buffer.toString();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+    }
+
+    private void resize(int capacity) {
+        mKeys = Arrays.copyOf(mKeys, capacity);
+        mValues = Arrays.copyOf(mValues, capacity);
+        final int tableSize = ContainerHelpers.hashTableSize(capacity);
+        if (tableSize != mSlots.length) {
+            mSlots = new int[tableSize];
+            for (int i = 0; i < mSize; i++) {
+                insertSlot(mKeys[i], i);
+            }
+        }
+    }
+
+    private void insertSlot(long key, int index) {
+        final int mask = mSlots.length - 1;
+        int slot = ContainerHelpers.hash(key) & mask;
+        while (mSlots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        mSlots[slot] = index + 1;
+    }
+
+    private int slotOf(int index) {
+        final int mask = mSlots.length - 1;
+        int slot = ContainerHelpers.hash(mKeys[index]) & mask;
+        while (mSlots[slot] != index + 1) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Empties the slot, moving back the entries after it that would not be found otherwise.
+    private void removeSlot(int slot) {
+        final int[] slots = mSlots;
+        final int mask = slots.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; slots[next] != 0; next = (next + 1) & mask) {
+            final int home = ContainerHelpers.hash(mKeys[slots[next] - 1]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                slots[hole] = slots[next];
+                hole = next;
+            }
+        }
+        slots[hole] = 0;
+    }
+}
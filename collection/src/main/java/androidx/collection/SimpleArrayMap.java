@@ -19,6 +19,7 @@ package androidx.collection;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.util.Arrays;
 import java.util.ConcurrentModificationException;
 import java.util.Map;
 
@@ -68,9 +69,27 @@ public class SimpleArrayMap<K, V> {
     static @Nullable Object[] mTwiceBaseCache;
     static int mTwiceBaseCacheSize;
 
+    /**
+     * Once a map grows past this many entries, its keys are also indexed by an open addressing
+     * hash table, so that lookups, insertions and removals no longer need to binary search and
+     * shift the arrays. New entries are then appended, and removed entries are replaced by the
+     * last entry.
+     */
+    static final int HASHED_SIZE = 1024;
+
+    /**
+     * A hashed map goes back to arrays sorted by hash when an entry is added while it holds fewer
+     * than this many entries. The gap with {@link #HASHED_SIZE} keeps a map whose size goes up
+     * and down around a threshold from switching back and forth.
+     */
+    static final int UNHASHED_SIZE = 256;
+
     int[] mHashes;
     Object[] mArray;
     int mSize;
+    // For each slot of the hash table, the index of its entry plus one, or 0 if the slot is
+    // empty. Null while the entries are sorted by hash.
+    @Nullable int[] mSlots;
 
     private static int binarySearchHashes(int[] hashes, int N, int hash) {
         try {
@@ -92,6 +111,11 @@ public class SimpleArrayMap<K, V> {
             return ~0;
         }
 
+        final int[] slots = mSlots;
+        if (slots != null) {
+            return indexOfHashed(slots, key, hash);
+        }
+
         int index = binarySearchHashes(mHashes, N, hash);
 
         // If the hash code wasn't found, then we have no entry for this key.
@@ -130,6 +154,11 @@ public class SimpleArrayMap<K, V> {
             return ~0;
         }
 
+        final int[] slots = mSlots;
+        if (slots != null) {
+            return indexOfHashed(slots, null, 0);
+        }
+
         int index = binarySearchHashes(mHashes, N, 0);
 
         // If the hash code wasn't found, then we have no entry for this key.
@@ -160,6 +189,95 @@ public class SimpleArrayMap<K, V> {
         return ~end;
     }
 
+    private int indexOfHashed(int[] slots, @Nullable Object key, int hash) {
+        final int mask = slots.length - 1;
+        for (int slot = ContainerHelpers.hash(hash) & mask; slots[slot] != 0;
+                slot = (slot + 1) & mask) {
+            final int index = slots[slot] - 1;
+            if (mHashes[index] == hash) {
+                final Object candidate = mArray[index << 1];
+                if (key == null ? candidate == null : key.equals(candidate)) {
+                    return index;
+                }
+            }
+        }
+
+        // Key not found -- new entries of a hashed map are appended.
+        return ~mSize;
+    }
+
+    /**
+     * Builds the hash table for the current entries, sized for the capacity of the arrays.
+     */
+    private void rehash() {
+        mSlots = new int[ContainerHelpers.hashTableSize(mHashes.length)];
+        for (int i = 0; i < mSize; i++) {
+            insertSlot(mHashes[i], i);
+        }
+    }
+
+    /**
+     * Drops the hash table and sorts the entries by hash again.
+     */
+    private void unhash() {
+        final int size = mSize;
+        final long[] order = new long[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = ((long) mHashes[i] << 32) | i;
+        }
+        Arrays.sort(order);
+
+        final int[] hashes = new int[mHashes.length];
+        final Object[] array = new Object[mArray.length];
+        for (int i = 0; i < size; i++) {
+            final int from = (int) order[i];
+            hashes[i] = mHashes[from];
+            array[i << 1] = mArray[from << 1];
+            array[(i << 1) + 1] = mArray[(from << 1) + 1];
+        }
+        mHashes = hashes;
+        mArray = array;
+        mSlots = null;
+    }
+
+    private void insertSlot(int hash, int index) {
+        final int[] slots = mSlots;
+        final int mask = slots.length - 1;
+        int slot = ContainerHelpers.hash(hash) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = index + 1;
+    }
+
+    private int slotOf(int index) {
+        final int[] slots = mSlots;
+        final int mask = slots.length - 1;
+        int slot = ContainerHelpers.hash(mHashes[index]) & mask;
+        while (slots[slot] != index + 1) {
+            if (CONCURRENT_MODIFICATION_EXCEPTIONS && slots[slot] == 0) {
+                throw new ConcurrentModificationException();
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Empties the slot, moving back the entries that were pushed past it by collisions.
+    private void removeSlot(int slot) {
+        final int[] slots = mSlots;
+        final int mask = slots.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; slots[next] != 0; next = (next + 1) & mask) {
+            final int home = ContainerHelpers.hash(mHashes[slots[next] - 1]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                slots[hole] = slots[next];
+                hole = next;
+            }
+        }
+        slots[hole] = 0;
+    }
+
     @SuppressWarnings("ArrayToString")
     private void allocArrays(final int size) {
         if (size == (BASE_SIZE*2)) {
@@ -276,6 +394,7 @@ public class SimpleArrayMap<K, V> {
             mSize = 0;
             freeArrays(ohashes, oarray, osize);
         }
+        mSlots = null;
         if (CONCURRENT_MODIFICATION_EXCEPTIONS && mSize > 0) {
             throw new ConcurrentModificationException();
         }
@@ -296,6 +415,9 @@ public class SimpleArrayMap<K, V> {
                 System.arraycopy(oarray, 0, mArray, 0, osize<<1);
             }
             freeArrays(ohashes, oarray, osize);
+            if (mSlots != null) {
+                rehash();
+            }
         }
         if (CONCURRENT_MODIFICATION_EXCEPTIONS && mSize != osize) {
             throw new ConcurrentModificationException();
@@ -447,6 +569,16 @@ public class SimpleArrayMap<K, V> {
         }
 
         index = ~index;
+        if (mSlots == null ? osize >= HASHED_SIZE : osize < UNHASHED_SIZE) {
+            // Only switch layouts when adding an entry, which moves entries around anyway, so
+            // that removing entries while iterating over indices keeps working.
+            if (mSlots == null) {
+                rehash();
+            } else {
+                unhash();
+            }
+            index = ~(key == null ? indexOfNull() : indexOf(key, hash));
+        }
         if (osize >= mHashes.length) {
             final int n = osize >= (BASE_SIZE*2) ? (osize+(osize>>1))
                     : (osize >= BASE_SIZE ? (BASE_SIZE*2) : BASE_SIZE);
@@ -468,6 +600,9 @@ public class SimpleArrayMap<K, V> {
             }
 
             freeArrays(ohashes, oarray, osize);
+            if (mSlots != null) {
+                rehash();
+            }
         }
 
         if (index < osize) {
@@ -486,6 +621,9 @@ public class SimpleArrayMap<K, V> {
         mHashes[index] = hash;
         mArray[index<<1] = key;
         mArray[(index<<1)+1] = value;
+        if (mSlots != null) {
+            insertSlot(hash, index);
+        }
         mSize++;
         return null;
     }
@@ -502,6 +640,10 @@ public class SimpleArrayMap<K, V> {
                 System.arraycopy(array.mHashes, 0, mHashes, 0, N);
                 System.arraycopy(array.mArray, 0, mArray, 0, N<<1);
                 mSize = N;
+                if (array.mSlots != null) {
+                    // The entries are not sorted by hash.
+                    rehash();
+                }
             }
         } else {
             for (int i=0; i<N; i++) {
@@ -567,6 +709,10 @@ public class SimpleArrayMap<K, V> {
      * @return Returns the value that was stored at this index.
      */
     public V removeAt(int index) {
+        if (mSlots != null) {
+            return removeAtHashed(index);
+        }
+
         final Object old = mArray[(index << 1) + 1];
         final int osize = mSize;
         final int nsize;
@@ -626,6 +772,46 @@ public class SimpleArrayMap<K, V> {
         return (V)old;
     }
 
+    private V removeAtHashed(int index) {
+        final Object old = mArray[(index << 1) + 1];
+        final int osize = mSize;
+        final int nsize = osize - 1;
+        removeSlot(slotOf(index));
+        if (index < nsize) {
+            // Fill the hole with the last entry instead of shifting all of the entries after it.
+            mSlots[slotOf(nsize)] = index + 1;
+            mHashes[index] = mHashes[nsize];
+            mArray[index << 1] = mArray[nsize << 1];
+            mArray[(index << 1) + 1] = mArray[(nsize << 1) + 1];
+        }
+        mArray[nsize << 1] = null;
+        mArray[(nsize << 1) + 1] = null;
+        if (CONCURRENT_MODIFICATION_EXCEPTIONS && osize != mSize) {
+            throw new ConcurrentModificationException();
+        }
+        mSize = nsize;
+
+        if (nsize == 0) {
+            freeArrays(mHashes, mArray, osize);
+            mHashes = ContainerHelpers.EMPTY_INTS;
+            mArray = ContainerHelpers.EMPTY_OBJECTS;
+            mSlots = null;
+        } else if (mHashes.length > (BASE_SIZE*2) && nsize < mHashes.length/3) {
+            final int n = nsize > (BASE_SIZE*2) ? (nsize + (nsize>>1)) : (BASE_SIZE*2);
+
+            if (DEBUG) System.out.println(TAG + " remove: shrink from " + mHashes.length + " to " + n);
+
+            final int[] ohashes = mHashes;
+            final Object[] oarray = mArray;
+            allocArrays(n);
+            System.arraycopy(ohashes, 0, mHashes, 0, nsize);
+            System.arraycopy(oarray, 0, mArray, 0, nsize << 1);
+            freeArrays(ohashes, oarray, nsize);
+            rehash();
+        }
+        return (V) old;
+    }
+
     /**
      * Replace the mapping for {@code key} only if it is already mapped to a value.
      * @param key The key of the mapping to replace.
@@ -15,6 +15,7 @@
  */
 package androidx.collection;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -122,4 +123,37 @@ public class ArrayMapCompatTest {
         } catch (NoSuchElementException expected) {
         }
     }
+
+    @Test
+    public void testIteratorRemoveOnLargeMap() {
+        ArrayMap<Integer, Integer> map = new ArrayMap<>();
+        for (int i = 0; i < 3000; i++) {
+            map.put(i, i);
+        }
+        Iterator<Map.Entry<Integer, Integer>> iterator = map.entrySet().iterator();
+        int visited = 0;
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, Integer> entry = iterator.next();
+            visited++;
+            if (entry.getKey() % 2 == 0) {
+                iterator.remove();
+            }
+        }
+        assertEquals(3000, visited);
+        assertEquals(1500, map.size());
+
+        // remove enough entries to go back to sorted arrays on the next put
+        Iterator<Integer> keys = map.keySet().iterator();
+        while (map.size() > 100) {
+            assertEquals(1, keys.next() % 2);
+            keys.remove();
+        }
+        for (int i = 0; i < 3000; i++) {
+            map.put(i, i);
+        }
+        assertEquals(3000, map.size());
+        for (int i = 0; i < 3000; i++) {
+            assertEquals(Integer.valueOf(i), map.get(i));
+        }
+    }
 }
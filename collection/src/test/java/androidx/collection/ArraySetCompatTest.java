@@ -17,6 +17,8 @@ package androidx.collection;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -24,8 +26,11 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
 
 @RunWith(JUnit4.class)
 public class ArraySetCompatTest {
@@ -45,4 +50,55 @@ public class ArraySetCompatTest {
         } catch (NoSuchElementException expected) {
         }
     }
+
+    @Test
+    public void testLargeSetMatchesHashSet() {
+        ArraySet<Integer> set = new ArraySet<>();
+        Set<Integer> expected = new HashSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50000; i++) {
+            // multiples of 1024 share their low bits
+            Integer value = random.nextInt(4000) << 10;
+            if (random.nextInt(5) < 3) {
+                assertEquals(expected.add(value), set.add(value));
+            } else {
+                assertEquals(expected.remove(value), set.remove(value));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+        assertNotNull(set.mSlots);
+        assertTrue(set.equals(expected));
+        assertEquals(expected.hashCode(), set.hashCode());
+        for (int i = 0; i < set.size(); i++) {
+            assertEquals(i, set.indexOf(set.valueAt(i)));
+        }
+        assertTrue(set.add(null));
+        assertTrue(set.contains(null));
+        assertTrue(set.remove(null));
+    }
+
+    @Test
+    public void testLargeSetGoesBackToSortedArraysWhenAdding() {
+        ArraySet<String> set = new ArraySet<>();
+        for (int i = 0; i < 2000; i++) {
+            set.add("value " + i);
+        }
+        assertNotNull(set.mSlots);
+        Iterator<String> iterator = set.iterator();
+        while (set.size() > 10) {
+            iterator.next();
+            iterator.remove();
+        }
+        assertNotNull(set.mSlots);
+
+        set.add("value");
+        assertNull(set.mSlots);
+        assertEquals(11, set.size());
+        for (int i = 0; i < set.size(); i++) {
+            assertEquals(i, set.indexOf(set.valueAt(i)));
+        }
+
+        ArraySet<String> copy = new ArraySet<>(set);
+        assertEquals(set, copy);
+    }
 }
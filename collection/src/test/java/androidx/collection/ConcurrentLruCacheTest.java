@@ -0,0 +1,213 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(JUnit4.class)
+public class ConcurrentLruCacheTest {
+    @Test
+    public void lruEvictsLeastRecentlyUsed() {
+        ConcurrentLruCache<String, String> cache =
+                new ConcurrentLruCache<>(3, 1, ConcurrentLruCache.POLICY_LRU);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.put("c", "C");
+        assertEquals("A", cache.get("a"));
+        cache.put("d", "D");
+
+        assertNull(cache.get("b"));
+        assertEquals("A", cache.get("a"));
+        assertEquals("C", cache.get("c"));
+        assertEquals("D", cache.get("d"));
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.evictionCount());
+        assertEquals(4, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    public void sizeIsSplitAcrossSegments() {
+        ConcurrentLruCache<Integer, Integer> cache =
+                new ConcurrentLruCache<>(10, 4, ConcurrentLruCache.POLICY_LRU);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+        }
+        assertEquals(10, cache.maxSize());
+        assertEquals(10, cache.size());
+        assertEquals(990, cache.evictionCount());
+        assertEquals(1000, cache.putCount());
+    }
+
+    @Test
+    public void segmentsDoNotOutnumberMaxSize() {
+        ConcurrentLruCache<Integer, Integer> cache =
+                new ConcurrentLruCache<>(3, 64, ConcurrentLruCache.POLICY_LRU);
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, i);
+            assertEquals(Integer.valueOf(i), cache.get(i));
+        }
+        assertTrue(cache.size() <= 3);
+    }
+
+    @Test
+    public void tinyLfuKeepsFrequentEntriesDuringScan() {
+        ConcurrentLruCache<Integer, Integer> cache =
+                new ConcurrentLruCache<>(100, 1, ConcurrentLruCache.POLICY_TINY_LFU);
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, i);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                assertEquals(Integer.valueOf(i), cache.get(i));
+            }
+        }
+        // a scan of keys that are used once
+        for (int i = 1000; i < 1400; i++) {
+            cache.get(i);
+            cache.put(i, i);
+        }
+        for (int i = 0; i < 50; i++) {
+            assertEquals(Integer.valueOf(i), cache.get(i));
+        }
+        assertEquals(100, cache.size());
+    }
+
+    @Test
+    public void lruFlushedByScan() {
+        ConcurrentLruCache<Integer, Integer> cache =
+                new ConcurrentLruCache<>(100, 1, ConcurrentLruCache.POLICY_LRU);
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, i);
+        }
+        for (int i = 1000; i < 2000; i++) {
+            cache.put(i, i);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertNull(cache.get(i));
+        }
+    }
+
+    @Test
+    public void sizeOf() {
+        ConcurrentLruCache<String, String> cache =
+                new ConcurrentLruCache<String, String>(10, 1, ConcurrentLruCache.POLICY_LRU) {
+                    @Override
+                    protected int sizeOf(String key, String value) {
+                        return value.length();
+                    }
+                };
+        cache.put("a", "AAAA");
+        cache.put("b", "BBBB");
+        assertEquals(8, cache.size());
+        cache.put("a", "A");
+        assertEquals(5, cache.size());
+        cache.put("c", "CCCCCC");
+        assertEquals(7, cache.size());
+        assertNull(cache.get("b"));
+        assertEquals("CCCCCC", cache.get("c"));
+    }
+
+    @Test
+    public void entryRemovedAndCreate() {
+        final List<String> log = new ArrayList<>();
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<String, String>(2) {
+            @Override
+            protected String create(String key) {
+                return key.toUpperCase();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, String key, String oldValue,
+                    String newValue) {
+                log.add(key + "=" + oldValue + "," + evicted + "," + newValue);
+            }
+        };
+        assertEquals("A", cache.get("a"));
+        assertEquals(1, cache.createCount());
+        assertEquals("A", cache.put("a", "B"));
+        assertEquals("B", cache.remove("a"));
+        assertNull(cache.remove("a"));
+        cache.put("c", "C");
+        cache.evictAll();
+        assertEquals(0, cache.size());
+        assertEquals("[a=A,false,B, a=B,false,null, c=C,true,null]", log.toString());
+    }
+
+    @Test
+    public void resizeEvicts() {
+        ConcurrentLruCache<Integer, Integer> cache =
+                new ConcurrentLruCache<>(64, 4, ConcurrentLruCache.POLICY_TINY_LFU);
+        for (int i = 0; i < 64; i++) {
+            cache.put(i, i);
+        }
+        assertTrue(cache.size() <= 64);
+        cache.resize(8);
+        assertEquals(8, cache.maxSize());
+        assertTrue(cache.size() <= 8);
+        assertEquals(cache.size(), cache.snapshot().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownPolicy() {
+        new ConcurrentLruCache<String, String>(10, 1, 2);
+    }
+
+    @Test
+    public void concurrentAccess() throws InterruptedException {
+        final ConcurrentLruCache<Integer, Integer> cache =
+                new ConcurrentLruCache<>(256, 8, ConcurrentLruCache.POLICY_TINY_LFU);
+        final AtomicInteger errors = new AtomicInteger();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            final int seed = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 10000; i++) {
+                        int key = (i * 31 + seed) % 1024;
+                        Integer value = cache.get(key);
+                        if (value == null) {
+                            cache.put(key, key);
+                        } else if (value != key) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, errors.get());
+        assertTrue(cache.size() <= 256);
+        assertEquals(80000, cache.hitCount() + cache.missCount());
+        assertFalse(cache.snapshot().isEmpty());
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+@RunWith(JUnit4.class)
+public class IntIntMapTest {
+    @Test
+    public void getDefaultsWhenAbsent() {
+        IntIntMap map = new IntIntMap();
+        assertEquals(0, map.get(1));
+        assertEquals(7, map.get(1, 7));
+        map.put(1, 2);
+        assertEquals(2, map.get(1));
+        assertEquals(2, map.get(1, 7));
+    }
+
+    @Test
+    public void putReplacesValue() {
+        IntIntMap map = new IntIntMap();
+        map.put(1, 2);
+        map.put(1, 3);
+        assertEquals(1, map.size());
+        assertEquals(3, map.get(1));
+    }
+
+    @Test
+    public void zeroCapacityGrows() {
+        IntIntMap map = new IntIntMap(0);
+        assertTrue(map.isEmpty());
+        assertEquals(-1, map.indexOfKey(0));
+        for (int i = 0; i < 100; i++) {
+            map.put(i, -i);
+        }
+        assertEquals(100, map.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(-i, map.get(i));
+        }
+    }
+
+    @Test
+    public void removeMovesLastEntry() {
+        IntIntMap map = new IntIntMap();
+        map.put(1, 10);
+        map.put(2, 20);
+        map.put(3, 30);
+        assertTrue(map.remove(1));
+        assertFalse(map.remove(1));
+
+        assertEquals(2, map.size());
+        assertEquals(3, map.keyAt(0));
+        assertEquals(30, map.valueAt(0));
+        assertEquals(0, map.indexOfKey(3));
+        assertEquals(1, map.indexOfKey(2));
+    }
+
+    @Test
+    public void setValueAt() {
+        IntIntMap map = new IntIntMap();
+        map.put(5, 1);
+        map.setValueAt(map.indexOfKey(5), 2);
+        assertEquals(2, map.get(5));
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void keyAtOutOfBounds() {
+        IntIntMap map = new IntIntMap();
+        map.put(1, 1);
+        map.keyAt(1);
+    }
+
+    @Test
+    public void clear() {
+        IntIntMap map = new IntIntMap();
+        map.put(1, 1);
+        map.put(2, 2);
+        map.clear();
+        assertEquals(0, map.size());
+        assertFalse(map.containsKey(1));
+        map.put(2, 3);
+        assertEquals(3, map.get(2));
+    }
+
+    @Test
+    public void putAll() {
+        IntIntMap first = new IntIntMap();
+        first.put(1, 1);
+        first.put(2, 2);
+        IntIntMap second = new IntIntMap(0);
+        second.put(2, 3);
+        second.put(4, 4);
+        first.putAll(second);
+        assertEquals(3, first.size());
+        assertEquals(3, first.get(2));
+        assertEquals(4, first.get(4));
+    }
+
+    @Test
+    public void cloneIsIndependent() {
+        IntIntMap map = new IntIntMap();
+        map.put(1, 1);
+        IntIntMap clone = map.clone();
+        clone.put(2, 2);
+        assertEquals(1, map.size());
+        assertFalse(map.containsKey(2));
+        assertEquals(1, clone.get(1));
+    }
+
+    @Test
+    public void toStringFormat() {
+        IntIntMap map = new IntIntMap();
+        assertEquals("{}", map.toString());
+        map.put(1, 2);
+        map.put(3, 4);
+        assertEquals("{1=2, 3=4}", map.toString());
+    }
+
+    @Test
+    public void matchesHashMap() {
+        Random random = new Random(0);
+        IntIntMap map = new IntIntMap(0);
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            // keys with a large common stride collide without a good hash
+            int key = (int) random.nextInt(500) << 10;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, map.remove(key));
+            } else {
+                expected.put(key, (int) i);
+                map.put(key, i);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (int i = 0; i < map.size(); i++) {
+            assertEquals((long) expected.get(map.keyAt(i)), map.valueAt(i));
+        }
+        for (Integer key : expected.keySet()) {
+            assertTrue(map.containsKey(key));
+        }
+    }
+}
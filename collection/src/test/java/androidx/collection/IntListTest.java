@@ -0,0 +1,126 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class IntListTest {
+    @Test
+    public void addAndGet() {
+        IntList list = new IntList(0);
+        for (int i = 0; i < 100; i++) {
+            list.add(i);
+        }
+        assertEquals(100, list.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, list.get(i));
+        }
+    }
+
+    @Test
+    public void insertAndRemove() {
+        IntList list = new IntList();
+        list.add(1);
+        list.add(3);
+        list.add(1, 2);
+        list.add(0, 0);
+        assertArrayEquals(new int[] {0, 1, 2, 3}, list.toArray());
+
+        assertEquals(1, list.removeAt(1));
+        assertArrayEquals(new int[] {0, 2, 3}, list.toArray());
+    }
+
+    @Test
+    public void set() {
+        IntList list = new IntList();
+        list.add(1);
+        assertEquals(1, list.set(0, 2));
+        assertEquals(2, list.get(0));
+    }
+
+    @Test
+    public void indexOfAndContains() {
+        IntList list = new IntList();
+        list.add(5);
+        list.add(6);
+        list.add(5);
+        assertEquals(0, list.indexOf(5));
+        assertEquals(1, list.indexOf(6));
+        assertEquals(-1, list.indexOf(7));
+        assertTrue(list.contains(6));
+        assertFalse(list.contains(7));
+    }
+
+    @Test
+    public void addAll() {
+        IntList first = new IntList(1);
+        first.add(1);
+        IntList second = new IntList();
+        second.add(2);
+        second.add(3);
+        first.addAll(second);
+        assertArrayEquals(new int[] {1, 2, 3}, first.toArray());
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void getOutOfBounds() {
+        IntList list = new IntList();
+        list.add(1);
+        list.get(1);
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void insertOutOfBounds() {
+        new IntList().add(1, 1);
+    }
+
+    @Test
+    public void clear() {
+        IntList list = new IntList();
+        list.add(1);
+        list.clear();
+        assertTrue(list.isEmpty());
+        assertEquals(-1, list.indexOf(1));
+    }
+
+    @Test
+    public void cloneIsIndependent() {
+        IntList list = new IntList();
+        list.add(1);
+        IntList clone = list.clone();
+        clone.add(2);
+        assertEquals(1, list.size());
+        assertEquals(2, clone.size());
+    }
+
+    @Test
+    public void toStringFormat() {
+        IntList list = new IntList();
+        assertEquals("[]", list.toString());
+        list.add(1);
+        list.add(2);
+        assertEquals("[1, 2]", list.toString());
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+@RunWith(JUnit4.class)
+public class LongSetTest {
+    @Test
+    public void addAndContains() {
+        LongSet set = new LongSet();
+        assertFalse(set.contains(1));
+        assertTrue(set.add(1));
+        assertFalse(set.add(1));
+        assertTrue(set.contains(1));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    public void zeroCapacityGrows() {
+        LongSet set = new LongSet(0);
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(0));
+        for (int i = 0; i < 100; i++) {
+            set.add(i);
+        }
+        assertEquals(100, set.size());
+        for (int i = 0; i < 100; i++) {
+            assertTrue(set.contains(i));
+        }
+    }
+
+    @Test
+    public void removeMovesLastValue() {
+        LongSet set = new LongSet();
+        set.add(1);
+        set.add(2);
+        set.add(3);
+        assertTrue(set.remove(1));
+        assertFalse(set.remove(1));
+
+        assertArrayEquals(new long[] {3, 2}, set.toArray());
+        assertEquals(0, set.indexOf(3));
+        assertEquals(1, set.indexOf(2));
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void valueAtOutOfBounds() {
+        LongSet set = new LongSet();
+        set.valueAt(0);
+    }
+
+    @Test
+    public void addAllAndClear() {
+        LongSet first = new LongSet();
+        first.add(1);
+        LongSet second = new LongSet(0);
+        second.add(1);
+        second.add(2);
+        first.addAll(second);
+        assertEquals(2, first.size());
+
+        first.clear();
+        assertTrue(first.isEmpty());
+        assertFalse(first.contains(1));
+    }
+
+    @Test
+    public void cloneIsIndependent() {
+        LongSet set = new LongSet();
+        set.add(1);
+        LongSet clone = set.clone();
+        clone.add(2);
+        assertEquals(1, set.size());
+        assertTrue(clone.contains(1));
+    }
+
+    @Test
+    public void toStringFormat() {
+        LongSet set = new LongSet();
+        assertEquals("{}", set.toString());
+        set.add(1);
+        set.add(2);
+        assertEquals("{1, 2}", set.toString());
+    }
+
+    @Test
+    public void matchesHashSet() {
+        Random random = new Random(0);
+        LongSet set = new LongSet(0);
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 20000; i++) {
+            // values with a large common stride collide without a good hash
+            long value = (long) random.nextInt(500) << 10;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), set.remove(value));
+            } else {
+                assertEquals(expected.add(value), set.add(value));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+        for (Long value : expected) {
+            assertTrue(set.contains(value));
+        }
+    }
+}
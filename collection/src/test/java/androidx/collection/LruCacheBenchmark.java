@@ -0,0 +1,97 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import androidx.benchmark.BenchmarkRule;
+import androidx.benchmark.BenchmarkState;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Host benchmarks of {@link LruCache} and {@link ConcurrentLruCache}, run by the
+ * {@code hostBenchmark} task.
+ */
+@RunWith(JUnit4.class)
+public class LruCacheBenchmark {
+    private static final int MAX_SIZE = 100;
+    private static final int KEY_COUNT = 1000;
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private final Integer[] mKeys = new Integer[KEY_COUNT];
+
+    public LruCacheBenchmark() {
+        for (int i = 0; i < KEY_COUNT; i++) {
+            mKeys[i] = i;
+        }
+    }
+
+    @Test
+    public void lruCache_hits() {
+        LruCache<Integer, Integer> cache = new LruCache<>(MAX_SIZE);
+        for (int i = 0; i < MAX_SIZE; i++) {
+            cache.put(mKeys[i], mKeys[i]);
+        }
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (int i = 0; i < MAX_SIZE; i++) {
+                cache.get(mKeys[i]);
+            }
+        }
+    }
+
+    @Test
+    public void concurrentLruCache_hits() {
+        ConcurrentLruCache<Integer, Integer> cache = new ConcurrentLruCache<>(MAX_SIZE);
+        for (int i = 0; i < MAX_SIZE; i++) {
+            cache.put(mKeys[i], mKeys[i]);
+        }
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (int i = 0; i < MAX_SIZE; i++) {
+                cache.get(mKeys[i]);
+            }
+        }
+    }
+
+    @Test
+    public void lruCache_evictions() {
+        LruCache<Integer, Integer> cache = new LruCache<>(MAX_SIZE);
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            // every put of the scan evicts an entry once the cache is full
+            for (Integer key : mKeys) {
+                cache.put(key, key);
+            }
+        }
+    }
+
+    @Test
+    public void concurrentLruCache_evictions() {
+        ConcurrentLruCache<Integer, Integer> cache = new ConcurrentLruCache<>(MAX_SIZE);
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (Integer key : mKeys) {
+                cache.put(key, key);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import androidx.benchmark.BenchmarkRule;
+import androidx.benchmark.BenchmarkState;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Host benchmarks of {@link SimpleArrayMap}, run by the {@code hostBenchmark} task.
+ */
+@RunWith(JUnit4.class)
+public class SimpleArrayMapBenchmark {
+    private static final int SIZE = 1000;
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private final String[] mKeys = new String[SIZE];
+    private final SimpleArrayMap<String, String> mMap = new SimpleArrayMap<>();
+
+    public SimpleArrayMapBenchmark() {
+        for (int i = 0; i < SIZE; i++) {
+            mKeys[i] = "key " + i;
+            mMap.put(mKeys[i], mKeys[i]);
+        }
+    }
+
+    @Test
+    public void put() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            SimpleArrayMap<String, String> map = new SimpleArrayMap<>();
+            for (String key : mKeys) {
+                map.put(key, key);
+            }
+        }
+    }
+
+    @Test
+    public void get() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        int found = 0;
+        while (state.keepRunning()) {
+            for (String key : mKeys) {
+                if (mMap.get(key) != null) {
+                    found++;
+                }
+            }
+        }
+        if (found == -1) {
+            throw new AssertionError();
+        }
+    }
+
+    @Test
+    public void removeAndPut() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (String key : mKeys) {
+                mMap.remove(key);
+                mMap.put(key, key);
+            }
+        }
+    }
+}
@@ -18,6 +18,7 @@ package androidx.collection;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -27,7 +28,10 @@ import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
 import java.util.ConcurrentModificationException;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 @RunWith(JUnit4.class)
@@ -203,6 +207,94 @@ public class SimpleArrayMapTest {
         assertFalse(map.containsKey("one"));
     }
 
+    @Test
+    public void largeMapIsHashed() {
+        SimpleArrayMap<String, Integer> map = new SimpleArrayMap<>();
+        for (int i = 0; i < SimpleArrayMap.HASHED_SIZE; i++) {
+            map.put("key " + i, i);
+        }
+        assertNull(map.mSlots);
+        map.put(null, -1);
+        assertNotNull(map.mSlots);
+        for (int i = SimpleArrayMap.HASHED_SIZE; i < 5000; i++) {
+            map.put("key " + i, i);
+        }
+
+        assertEquals(5001, map.size());
+        assertEquals(Integer.valueOf(-1), map.get(null));
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(Integer.valueOf(i), map.get("key " + i));
+        }
+        for (int i = 0; i < map.size(); i++) {
+            assertEquals(i, map.indexOfKey(map.keyAt(i)));
+        }
+        assertTrue(map.indexOfKey("absent") < 0);
+    }
+
+    @Test
+    public void largeMapMatchesHashMap() {
+        SimpleArrayMap<Key, Integer> map = new SimpleArrayMap<>();
+        Map<Key, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50000; i++) {
+            Key key = new Key(random.nextInt(4000));
+            if (random.nextInt(5) < 3) {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            } else {
+                assertEquals(expected.remove(key), map.remove(key));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (int i = 0; i < map.size(); i++) {
+            assertEquals(expected.get(map.keyAt(i)), map.valueAt(i));
+        }
+        assertTrue(map.equals(expected));
+        assertEquals(expected.hashCode(), map.hashCode());
+    }
+
+    @Test
+    public void hashedMapGoesBackToSortedArraysWhenAdding() {
+        SimpleArrayMap<Integer, Integer> map = new SimpleArrayMap<>();
+        for (int i = 0; i < 2000; i++) {
+            map.put(i * 7919, i);
+        }
+        assertNotNull(map.mSlots);
+        while (map.size() >= SimpleArrayMap.UNHASHED_SIZE) {
+            map.removeAt(map.size() / 2);
+        }
+        // removing never reorders entries
+        assertNotNull(map.mSlots);
+
+        map.put(-1, -1);
+        assertNull(map.mSlots);
+        for (int i = 1; i < map.size(); i++) {
+            assertTrue(map.mHashes[i - 1] <= map.mHashes[i]);
+        }
+        for (int i = 0; i < map.size(); i++) {
+            assertEquals(i, map.indexOfKey(map.keyAt(i)));
+        }
+    }
+
+    @Test
+    public void putAllFromHashedMap() {
+        SimpleArrayMap<Integer, Integer> source = new SimpleArrayMap<>();
+        for (int i = 0; i < 2000; i++) {
+            source.put(i, i);
+        }
+        for (int i = 0; i < 1500; i++) {
+            source.remove(i);
+        }
+        assertNotNull(source.mSlots);
+
+        SimpleArrayMap<Integer, Integer> map = new SimpleArrayMap<>(source);
+        map.put(-1, -1);
+        assertEquals(501, map.size());
+        for (int i = 1500; i < 2000; i++) {
+            assertEquals(Integer.valueOf(i), map.get(i));
+        }
+        assertEquals(Integer.valueOf(-1), map.get(-1));
+    }
+
     /**
      * Attempt to generate a ConcurrentModificationException in ArrayMap.
      */
@@ -272,4 +364,23 @@ public class SimpleArrayMapTest {
             }
         }
     }
+
+    private static final class Key {
+        final int mId;
+
+        Key(int id) {
+            mId = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).mId == mId;
+        }
+
+        @Override
+        public int hashCode() {
+            // few distinct hash codes, so that there are many collisions
+            return mId % 512;
+        }
+    }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import androidx.benchmark.BenchmarkRule;
+import androidx.benchmark.BenchmarkState;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Host benchmarks of {@link SparseArrayCompat}, run by the {@code hostBenchmark} task.
+ */
+@RunWith(JUnit4.class)
+public class SparseArrayCompatBenchmark {
+    private static final int SIZE = 1000;
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private final SparseArrayCompat<String> mArray = new SparseArrayCompat<>();
+
+    public SparseArrayCompatBenchmark() {
+        for (int i = 0; i < SIZE; i++) {
+            mArray.put(i * 2, "value " + i);
+        }
+    }
+
+    @Test
+    public void putAscending() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            SparseArrayCompat<String> array = new SparseArrayCompat<>();
+            for (int i = 0; i < SIZE; i++) {
+                array.put(i, "value");
+            }
+        }
+    }
+
+    @Test
+    public void putDescending() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            SparseArrayCompat<String> array = new SparseArrayCompat<>();
+            for (int i = SIZE - 1; i >= 0; i--) {
+                array.put(i, "value");
+            }
+        }
+    }
+
+    @Test
+    public void get() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        int found = 0;
+        while (state.keepRunning()) {
+            // even keys are present, odd keys are missing
+            for (int i = 0; i < SIZE * 2; i++) {
+                if (mArray.get(i) != null) {
+                    found++;
+                }
+            }
+        }
+        if (found == -1) {
+            throw new AssertionError();
+        }
+    }
+
+    @Test
+    public void removeAndPut() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (int i = 0; i < SIZE; i++) {
+                mArray.remove(i * 2);
+                mArray.put(i * 2, "value");
+            }
+        }
+    }
+}
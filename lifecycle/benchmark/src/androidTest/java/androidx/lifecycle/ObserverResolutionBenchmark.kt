@@ -0,0 +1,77 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.lifecycle
+
+import androidx.benchmark.BenchmarkRule
+import androidx.benchmark.measureRepeated
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.LargeTest
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Compares the two ways [Lifecycling] finds the generated adapter of an observer class the first
+ * time it is added to a Lifecycle: through the adapter index that the lifecycle-compiler
+ * generates, and by looking the adapter class and its constructor up by name.
+ *
+ * The first lookup of a class also loads the adapter class, which only the first iteration of
+ * [reflectiveAdapter] pays, so the results are a lower bound of the startup cost of reflection.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4::class)
+class ObserverResolutionBenchmark {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val observer = BenchmarkObserver()
+
+    @Test
+    fun indexedAdapter() {
+        benchmarkRule.measureRepeated {
+            Lifecycling.indexedAdapter(BenchmarkObserver::class.java)!!.create(observer)
+        }
+    }
+
+    @Test
+    fun reflectiveAdapter() {
+        benchmarkRule.measureRepeated {
+            Lifecycling.reflectiveAdapter(BenchmarkObserver::class.java)!!.create(observer)
+        }
+    }
+
+    /**
+     * The one time cost of the index path, paid by the first observer that is resolved.
+     */
+    @Test
+    fun loadAdapterIndexes() {
+        benchmarkRule.measureRepeated {
+            Lifecycling.loadAdapterIndexes()
+        }
+    }
+}
+
+class BenchmarkObserver : LifecycleObserver {
+    @OnLifecycleEvent(Lifecycle.Event.ON_START)
+    fun onStart() {
+    }
+
+    @OnLifecycleEvent(Lifecycle.Event.ON_STOP)
+    fun onStop(owner: LifecycleOwner) {
+    }
+}
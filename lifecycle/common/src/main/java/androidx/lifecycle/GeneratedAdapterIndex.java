@@ -0,0 +1,53 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.lifecycle;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+/**
+ * An index of the {@link GeneratedAdapter}s of a package, generated by the lifecycle-compiler
+ * next to the adapters and registered in {@code META-INF/services}.
+ * <p>
+ * {@link Lifecycling} loads the indexes once and creates the adapters of the indexed observers
+ * through them, instead of looking up the adapter class and its constructor with reflection for
+ * every observer class.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
+public interface GeneratedAdapterIndex {
+
+    /**
+     * Returns the observer classes that this index has adapters for.
+     *
+     * @return The observer classes, in the order that {@link #createAdapter(int, Object)}
+     * expects.
+     */
+    @NonNull
+    Class<?>[] getObserverClasses();
+
+    /**
+     * Creates the adapter of an observer.
+     *
+     * @param index The index of the class of the observer in {@link #getObserverClasses()}
+     * @param receiver The observer, an instance of the class at {@code index}
+     * @return The adapter that calls the methods of the observer.
+     */
+    @NonNull
+    GeneratedAdapter createAdapter(int index, @NonNull Object receiver);
+}
@@ -25,8 +25,11 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
 
 /**
  * Internal class to handle lifecycle conversion etc.
@@ -40,8 +43,7 @@ public class Lifecycling {
     private static final int GENERATED_CALLBACK = 2;
 
     private static Map<Class, Integer> sCallbackCache = new HashMap<>();
-    private static Map<Class, List<Constructor<? extends GeneratedAdapter>>> sClassToAdapters =
-            new HashMap<>();
+    private static Map<Class, List<AdapterFactory>> sClassToAdapters = new HashMap<>();
 
     // Left for binary compatibility when lifecycle-common goes up 2.1 as transitive dep
     // but lifecycle-runtime stays 2.0
@@ -81,34 +83,68 @@ public class Lifecycling {
         final Class<?> klass = object.getClass();
         int type = getObserverConstructorType(klass);
         if (type == GENERATED_CALLBACK) {
-            List<Constructor<? extends GeneratedAdapter>> constructors =
-                    sClassToAdapters.get(klass);
-            if (constructors.size() == 1) {
-                GeneratedAdapter generatedAdapter = createGeneratedAdapter(
-                        constructors.get(0), object);
+            List<AdapterFactory> factories = sClassToAdapters.get(klass);
+            if (factories.size() == 1) {
+                GeneratedAdapter generatedAdapter = factories.get(0).create(object);
                 return new SingleGeneratedAdapterObserver(generatedAdapter);
             }
-            GeneratedAdapter[] adapters = new GeneratedAdapter[constructors.size()];
-            for (int i = 0; i < constructors.size(); i++) {
-                adapters[i] = createGeneratedAdapter(constructors.get(i), object);
+            GeneratedAdapter[] adapters = new GeneratedAdapter[factories.size()];
+            for (int i = 0; i < factories.size(); i++) {
+                adapters[i] = factories.get(i).create(object);
             }
             return new CompositeGeneratedAdaptersObserver(adapters);
         }
         return new ReflectiveGenericLifecycleObserver(object);
     }
 
-    private static GeneratedAdapter createGeneratedAdapter(
-            Constructor<? extends GeneratedAdapter> constructor, Object object) {
-        //noinspection TryWithIdenticalCatches
-        try {
-            return constructor.newInstance(object);
-        } catch (IllegalAccessException e) {
-            throw new RuntimeException(e);
-        } catch (InstantiationException e) {
-            throw new RuntimeException(e);
-        } catch (InvocationTargetException e) {
-            throw new RuntimeException(e);
+    /**
+     * Returns the factory of the adapter of the given observer class from the generated adapter
+     * indexes, or null if no index lists the class.
+     */
+    @Nullable
+    static AdapterFactory indexedAdapter(Class<?> klass) {
+        return IndexHolder.sIndexedAdapters.get(klass);
+    }
+
+    /**
+     * Returns the factory of the adapter of the given observer class, looking the adapter class up
+     * by its name, or null if the class has no generated adapter.
+     */
+    @Nullable
+    static AdapterFactory reflectiveAdapter(Class<?> klass) {
+        Constructor<? extends GeneratedAdapter> constructor = generatedConstructor(klass);
+        return constructor == null ? null : new ConstructorAdapterFactory(constructor);
+    }
+
+    /**
+     * Loads the {@link GeneratedAdapterIndex}es that the lifecycle-compiler listed in
+     * META-INF/services, and maps the observer classes they list to their adapter factories.
+     */
+    @NonNull
+    static Map<Class<?>, AdapterFactory> loadAdapterIndexes() {
+        Map<Class<?>, AdapterFactory> adapters = new HashMap<>();
+        // R8 replaces ServiceLoader.load calls of exactly this form with the instantiation of the
+        // classes listed in META-INF/services, so that no jar resources are read at runtime.
+        Iterator<GeneratedAdapterIndex> indexes = ServiceLoader.load(GeneratedAdapterIndex.class,
+                GeneratedAdapterIndex.class.getClassLoader()).iterator();
+        while (true) {
+            GeneratedAdapterIndex index;
+            try {
+                if (!indexes.hasNext()) {
+                    break;
+                }
+                index = indexes.next();
+            } catch (ServiceConfigurationError e) {
+                // An index that was stripped or cannot be loaded, its observers still get their
+                // adapters through reflection.
+                continue;
+            }
+            Class<?>[] observerClasses = index.getObserverClasses();
+            for (int i = 0; i < observerClasses.length; i++) {
+                adapters.put(observerClasses[i], new IndexAdapterFactory(index, i));
+            }
         }
+        return adapters;
     }
 
     @Nullable
@@ -153,10 +189,12 @@ public class Lifecycling {
             return REFLECTIVE_CALLBACK;
         }
 
-        Constructor<? extends GeneratedAdapter> constructor = generatedConstructor(klass);
-        if (constructor != null) {
-            sClassToAdapters.put(klass, Collections
-                    .<Constructor<? extends GeneratedAdapter>>singletonList(constructor));
+        AdapterFactory factory = indexedAdapter(klass);
+        if (factory == null) {
+            factory = reflectiveAdapter(klass);
+        }
+        if (factory != null) {
+            sClassToAdapters.put(klass, Collections.singletonList(factory));
             return GENERATED_CALLBACK;
         }
 
@@ -166,12 +204,12 @@ public class Lifecycling {
         }
 
         Class<?> superclass = klass.getSuperclass();
-        List<Constructor<? extends GeneratedAdapter>> adapterConstructors = null;
+        List<AdapterFactory> adapterFactories = null;
         if (isLifecycleParent(superclass)) {
             if (getObserverConstructorType(superclass) == REFLECTIVE_CALLBACK) {
                 return REFLECTIVE_CALLBACK;
             }
-            adapterConstructors = new ArrayList<>(sClassToAdapters.get(superclass));
+            adapterFactories = new ArrayList<>(sClassToAdapters.get(superclass));
         }
 
         for (Class<?> intrface : klass.getInterfaces()) {
@@ -181,13 +219,13 @@ public class Lifecycling {
             if (getObserverConstructorType(intrface) == REFLECTIVE_CALLBACK) {
                 return REFLECTIVE_CALLBACK;
             }
-            if (adapterConstructors == null) {
-                adapterConstructors = new ArrayList<>();
+            if (adapterFactories == null) {
+                adapterFactories = new ArrayList<>();
             }
-            adapterConstructors.addAll(sClassToAdapters.get(intrface));
+            adapterFactories.addAll(sClassToAdapters.get(intrface));
         }
-        if (adapterConstructors != null) {
-            sClassToAdapters.put(klass, adapterConstructors);
+        if (adapterFactories != null) {
+            sClassToAdapters.put(klass, adapterFactories);
             return GENERATED_CALLBACK;
         }
 
@@ -207,4 +245,58 @@ public class Lifecycling {
 
     private Lifecycling() {
     }
+
+    /**
+     * Loads the generated adapter indexes the first time an observer class is resolved.
+     */
+    private static class IndexHolder {
+        static final Map<Class<?>, AdapterFactory> sIndexedAdapters = loadAdapterIndexes();
+    }
+
+    /**
+     * Creates the {@link GeneratedAdapter} of an observer.
+     */
+    abstract static class AdapterFactory {
+        @NonNull
+        abstract GeneratedAdapter create(@NonNull Object receiver);
+    }
+
+    private static class ConstructorAdapterFactory extends AdapterFactory {
+        private final Constructor<? extends GeneratedAdapter> mConstructor;
+
+        ConstructorAdapterFactory(Constructor<? extends GeneratedAdapter> constructor) {
+            mConstructor = constructor;
+        }
+
+        @NonNull
+        @Override
+        GeneratedAdapter create(@NonNull Object receiver) {
+            //noinspection TryWithIdenticalCatches
+            try {
+                return mConstructor.newInstance(receiver);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException(e);
+            } catch (InstantiationException e) {
+                throw new RuntimeException(e);
+            } catch (InvocationTargetException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private static class IndexAdapterFactory extends AdapterFactory {
+        private final GeneratedAdapterIndex mIndex;
+        private final int mPosition;
+
+        IndexAdapterFactory(GeneratedAdapterIndex index, int position) {
+            mIndex = index;
+            mPosition = position;
+        }
+
+        @NonNull
+        @Override
+        GeneratedAdapter create(@NonNull Object receiver) {
+            return mIndex.createAdapter(mPosition, receiver);
+        }
+    }
 }
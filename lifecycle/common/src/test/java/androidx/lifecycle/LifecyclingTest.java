@@ -21,6 +21,8 @@ import static androidx.lifecycle.Lifecycling.lifecycleEventObserver;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 import androidx.annotation.NonNull;
@@ -29,9 +31,12 @@ import androidx.lifecycle.observers.DerivedSequence2;
 import androidx.lifecycle.observers.DerivedWithNewMethods;
 import androidx.lifecycle.observers.DerivedWithNoNewMethods;
 import androidx.lifecycle.observers.DerivedWithOverridenMethodsWithLfAnnotation;
+import androidx.lifecycle.observers.Interface1;
+import androidx.lifecycle.observers.Interface2;
 import androidx.lifecycle.observers.InterfaceImpl1;
 import androidx.lifecycle.observers.InterfaceImpl2;
 import androidx.lifecycle.observers.InterfaceImpl3;
+import androidx.lifecycle.observers.TestAdapterIndex;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -78,6 +83,18 @@ public class LifecyclingTest {
         assertThat(callback, instanceOf(CompositeGeneratedAdaptersObserver.class));
     }
 
+    @Test
+    public void testIndexedAdapter() {
+        assertThat(Lifecycling.indexedAdapter(Interface2.class), notNullValue());
+        assertThat(Lifecycling.indexedAdapter(Interface1.class), nullValue());
+        assertThat(Lifecycling.reflectiveAdapter(Interface1.class), notNullValue());
+
+        int created = TestAdapterIndex.sCreatedAdapters;
+        LifecycleEventObserver callback = lifecycleEventObserver(new InterfaceImpl2());
+        assertThat(callback, instanceOf(CompositeGeneratedAdaptersObserver.class));
+        assertThat(TestAdapterIndex.sCreatedAdapters, is(created + 1));
+    }
+
     @Test
     public void testDerivedSequence() {
         LifecycleEventObserver callback2 = lifecycleEventObserver(new DerivedSequence2());
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.lifecycle.observers;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.GeneratedAdapter;
+import androidx.lifecycle.GeneratedAdapterIndex;
+
+/**
+ * Stands in for the index that the lifecycle-compiler generates. Only lists {@link Interface2},
+ * so the adapters of the other observers are still found by their class name.
+ */
+public class TestAdapterIndex implements GeneratedAdapterIndex {
+    public static int sCreatedAdapters;
+
+    @NonNull
+    @Override
+    public Class<?>[] getObserverClasses() {
+        return new Class<?>[]{Interface2.class};
+    }
+
+    @NonNull
+    @Override
+    public GeneratedAdapter createAdapter(int index, @NonNull Object receiver) {
+        switch (index) {
+            case 0:
+                sCreatedAdapters++;
+                return new Interface2_LifecycleAdapter((Interface2) receiver);
+            default:
+                throw new IllegalArgumentException("Unknown observer index " + index);
+        }
+    }
+}
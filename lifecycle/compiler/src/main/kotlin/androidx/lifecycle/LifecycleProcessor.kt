@@ -24,10 +24,18 @@ import javax.lang.model.element.TypeElement
 
 @SupportedAnnotationTypes("androidx.lifecycle.OnLifecycleEvent")
 class LifecycleProcessor : AbstractProcessor() {
+    // indexes written in the previous rounds, listed in META-INF/services in the last round
+    private val adapterIndexes = mutableListOf<String>()
+
     override fun process(annotations: MutableSet<out TypeElement>,
                          roundEnv: RoundEnvironment): Boolean {
         val input = collectAndVerifyInput(processingEnv, roundEnv)
-        writeModels(transformToOutput(processingEnv, input), processingEnv)
+        val adapters = transformToOutput(processingEnv, input)
+        writeModels(adapters, processingEnv)
+        adapterIndexes.addAll(writeAdapterIndexes(adapters, processingEnv))
+        if (roundEnv.processingOver() && adapterIndexes.isNotEmpty()) {
+            writeAdapterIndexServices(adapterIndexes, processingEnv)
+        }
         return true
     }
 
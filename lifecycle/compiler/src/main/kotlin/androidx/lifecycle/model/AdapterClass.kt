@@ -32,3 +32,5 @@ fun getAdapterName(type: TypeElement): String {
             packageElement.qualifiedName.toString().length + 1)
     return Lifecycling.getAdapterName(partialName)
 }
+
+fun getAdapterIndexName(type: TypeElement) = "${getAdapterName(type)}Index"
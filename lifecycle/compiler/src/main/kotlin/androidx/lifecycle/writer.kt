@@ -18,15 +18,20 @@ package androidx.lifecycle
 
 import androidx.lifecycle.model.AdapterClass
 import androidx.lifecycle.model.EventMethodCall
+import androidx.lifecycle.model.getAdapterIndexName
 import androidx.lifecycle.model.getAdapterName
 import com.squareup.javapoet.AnnotationSpec
+import com.squareup.javapoet.ArrayTypeName
 import com.squareup.javapoet.ClassName
+import com.squareup.javapoet.CodeBlock
 import com.squareup.javapoet.FieldSpec
 import com.squareup.javapoet.JavaFile
 import com.squareup.javapoet.MethodSpec
 import com.squareup.javapoet.ParameterSpec
+import com.squareup.javapoet.ParameterizedTypeName
 import com.squareup.javapoet.TypeName
 import com.squareup.javapoet.TypeSpec
+import com.squareup.javapoet.WildcardTypeName
 import javax.annotation.processing.ProcessingEnvironment
 import javax.lang.model.element.Modifier
 import javax.lang.model.element.TypeElement
@@ -36,6 +41,30 @@ fun writeModels(infos: List<AdapterClass>, processingEnv: ProcessingEnvironment)
     infos.forEach({ writeAdapter(it, processingEnv) })
 }
 
+/**
+ * Writes a [GeneratedAdapterIndex] for each package of the given adapters, so that Lifecycling
+ * does not have to look the adapters up with reflection.
+ *
+ * @return The qualified names of the written indexes.
+ */
+fun writeAdapterIndexes(infos: List<AdapterClass>,
+                        processingEnv: ProcessingEnvironment): List<String> {
+    return infos.groupBy { it.type.getPackageQName() }.map { (packageName, adapters) ->
+        writeAdapterIndex(packageName, adapters.sortedBy { it.type.qualifiedName.toString() },
+                processingEnv)
+    }
+}
+
+/**
+ * Lists the given indexes in META-INF/services, where Lifecycling finds them with a
+ * [java.util.ServiceLoader].
+ */
+fun writeAdapterIndexServices(indexNames: List<String>, processingEnv: ProcessingEnvironment) {
+    val path = "META-INF/services/${GeneratedAdapterIndex::class.java.name}"
+    val out = processingEnv.filer.createResource(StandardLocation.CLASS_OUTPUT, "", path)
+    out.openWriter().use { writer -> indexNames.forEach { writer.write("$it\n") } }
+}
+
 private val GENERATED_PACKAGE = "javax.annotation"
 private val GENERATED_NAME = "Generated"
 private val LIFECYCLE_EVENT = Lifecycle.Event::class.java
@@ -51,6 +80,12 @@ private val EVENT_PARAM: ParameterSpec = ParameterSpec.builder(
         ClassName.get(LIFECYCLE_EVENT), "event").build()
 private val ON_ANY_PARAM: ParameterSpec = ParameterSpec.builder(TypeName.BOOLEAN, "onAny").build()
 
+private val INDEX_PARAM: ParameterSpec = ParameterSpec.builder(TypeName.INT, "index").build()
+private val OBJECT_RECEIVER_PARAM: ParameterSpec = ParameterSpec.builder(
+        TypeName.OBJECT, "receiver").build()
+private val CLASS_TYPE: TypeName = ParameterizedTypeName.get(ClassName.get(Class::class.java),
+        WildcardTypeName.subtypeOf(Object::class.java))
+
 private val METHODS_LOGGER: ParameterSpec = ParameterSpec.builder(
         ClassName.get(MethodCallsLogger::class.java), "logger").build()
 
@@ -129,6 +164,61 @@ private fun writeAdapter(adapter: AdapterClass, processingEnv: ProcessingEnviron
     generateKeepRule(adapter.type, processingEnv)
 }
 
+private fun writeAdapterIndex(packageName: String, adapters: List<AdapterClass>,
+                              processingEnv: ProcessingEnvironment): String {
+    val observerClasses = CodeBlock.builder()
+    adapters.forEachIndexed { i, adapter ->
+        if (i > 0) {
+            observerClasses.add(", ")
+        }
+        observerClasses.add("$T.class", ClassName.get(adapter.type))
+    }
+    val getObserverClasses = MethodSpec.methodBuilder("getObserverClasses")
+            .returns(ArrayTypeName.of(CLASS_TYPE))
+            .addModifiers(Modifier.PUBLIC)
+            .addAnnotation(Override::class.java)
+            .addStatement("return new $T[]{$L}", CLASS_TYPE, observerClasses.build())
+            .build()
+
+    val createAdapter = MethodSpec.methodBuilder("createAdapter")
+            .returns(ClassName.get(GeneratedAdapter::class.java))
+            .addParameter(INDEX_PARAM)
+            .addParameter(OBJECT_RECEIVER_PARAM)
+            .addModifiers(Modifier.PUBLIC)
+            .addAnnotation(Override::class.java)
+            .apply {
+                beginControlFlow("switch ($N)", INDEX_PARAM)
+                adapters.forEachIndexed { i, adapter ->
+                    addCode("case $L:\n$>", i)
+                    addStatement("return new $T(($T) $N)",
+                            ClassName.get(packageName, getAdapterName(adapter.type)),
+                            ClassName.get(adapter.type), OBJECT_RECEIVER_PARAM)
+                    addCode("$<")
+                }
+                addCode("default:\n$>")
+                addStatement("throw new $T($S + $N)", IllegalArgumentException::class.java,
+                        "Unknown observer index ", INDEX_PARAM)
+                addCode("$<")
+                endControlFlow()
+            }.build()
+
+    val indexName = getAdapterIndexName(adapters.first().type)
+    val indexTypeSpecBuilder = TypeSpec.classBuilder(indexName)
+            .addModifiers(Modifier.PUBLIC)
+            .addSuperinterface(ClassName.get(GeneratedAdapterIndex::class.java))
+            .addMethod(getObserverClasses)
+            .addMethod(createAdapter)
+
+    addGeneratedAnnotationIfAvailable(indexTypeSpecBuilder, processingEnv)
+
+    JavaFile.builder(packageName, indexTypeSpecBuilder.build())
+            .build().writeTo(processingEnv.filer)
+
+    val qualifiedName = if (packageName.isEmpty()) indexName else "$packageName.$indexName"
+    generateIndexKeepRule(qualifiedName, processingEnv)
+    return qualifiedName
+}
+
 private fun addGeneratedAnnotationIfAvailable(adapterTypeSpecBuilder: TypeSpec.Builder,
                                               processingEnv: ProcessingEnvironment) {
     val generatedAnnotationAvailable = processingEnv
@@ -164,6 +254,18 @@ private fun generateKeepRule(type: TypeElement, processingEnv: ProcessingEnviron
     out.openWriter().use { it.write(keepRule) }
 }
 
+private fun generateIndexKeepRule(indexClass: String, processingEnv: ProcessingEnvironment) {
+    val keepRule = """# Generated keep rule for Lifecycle adapter index.
+        |-keep class $indexClass {
+        |    <init>();
+        |}
+        |""".trimMargin()
+
+    val path = "META-INF/proguard/$indexClass.pro"
+    val out = processingEnv.filer.createResource(StandardLocation.CLASS_OUTPUT, "", path)
+    out.openWriter().use { it.write(keepRule) }
+}
+
 private fun MethodSpec.Builder.writeMethodCalls(calls: List<EventMethodCall>,
                                                 receiverField: FieldSpec) {
     calls.forEach { (method, syntheticAccess) ->
@@ -26,6 +26,7 @@ import org.junit.runners.JUnit4
 import java.io.File
 import java.lang.Exception
 import java.net.URLClassLoader
+import java.nio.charset.StandardCharsets
 import javax.tools.StandardLocation
 
 @RunWith(JUnit4::class)
@@ -42,6 +43,33 @@ class ValidCasesTest {
         ).and().generatesProGuardRule("foo.OnAnyMethod.pro")
     }
 
+    @Test
+    fun testAdapterIndex() {
+        processClass("foo.OnAnyMethod").compilesWithoutError().and().generatesSources(
+                load("foo.OnAnyMethod_LifecycleAdapterIndex", "expected")
+        ).and().generatesProGuardRule("foo.OnAnyMethod_LifecycleAdapterIndex.pro")
+                .and().generatesFileNamed(StandardLocation.CLASS_OUTPUT, "",
+                        "META-INF/services/androidx.lifecycle.GeneratedAdapterIndex")
+                .withStringContents(StandardCharsets.UTF_8,
+                        "foo.OnAnyMethod_LifecycleAdapterIndex\n")
+    }
+
+    @Test
+    fun testAdapterIndexPackagePrivate() {
+        processClass("foo.InheritanceOk2").compilesWithoutError().and().generatesSources(
+                load("foo.InheritanceOk2Base_LifecycleAdapterIndex", "expected")
+        )
+    }
+
+    @Test
+    fun testAdapterIndexDifferentPackages() {
+        processClass("foo.DifferentPackagesBase1",
+                "bar.DifferentPackagesDerived1").compilesWithoutError().and()
+                .generatesProGuardRule("foo.DifferentPackagesBase1_LifecycleAdapterIndex.pro")
+                .and()
+                .generatesProGuardRule("bar.DifferentPackagesDerived1_LifecycleAdapterIndex.pro")
+    }
+
     @Test
     fun testInheritance() {
         processClass("foo.InheritanceOk1").compilesWithoutError()
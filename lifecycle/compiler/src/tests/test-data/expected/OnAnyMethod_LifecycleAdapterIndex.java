@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foo;
+
+import androidx.lifecycle.GeneratedAdapter;
+import androidx.lifecycle.GeneratedAdapterIndex;
+import java.lang.Class;
+import java.lang.IllegalArgumentException;
+import java.lang.Object;
+import java.lang.Override;
+import javax.annotation.Generated;
+
+@Generated("androidx.lifecycle.LifecycleProcessor")
+public class OnAnyMethod_LifecycleAdapterIndex implements GeneratedAdapterIndex {
+  @Override
+  public Class<?>[] getObserverClasses() {
+    return new Class<?>[]{OnAnyMethod.class};
+  }
+
+  @Override
+  public GeneratedAdapter createAdapter(int index, Object receiver) {
+    switch (index) {
+      case 0:
+        return new OnAnyMethod_LifecycleAdapter((OnAnyMethod) receiver);
+      default:
+        throw new IllegalArgumentException("Unknown observer index " + index);
+    }
+  }
+}
@@ -22,11 +22,14 @@ import static androidx.lifecycle.Lifecycle.State.STARTED;
 import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
 import androidx.arch.core.executor.ArchTaskExecutor;
 import androidx.arch.core.internal.SafeIterableMap;
 
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * LiveData is a data holder class that can be observed within a given lifecycle.
@@ -57,8 +60,6 @@ import java.util.Map;
  * @see ViewModel
  */
 public abstract class LiveData<T> {
-    @SuppressWarnings("WeakerAccess") /* synthetic access */
-    final Object mDataLock = new Object();
     static final int START_VERSION = -1;
     @SuppressWarnings("WeakerAccess") /* synthetic access */
     static final Object NOT_SET = new Object();
@@ -73,7 +74,8 @@ public abstract class LiveData<T> {
     // when setData is called, we set the pending data and actual data swap happens on the main
     // thread
     @SuppressWarnings("WeakerAccess") /* synthetic access */
-    volatile Object mPendingData = NOT_SET;
+    final AtomicReference<Object> mPendingData = new AtomicReference<>(NOT_SET);
+    private static final AtomicLong sCoalescedPostValueCount = new AtomicLong();
     private int mVersion;
 
     private boolean mDispatchingValue;
@@ -82,11 +84,7 @@ public abstract class LiveData<T> {
     private final Runnable mPostValueRunnable = new Runnable() {
         @Override
         public void run() {
-            Object newValue;
-            synchronized (mDataLock) {
-                newValue = mPendingData;
-                mPendingData = NOT_SET;
-            }
+            Object newValue = mPendingData.getAndSet(NOT_SET);
             //noinspection unchecked
             setValue((T) newValue);
         }
@@ -276,19 +274,30 @@ public abstract class LiveData<T> {
      * <p>
      * If you called this method multiple times before a main thread executed a posted task, only
      * the last value would be dispatched.
+     * <p>
+     * The values posted to all LiveData instances are set in a single main thread task, so a
+     * burst of updates to many LiveData instances does not flood the main thread with messages.
      *
      * @param value The new value
      */
     protected void postValue(T value) {
-        boolean postTask;
-        synchronized (mDataLock) {
-            postTask = mPendingData == NOT_SET;
-            mPendingData = value;
-        }
-        if (!postTask) {
+        if (mPendingData.getAndSet(value) != NOT_SET) {
+            // A task is already posted and will pick up the new value.
+            sCoalescedPostValueCount.incrementAndGet();
             return;
         }
-        ArchTaskExecutor.getInstance().postToMainThread(mPostValueRunnable);
+        ArchTaskExecutor.getInstance().postToMainThreadBatched(mPostValueRunnable);
+    }
+
+    /**
+     * Returns the number of {@link #postValue(Object)} calls, across all LiveData instances,
+     * that replaced a value that was not dispatched yet instead of posting a new task.
+     *
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
+    public static long getCoalescedPostValueCount() {
+        return sCoalescedPostValueCount.get();
     }
 
     /**
@@ -25,6 +25,7 @@ import static androidx.lifecycle.Lifecycle.Event.ON_STOP;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyString;
@@ -38,7 +39,9 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import androidx.annotation.Nullable;
+import androidx.annotation.NonNull;
 import androidx.arch.core.executor.ArchTaskExecutor;
+import androidx.arch.core.executor.TaskExecutor;
 import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
 
 import org.junit.After;
@@ -51,6 +54,9 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @SuppressWarnings({"unchecked"})
 @RunWith(JUnit4.class)
 public class LiveDataTest {
@@ -811,6 +817,46 @@ public class LiveDataTest {
         verify(observer).onChanged("foo");
     }
 
+    @Test
+    public void postValue_coalescedAndBatched() {
+        final List<Runnable> mainThreadTasks = new ArrayList<>();
+        ArchTaskExecutor.getInstance().setDelegate(new TaskExecutor() {
+            @Override
+            public void executeOnDiskIO(@NonNull Runnable runnable) {
+                runnable.run();
+            }
+
+            @Override
+            public void postToMainThread(@NonNull Runnable runnable) {
+                mainThreadTasks.add(runnable);
+            }
+
+            @Override
+            public boolean isMainThread() {
+                return true;
+            }
+        });
+        MutableLiveData<String> first = new MutableLiveData<>();
+        MutableLiveData<String> second = new MutableLiveData<>();
+        long coalesced = LiveData.getCoalescedPostValueCount();
+
+        first.postValue("a");
+        first.postValue("b");
+        second.postValue("c");
+        assertThat(mainThreadTasks.size(), is(1));
+        assertThat(LiveData.getCoalescedPostValueCount() - coalesced, is(1L));
+        assertThat(first.getValue(), nullValue());
+
+        mainThreadTasks.remove(0).run();
+        assertThat(first.getValue(), is("b"));
+        assertThat(second.getValue(), is("c"));
+
+        second.postValue("d");
+        assertThat(mainThreadTasks.size(), is(1));
+        mainThreadTasks.remove(0).run();
+        assertThat(second.getValue(), is("d"));
+    }
+
     private LifecycleEventObserver getLiveDataInternalObserver(Lifecycle lifecycle) {
         ArgumentCaptor<LifecycleEventObserver> captor =
                 ArgumentCaptor.forClass(LifecycleEventObserver.class);
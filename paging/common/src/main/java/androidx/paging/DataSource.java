@@ -24,6 +24,7 @@ import androidx.arch.core.util.Function;
 
 import com.google.common.util.concurrent.ListenableFuture;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -284,6 +285,12 @@ public abstract class DataSource<Key, Value> {
 
     private AtomicBoolean mInvalid = new AtomicBoolean(false);
 
+    @Nullable
+    private volatile int[] mInvalidatedRange;
+
+    @Nullable
+    private WeakReference<DataSource<?, ?>> mReplacedDataSource;
+
     private CopyOnWriteArrayList<InvalidatedCallback> mOnInvalidatedCallbacks =
             new CopyOnWriteArrayList<>();
 
@@ -325,12 +332,74 @@ public abstract class DataSource<Key, Value> {
     @AnyThread
     public void invalidate() {
         if (mInvalid.compareAndSet(false, true)) {
-            for (InvalidatedCallback callback : mOnInvalidatedCallbacks) {
-                callback.onInvalidated();
-            }
+            dispatchInvalidated();
+        }
+    }
+
+    /**
+     * Signal the data source to stop loading, and notify its callback, reporting that only the
+     * items in the given range of positions have changed.
+     * <p>
+     * Positions are those of the {@link PagedList} loaded from this DataSource, including
+     * placeholders. The items before {@code startPosition} and the items from
+     * {@code endPosition} to the end of the list must be the same, in the same order, in the list
+     * loaded by the DataSource that replaces this one. Items within the range may have changed,
+     * been removed, or had new items inserted between them.
+     * <p>
+     * When both lists have placeholders enabled, {@code AsyncPagedListDiffer}
+     * then only compares the items within the range, instead of comparing every loaded item of
+     * the two lists.
+     * <p>
+     * If invalidate has already been called, this method does nothing.
+     *
+     * @param startPosition Position of the first item that may have changed.
+     * @param endPosition Position after the last item that may have changed.
+     */
+    @AnyThread
+    public void invalidateRange(int startPosition, int endPosition) {
+        if (startPosition < 0 || endPosition < startPosition) {
+            throw new IllegalArgumentException("Invalid range [" + startPosition + ", "
+                    + endPosition + ")");
+        }
+        if (mInvalid.compareAndSet(false, true)) {
+            mInvalidatedRange = new int[] {startPosition, endPosition};
+            dispatchInvalidated();
         }
     }
 
+    private void dispatchInvalidated() {
+        for (InvalidatedCallback callback : mOnInvalidatedCallbacks) {
+            callback.onInvalidated();
+        }
+    }
+
+    /**
+     * Returns the range of positions passed to {@link #invalidateRange(int, int)}, or null if
+     * the DataSource is valid or was invalidated with {@link #invalidate()}.
+     */
+    @Nullable
+    int[] getInvalidatedRange() {
+        return mInvalidatedRange;
+    }
+
+    /**
+     * Returns the DataSource that was invalidated and replaced by this one, if it is still
+     * referenced.
+     */
+    @Nullable
+    DataSource<?, ?> getReplacedDataSource() {
+        return mReplacedDataSource == null ? null : mReplacedDataSource.get();
+    }
+
+    /**
+     * Records the DataSource that this one is replacing, so that a list loaded from this
+     * DataSource can be diffed against the range of positions reported by the replaced one.
+     */
+    void setReplacedDataSource(@Nullable DataSource<?, ?> replaced) {
+        mReplacedDataSource = replaced == null
+                ? null : new WeakReference<DataSource<?, ?>>(replaced);
+    }
+
     /**
      * Returns true if the data source is invalid, and can no longer be queried for data.
      *
@@ -64,6 +64,17 @@ class WrapperDataSource<Key, ValueFrom, ValueTo> extends DataSource<Key, ValueTo
         mSource.invalidate();
     }
 
+    @Override
+    public void invalidateRange(int startPosition, int endPosition) {
+        mSource.invalidateRange(startPosition, endPosition);
+    }
+
+    @Nullable
+    @Override
+    int[] getInvalidatedRange() {
+        return mSource.getInvalidatedRange();
+    }
+
     @Override
     public boolean isInvalid() {
         return mSource.isInvalid();
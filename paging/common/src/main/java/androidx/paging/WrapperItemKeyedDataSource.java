@@ -17,6 +17,7 @@
 package androidx.paging;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.arch.core.util.Function;
 
 import java.util.IdentityHashMap;
@@ -50,6 +51,17 @@ class WrapperItemKeyedDataSource<K, A, B> extends ItemKeyedDataSource<K, B> {
         mSource.invalidate();
     }
 
+    @Override
+    public void invalidateRange(int startPosition, int endPosition) {
+        mSource.invalidateRange(startPosition, endPosition);
+    }
+
+    @Nullable
+    @Override
+    int[] getInvalidatedRange() {
+        return mSource.getInvalidatedRange();
+    }
+
     @Override
     public boolean isInvalid() {
         return mSource.isInvalid();
@@ -48,6 +48,17 @@ class WrapperPageKeyedDataSource<K, A, B> extends PageKeyedDataSource<K, B> {
         mSource.invalidate();
     }
 
+    @Override
+    public void invalidateRange(int startPosition, int endPosition) {
+        mSource.invalidateRange(startPosition, endPosition);
+    }
+
+    @Nullable
+    @Override
+    int[] getInvalidatedRange() {
+        return mSource.getInvalidatedRange();
+    }
+
     @Override
     public boolean isInvalid() {
         return mSource.isInvalid();
@@ -17,6 +17,7 @@
 package androidx.paging;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.arch.core.util.Function;
 
 import java.util.List;
@@ -47,6 +48,17 @@ class WrapperPositionalDataSource<A, B> extends PositionalDataSource<B> {
         mSource.invalidate();
     }
 
+    @Override
+    public void invalidateRange(int startPosition, int endPosition) {
+        mSource.invalidateRange(startPosition, endPosition);
+    }
+
+    @Nullable
+    @Override
+    int[] getInvalidatedRange() {
+        return mSource.getInvalidatedRange();
+    }
+
     @Override
     public boolean isInvalid() {
         return mSource.isInvalid();
@@ -17,6 +17,7 @@
 package androidx.paging
 
 import androidx.paging.futures.DirectExecutor
+import org.junit.Assert.assertArrayEquals
 import org.junit.Assert.assertEquals
 import org.junit.Assert.assertTrue
 import org.junit.Assert.fail
@@ -424,6 +425,26 @@ class PositionalDataSourceTest {
         assertTrue(orig.isInvalid)
     }
 
+    @Test
+    fun testInvalidateRangeFromWrapper() {
+        val orig = ListDataSource(listOf(0, 1, 2))
+        val wrapper = orig.map { it.toString() }
+
+        wrapper.invalidateRange(1, 2)
+        assertTrue(orig.isInvalid)
+        assertArrayEquals(intArrayOf(1, 2), orig.invalidatedRange)
+        assertArrayEquals(intArrayOf(1, 2), wrapper.invalidatedRange)
+
+        // only the first invalidation is reported
+        orig.invalidate()
+        assertArrayEquals(intArrayOf(1, 2), orig.invalidatedRange)
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun testInvalidateRangeInvalid() {
+        ListDataSource(listOf(0, 1, 2)).invalidateRange(2, 1)
+    }
+
     companion object {
         private val ERROR = Exception()
     }
@@ -107,6 +107,57 @@ class PagedStorageDiffHelperTest {
         }
     }
 
+    @Test
+    fun changedRange_onlyComparesItemsInRange() {
+        val compared = mutableListOf<String>()
+        val countingCallback = object : DiffUtil.ItemCallback<String>() {
+            override fun areItemsTheSame(oldItem: String, newItem: String): Boolean {
+                compared.add(oldItem)
+                return DIFF_CALLBACK.areItemsTheSame(oldItem, newItem)
+            }
+
+            override fun areContentsTheSame(oldItem: String, newItem: String): Boolean {
+                compared.add(oldItem)
+                return DIFF_CALLBACK.areContentsTheSame(oldItem, newItem)
+            }
+        }
+        val oldList = PagedStorage(5, listOf("a1", "b1", "c1", "d1"), 5)
+        // copy the strings, so that unchanged items are not the same instances
+        val newList = PagedStorage(5, listOf("a1", "b2", "c1", "d1").map {
+            String(it.toCharArray())
+        }, 5)
+        val diffResult = PagedStorageDiffHelper.computeDiff(
+                oldList, newList, countingCallback, intArrayOf(6, 7))
+        val listUpdateCallback = mock(ListUpdateCallback::class.java)
+        PagedStorageDiffHelper.dispatchDiff(listUpdateCallback, oldList, newList, diffResult)
+
+        verify(listUpdateCallback).onChanged(6, 1, null)
+        verifyNoMoreInteractions(listUpdateCallback)
+        assertEquals(listOf("b1", "b1"), compared)
+    }
+
+    @Test
+    fun changedRange_insert() {
+        validateTwoListDiff(
+                PagedStorage(5, listOf("a", "b", "c", "d"), 5),
+                PagedStorage(5, listOf("a", "b", "x", "c", "d"), 5),
+                intArrayOf(7, 7)) {
+            verify(it).onInserted(7, 1)
+            verifyNoMoreInteractions(it)
+        }
+    }
+
+    @Test
+    fun changedRange_remove() {
+        validateTwoListDiff(
+                PagedStorage(5, listOf("a", "b", "c", "d"), 5),
+                PagedStorage(5, listOf("a", "d"), 5),
+                intArrayOf(6, 8)) {
+            verify(it).onRemoved(6, 2)
+            verifyNoMoreInteractions(it)
+        }
+    }
+
     @Test
     fun transformAnchorIndex_removal() {
         validateTwoListDiffTransform(
@@ -242,9 +293,11 @@ class PagedStorageDiffHelperTest {
         private fun validateTwoListDiff(
             oldList: PagedStorage<String>,
             newList: PagedStorage<String>,
+            changedRange: IntArray? = null,
             validator: (callback: ListUpdateCallback) -> Unit
         ) {
-            val diffResult = PagedStorageDiffHelper.computeDiff(oldList, newList, DIFF_CALLBACK)
+            val diffResult = PagedStorageDiffHelper.computeDiff(
+                    oldList, newList, DIFF_CALLBACK, changedRange)
             val listUpdateCallback = mock(ListUpdateCallback::class.java)
             PagedStorageDiffHelper.dispatchDiff(listUpdateCallback, oldList, newList, diffResult)
 
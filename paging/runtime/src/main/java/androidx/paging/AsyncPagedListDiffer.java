@@ -356,6 +356,7 @@ public class AsyncPagedListDiffer<T> {
 
         final PagedList<T> oldSnapshot = mSnapshot;
         final PagedList<T> newSnapshot = (PagedList<T>) pagedList.snapshot();
+        final int[] changedRange = getChangedRange(oldSnapshot, pagedList);
         mConfig.getBackgroundThreadExecutor().execute(new Runnable() {
             @Override
             public void run() {
@@ -363,7 +364,8 @@ public class AsyncPagedListDiffer<T> {
                 result = PagedStorageDiffHelper.computeDiff(
                         oldSnapshot.mStorage,
                         newSnapshot.mStorage,
-                        mConfig.getDiffCallback());
+                        mConfig.getDiffCallback(),
+                        changedRange);
 
                 mMainThreadExecutor.execute(new Runnable() {
                     @Override
@@ -378,6 +380,25 @@ public class AsyncPagedListDiffer<T> {
         });
     }
 
+    /**
+     * Returns the range of positions reported by {@link DataSource#invalidateRange(int, int)}
+     * when the new list was loaded by the DataSource that directly replaced the old list's one,
+     * or null if every item has to be diffed.
+     */
+    @Nullable
+    private static int[] getChangedRange(@NonNull PagedList<?> oldList,
+            @NonNull PagedList<?> newList) {
+        // without placeholders, positions are not stable between the two lists
+        if (!oldList.getConfig().enablePlaceholders || !newList.getConfig().enablePlaceholders) {
+            return null;
+        }
+        final DataSource<?, ?> replaced = newList.getDataSource().getReplacedDataSource();
+        if (replaced == null || replaced != oldList.getDataSource()) {
+            return null;
+        }
+        return replaced.getInvalidatedRange();
+    }
+
     @SuppressWarnings("WeakerAccess") /* synthetic access */
     void latchPagedList(
             @NonNull PagedList<T> newList,
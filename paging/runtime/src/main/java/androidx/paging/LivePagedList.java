@@ -46,6 +46,10 @@ class LivePagedList<Key, Value> extends LiveData<PagedList<Value>>
     @NonNull
     private PagedList<Value> mCurrentData;
 
+    // the most recently created DataSource, which may not have produced mCurrentData yet
+    @NonNull
+    private DataSource<Key, Value> mDataSource;
+
     @Nullable
     private ListenableFuture<PagedList<Value>> mCurrentFuture = null;
 
@@ -82,7 +86,8 @@ class LivePagedList<Key, Value> extends LiveData<PagedList<Value>>
         mDataSourceFactory = dataSourceFactory;
         mNotifyExecutor = notifyExecutor;
         mFetchExecutor = fetchExecutor;
-        mCurrentData = new InitialPagedList<>(dataSourceFactory.create(), config, initialKey);
+        mDataSource = dataSourceFactory.create();
+        mCurrentData = new InitialPagedList<>(mDataSource, config, initialKey);
         onSuccess(mCurrentData);
     }
 
@@ -97,6 +102,8 @@ class LivePagedList<Key, Value> extends LiveData<PagedList<Value>>
         DataSource<Key, Value> dataSource = mDataSourceFactory.create();
         mCurrentData.getDataSource().removeInvalidatedCallback(mCallback);
         dataSource.addInvalidatedCallback(mCallback);
+        dataSource.setReplacedDataSource(mDataSource);
+        mDataSource = dataSource;
 
         mCurrentData.setInitialLoadState(PagedList.LoadState.LOADING, null);
 
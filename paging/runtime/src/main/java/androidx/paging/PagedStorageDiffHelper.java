@@ -37,6 +37,10 @@ import androidx.recyclerview.widget.ListUpdateCallback;
  * @see PagedStorage#computeTrailingNulls()
  */
 class PagedStorageDiffHelper {
+    private static final int UNKNOWN = 0;
+    private static final int MATCH = 1;
+    private static final int NO_MATCH = 2;
+
     private PagedStorageDiffHelper() {
     }
 
@@ -44,13 +48,60 @@ class PagedStorageDiffHelper {
             final PagedStorage<T> oldList,
             final PagedStorage<T> newList,
             final DiffUtil.ItemCallback<T> diffCallback) {
+        return computeDiff(oldList, newList, diffCallback, null);
+    }
+
+    /**
+     * Computes the diff between the two lists, given the range of positions in the old list
+     * outside of which items are known to be unchanged.
+     * <p>
+     * Items outside of the changed range are matched to the item at the same position in the new
+     * list (shifted by the change in list size if they are after the range) without calling the
+     * diffCallback, and are never matched to any other item. Only the items within the range are
+     * compared, so an invalidation that changes a single row costs one page of comparisons
+     * instead of one per loaded item.
+     *
+     * @param changedRange start (inclusive) and end (exclusive) position of the items in the old
+     *                     list that may have changed, or null if any item may have changed.
+     *
+     * @see DataSource#invalidateRange(int, int)
+     */
+    static <T> DiffUtil.DiffResult computeDiff(
+            final PagedStorage<T> oldList,
+            final PagedStorage<T> newList,
+            final DiffUtil.ItemCallback<T> diffCallback,
+            @Nullable final int[] changedRange) {
         final int oldOffset = oldList.computeLeadingNulls();
         final int newOffset = newList.computeLeadingNulls();
 
         final int oldSize = oldList.size() - oldOffset - oldList.computeTrailingNulls();
         final int newSize = newList.size() - newOffset - newList.computeTrailingNulls();
 
+        final int changedStart = changedRange == null ? 0 : changedRange[0];
+        final int changedEnd = changedRange == null ? Integer.MAX_VALUE : changedRange[1];
+        final int sizeDelta = newList.size() - oldList.size();
+
         return DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            /**
+             * Returns MATCH or NO_MATCH if the result is known from the changed range, or
+             * UNKNOWN if the items have to be compared.
+             */
+            private int matchOutsideChangedRange(int oldItemPosition, int newItemPosition) {
+                final int oldPosition = oldItemPosition + oldOffset;
+                final int newPosition = newItemPosition + newList.getLeadingNullCount();
+                final boolean oldUnchanged =
+                        oldPosition < changedStart || oldPosition >= changedEnd;
+                final boolean newUnchanged =
+                        newPosition < changedStart || newPosition >= changedEnd + sizeDelta;
+                if (!oldUnchanged && !newUnchanged) {
+                    return UNKNOWN;
+                }
+                final int alignedPosition =
+                        oldPosition < changedStart ? oldPosition : oldPosition + sizeDelta;
+                return oldUnchanged && newUnchanged && alignedPosition == newPosition
+                        ? MATCH : NO_MATCH;
+            }
+
             @Nullable
             @Override
             public Object getChangePayload(int oldItemPosition, int newItemPosition) {
@@ -83,6 +134,12 @@ class PagedStorageDiffHelper {
                 if (oldItem == null || newItem == null) {
                     return false;
                 }
+                if (changedRange != null) {
+                    final int match = matchOutsideChangedRange(oldItemPosition, newItemPosition);
+                    if (match != UNKNOWN) {
+                        return match == MATCH;
+                    }
+                }
                 return diffCallback.areItemsTheSame(oldItem, newItem);
             }
 
@@ -97,6 +154,10 @@ class PagedStorageDiffHelper {
                 if (oldItem == null || newItem == null) {
                     return false;
                 }
+                if (changedRange != null
+                        && matchOutsideChangedRange(oldItemPosition, newItemPosition) == MATCH) {
+                    return true;
+                }
 
                 return diffCallback.areContentsTheSame(oldItem, newItem);
             }
@@ -322,11 +322,13 @@ public final class RxPagedListBuilder<Key, Value> {
             }
 
             do {
-                if (mDataSource != null) {
-                    mDataSource.removeInvalidatedCallback(this);
+                DataSource<Key, Value> replaced = mDataSource;
+                if (replaced != null) {
+                    replaced.removeInvalidatedCallback(this);
                 }
                 mDataSource = mDataSourceFactory.create();
                 mDataSource.addInvalidatedCallback(this);
+                mDataSource.setReplacedDataSource(replaced);
 
                 mList = new PagedList.Builder<>(mDataSource, mConfig)
                         .setNotifyExecutor(mNotifyExecutor)
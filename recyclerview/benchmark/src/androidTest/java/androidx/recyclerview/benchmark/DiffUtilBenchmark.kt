@@ -0,0 +1,110 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.recyclerview.benchmark
+
+import androidx.benchmark.BenchmarkRule
+import androidx.benchmark.measureRepeated
+import androidx.recyclerview.widget.DiffUtil
+import androidx.test.filters.LargeTest
+import org.junit.After
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+import java.util.Random
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+
+/**
+ * Compares [DiffUtil.calculateDiff] with its parallel variant on lists of items with stable ids,
+ * with a growing number of random insertions, removals and moves.
+ */
+@LargeTest
+@RunWith(Parameterized::class)
+class DiffUtilBenchmark(private val size: Int, private val changes: Int) {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val executor: ExecutorService =
+        Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors())
+
+    private val callback: IdCallback
+
+    init {
+        val random = Random(size.toLong() * 31 + changes)
+        val oldList = LongArray(size) { it.toLong() }
+        val newList = oldList.toMutableList()
+        var nextId = size.toLong()
+        repeat(changes) {
+            when (random.nextInt(3)) {
+                0 -> newList.add(random.nextInt(newList.size + 1), nextId++)
+                1 -> if (newList.isNotEmpty()) newList.removeAt(random.nextInt(newList.size))
+                else -> if (newList.isNotEmpty()) {
+                    val item = newList.removeAt(random.nextInt(newList.size))
+                    newList.add(random.nextInt(newList.size + 1), item)
+                }
+            }
+        }
+        callback = IdCallback(oldList, newList.toLongArray())
+    }
+
+    @After
+    fun tearDown() {
+        executor.shutdown()
+    }
+
+    @Test
+    fun serial() {
+        benchmarkRule.measureRepeated {
+            DiffUtil.calculateDiff(callback, true)
+        }
+    }
+
+    @Test
+    fun parallel() {
+        benchmarkRule.measureRepeated {
+            DiffUtil.calculateDiff(callback, true, executor)
+        }
+    }
+
+    private class IdCallback(
+        private val oldList: LongArray,
+        private val newList: LongArray
+    ) : DiffUtil.Callback() {
+        override fun getOldListSize() = oldList.size
+
+        override fun getNewListSize() = newList.size
+
+        override fun areItemsTheSame(oldItemPosition: Int, newItemPosition: Int) =
+            oldList[oldItemPosition] == newList[newItemPosition]
+
+        override fun areContentsTheSame(oldItemPosition: Int, newItemPosition: Int) = true
+
+        override fun getOldItemId(oldItemPosition: Int) = oldList[oldItemPosition]
+
+        override fun getNewItemId(newItemPosition: Int) = newList[newItemPosition]
+    }
+
+    companion object {
+        @JvmStatic
+        @Parameterized.Parameters(name = "size={0}, changes={1}")
+        fun data() = listOf(1_000, 20_000).flatMap { size ->
+            listOf(10, 100, 1_000).map { arrayOf(size, it) }
+        }
+    }
+}
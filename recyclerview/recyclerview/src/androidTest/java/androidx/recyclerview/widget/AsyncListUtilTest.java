@@ -21,6 +21,8 @@ import static org.junit.Assert.assertTrue;
 
 import android.util.SparseBooleanArray;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.UiThread;
 import androidx.test.filters.MediumTest;
 import androidx.test.filters.Suppress;
@@ -33,11 +35,12 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
-// This test is disabled as it is flaky.
-@Suppress
+// The tests of the default AsyncListUtil are disabled with @Suppress as they are flaky.
 @MediumTest
 @RunWith(JUnit4.class)
 public class AsyncListUtilTest {
@@ -53,15 +56,29 @@ public class AsyncListUtilTest {
     AsyncListUtil<String> mAsyncListUtil;
 
     @Before
-    public final void setup() throws Throwable {
+    public final void setup() {
         mDataCallback = new TestDataCallback();
         mViewCallback = new TestViewCallback();
+    }
+
+    private void createAsyncListUtil() throws Throwable {
+        createAsyncListUtil(null, 1);
+    }
+
+    private void createAsyncListUtil(@Nullable final ByteBuffer tileBuffer,
+            final int loaderThreadCount) throws Throwable {
         mDataCallback.expectTiles(0, 10, 20);
         mActivityRule.runOnUiThread(new Runnable() {
             @Override
             public void run() {
-                mAsyncListUtil = new AsyncListUtil<>(
-                        String.class, TILE_SIZE, mDataCallback, mViewCallback);
+                if (tileBuffer == null) {
+                    mAsyncListUtil = new AsyncListUtil<>(
+                            String.class, TILE_SIZE, mDataCallback, mViewCallback);
+                } else {
+                    mAsyncListUtil = new AsyncListUtil<>(String.class, TILE_SIZE,
+                            mDataCallback, mViewCallback, new StringCodec(), tileBuffer,
+                            loaderThreadCount);
+                }
             }
         });
         mDataCallback.waitForTiles("initial load");
@@ -73,16 +90,20 @@ public class AsyncListUtilTest {
         new CountDownLatch(1).await(500, TimeUnit.MILLISECONDS);
     }
 
+    @Suppress
     @Test
     public void withNoPreload() throws Throwable {
+        createAsyncListUtil();
         scrollAndExpectTiles(10, "scroll to 10", 30);
         scrollAndExpectTiles(25, "scroll to 25", 40);
         scrollAndExpectTiles(45, "scroll to 45", 50, 60);
         scrollAndExpectTiles(70, "scroll to 70", 70, 80, 90);
     }
 
+    @Suppress
     @Test
     public void withPreload() throws Throwable {
+        createAsyncListUtil();
         mViewCallback.mStartPreload = 5;
         mViewCallback.mEndPreload = 15;
         scrollAndExpectTiles(50, "scroll down a lot", 40, 50, 60, 70, 80);
@@ -93,8 +114,10 @@ public class AsyncListUtilTest {
         scrollAndExpectTiles(40, "scroll up a little, no new tiles loaded");
     }
 
+    @Suppress
     @Test
     public void tileCaching() throws Throwable {
+        createAsyncListUtil();
         scrollAndExpectTiles(25, "next screen", 30, 40);
 
         scrollAndExpectTiles(0, "back at top, no new page loads");
@@ -105,8 +128,10 @@ public class AsyncListUtilTest {
         scrollAndExpectTiles(0, "scroll back to top, all pages should reload", 0, 10, 20);
     }
 
+    @Suppress
     @Test
     public void dataRefresh() throws Throwable {
+        createAsyncListUtil();
         mViewCallback.expectDataSetChanged(40);
         mDataCallback.expectTiles(0, 10, 20);
         refreshOnUiThread();
@@ -120,8 +145,10 @@ public class AsyncListUtilTest {
         mDataCallback.waitForTiles("decreasing item count");
     }
 
+    @Suppress
     @Test
     public void itemChanged() throws Throwable {
+        createAsyncListUtil();
         final int position = 30;
         final int count = 20;
 
@@ -134,6 +161,61 @@ public class AsyncListUtilTest {
         assertLoadedItemsOnUiThread("all new items should be loaded", count, position, count);
     }
 
+    @Test
+    public void tileBuffer_itemsDecodedFromBuffer() throws Throwable {
+        createAsyncListUtil(ByteBuffer.allocateDirect(
+                10 * TILE_SIZE * StringCodec.MAX_ITEM_SIZE), 2);
+        waitForItemsOnUiThread(0, TestViewCallback.VIEWPORT_SIZE);
+
+        scrollAndExpectTiles(25, "next screen", 30, 40);
+        waitForItemsOnUiThread(25, TestViewCallback.VIEWPORT_SIZE);
+    }
+
+    @Test
+    public void tileBuffer_deferredLoadWhenOutOfSlots() throws Throwable {
+        // room for the three tiles of the first screen only
+        createAsyncListUtil(ByteBuffer.allocate(3 * TILE_SIZE * StringCodec.MAX_ITEM_SIZE), 1);
+
+        // tiles 30 and 40 wait until tiles 0 and 10 are dropped and give their slots back
+        scrollAndExpectTiles(25, "next screen, out of slots", 30, 40);
+        waitForItemsOnUiThread(25, TestViewCallback.VIEWPORT_SIZE);
+
+        scrollAndExpectTiles(0, "back at top, out of slots", 0, 10);
+        waitForItemsOnUiThread(0, TestViewCallback.VIEWPORT_SIZE);
+    }
+
+    /**
+     * Waits until the items in the given range are loaded, and checks that they have the values
+     * written by {@link TestDataCallback}.
+     */
+    private void waitForItemsOnUiThread(final int position, final int count) throws Throwable {
+        // asking for an item that is not loaded yet leads to an onItemLoaded call
+        mViewCallback.expectItemRangeChanged(position, count);
+        final boolean[] loaded = new boolean[1];
+        for (int i = 0; i < 20 && !loaded[0]; i++) {
+            if (i > 0) {
+                Thread.sleep(50);
+            }
+            mActivityRule.runOnUiThread(new Runnable() {
+                @Override
+                public void run() {
+                    loaded[0] = getLoadedItemCount(position, count) == count;
+                }
+            });
+        }
+        assertTrue("timed out waiting for items " + position + ".." + (position + count - 1),
+                loaded[0]);
+        mActivityRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = position; i < position + count; i++) {
+                    int tileStart = i - i % TILE_SIZE;
+                    assertEquals("item #" + tileStart, mAsyncListUtil.getItem(i));
+                }
+            }
+        });
+    }
+
     @UiThread
     private int getLoadedItemCount(int startPosition, int itemCount) {
         int loaded = 0;
@@ -305,6 +387,31 @@ public class AsyncListUtilTest {
         }
     }
 
+    private static class StringCodec extends AsyncListUtil.ItemCodec<String> {
+        static final int MAX_ITEM_SIZE = 32;
+        private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+        @Override
+        public int getMaxItemSize() {
+            return MAX_ITEM_SIZE;
+        }
+
+        @Override
+        public void encode(@NonNull String item, @NonNull ByteBuffer buffer) {
+            byte[] bytes = item.getBytes(UTF_8);
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+
+        @NonNull
+        @Override
+        public String decode(@NonNull ByteBuffer buffer) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            return new String(bytes, UTF_8);
+        }
+    }
+
     private static class PositionSetLatch {
         public CountDownLatch mLatch = new CountDownLatch(0);
 
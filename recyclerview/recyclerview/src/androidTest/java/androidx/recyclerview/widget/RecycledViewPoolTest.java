@@ -21,6 +21,7 @@ import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 
 import android.content.Context;
@@ -91,6 +92,146 @@ public class RecycledViewPoolTest {
         assertEquals(0, pool.getRecycledViewCount(3));
     }
 
+    @Test
+    public void hitAndMissCounts() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        pool.putRecycledView(makeHolder(1));
+        assertNotNull(pool.getRecycledView(1));
+        assertNull(pool.getRecycledView(1));
+
+        assertEquals(1, pool.getHitCount(1));
+        assertEquals(1, pool.getMissCount(1));
+        assertEquals(0, pool.getHitCount(2));
+        assertEquals(0, pool.getMissCount(2));
+    }
+
+    @Test
+    public void unknownType_notAdded() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        assertNull(pool.getRecycledView(1));
+        assertEquals(0, pool.getHitCount(1));
+        assertEquals(0, pool.getMissCount(1));
+        assertEquals(0, pool.getRecycledViewCount(1));
+        assertEquals(5, pool.getMaxRecycledViews(1));
+        assertEquals(0, pool.mScrap.size());
+    }
+
+    @Test
+    public void adaptive_growsAfterMisses() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        pool.setAdaptiveSizingEnabled(true);
+        pool.setMaxRecycledViews(1, 2);
+        for (int i = 0; i < 4; i++) {
+            assertNull(pool.getRecycledView(1));
+        }
+        for (int i = 0; i < 8; i++) {
+            pool.putRecycledView(makeHolder(1));
+        }
+
+        // two holders fit, and each of the four misses made room for one more
+        assertEquals(6, pool.getRecycledViewCount(1));
+        assertEquals(6, pool.getMaxRecycledViews(1));
+    }
+
+    @Test
+    public void adaptive_disabled_keepsFixedLimit() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        pool.setMaxRecycledViews(1, 2);
+        for (int i = 0; i < 4; i++) {
+            assertNull(pool.getRecycledView(1));
+        }
+        for (int i = 0; i < 8; i++) {
+            pool.putRecycledView(makeHolder(1));
+        }
+
+        assertEquals(2, pool.getRecycledViewCount(1));
+        assertEquals(2, pool.getMaxRecycledViews(1));
+    }
+
+    @Test
+    public void adaptive_disabledAgain_restoresLimit() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        pool.setAdaptiveSizingEnabled(true);
+        pool.setMaxRecycledViews(1, 2);
+        for (int i = 0; i < 4; i++) {
+            assertNull(pool.getRecycledView(1));
+        }
+        for (int i = 0; i < 8; i++) {
+            pool.putRecycledView(makeHolder(1));
+        }
+        pool.setAdaptiveSizingEnabled(false);
+
+        assertEquals(2, pool.getRecycledViewCount(1));
+        assertEquals(2, pool.getMaxRecycledViews(1));
+    }
+
+    @Test
+    public void adaptive_fullPool_evictsCheaperType() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        pool.setAdaptiveSizingEnabled(true);
+        pool.setMaxTotalRecycledViews(3);
+        pool.factorInCreateTime(1, 1000);
+        pool.factorInCreateTime(2, 5000);
+        for (int i = 0; i < 3; i++) {
+            pool.putRecycledView(makeHolder(1));
+        }
+        pool.putRecycledView(makeHolder(2));
+
+        assertEquals(2, pool.getRecycledViewCount(1));
+        assertEquals(2, pool.getMaxRecycledViews(1));
+        assertEquals(1, pool.getRecycledViewCount(2));
+        assertEquals(3, pool.size());
+    }
+
+    @Test
+    public void adaptive_evictingLastHolder_keepsRoomForOne() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        pool.setAdaptiveSizingEnabled(true);
+        pool.setMaxTotalRecycledViews(1);
+        pool.factorInCreateTime(1, 1000);
+        pool.factorInCreateTime(2, 5000);
+        pool.putRecycledView(makeHolder(1));
+        pool.putRecycledView(makeHolder(2));
+
+        assertEquals(0, pool.getRecycledViewCount(1));
+        assertEquals(1, pool.getMaxRecycledViews(1));
+
+        pool.setAdaptiveSizingEnabled(false);
+        assertEquals(5, pool.getMaxRecycledViews(1));
+    }
+
+    @Test
+    public void adaptive_fullPool_discardsWhenNothingIsCheaper() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        pool.setAdaptiveSizingEnabled(true);
+        pool.setMaxTotalRecycledViews(3);
+        pool.factorInCreateTime(1, 5000);
+        pool.factorInCreateTime(2, 1000);
+        for (int i = 0; i < 3; i++) {
+            pool.putRecycledView(makeHolder(1));
+        }
+        pool.putRecycledView(makeHolder(2));
+
+        assertEquals(3, pool.getRecycledViewCount(1));
+        assertEquals(0, pool.getRecycledViewCount(2));
+    }
+
+    @Test
+    public void adaptive_shrinkingTotal_evictsCheapestFirst() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        pool.setAdaptiveSizingEnabled(true);
+        pool.factorInCreateTime(1, 1000);
+        pool.factorInCreateTime(2, 5000);
+        for (int i = 0; i < 3; i++) {
+            pool.putRecycledView(makeHolder(1));
+            pool.putRecycledView(makeHolder(2));
+        }
+        pool.setMaxTotalRecycledViews(4);
+
+        assertEquals(1, pool.getRecycledViewCount(1));
+        assertEquals(3, pool.getRecycledViewCount(2));
+    }
+
     @Test
     public void onAdapterChanged_attachedToOneOldAdapterNotNullNotCompatWithPrev_clears() {
         onAdapterChanged(1, true, true, true);
@@ -21,6 +21,7 @@ import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import android.os.Looper;
 
@@ -33,10 +34,17 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @RunWith(AndroidJUnit4.class)
 @MediumTest
@@ -172,6 +180,74 @@ public class ThreadUtilTest {
         assertThat(data, is(new Object[]{tile}));
     }
 
+    @Test
+    public void multipleBackgroundThreads_runConcurrently() throws InterruptedException {
+        BlockingBackgroundCallback callback = new BlockingBackgroundCallback();
+        CountDownLatch release = callback.block(0, 1, 2);
+        ThreadUtil.BackgroundCallback<Integer> proxy =
+                new MessageThreadUtil<Integer>(2).getBackgroundProxy(callback);
+        proxy.loadTile(0, 0);
+        proxy.loadTile(1, 0);
+        proxy.loadTile(2, 0);
+
+        callback.waitForCalls(2);
+        // the third tile waits for one of the two threads
+        Thread.sleep(100);
+        assertThat(callback.mCalls.size(), is(2));
+        assertThat(callback.mRunning.get(), is(2));
+
+        release.countDown();
+        callback.waitForCalls(1);
+        assertThat(callback.mMaxRunning.get(), is(2));
+    }
+
+    @Test
+    public void multipleBackgroundThreads_updateRangeCancelsPendingLoads()
+            throws InterruptedException {
+        BlockingBackgroundCallback callback = new BlockingBackgroundCallback();
+        CountDownLatch release = callback.block(0, 1);
+        ThreadUtil.BackgroundCallback<Integer> proxy =
+                new MessageThreadUtil<Integer>(2).getBackgroundProxy(callback);
+        proxy.loadTile(0, 0);
+        proxy.loadTile(1, 0);
+        callback.waitForCalls(2);
+
+        proxy.loadTile(2, 0);
+        proxy.loadTile(3, 0);
+        proxy.updateRange(10, 20, 5, 25, 1);
+        release.countDown();
+        callback.waitForCalls(1);
+        // sent after the update, so it runs after the cancelled loads would have
+        proxy.loadTile(4, 0);
+        callback.waitForCalls(1);
+
+        assertThat(callback.mCalls.subList(2, callback.mCalls.size()),
+                is(Arrays.asList("updateRange 10", "loadTile 4")));
+    }
+
+    @Test
+    public void multipleBackgroundThreads_keepMessageOrder() throws InterruptedException {
+        BlockingBackgroundCallback callback = new BlockingBackgroundCallback();
+        CountDownLatch releaseFirst = callback.block(0);
+        CountDownLatch releaseSecond = callback.block(1);
+        ThreadUtil.BackgroundCallback<Integer> proxy =
+                new MessageThreadUtil<Integer>(2).getBackgroundProxy(callback);
+        proxy.loadTile(0, 0);
+        callback.waitForCalls(1);
+        proxy.loadTile(1, 0);
+        callback.waitForCalls(1);
+
+        // both threads are busy, the refresh is handled before the loads sent earlier
+        proxy.loadTile(2, 0);
+        proxy.loadTile(3, 0);
+        proxy.refresh(7);
+        releaseSecond.countDown();
+        callback.waitForCalls(3);
+        assertThat(callback.mCalls.subList(2, callback.mCalls.size()),
+                is(Arrays.asList("refresh 7", "loadTile 2", "loadTile 3")));
+        releaseFirst.countDown();
+    }
+
     private void assertMainThread() {
         assertThat(Looper.myLooper(), notNullValue());
         assertThat(Looper.myLooper(), sameInstance(Looper.getMainLooper()));
@@ -195,6 +271,68 @@ public class ThreadUtilTest {
         }
     }
 
+    private static class BlockingBackgroundCallback
+            implements ThreadUtil.BackgroundCallback<Integer> {
+        final List<String> mCalls = Collections.synchronizedList(new ArrayList<String>());
+        final AtomicInteger mRunning = new AtomicInteger();
+        final AtomicInteger mMaxRunning = new AtomicInteger();
+        private final Semaphore mStarted = new Semaphore(0);
+        private final Map<Integer, CountDownLatch> mBlockers = new ConcurrentHashMap<>();
+
+        CountDownLatch block(int... positions) {
+            CountDownLatch latch = new CountDownLatch(1);
+            for (int position : positions) {
+                mBlockers.put(position, latch);
+            }
+            return latch;
+        }
+
+        void waitForCalls(int count) throws InterruptedException {
+            assertTrue("timed out waiting for " + count + " calls",
+                    mStarted.tryAcquire(count, 2, TimeUnit.SECONDS));
+        }
+
+        @Override
+        public void refresh(int generation) {
+            run("refresh " + generation, null);
+        }
+
+        @Override
+        public void updateRange(int rangeStart, int rangeEnd, int extRangeStart,
+                int extRangeEnd, int scrollHint) {
+            run("updateRange " + rangeStart, null);
+        }
+
+        @Override
+        public void loadTile(int position, int scrollHint) {
+            run("loadTile " + position, mBlockers.get(position));
+        }
+
+        @Override
+        public void recycleTile(TileList.Tile<Integer> tile) {
+            run("recycleTile", null);
+        }
+
+        private void run(String call, CountDownLatch blocker) {
+            final int running = mRunning.incrementAndGet();
+            int max = mMaxRunning.get();
+            while (running > max && !mMaxRunning.compareAndSet(max, running)) {
+                max = mMaxRunning.get();
+            }
+            mCalls.add(call);
+            mStarted.release();
+            try {
+                if (blocker != null) {
+                    blocker.await(5, TimeUnit.SECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                mRunning.decrementAndGet();
+            }
+        }
+    }
+
     private class LockedObject {
         private Semaphore mLock = new Semaphore(1);
         private volatile Object[] mArgs;
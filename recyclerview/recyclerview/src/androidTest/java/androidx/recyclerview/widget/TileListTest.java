@@ -23,6 +23,7 @@ import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 
+import androidx.annotation.NonNull;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.SmallTest;
 
@@ -30,6 +31,8 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.nio.ByteBuffer;
+
 @RunWith(AndroidJUnit4.class)
 @SmallTest
 public class TileListTest {
@@ -137,6 +140,42 @@ public class TileListTest {
         assertThat(mTileList.size(), is(1));
     }
 
+    @Test
+    public void bufferedTile() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(mTileSize * 4 * 2);
+        buffer.position(mTileSize * 4);
+        TileList.Tile<Integer> tile = new TileList.Tile<>(buffer.slice(), new IntCodec());
+        tile.mStartPosition = 3;
+        tile.mItemCount = 3;
+        tile.encodeItem(0, 4);
+        tile.encodeItem(1, 5);
+        tile.encodeItem(2, 6);
+        assertThat(tile.mItems, nullValue());
+        assertThat(mTileList.addOrReplace(tile), nullValue());
+        assertThat(mTileList.getItemAt(3), is(4));
+        assertThat(mTileList.getItemAt(5), is(6));
+        assertThat(mTileList.getItemAt(4), is(5));
+        assertThat(buffer.getInt(mTileSize * 4), is(4));
+    }
+
+    private static class IntCodec extends AsyncListUtil.ItemCodec<Integer> {
+        @Override
+        public int getMaxItemSize() {
+            return 4;
+        }
+
+        @Override
+        public void encode(@NonNull Integer item, @NonNull ByteBuffer buffer) {
+            buffer.putInt(item);
+        }
+
+        @NonNull
+        @Override
+        public Integer decode(@NonNull ByteBuffer buffer) {
+            return buffer.getInt();
+        }
+    }
+
     private TileList.Tile<Integer> createTile(int startPosition, int... items) {
         TileList.Tile<Integer> window = new TileList.Tile<>(Integer.class, mTileSize);
         window.mStartPosition = startPosition;
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.recyclerview.widget;
+
+import static androidx.test.platform.app.InstrumentationRegistry.getInstrumentation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.test.R;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.MediumTest;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@MediumTest
+@RunWith(AndroidJUnit4.class)
+public class ViewHolderPreInflaterTest {
+    private static final int TYPE_PRE_INFLATED = 0;
+    private static final int TYPE_MAIN_THREAD = 1;
+    // view types from this one on are pre-inflated as well
+    private static final int TYPE_PRE_INFLATED_FIRST = 100;
+    // capacity of the request queue of AsyncLayoutInflater
+    private static final int INFLATER_QUEUE_SIZE = 10;
+
+    private RecyclerView mRecyclerView;
+    private TestAdapter mAdapter;
+    private TestPreInflater mPreInflater;
+
+    private Context getContext() {
+        return ApplicationProvider.getApplicationContext();
+    }
+
+    private void setup(final int viewType) {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mRecyclerView = new RecyclerView(getContext());
+                mRecyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+                mAdapter = new TestAdapter(viewType);
+                mRecyclerView.setAdapter(mAdapter);
+                mPreInflater = new TestPreInflater(getContext());
+                mRecyclerView.setViewHolderPreInflater(mPreInflater);
+            }
+        });
+    }
+
+    @Test
+    public void requestInflation_unsupportedType() {
+        setup(TYPE_MAIN_THREAD);
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                assertFalse(mPreInflater.requestInflation(mRecyclerView, TYPE_MAIN_THREAD));
+            }
+        });
+    }
+
+    @Test
+    public void preInflatedViewHolder_usedByLayout() throws InterruptedException {
+        setup(TYPE_PRE_INFLATED);
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                assertTrue(mPreInflater.requestInflation(mRecyclerView, TYPE_PRE_INFLATED));
+            }
+        });
+        assertTrue(mPreInflater.mCreated.await(5, TimeUnit.SECONDS));
+
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                RecyclerView.RecycledViewPool pool = mRecyclerView.getRecycledViewPool();
+                assertEquals(1, pool.getRecycledViewCount(TYPE_PRE_INFLATED));
+                assertEquals(1, mPreInflater.getPreInflatedCount());
+                assertEquals(0, mPreInflater.getAvoidedInflationCount());
+
+                mRecyclerView.measure(
+                        View.MeasureSpec.makeMeasureSpec(100, View.MeasureSpec.EXACTLY),
+                        View.MeasureSpec.makeMeasureSpec(100, View.MeasureSpec.EXACTLY));
+                mRecyclerView.layout(0, 0, 100, 100);
+
+                assertEquals(1, mRecyclerView.getChildCount());
+                assertEquals(0, mAdapter.mCreatedCount);
+                assertEquals(0, pool.getRecycledViewCount(TYPE_PRE_INFLATED));
+                assertEquals(1, mPreInflater.getAvoidedInflationCount());
+            }
+        });
+    }
+
+    @Test
+    public void preInflatedViewHolder_droppedAfterAdapterChange() throws InterruptedException {
+        setup(TYPE_PRE_INFLATED);
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                assertTrue(mPreInflater.requestInflation(mRecyclerView, TYPE_PRE_INFLATED));
+                mRecyclerView.swapAdapter(new TestAdapter(TYPE_PRE_INFLATED), false);
+            }
+        });
+        assertTrue(mPreInflater.mInflated.await(5, TimeUnit.SECONDS));
+        // the view was inflated for the old adapter, so no ViewHolder was created for it
+        assertEquals(1, mPreInflater.mCreated.getCount());
+
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals(0, mRecyclerView.getRecycledViewPool()
+                        .getRecycledViewCount(TYPE_PRE_INFLATED));
+                assertEquals(0, mPreInflater.getPreInflatedCount());
+            }
+        });
+    }
+
+    @Test
+    public void requestInflation_moreViewTypesThanInflaterQueue() throws InterruptedException {
+        setup(TYPE_PRE_INFLATED);
+        final int[] accepted = new int[1];
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                final int free = ViewHolderPreInflater.MAX_TOTAL_PENDING_INFLATIONS
+                        - ViewHolderPreInflater.getTotalPendingInflations();
+                mPreInflater.mCreated = new CountDownLatch(free);
+                for (int i = 0; i < 2 * INFLATER_QUEUE_SIZE; i++) {
+                    if (mPreInflater.requestInflation(mRecyclerView,
+                            TYPE_PRE_INFLATED_FIRST + i)) {
+                        accepted[0]++;
+                    }
+                    assertTrue(ViewHolderPreInflater.getTotalPendingInflations()
+                            <= ViewHolderPreInflater.MAX_TOTAL_PENDING_INFLATIONS);
+                }
+                // the other view types are left to the regular prefetch
+                assertEquals(free, accepted[0]);
+            }
+        });
+        assertTrue(mPreInflater.mCreated.await(5, TimeUnit.SECONDS));
+
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                RecyclerView.RecycledViewPool pool = mRecyclerView.getRecycledViewPool();
+                int pooled = 0;
+                for (int i = 0; i < 2 * INFLATER_QUEUE_SIZE; i++) {
+                    pooled += pool.getRecycledViewCount(TYPE_PRE_INFLATED_FIRST + i);
+                }
+                assertEquals(accepted[0], pooled);
+                assertEquals(accepted[0], mPreInflater.getPreInflatedCount());
+                assertEquals(0, ViewHolderPreInflater.getTotalPendingInflations());
+            }
+        });
+    }
+
+    private static class TestViewHolder extends RecyclerView.ViewHolder {
+        TestViewHolder(View itemView) {
+            super(itemView);
+        }
+    }
+
+    private static class TestPreInflater extends ViewHolderPreInflater {
+        CountDownLatch mCreated = new CountDownLatch(1);
+        // counted down once the inflated view was handled, even if it was dropped
+        final CountDownLatch mInflated = new CountDownLatch(1);
+
+        TestPreInflater(Context context) {
+            super(context);
+        }
+
+        @Override
+        public int getLayoutId(int viewType) {
+            return viewType == TYPE_PRE_INFLATED || viewType >= TYPE_PRE_INFLATED_FIRST
+                    ? R.layout.item_view : 0;
+        }
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull View itemView, int viewType) {
+            mCreated.countDown();
+            return new TestViewHolder(itemView);
+        }
+
+        @Override
+        void onInflated(@NonNull View view, @NonNull RecyclerView recyclerView,
+                @Nullable RecyclerView.Adapter adapter, int viewType) {
+            super.onInflated(view, recyclerView, adapter, viewType);
+            mInflated.countDown();
+        }
+    }
+
+    private static class TestAdapter extends RecyclerView.Adapter<TestViewHolder> {
+        private final int mViewType;
+        int mCreatedCount = 0;
+
+        TestAdapter(int viewType) {
+            mViewType = viewType;
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return mViewType;
+        }
+
+        @NonNull
+        @Override
+        public TestViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            mCreatedCount++;
+            return new TestViewHolder(LayoutInflater.from(parent.getContext())
+                    .inflate(R.layout.item_view, parent, false));
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull TestViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return 1;
+        }
+    }
+}
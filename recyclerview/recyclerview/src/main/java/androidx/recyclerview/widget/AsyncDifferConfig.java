@@ -127,12 +127,7 @@ public final class AsyncDifferConfig<T> {
         @NonNull
         public AsyncDifferConfig<T> build() {
             if (mBackgroundThreadExecutor == null) {
-                synchronized (sExecutorLock) {
-                    if (sDiffExecutor == null) {
-                        sDiffExecutor = Executors.newFixedThreadPool(2);
-                    }
-                }
-                mBackgroundThreadExecutor = sDiffExecutor;
+                mBackgroundThreadExecutor = getDefaultBackgroundThreadExecutor();
             }
             return new AsyncDifferConfig<>(
                     mMainThreadExecutor,
@@ -143,5 +138,18 @@ public final class AsyncDifferConfig<T> {
         // TODO: remove the below once supportlib has its own appropriate executors
         private static final Object sExecutorLock = new Object();
         private static Executor sDiffExecutor = null;
+
+        /**
+         * Returns the executor shared by all configs that did not set a background executor.
+         * {@link SortedList} uses it for its asynchronous updates as well.
+         */
+        static Executor getDefaultBackgroundThreadExecutor() {
+            synchronized (sExecutorLock) {
+                if (sDiffExecutor == null) {
+                    sDiffExecutor = Executors.newFixedThreadPool(2);
+                }
+                return sDiffExecutor;
+            }
+        }
     }
 }
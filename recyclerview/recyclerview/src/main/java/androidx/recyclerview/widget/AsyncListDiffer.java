@@ -128,7 +128,7 @@ public class AsyncListDiffer<T> {
     }
 
     // TODO: use MainThreadExecutor from supportlib once one exists
-    private static final Executor sMainThreadExecutor = new MainThreadExecutor();
+    static final Executor sMainThreadExecutor = new MainThreadExecutor();
 
     /**
      * Listener for when the current List is updated.
@@ -25,6 +25,12 @@ import androidx.annotation.Nullable;
 import androidx.annotation.UiThread;
 import androidx.annotation.WorkerThread;
 
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
 /**
  * A utility class that supports asynchronous content loading.
  * <p>
@@ -39,8 +45,15 @@ import androidx.annotation.WorkerThread;
  * {@link ViewCallback} when the data is loaded. It may load some extra items for smoother
  * scrolling.
  * <p>
- * Note that this class uses a single thread to load the data, so it suitable to load data from
- * secondary storage such as disk, but not from network.
+ * Note that this class uses a single thread to load the data by default, so it suitable to load
+ * data from secondary storage such as disk, but not from network.
+ * <p>
+ * For very large data sets, the loaded items can be kept outside of the Java heap: with
+ * {@link #AsyncListUtil(Class, int, DataCallback, ViewCallback, ItemCodec, ByteBuffer, int)},
+ * every item is encoded by an {@link ItemCodec} into a fixed size slot of a {@link ByteBuffer},
+ * such as a direct buffer or a memory-mapped file, and only decoded when
+ * {@link #getItem(int)} is called. The size of the buffer bounds the number of loaded tiles, and
+ * the data can be loaded by several threads.
  * <p>
  * This class is designed to work with {@link RecyclerView}, but it does
  * not depend on it and can be used with other list views.
@@ -56,6 +69,14 @@ public class AsyncListUtil<T> {
     final DataCallback<T> mDataCallback;
     final ViewCallback mViewCallback;
 
+    // Set if the items are stored in mTileBuffer rather than in arrays.
+    @Nullable
+    final ItemCodec<T> mItemCodec;
+    @Nullable
+    final ByteBuffer mTileBuffer;
+    // Number of tiles mTileBuffer can hold.
+    final int mTileSlotCount;
+
     final TileList<T> mTileList;
 
     final ThreadUtil.MainThreadCallback<T> mMainThreadProxy;
@@ -89,14 +110,66 @@ public class AsyncListUtil<T> {
      */
     public AsyncListUtil(@NonNull Class<T> klass, int tileSize,
             @NonNull DataCallback<T> dataCallback, @NonNull ViewCallback viewCallback) {
+        this(klass, tileSize, 1, dataCallback, viewCallback, null, null);
+    }
+
+    /**
+     * Creates an AsyncListUtil that keeps the loaded items encoded in a buffer instead of in
+     * arrays of objects.
+     * <p>
+     * The buffer is split into slots of {@code tileSize * itemCodec.getMaxItemSize()} bytes, each
+     * of which holds one tile, so the capacity of the buffer is a hard limit on the number of
+     * loaded tiles. It must be large enough to hold the tiles of the range returned by
+     * {@link ViewCallback#extendRangeInto(int[], int[], int)}, or some items will not be loaded
+     * until the range changes. The buffer must not be used by anything else while this
+     * AsyncListUtil exists.
+     *
+     * @param klass Class of the data item.
+     * @param tileSize Number of item per chunk loaded at once.
+     * @param dataCallback Data access callback.
+     * @param viewCallback Callback for querying visible item range and update notifications.
+     * @param itemCodec Codec that stores the items in the buffer.
+     * @param tileBuffer Buffer holding the loaded tiles, for example a buffer returned by
+     *                   {@link ByteBuffer#allocateDirect(int)} or
+     *                   {@link java.nio.channels.FileChannel#map}.
+     * @param loaderThreadCount Maximum number of threads that load tiles at the same time. If
+     *                          greater than 1, {@link DataCallback#fillData(Object[], int, int)}
+     *                          must be thread-safe.
+     */
+    public AsyncListUtil(@NonNull Class<T> klass, int tileSize,
+            @NonNull DataCallback<T> dataCallback, @NonNull ViewCallback viewCallback,
+            @NonNull ItemCodec<T> itemCodec, @NonNull ByteBuffer tileBuffer,
+            int loaderThreadCount) {
+        this(klass, tileSize, loaderThreadCount, dataCallback, viewCallback, itemCodec,
+                tileBuffer);
+    }
+
+    private AsyncListUtil(Class<T> klass, int tileSize, int loaderThreadCount,
+            DataCallback<T> dataCallback, ViewCallback viewCallback,
+            @Nullable ItemCodec<T> itemCodec, @Nullable ByteBuffer tileBuffer) {
         mTClass = klass;
         mTileSize = tileSize;
         mDataCallback = dataCallback;
         mViewCallback = viewCallback;
+        mItemCodec = itemCodec;
+        mTileBuffer = tileBuffer;
+        if (itemCodec != null && tileBuffer != null) {
+            final int itemSize = itemCodec.getMaxItemSize();
+            if (itemSize <= 0) {
+                throw new IllegalArgumentException("Items must have a positive size");
+            }
+            mTileSlotCount = tileBuffer.capacity() / (tileSize * itemSize);
+            if (mTileSlotCount == 0) {
+                throw new IllegalArgumentException("The tile buffer cannot hold a single tile of "
+                        + tileSize * itemSize + " bytes");
+            }
+        } else {
+            mTileSlotCount = Integer.MAX_VALUE;
+        }
 
         mTileList = new TileList<T>(mTileSize);
 
-        ThreadUtil<T> threadUtil = new MessageThreadUtil<T>();
+        ThreadUtil<T> threadUtil = new MessageThreadUtil<T>(loaderThreadCount);
         mMainThreadProxy = threadUtil.getMainThreadProxy(mMainThreadCallback);
         mBackgroundProxy = threadUtil.getBackgroundProxy(mBackgroundCallback);
 
@@ -293,10 +366,28 @@ public class AsyncListUtil<T> {
     private final ThreadUtil.BackgroundCallback<T>
             mBackgroundCallback = new ThreadUtil.BackgroundCallback<T>() {
 
+        // The fields are guarded by this callback, as several loader threads may call it.
+
         private TileList.Tile<T> mRecycledRoot;
 
+        // Number of tiles that were given a slot of mTileBuffer.
+        private int mTileSlotsInUse;
+
+        // Arrays filled by DataCallback#fillData before the items are encoded into mTileBuffer.
+        private final ArrayList<T[]> mItemArrays = new ArrayList<>();
+
         final SparseBooleanArray mLoadedTiles = new SparseBooleanArray();
 
+        // Tiles that loader threads are filling.
+        final SparseBooleanArray mLoadingTiles = new SparseBooleanArray();
+
+        // Scroll hints of the tiles that could not be loaded because all slots of mTileBuffer were
+        // in use, keyed by start position.
+        final SparseIntArray mDeferredTiles = new SparseIntArray();
+
+        // Keeps DataCallback#refreshData from running while tiles are being filled.
+        private final ReadWriteLock mDataLock = new ReentrantReadWriteLock();
+
         private int mGeneration;
         private int mItemCount;
 
@@ -305,15 +396,23 @@ public class AsyncListUtil<T> {
 
         @Override
         public void refresh(int generation) {
-            mGeneration = generation;
-            mLoadedTiles.clear();
-            mItemCount = mDataCallback.refreshData();
-            mMainThreadProxy.updateItemCount(mGeneration, mItemCount);
+            mDataLock.writeLock().lock();
+            try {
+                synchronized (this) {
+                    mGeneration = generation;
+                    mLoadedTiles.clear();
+                    mDeferredTiles.clear();
+                    mItemCount = mDataCallback.refreshData();
+                    mMainThreadProxy.updateItemCount(mGeneration, mItemCount);
+                }
+            } finally {
+                mDataLock.writeLock().unlock();
+            }
         }
 
         @Override
-        public void updateRange(int rangeStart, int rangeEnd, int extRangeStart, int extRangeEnd,
-                int scrollHint) {
+        public synchronized void updateRange(int rangeStart, int rangeEnd, int extRangeStart,
+                int extRangeEnd, int scrollHint) {
             if (DEBUG) {
                 log("updateRange: %d..%d extended to %d..%d, scroll hint: %d",
                         rangeStart, rangeEnd, extRangeStart, extRangeEnd, scrollHint);
@@ -335,6 +434,7 @@ public class AsyncListUtil<T> {
 
             // All pending tile requests are removed by ThreadUtil at this point.
             // Re-request all required tiles in the most optimal order.
+            mDeferredTiles.clear();
             if (scrollHint == ViewCallback.HINT_SCROLL_DESC) {
                 requestTiles(mFirstRequiredTileStart, lastVisibleTileStart, scrollHint, true);
                 requestTiles(lastVisibleTileStart + mTileSize, mLastRequiredTileStart, scrollHint,
@@ -363,38 +463,134 @@ public class AsyncListUtil<T> {
 
         @Override
         public void loadTile(int position, int scrollHint) {
-            if (isTileLoaded(position)) {
-                if (DEBUG) {
-                    log("already loaded tile @%d", position);
+            final TileList.Tile<T> tile;
+            final int generation;
+            synchronized (this) {
+                if (isTileLoaded(position) || mLoadingTiles.get(position)) {
+                    if (DEBUG) {
+                        log("already loaded tile @%d", position);
+                    }
+                    return;
+                }
+                tile = acquireTile(scrollHint);
+                if (tile == null) {
+                    if (DEBUG) {
+                        log("no free slot for tile @%d", position);
+                    }
+                    mDeferredTiles.put(position, scrollHint);
+                    return;
+                }
+                mLoadingTiles.put(position, true);
+                generation = mGeneration;
+                tile.mStartPosition = position;
+                tile.mItemCount = Math.min(mTileSize, mItemCount - tile.mStartPosition);
+            }
+
+            boolean filled = false;
+            mDataLock.readLock().lock();
+            try {
+                synchronized (this) {
+                    filled = generation == mGeneration;
+                }
+                if (filled) {
+                    fillTile(tile);
+                }
+            } finally {
+                mDataLock.readLock().unlock();
+            }
+
+            synchronized (this) {
+                mLoadingTiles.delete(position);
+                if (generation != mGeneration) {
+                    // The data was refreshed while the tile was loading.
+                    if (filled && tile.mItems != null) {
+                        mDataCallback.recycleData(tile.mItems, tile.mItemCount);
+                    }
+                    releaseTile(tile);
+                    return;
                 }
+                flushTileCache(scrollHint);
+                addTile(tile);
+            }
+        }
+
+        private void fillTile(TileList.Tile<T> tile) {
+            if (tile.mItems != null) {
+                mDataCallback.fillData(tile.mItems, tile.mStartPosition, tile.mItemCount);
                 return;
             }
-            TileList.Tile<T> tile = acquireTile();
-            tile.mStartPosition = position;
-            tile.mItemCount = Math.min(mTileSize, mItemCount - tile.mStartPosition);
-            mDataCallback.fillData(tile.mItems, tile.mStartPosition, tile.mItemCount);
-            flushTileCache(scrollHint);
-            addTile(tile);
+            final T[] items = acquireItemArray();
+            mDataCallback.fillData(items, tile.mStartPosition, tile.mItemCount);
+            for (int i = 0; i < tile.mItemCount; i++) {
+                tile.encodeItem(i, items[i]);
+            }
+            mDataCallback.recycleData(items, tile.mItemCount);
+            releaseItemArray(items);
         }
 
         @Override
-        public void recycleTile(TileList.Tile<T> tile) {
+        public synchronized void recycleTile(TileList.Tile<T> tile) {
             if (DEBUG) {
                 log("recycling tile @%d", tile.mStartPosition);
             }
-            mDataCallback.recycleData(tile.mItems, tile.mItemCount);
+            if (tile.mItems != null) {
+                mDataCallback.recycleData(tile.mItems, tile.mItemCount);
+            }
+            releaseTile(tile);
+        }
 
+        private void releaseTile(TileList.Tile<T> tile) {
             tile.mNext = mRecycledRoot;
             mRecycledRoot = tile;
+
+            // A slot of the tile buffer is free again.
+            for (int i = 0; i < mDeferredTiles.size(); i++) {
+                final int position = mDeferredTiles.keyAt(i);
+                if (mFirstRequiredTileStart <= position && position <= mLastRequiredTileStart) {
+                    mBackgroundProxy.loadTile(position, mDeferredTiles.valueAt(i));
+                }
+            }
+            mDeferredTiles.clear();
         }
 
-        private TileList.Tile<T> acquireTile() {
+        @Nullable
+        private TileList.Tile<T> acquireTile(int scrollHint) {
             if (mRecycledRoot != null) {
                 TileList.Tile<T> result = mRecycledRoot;
                 mRecycledRoot = mRecycledRoot.mNext;
                 return result;
             }
-            return new TileList.Tile<T>(mTClass, mTileSize);
+            if (mItemCodec == null || mTileBuffer == null) {
+                return new TileList.Tile<T>(mTClass, mTileSize);
+            }
+            if (mTileSlotsInUse < mTileSlotCount) {
+                final int slotSize = mTileSize * mItemCodec.getMaxItemSize();
+                final ByteBuffer slot = mTileBuffer.duplicate();
+                slot.position(mTileSlotsInUse * slotSize);
+                slot.limit((mTileSlotsInUse + 1) * slotSize);
+                mTileSlotsInUse++;
+                return new TileList.Tile<T>(slot.slice(), mItemCodec);
+            }
+            // Make room for the next tiles, the slots come back through recycleTile.
+            flushTileCache(scrollHint);
+            return null;
+        }
+
+        private T[] acquireItemArray() {
+            synchronized (mItemArrays) {
+                if (!mItemArrays.isEmpty()) {
+                    return mItemArrays.remove(mItemArrays.size() - 1);
+                }
+            }
+            @SuppressWarnings("unchecked")
+            T[] items = (T[]) Array.newInstance(mTClass, mTileSize);
+            return items;
+        }
+
+        private void releaseItemArray(T[] items) {
+            synchronized (mItemArrays) {
+                mItemArrays.add(items);
+            }
         }
 
         private boolean isTileLoaded(int position) {
@@ -418,8 +614,9 @@ public class AsyncListUtil<T> {
         }
 
         private void flushTileCache(int scrollHint) {
-            final int cacheSizeLimit = mDataCallback.getMaxCachedTiles();
-            while (mLoadedTiles.size() >= cacheSizeLimit) {
+            final int cacheSizeLimit = Math.min(mDataCallback.getMaxCachedTiles(), mTileSlotCount);
+            while (mLoadedTiles.size() + mLoadingTiles.size() >= cacheSizeLimit
+                    && mLoadedTiles.size() > 0) {
                 int firstLoadedTileStart = mLoadedTiles.keyAt(0);
                 int lastLoadedTileStart = mLoadedTiles.keyAt(mLoadedTiles.size() - 1);
                 int startMargin = mFirstRequiredTileStart - firstLoadedTileStart;
@@ -446,7 +643,10 @@ public class AsyncListUtil<T> {
      * The callback that provides data access for {@link AsyncListUtil}.
      *
      * <p>
-     * All methods are called on the background thread.
+     * All methods are called on the background thread. If the AsyncListUtil loads tiles with
+     * several threads, {@link #fillData(Object[], int, int)} and
+     * {@link #recycleData(Object[], int)} may be called from several threads at the same time,
+     * but never while {@link #refreshData()} runs.
      */
     public static abstract class DataCallback<T> {
 
@@ -496,6 +696,9 @@ public class AsyncListUtil<T> {
          * tiles that is required to cover the range returned by
          * {@link ViewCallback#extendRangeInto(int[], int[], int)}.
          * <p>
+         * If the items are stored in a tile buffer, the number of cached tiles is also limited by
+         * the number of tiles the buffer can hold.
+         * <p>
          * For example, if this method returns 10, and the most
          * recent call to {@link ViewCallback#extendRangeInto(int[], int[], int)} returned
          * {100, 179}, and the tile size is 5, then the maximum number of cached tiles will be 16.
@@ -512,6 +715,48 @@ public class AsyncListUtil<T> {
         }
     }
 
+    /**
+     * Stores the data items of an {@link AsyncListUtil} in the bytes of a {@link ByteBuffer}, so
+     * that loaded items do not stay on the Java heap.
+     *
+     * @see AsyncListUtil#AsyncListUtil(Class, int, DataCallback, ViewCallback, ItemCodec,
+     * ByteBuffer, int)
+     */
+    public static abstract class ItemCodec<T> {
+
+        /**
+         * Returns the maximum number of bytes an encoded item takes. Every item is given a slot of
+         * this size in the tile buffer.
+         *
+         * @return Maximum size of an item in bytes.
+         */
+        public abstract int getMaxItemSize();
+
+        /**
+         * Writes an item that {@link DataCallback#fillData(Object[], int, int)} loaded into the
+         * tile buffer.
+         *
+         * @param item The item to encode.
+         * @param buffer Buffer positioned at the start of the slot of the item, with its limit at
+         *               the end of the slot. Writing past the limit throws a
+         *               {@link java.nio.BufferOverflowException}.
+         */
+        @WorkerThread
+        public abstract void encode(@NonNull T item, @NonNull ByteBuffer buffer);
+
+        /**
+         * Creates an item from the bytes written by {@link #encode(Object, ByteBuffer)}. This is
+         * called by {@link AsyncListUtil#getItem(int)} for every item it returns.
+         *
+         * @param buffer Buffer positioned at the start of the slot of the item, with its limit at
+         *               the end of the slot.
+         * @return The decoded item.
+         */
+        @UiThread
+        @NonNull
+        public abstract T decode(@NonNull ByteBuffer buffer);
+    }
+
     /**
      * The callback that links {@link AsyncListUtil} with the list view.
      *
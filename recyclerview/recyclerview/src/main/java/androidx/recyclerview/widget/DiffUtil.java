@@ -26,6 +26,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * DiffUtil is a utility class that calculates the difference between two lists and outputs a
@@ -81,7 +82,7 @@ public class DiffUtil {
         // utility class, no instance.
     }
 
-    private static final Comparator<Snake> SNAKE_COMPARATOR = new Comparator<Snake>() {
+    static final Comparator<Snake> SNAKE_COMPARATOR = new Comparator<Snake>() {
         @Override
         public int compare(Snake o1, Snake o2) {
             int cmpX = o1.x - o2.x;
@@ -199,7 +200,39 @@ public class DiffUtil {
 
     }
 
-    private static Snake diffPartial(Callback cb, int startOld, int endOld,
+    /**
+     * Calculates the list of update operations that can covert one list into the other one,
+     * splitting the work across the threads of the given executor.
+     * <p>
+     * Items at the start and the end of the lists that are the same are matched without running
+     * Myers' algorithm. If the callback returns stable ids via
+     * {@link Callback#getOldItemId(int)} and {@link Callback#getNewItemId(int)}, items whose id
+     * is unique in both lists are used as anchors that split the remaining lists into smaller
+     * ranges. Each range, and each range Myers' algorithm splits it into, can be diffed
+     * independently, so they are picked up by the calling thread and the executor's threads in
+     * parallel.
+     * <p>
+     * The result is a valid edit sequence but it may not be the minimal one, and for the same
+     * lists it may be different from the result of {@link #calculateDiff(Callback, boolean)}.
+     * The callback must be safe to call from multiple threads at the same time.
+     *
+     * @param cb The callback that acts as a gateway to the backing list data
+     * @param detectMoves True if DiffUtil should try to detect moved items, false otherwise.
+     * @param executor The executor used to run the diff in parallel. The calling thread also
+     *                 takes part in the diff, so it completes even if the executor is busy.
+     *
+     * @return A DiffResult that contains the information about the edit sequence to convert the
+     * old list into the new list.
+     */
+    @NonNull
+    public static DiffResult calculateDiff(@NonNull Callback cb, boolean detectMoves,
+            @NonNull Executor executor) {
+        final List<Snake> snakes = new ParallelDiff(cb).calculateSnakes(executor);
+        return new DiffResult(cb, snakes, new int[cb.getOldListSize()],
+                new int[cb.getNewListSize()], detectMoves);
+    }
+
+    static Snake diffPartial(Callback cb, int startOld, int endOld,
             int startNew, int endNew, int[] forward, int[] backward, int kOffset) {
         final int oldSize = endOld - startOld;
         final int newSize = endNew - startNew;
@@ -359,6 +392,39 @@ public class DiffUtil {
         public Object getChangePayload(int oldItemPosition, int newItemPosition) {
             return null;
         }
+
+        /**
+         * Returns a stable id of the item at the given position in the old list, or
+         * {@link RecyclerView#NO_ID} if the item does not have one.
+         * <p>
+         * Ids are only used by {@link DiffUtil#calculateDiff(Callback, boolean, Executor)} to
+         * find items that can anchor the diff. Two items with the same id must be the same
+         * according to {@link #areItemsTheSame(int, int)}.
+         * <p>
+         * Default implementation returns {@link RecyclerView#NO_ID}.
+         *
+         * @param oldItemPosition The position of the item in the old list
+         *
+         * @return The stable id of the item.
+         */
+        public long getOldItemId(int oldItemPosition) {
+            return RecyclerView.NO_ID;
+        }
+
+        /**
+         * Returns a stable id of the item at the given position in the new list, or
+         * {@link RecyclerView#NO_ID} if the item does not have one.
+         * <p>
+         * Default implementation returns {@link RecyclerView#NO_ID}.
+         *
+         * @param newItemPosition The position of the item in the new list
+         *
+         * @return The stable id of the item.
+         * @see #getOldItemId(int)
+         */
+        public long getNewItemId(int newItemPosition) {
+            return RecyclerView.NO_ID;
+        }
     }
 
     /**
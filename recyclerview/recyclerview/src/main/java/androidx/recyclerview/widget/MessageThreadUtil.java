@@ -22,10 +22,29 @@ import android.os.Looper;
 import android.util.Log;
 
 import java.util.concurrent.Executor;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 class MessageThreadUtil<T> implements ThreadUtil<T> {
 
+    // Maximum number of threads that handle background messages at the same time.
+    private final int mBackgroundThreadCount;
+
+    MessageThreadUtil() {
+        this(1);
+    }
+
+    /**
+     * @param backgroundThreadCount Maximum number of threads that call the background callback at
+     *                              the same time. If greater than 1, the callback must be
+     *                              thread-safe.
+     */
+    MessageThreadUtil(int backgroundThreadCount) {
+        if (backgroundThreadCount < 1) {
+            throw new IllegalArgumentException("backgroundThreadCount must be at least 1");
+        }
+        mBackgroundThreadCount = backgroundThreadCount;
+    }
+
     @Override
     public MainThreadCallback<T> getMainThreadProxy(final MainThreadCallback<T> callback) {
         return new MainThreadCallback<T>() {
@@ -88,7 +107,7 @@ class MessageThreadUtil<T> implements ThreadUtil<T> {
         return new BackgroundCallback<T>() {
             final MessageQueue mQueue = new MessageQueue();
             private final Executor mExecutor = AsyncTask.THREAD_POOL_EXECUTOR;
-            AtomicBoolean mBackgroundRunning = new AtomicBoolean(false);
+            AtomicInteger mBackgroundRunning = new AtomicInteger(0);
 
             static final int REFRESH = 1;
             static final int UPDATE_RANGE = 2;
@@ -128,8 +147,15 @@ class MessageThreadUtil<T> implements ThreadUtil<T> {
             }
 
             private void maybeExecuteBackgroundRunnable() {
-                if (mBackgroundRunning.compareAndSet(false, true)) {
-                    mExecutor.execute(mBackgroundRunnable);
+                while (true) {
+                    final int running = mBackgroundRunning.get();
+                    if (running >= mBackgroundThreadCount) {
+                        return;
+                    }
+                    if (mBackgroundRunning.compareAndSet(running, running + 1)) {
+                        mExecutor.execute(mBackgroundRunnable);
+                        return;
+                    }
                 }
             }
 
@@ -137,18 +163,29 @@ class MessageThreadUtil<T> implements ThreadUtil<T> {
                 @Override
                 public void run() {
                     while (true) {
-                        SyncQueueItem msg = mQueue.next();
-                        if (msg == null) {
-                            break;
+                        final SyncQueueItem msg;
+                        // Taking a message and dropping the ones it replaces is atomic, so that
+                        // another thread cannot pick one of them up in between. A thread stops
+                        // while holding the lock, so that a message sent at the same time either
+                        // reaches it or sees that it is no longer running.
+                        synchronized (mQueue) {
+                            msg = mQueue.next();
+                            if (msg == null) {
+                                mBackgroundRunning.decrementAndGet();
+                                return;
+                            }
+                            if (msg.what == REFRESH) {
+                                mQueue.removeMessages(REFRESH);
+                            } else if (msg.what == UPDATE_RANGE) {
+                                mQueue.removeMessages(UPDATE_RANGE);
+                                mQueue.removeMessages(LOAD_TILE);
+                            }
                         }
                         switch (msg.what) {
                             case REFRESH:
-                                mQueue.removeMessages(REFRESH);
                                 callback.refresh(msg.arg1);
                                 break;
                             case UPDATE_RANGE:
-                                mQueue.removeMessages(UPDATE_RANGE);
-                                mQueue.removeMessages(LOAD_TILE);
                                 callback.updateRange(
                                         msg.arg1, msg.arg2, msg.arg3, msg.arg4, msg.arg5);
                                 break;
@@ -164,7 +201,6 @@ class MessageThreadUtil<T> implements ThreadUtil<T> {
                                 Log.e("ThreadUtil", "Unsupported message, what=" + msg.what);
                         }
                     }
-                    mBackgroundRunning.set(false);
                 }
             };
         };
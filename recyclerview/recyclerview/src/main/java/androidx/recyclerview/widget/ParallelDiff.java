@@ -0,0 +1,343 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.recyclerview.widget;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil.Range;
+import androidx.recyclerview.widget.DiffUtil.Snake;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Finds the Myers' snakes between two lists for
+ * {@link DiffUtil#calculateDiff(DiffUtil.Callback, boolean, Executor)}.
+ * <p>
+ * The common prefix and suffix of the lists are matched directly and the items in between are
+ * split into independent ranges at the items whose stable id is unique in both lists, picking the
+ * longest increasing sequence of them (as in patience diff). The ranges are then solved with
+ * Myers' algorithm by every thread that runs this class, each of them keeping its own k-line
+ * arrays, sized for the largest range it has solved so far.
+ */
+final class ParallelDiff implements Runnable {
+
+    private static final int[] EMPTY = new int[0];
+
+    // marks an id that appears more than once in a list
+    private static final int DUPLICATE = -1;
+
+    private final DiffUtil.Callback mCallback;
+
+    // guarded by this
+    private final List<Snake> mSnakes = new ArrayList<>();
+    // ranges waiting to be solved, guarded by this
+    private final List<Range> mRanges = new ArrayList<>();
+    // number of ranges being solved, guarded by this
+    private int mActiveRanges;
+    // guarded by this
+    private Throwable mError;
+
+    ParallelDiff(@NonNull DiffUtil.Callback callback) {
+        mCallback = callback;
+    }
+
+    /**
+     * Returns the sorted snakes between the old and new lists of the callback.
+     */
+    @NonNull
+    List<Snake> calculateSnakes(@NonNull Executor executor) {
+        final int oldSize = mCallback.getOldListSize();
+        final int newSize = mCallback.getNewListSize();
+        final int minSize = Math.min(oldSize, newSize);
+
+        int prefix = 0;
+        while (prefix < minSize && mCallback.areItemsTheSame(prefix, prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < minSize - prefix
+                && mCallback.areItemsTheSame(oldSize - suffix - 1, newSize - suffix - 1)) {
+            suffix++;
+        }
+        addSnake(null, 0, 0, prefix);
+        addSnake(null, oldSize - suffix, newSize - suffix, suffix);
+        splitAtAnchors(prefix, oldSize - suffix, prefix, newSize - suffix);
+
+        if (!mRanges.isEmpty()) {
+            final int workers = Runtime.getRuntime().availableProcessors() - 1;
+            for (int i = 0; i < workers; i++) {
+                executor.execute(this);
+            }
+            // returns once every range is solved, even if none of the workers could start
+            run();
+        }
+
+        synchronized (this) {
+            if (mError instanceof RuntimeException) {
+                throw (RuntimeException) mError;
+            } else if (mError instanceof Error) {
+                throw (Error) mError;
+            } else if (mError != null) {
+                throw new RuntimeException(mError);
+            }
+            Collections.sort(mSnakes, DiffUtil.SNAKE_COMPARATOR);
+            return mSnakes;
+        }
+    }
+
+    /**
+     * Solves ranges until there is nothing left to solve.
+     */
+    @Override
+    public void run() {
+        int[] forward = EMPTY;
+        int[] backward = EMPTY;
+        Range range;
+        while ((range = takeRange()) != null) {
+            final Snake snake;
+            try {
+                final int oldSize = range.oldListEnd - range.oldListStart;
+                final int newSize = range.newListEnd - range.newListStart;
+                final int max = oldSize + newSize + Math.abs(oldSize - newSize);
+                if (forward.length < max * 2) {
+                    forward = new int[max * 2];
+                    backward = new int[max * 2];
+                }
+                snake = DiffUtil.diffPartial(mCallback, range.oldListStart, range.oldListEnd,
+                        range.newListStart, range.newListEnd, forward, backward, max);
+            } catch (Throwable t) {
+                fail(t);
+                return;
+            }
+            finishRange(range, snake);
+        }
+    }
+
+    /**
+     * Splits the given area at the items whose id is unique in both lists and adds the ranges
+     * between them to the queue.
+     */
+    private void splitAtAnchors(int startOld, int endOld, int startNew, int endNew) {
+        if (startOld >= endOld || startNew >= endNew) {
+            return;
+        }
+        final Map<Long, Integer> oldIds = new HashMap<>();
+        for (int x = startOld; x < endOld; x++) {
+            putId(oldIds, mCallback.getOldItemId(x), x);
+        }
+        final Map<Long, Integer> newIds = new HashMap<>();
+        if (!oldIds.isEmpty()) {
+            for (int y = startNew; y < endNew; y++) {
+                putId(newIds, mCallback.getNewItemId(y), y);
+            }
+        }
+
+        // unique items in the order of the old list, with their position in the new list
+        final int[] anchorsX = new int[oldIds.size()];
+        final int[] anchorsY = new int[oldIds.size()];
+        int count = 0;
+        for (Map.Entry<Long, Integer> entry : newIds.entrySet()) {
+            final int y = entry.getValue();
+            final Integer x = oldIds.get(entry.getKey());
+            if (y != DUPLICATE && x != null && x != DUPLICATE) {
+                anchorsX[count] = x;
+                anchorsY[count] = y;
+                count++;
+            }
+        }
+        sortByX(anchorsX, anchorsY, count);
+
+        int x = startOld;
+        int y = startNew;
+        Snake last = null;
+        for (int index : longestIncreasingY(anchorsY, count)) {
+            final int anchorX = anchorsX[index];
+            final int anchorY = anchorsY[index];
+            if (!mCallback.areItemsTheSame(anchorX, anchorY)) {
+                continue;
+            }
+            addRange(x, anchorX, y, anchorY);
+            last = addSnake(last, anchorX, anchorY, 1);
+            x = anchorX + 1;
+            y = anchorY + 1;
+        }
+        addRange(x, endOld, y, endNew);
+    }
+
+    private static void putId(Map<Long, Integer> ids, long id, int position) {
+        if (id != RecyclerView.NO_ID) {
+            final Integer previous = ids.put(id, position);
+            if (previous != null) {
+                ids.put(id, DUPLICATE);
+            }
+        }
+    }
+
+    private static void sortByX(int[] xs, int[] ys, int count) {
+        // positions are unique and bounded, so sort the pairs by packing them in a long
+        final long[] pairs = new long[count];
+        for (int i = 0; i < count; i++) {
+            pairs[i] = ((long) xs[i] << 32) | ys[i];
+        }
+        Arrays.sort(pairs);
+        for (int i = 0; i < count; i++) {
+            xs[i] = (int) (pairs[i] >>> 32);
+            ys[i] = (int) pairs[i];
+        }
+    }
+
+    /**
+     * Returns the indices of the longest strictly increasing subsequence of the given values,
+     * using patience sorting.
+     */
+    private static int[] longestIncreasingY(int[] ys, int count) {
+        // tails[i] is the index of the smallest tail of an increasing subsequence of length i + 1
+        final int[] tails = new int[count];
+        final int[] previous = new int[count];
+        int length = 0;
+        for (int i = 0; i < count; i++) {
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (ys[tails[mid]] < ys[i]) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            previous[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+        final int[] result = new int[length];
+        for (int i = length - 1, index = length > 0 ? tails[length - 1] : -1; i >= 0;
+                i--, index = previous[index]) {
+            result[i] = index;
+        }
+        return result;
+    }
+
+    /**
+     * Adds a snake, extending the given one instead if the new snake continues its diagonal.
+     */
+    private Snake addSnake(@Nullable Snake last, int x, int y, int size) {
+        if (size == 0) {
+            return last;
+        }
+        if (last != null && last.x + last.size == x && last.y + last.size == y) {
+            last.size += size;
+            return last;
+        }
+        final Snake snake = new Snake();
+        snake.x = x;
+        snake.y = y;
+        snake.size = size;
+        mSnakes.add(snake);
+        return snake;
+    }
+
+    private void addRange(int oldListStart, int oldListEnd, int newListStart, int newListEnd) {
+        // if either side is empty, it is all additions or removals
+        if (oldListStart < oldListEnd && newListStart < newListEnd) {
+            mRanges.add(new Range(oldListStart, oldListEnd, newListStart, newListEnd));
+        }
+    }
+
+    @Nullable
+    private synchronized Range takeRange() {
+        boolean interrupted = false;
+        try {
+            while (mError == null) {
+                if (!mRanges.isEmpty()) {
+                    mActiveRanges++;
+                    return mRanges.remove(mRanges.size() - 1);
+                }
+                if (mActiveRanges == 0) {
+                    return null;
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    // the diff cannot be abandoned while other threads work on it
+                    interrupted = true;
+                }
+            }
+            return null;
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Records the snake found in the range and queues the ranges on either side of it, the same
+     * way {@link DiffUtil#calculateDiff(DiffUtil.Callback, boolean)} does.
+     */
+    private synchronized void finishRange(Range range, @Nullable Snake snake) {
+        mActiveRanges--;
+        if (snake != null) {
+            snake.x += range.oldListStart;
+            snake.y += range.newListStart;
+            if (snake.size > 0) {
+                mSnakes.add(snake);
+            }
+            final int leftOldEnd;
+            final int leftNewEnd;
+            if (snake.reverse || !snake.removal) {
+                leftOldEnd = snake.x;
+                leftNewEnd = snake.reverse ? snake.y : snake.y - 1;
+            } else {
+                leftOldEnd = snake.x - 1;
+                leftNewEnd = snake.y;
+            }
+            addRange(range.oldListStart, leftOldEnd, range.newListStart, leftNewEnd);
+
+            final int rightOldStart;
+            final int rightNewStart;
+            if (snake.reverse && snake.removal) {
+                rightOldStart = snake.x + snake.size + 1;
+                rightNewStart = snake.y + snake.size;
+            } else if (snake.reverse) {
+                rightOldStart = snake.x + snake.size;
+                rightNewStart = snake.y + snake.size + 1;
+            } else {
+                rightOldStart = snake.x + snake.size;
+                rightNewStart = snake.y + snake.size;
+            }
+            addRange(rightOldStart, range.oldListEnd, rightNewStart, range.newListEnd);
+        }
+        notifyAll();
+    }
+
+    private synchronized void fail(Throwable t) {
+        mActiveRanges--;
+        if (mError == null) {
+            mError = t;
+        }
+        notifyAll();
+    }
+}
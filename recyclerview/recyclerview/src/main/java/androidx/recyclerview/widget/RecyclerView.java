@@ -547,6 +547,7 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
     final ViewFlinger mViewFlinger = new ViewFlinger();
 
     GapWorker mGapWorker;
+    ViewHolderPreInflater mPreInflater;
     GapWorker.LayoutPrefetchRegistryImpl mPrefetchRegistry =
             ALLOW_THREAD_GAP_WORK ? new GapWorker.LayoutPrefetchRegistryImpl() : null;
 
@@ -1489,6 +1490,32 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         return mRecycler.getRecycledViewPool();
     }
 
+    /**
+     * Sets the {@link ViewHolderPreInflater} that inflates new ViewHolders on a background thread
+     * while this RecyclerView prefetches, instead of creating them with the Adapter on the main
+     * thread. Pre-inflated ViewHolders are added to the {@link RecycledViewPool}.
+     * <p>
+     * The pre-inflater must create ViewHolders for the view types of the current Adapter. It is
+     * not called for prefetches that RecyclerView needs to complete for the next frame.
+     *
+     * @param preInflater The pre-inflater to use, or null to create all ViewHolders with the
+     *                    Adapter.
+     */
+    public void setViewHolderPreInflater(@Nullable ViewHolderPreInflater preInflater) {
+        mPreInflater = preInflater;
+    }
+
+    /**
+     * Returns the {@link ViewHolderPreInflater} set with
+     * {@link #setViewHolderPreInflater(ViewHolderPreInflater)}.
+     *
+     * @return The pre-inflater, or null if ViewHolders are only created by the Adapter.
+     */
+    @Nullable
+    public ViewHolderPreInflater getViewHolderPreInflater() {
+        return mPreInflater;
+    }
+
     /**
      * Recycled view pools allow multiple RecyclerViews to share a common pool of scrap views.
      * This can be useful if you have multiple RecyclerViews with adapters that use the same
@@ -5526,6 +5553,7 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
      */
     public static class RecycledViewPool {
         private static final int DEFAULT_MAX_SCRAP = 5;
+        private static final int DEFAULT_MAX_TOTAL_SCRAP = 50;
 
         /**
          * Tracks both pooled holders, as well as create/bind timing metadata for the given type.
@@ -5544,13 +5572,139 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         static class ScrapData {
             final ArrayList<ViewHolder> mScrapHeap = new ArrayList<>();
             int mMaxScrap = DEFAULT_MAX_SCRAP;
+            // the limit set by setMaxRecycledViews, mMaxScrap is restored to it when adaptive
+            // sizing is disabled
+            int mConfiguredMaxScrap = DEFAULT_MAX_SCRAP;
             long mCreateRunningAverageNs = 0;
             long mBindRunningAverageNs = 0;
+            long mHitCount = 0;
+            long mMissCount = 0;
+            // misses not yet answered by growing mMaxScrap, only used by adaptive sizing
+            int mPendingGrowth = 0;
         }
         SparseArray<ScrapData> mScrap = new SparseArray<>();
 
         private int mAttachCount = 0;
 
+        private boolean mAdaptiveSizing = false;
+        private int mMaxTotalScrap = DEFAULT_MAX_TOTAL_SCRAP;
+
+        /**
+         * Enables or disables adaptive sizing of the pool.
+         * <p>
+         * When enabled, the maximum number of ViewHolders kept for a view type grows whenever
+         * a ViewHolder of that type is requested from an empty pool and later discarded because
+         * the pool was full. The pool as a whole never holds more than
+         * {@link #setMaxTotalRecycledViews(int)} ViewHolders. Once that limit is reached, a new
+         * ViewHolder replaces a pooled one of the type that is cheapest to create, based on the
+         * measured creation times, or is discarded if no type is cheaper to create than its own.
+         * <p>
+         * This is useful when the same pool is shared by several RecyclerViews, such as nested
+         * carousels, where the number of ViewHolders needed per type is hard to predict.
+         * Limits set with {@link #setMaxRecycledViews(int, int)} are used as the initial sizes,
+         * and are restored when adaptive sizing is disabled again.
+         * <p>
+         * Adaptive sizing is disabled by default.
+         *
+         * @param enabled True to size the pool from its measured demand, false to use fixed
+         *                limits per type.
+         */
+        public void setAdaptiveSizingEnabled(boolean enabled) {
+            mAdaptiveSizing = enabled;
+            if (!enabled) {
+                for (int i = 0; i < mScrap.size(); i++) {
+                    final ScrapData scrapData = mScrap.valueAt(i);
+                    scrapData.mPendingGrowth = 0;
+                    scrapData.mMaxScrap = scrapData.mConfiguredMaxScrap;
+                    final ArrayList<ViewHolder> scrapHeap = scrapData.mScrapHeap;
+                    while (scrapHeap.size() > scrapData.mMaxScrap) {
+                        scrapHeap.remove(scrapHeap.size() - 1);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns whether the pool sizes itself from its measured demand.
+         *
+         * @return True if adaptive sizing is enabled.
+         * @see #setAdaptiveSizingEnabled(boolean)
+         */
+        public boolean isAdaptiveSizingEnabled() {
+            return mAdaptiveSizing;
+        }
+
+        /**
+         * Sets the maximum number of ViewHolders of all types the pool may hold when adaptive
+         * sizing is enabled. Defaults to 50.
+         * <p>
+         * ViewHolders that exceed the new limit are discarded, starting with the types that are
+         * cheapest to create.
+         *
+         * @param max Maximum number of ViewHolders.
+         * @see #setAdaptiveSizingEnabled(boolean)
+         */
+        public void setMaxTotalRecycledViews(int max) {
+            if (max < 0) {
+                throw new IllegalArgumentException("max must not be negative");
+            }
+            mMaxTotalScrap = max;
+            if (mAdaptiveSizing) {
+                int excess = size() - max;
+                while (excess > 0 && evictCheapest(Long.MAX_VALUE)) {
+                    excess--;
+                }
+            }
+        }
+
+        /**
+         * Returns the maximum number of ViewHolders the pool may hold when adaptive sizing is
+         * enabled.
+         *
+         * @return Maximum number of ViewHolders.
+         * @see #setMaxTotalRecycledViews(int)
+         */
+        public int getMaxTotalRecycledViews() {
+            return mMaxTotalScrap;
+        }
+
+        /**
+         * Returns the maximum number of ViewHolders currently held for the given view type.
+         * <p>
+         * This changes over time if adaptive sizing is enabled.
+         *
+         * @param viewType ViewHolder type.
+         * @return Maximum number of ViewHolders of this type.
+         */
+        public int getMaxRecycledViews(int viewType) {
+            final ScrapData scrapData = mScrap.get(viewType);
+            return scrapData != null ? scrapData.mMaxScrap : DEFAULT_MAX_SCRAP;
+        }
+
+        /**
+         * Returns how many times {@link #getRecycledView(int)} returned a ViewHolder of the given
+         * type.
+         *
+         * @param viewType ViewHolder type.
+         * @return Number of ViewHolders of this type that were reused.
+         */
+        public long getHitCount(int viewType) {
+            final ScrapData scrapData = mScrap.get(viewType);
+            return scrapData != null ? scrapData.mHitCount : 0;
+        }
+
+        /**
+         * Returns how many times {@link #getRecycledView(int)} had no ViewHolder of the given
+         * type, usually causing a new one to be created.
+         *
+         * @param viewType ViewHolder type.
+         * @return Number of requests for this type that could not be answered from the pool.
+         */
+        public long getMissCount(int viewType) {
+            final ScrapData scrapData = mScrap.get(viewType);
+            return scrapData != null ? scrapData.mMissCount : 0;
+        }
+
         /**
          * Discard all ViewHolders.
          */
@@ -5570,6 +5724,7 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         public void setMaxRecycledViews(int viewType, int max) {
             ScrapData scrapData = getScrapDataForType(viewType);
             scrapData.mMaxScrap = max;
+            scrapData.mConfiguredMaxScrap = max;
             final ArrayList<ViewHolder> scrapHeap = scrapData.mScrapHeap;
             while (scrapHeap.size() > max) {
                 scrapHeap.remove(scrapHeap.size() - 1);
@@ -5580,7 +5735,8 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
          * Returns the current number of Views held by the RecycledViewPool of the given view type.
          */
         public int getRecycledViewCount(int viewType) {
-            return getScrapDataForType(viewType).mScrapHeap.size();
+            final ScrapData scrapData = mScrap.get(viewType);
+            return scrapData != null ? scrapData.mScrapHeap.size() : 0;
         }
 
         /**
@@ -5594,14 +5750,21 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         @Nullable
         public ViewHolder getRecycledView(int viewType) {
             final ScrapData scrapData = mScrap.get(viewType);
-            if (scrapData != null && !scrapData.mScrapHeap.isEmpty()) {
-                final ArrayList<ViewHolder> scrapHeap = scrapData.mScrapHeap;
-                for (int i = scrapHeap.size() - 1; i >= 0; i--) {
-                    if (!scrapHeap.get(i).isAttachedToTransitionOverlay()) {
-                        return scrapHeap.remove(i);
-                    }
+            if (scrapData == null) {
+                // nothing of this type was ever pooled, created or configured
+                return null;
+            }
+            final ArrayList<ViewHolder> scrapHeap = scrapData.mScrapHeap;
+            for (int i = scrapHeap.size() - 1; i >= 0; i--) {
+                if (!scrapHeap.get(i).isAttachedToTransitionOverlay()) {
+                    scrapData.mHitCount++;
+                    return scrapHeap.remove(i);
                 }
             }
+            scrapData.mMissCount++;
+            if (mAdaptiveSizing && scrapData.mPendingGrowth < mMaxTotalScrap) {
+                scrapData.mPendingGrowth++;
+            }
             return null;
         }
 
@@ -5630,8 +5793,13 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
          */
         public void putRecycledView(ViewHolder scrap) {
             final int viewType = scrap.getItemViewType();
-            final ArrayList<ViewHolder> scrapHeap = getScrapDataForType(viewType).mScrapHeap;
-            if (mScrap.get(viewType).mMaxScrap <= scrapHeap.size()) {
+            final ScrapData scrapData = getScrapDataForType(viewType);
+            final ArrayList<ViewHolder> scrapHeap = scrapData.mScrapHeap;
+            if (mAdaptiveSizing) {
+                if (!makeRoomAdaptively(scrapData)) {
+                    return;
+                }
+            } else if (scrapData.mMaxScrap <= scrapHeap.size()) {
                 return;
             }
             if (DEBUG && scrapHeap.contains(scrap)) {
@@ -5641,6 +5809,57 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
             scrapHeap.add(scrap);
         }
 
+        /**
+         * Makes room for one more ViewHolder of the given type, growing its limit if it ran out
+         * of ViewHolders since the last time it grew and evicting a cheaper ViewHolder if the
+         * pool is full.
+         *
+         * @return False if the ViewHolder should be discarded instead.
+         */
+        private boolean makeRoomAdaptively(ScrapData scrapData) {
+            final boolean grow = scrapData.mScrapHeap.size() >= scrapData.mMaxScrap;
+            if (grow && scrapData.mPendingGrowth == 0) {
+                return false;
+            }
+            if (size() >= mMaxTotalScrap && !evictCheapest(scrapData.mCreateRunningAverageNs)) {
+                return false;
+            }
+            if (grow) {
+                scrapData.mPendingGrowth--;
+                scrapData.mMaxScrap++;
+            }
+            return true;
+        }
+
+        /**
+         * Discards a pooled ViewHolder of the type with the lowest average creation time below
+         * the given one, and shrinks the limit of that type to match, keeping room for at least
+         * one ViewHolder.
+         *
+         * @return True if a ViewHolder was discarded.
+         */
+        private boolean evictCheapest(long createTimeNs) {
+            ScrapData cheapest = null;
+            for (int i = 0; i < mScrap.size(); i++) {
+                final ScrapData data = mScrap.valueAt(i);
+                if (data.mScrapHeap.isEmpty() || data.mCreateRunningAverageNs >= createTimeNs) {
+                    continue;
+                }
+                if (cheapest == null
+                        || data.mCreateRunningAverageNs < cheapest.mCreateRunningAverageNs) {
+                    cheapest = data;
+                }
+            }
+            if (cheapest == null) {
+                return false;
+            }
+            final ArrayList<ViewHolder> scrapHeap = cheapest.mScrapHeap;
+            scrapHeap.remove(scrapHeap.size() - 1);
+            cheapest.mMaxScrap = Math.max(1, scrapHeap.size());
+            cheapest.mPendingGrowth = 0;
+            return true;
+        }
+
         long runningAverage(long oldAverage, long newValue) {
             if (oldAverage == 0) {
                 return newValue;
@@ -6110,6 +6329,10 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
                     }
                     holder = getRecycledViewPool().getRecycledView(type);
                     if (holder != null) {
+                        if (holder.mPreInflater != null) {
+                            holder.mPreInflater.onPreInflatedViewHolderUsed();
+                            holder.mPreInflater = null;
+                        }
                         holder.resetInternal();
                         if (FORCE_INVALIDATE_DISPLAY_LIST) {
                             invalidateDisplayListInt(holder);
@@ -6118,6 +6341,11 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
                 }
                 if (holder == null) {
                     long start = getNanoTime();
+                    if (deadlineNs != FOREVER_NS && mPreInflater != null
+                            && mPreInflater.requestInflation(RecyclerView.this, type)) {
+                        // prefetch - the holder will be inflated in the background instead
+                        return null;
+                    }
                     if (deadlineNs != FOREVER_NS
                             && !mRecyclerPool.willCreateInTime(type, start, deadlineNs)) {
                         // abort - we have a deadline we can't meet
@@ -10827,6 +11055,8 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         @NonNull
         public final View itemView;
         WeakReference<RecyclerView> mNestedRecyclerView;
+        // set while the holder waits in the pool after being pre-inflated
+        ViewHolderPreInflater mPreInflater;
         int mPosition = NO_POSITION;
         int mOldPosition = NO_POSITION;
         long mItemId = NO_ID;
@@ -20,9 +20,12 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import java.lang.reflect.Array;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.concurrent.Executor;
 
 /**
  * A Sorted list implementation that can keep items in order and also notify for changes in the
@@ -35,6 +38,11 @@ import java.util.Comparator;
  * call appropriate methods while editing them to avoid data inconsistencies.
  * <p>
  * You can control the order of items and change notifications via the {@link Callback} parameter.
+ * <p>
+ * For large lists, {@link #addAllAsync(Collection, Runnable)} and
+ * {@link #replaceAllAsync(Collection, Runnable)} sort the new items and merge them with the
+ * current ones on a background thread, and only apply the result and dispatch the batched change
+ * events on the main thread.
  */
 @SuppressWarnings("unchecked")
 public class SortedList<T> {
@@ -81,6 +89,29 @@ public class SortedList<T> {
     private int mSize;
     private final Class<T> mTClass;
 
+    @Nullable
+    private Executor mBackgroundThreadExecutor;
+    // Posts to the main thread unless set otherwise by tests.
+    @Nullable
+    Executor mMainThreadExecutor;
+
+    /**
+     * Asynchronous updates run one at a time so that each one merges into the result of the
+     * previous one.
+     */
+    private final ArrayDeque<AsyncUpdate> mPendingUpdates = new ArrayDeque<>();
+    @Nullable
+    private AsyncUpdate mRunningUpdate;
+
+    /**
+     * Arrays that asynchronous updates reuse for their sorted input and merged output, so that
+     * frequent updates to a large list do not allocate new arrays each time.
+     */
+    @Nullable
+    private T[] mSpareData;
+    @Nullable
+    private T[] mSpareItems;
+
     /**
      * Creates a new SortedList of type T.
      *
@@ -141,6 +172,7 @@ public class SortedList<T> {
      */
     public int add(T item) {
         throwIfInMutationOperation();
+        ensureDataWritable();
         return add(item, true);
     }
 
@@ -248,6 +280,150 @@ public class SortedList<T> {
         replaceAll(items.toArray(copy), true);
     }
 
+    /**
+     * Adds the given items to the list like {@link #addAll(Collection)}, but sorts them and merges
+     * them with the current items on a background thread. The list is updated and the
+     * {@link Callback} receives the batched change events on the main thread once the merge is
+     * done; until then the list keeps its current contents.
+     * <p>
+     * Asynchronous updates are applied in the order they are submitted. If the list is modified
+     * synchronously while an update is pending, the update is applied after those modifications.
+     * <p>
+     * This method must be called on the main thread. The {@link Callback#compare(Object, Object)},
+     * {@link Callback#areItemsTheSame(Object, Object)},
+     * {@link Callback#areContentsTheSame(Object, Object)} and
+     * {@link Callback#getChangePayload(Object, Object)} methods are called on the background
+     * thread, so they must not depend on state that the main thread modifies.
+     *
+     * @param items          Collection of items to be added into the list. It is read on the
+     *                       background thread, so it must not be modified until the update is
+     *                       committed.
+     * @param commitCallback Optional runnable that is executed on the main thread once the items
+     *                       are in the list, if a later {@link #replaceAllAsync(Collection,
+     *                       Runnable)} does not discard the update first.
+     * @see #setBackgroundThreadExecutor(Executor)
+     */
+    public void addAllAsync(@NonNull Collection<T> items, @Nullable Runnable commitCallback) {
+        throwIfInMutationOperation();
+        mPendingUpdates.add(new AsyncUpdate(items, false, commitCallback));
+        scheduleNextUpdate();
+    }
+
+    /**
+     * Replaces the current items with the new items like {@link #replaceAll(Collection)}, but
+     * sorts them and compares them with the current items on a background thread. The list is
+     * updated and the {@link Callback} receives the batched change events on the main thread
+     * once the comparison is done; until then the list keeps its current contents.
+     * <p>
+     * Asynchronous updates that have not been committed yet are discarded, since the new items
+     * replace their result anyway. Their commit callbacks are not run.
+     * <p>
+     * See {@link #addAllAsync(Collection, Runnable)} for the threading requirements.
+     *
+     * @param items          Collection of items to replace current items. It is read on the
+     *                       background thread, so it must not be modified until the update is
+     *                       committed.
+     * @param commitCallback Optional runnable that is executed on the main thread once the items
+     *                       replaced the current ones, if a later call to this method does not
+     *                       discard the update first.
+     * @see #setBackgroundThreadExecutor(Executor)
+     */
+    public void replaceAllAsync(@NonNull Collection<T> items, @Nullable Runnable commitCallback) {
+        throwIfInMutationOperation();
+        mPendingUpdates.clear();
+        if (mRunningUpdate != null) {
+            mRunningUpdate.mDiscarded = true;
+        }
+        mPendingUpdates.add(new AsyncUpdate(items, true, commitCallback));
+        scheduleNextUpdate();
+    }
+
+    /**
+     * Sets the executor that {@link #addAllAsync(Collection, Runnable)} and
+     * {@link #replaceAllAsync(Collection, Runnable)} sort and merge the items on.
+     * <p>
+     * If not set, or set to null, the executor that {@link AsyncListDiffer} uses by default is
+     * used.
+     *
+     * @param executor The executor to run asynchronous updates on.
+     */
+    public void setBackgroundThreadExecutor(@Nullable Executor executor) {
+        mBackgroundThreadExecutor = executor;
+    }
+
+    private void scheduleNextUpdate() {
+        if (mRunningUpdate != null || mPendingUpdates.isEmpty()) {
+            return;
+        }
+        final AsyncUpdate update = mPendingUpdates.poll();
+        update.mItemCallback = mCallback;
+        update.mOldData = mData;
+        update.mOldSize = mSize;
+        update.mItems = mSpareItems;
+        update.mMergedData = mSpareData;
+        mSpareItems = null;
+        mSpareData = null;
+        mRunningUpdate = update;
+
+        final Executor executor = mBackgroundThreadExecutor != null
+                ? mBackgroundThreadExecutor
+                : AsyncDifferConfig.Builder.getDefaultBackgroundThreadExecutor();
+        executor.execute(update);
+    }
+
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    void commitUpdate(AsyncUpdate update) {
+        mRunningUpdate = null;
+        if (!update.mDiscarded) {
+            if (mData == update.mOldData && mSize == update.mOldSize) {
+                // The list has not changed since the update started, so its result can be used.
+                final T[] oldData = mData;
+                mData = update.mMergedData;
+                mSize = update.mMergedSize;
+                Arrays.fill(oldData, 0, update.mOldSize, null);
+                mSpareData = oldData;
+                update.mLog.dispatchTo(mCallback);
+            } else {
+                // The list was modified synchronously in the meantime. The sorted items are still
+                // valid, so only the merge needs to be done again.
+                recycleMergedData(update);
+                if (update.mReplace) {
+                    replaceAllSorted(update.mItems, update.mItemCount);
+                } else if (update.mItemCount > 0) {
+                    merge(update.mItems, update.mItemCount);
+                }
+            }
+        } else {
+            recycleMergedData(update);
+        }
+        if (update.mItems != null) {
+            Arrays.fill(update.mItems, 0, update.mItemCount, null);
+            mSpareItems = update.mItems;
+        }
+
+        if (!update.mDiscarded && update.mCommitCallback != null) {
+            update.mCommitCallback.run();
+        }
+        scheduleNextUpdate();
+    }
+
+    private void recycleMergedData(AsyncUpdate update) {
+        if (update.mMergedData != null) {
+            Arrays.fill(update.mMergedData, 0, update.mMergedSize, null);
+            mSpareData = update.mMergedData;
+        }
+    }
+
+    /**
+     * Makes sure that an in-place modification of the list does not change the array that a
+     * running asynchronous update is reading on the background thread.
+     */
+    private void ensureDataWritable() {
+        if (mRunningUpdate != null && mData == mRunningUpdate.mOldData) {
+            mData = mData.clone();
+        }
+    }
+
     private void addAllInternal(T[] newItems) {
         if (newItems.length < 1) {
             return;
@@ -265,6 +441,13 @@ public class SortedList<T> {
     }
 
     private void replaceAllInternal(@NonNull T[] newData) {
+        replaceAllSorted(newData, sortAndDedup(newData));
+    }
+
+    /**
+     * This method assumes that newData is sorted and deduplicated.
+     */
+    private void replaceAllSorted(@NonNull T[] newData, int newSize) {
         final boolean forceBatchedUpdates = !(mCallback instanceof BatchedCallback);
         if (forceBatchedUpdates) {
             beginBatchedUpdates();
@@ -275,7 +458,6 @@ public class SortedList<T> {
         mOldData = mData;
 
         mNewDataStart = 0;
-        int newSize = sortAndDedup(newData);
         mData = (T[]) Array.newInstance(mTClass, newSize);
 
         while (mNewDataStart < newSize || mOldDataStart < mOldDataSize) {
@@ -350,26 +532,35 @@ public class SortedList<T> {
      * @return Number of deduplicated items at the beginning of the array.
      */
     private int sortAndDedup(@NonNull T[] items) {
-        if (items.length == 0) {
+        return sortAndDedup(items, items.length, mCallback);
+    }
+
+    /**
+     * Sorts and deduplicates the first {@code size} items of the array using the given callback.
+     * This is also called on the background thread by asynchronous updates.
+     */
+    private int sortAndDedup(@NonNull T[] items, int size, @NonNull Callback callback) {
+        if (size == 0) {
             return 0;
         }
 
         // Arrays.sort is stable.
-        Arrays.sort(items, mCallback);
+        Arrays.sort(items, 0, size, callback);
 
         // Keep track of the range of equal items at the end of the output.
         // Start with the range containing just the first item.
         int rangeStart = 0;
         int rangeEnd = 1;
 
-        for (int i = 1; i < items.length; ++i) {
+        for (int i = 1; i < size; ++i) {
             T currentItem = items[i];
 
-            int compare = mCallback.compare(items[rangeStart], currentItem);
+            int compare = callback.compare(items[rangeStart], currentItem);
 
             if (compare == 0) {
                 // The range of equal items continues, update it.
-                final int sameItemPos = findSameItem(currentItem, items, rangeStart, rangeEnd);
+                final int sameItemPos =
+                        findSameItem(currentItem, items, rangeStart, rangeEnd, callback);
                 if (sameItemPos != INVALID_POSITION) {
                     // Replace the duplicate item.
                     items[sameItemPos] = currentItem;
@@ -392,9 +583,9 @@ public class SortedList<T> {
     }
 
 
-    private int findSameItem(T item, T[] items, int from, int to) {
+    private int findSameItem(T item, T[] items, int from, int to, Callback callback) {
         for (int pos = from; pos < to; pos++) {
-            if (mCallback.areItemsTheSame(items[pos], item)) {
+            if (callback.areItemsTheSame(items[pos], item)) {
                 return pos;
             }
         }
@@ -572,6 +763,7 @@ public class SortedList<T> {
      */
     public boolean remove(T item) {
         throwIfInMutationOperation();
+        ensureDataWritable();
         return remove(item, true);
     }
 
@@ -584,6 +776,7 @@ public class SortedList<T> {
      */
     public T removeItemAt(int index) {
         throwIfInMutationOperation();
+        ensureDataWritable();
         T item = get(index);
         removeItemAtIndex(index, true);
         return item;
@@ -629,6 +822,7 @@ public class SortedList<T> {
      */
     public void updateItemAt(int index, T item) {
         throwIfInMutationOperation();
+        ensureDataWritable();
         final T existing = get(index);
         // assume changed if the same object is given back
         boolean contentsChanged = existing == item || !mCallback.areContentsTheSame(existing, item);
@@ -683,6 +877,7 @@ public class SortedList<T> {
      */
     public void recalculatePositionOfItemAt(int index) {
         throwIfInMutationOperation();
+        ensureDataWritable();
         // TODO can be improved
         final T item = get(index);
         removeItemAtIndex(index, false);
@@ -824,6 +1019,7 @@ public class SortedList<T> {
             return;
         }
         final int prevSize = mSize;
+        ensureDataWritable();
         Arrays.fill(mData, 0, prevSize, null);
         mSize = 0;
         mCallback.onRemoved(0, prevSize);
@@ -1007,4 +1203,231 @@ public class SortedList<T> {
             mBatchingListUpdateCallback.dispatchLastEvent();
         }
     }
+
+    /**
+     * An {@link #addAllAsync(Collection, Runnable)} or {@link #replaceAllAsync(Collection,
+     * Runnable)} call. {@link #run()} sorts the new items and merges them with a snapshot of the
+     * list on the background thread, recording the change events. The result is committed on the
+     * main thread by {@link #commitUpdate(AsyncUpdate)}.
+     */
+    final class AsyncUpdate implements Runnable {
+        final Collection<T> mSource;
+        final boolean mReplace;
+        @Nullable
+        final Runnable mCommitCallback;
+        volatile boolean mDiscarded;
+
+        Callback mItemCallback;
+        T[] mOldData;
+        int mOldSize;
+        // The sorted and deduplicated new items.
+        T[] mItems;
+        int mItemCount;
+        T[] mMergedData;
+        int mMergedSize;
+        final UpdateLog mLog = new UpdateLog();
+
+        AsyncUpdate(Collection<T> source, boolean replace, @Nullable Runnable commitCallback) {
+            mSource = source;
+            mReplace = replace;
+            mCommitCallback = commitCallback;
+        }
+
+        @Override
+        public void run() {
+            if (!mDiscarded) {
+                final int count = mSource.size();
+                if (mItems == null || mItems.length < count) {
+                    mItems = (T[]) Array.newInstance(mTClass, count);
+                }
+                mSource.toArray(mItems);
+                mItemCount = sortAndDedup(mItems, count, mItemCallback);
+
+                final int capacity = mReplace ? mItemCount : mOldSize + mItemCount;
+                if (mMergedData == null || mMergedData.length < capacity) {
+                    mMergedData = (T[]) Array.newInstance(mTClass, capacity + CAPACITY_GROWTH);
+                }
+                final BatchingListUpdateCallback batchingCallback =
+                        new BatchingListUpdateCallback(mLog);
+                if (mReplace) {
+                    replace(batchingCallback);
+                } else {
+                    merge(batchingCallback);
+                }
+                batchingCallback.dispatchLastEvent();
+            }
+
+            final Executor mainThreadExecutor = mMainThreadExecutor != null
+                    ? mMainThreadExecutor : AsyncListDiffer.sMainThreadExecutor;
+            mainThreadExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    commitUpdate(AsyncUpdate.this);
+                }
+            });
+        }
+
+        /**
+         * Same as {@link SortedList#merge(Object[], int)}, but writes into mMergedData.
+         */
+        private void merge(ListUpdateCallback updateCallback) {
+            int oldDataStart = 0;
+            int newDataStart = 0;
+            int mergedDataStart = 0;
+            while (oldDataStart < mOldSize || newDataStart < mItemCount) {
+                if (oldDataStart == mOldSize) {
+                    int itemCount = mItemCount - newDataStart;
+                    System.arraycopy(mItems, newDataStart, mMergedData, mergedDataStart,
+                            itemCount);
+                    updateCallback.onInserted(mergedDataStart, itemCount);
+                    mergedDataStart += itemCount;
+                    break;
+                }
+
+                if (newDataStart == mItemCount) {
+                    int itemCount = mOldSize - oldDataStart;
+                    System.arraycopy(mOldData, oldDataStart, mMergedData, mergedDataStart,
+                            itemCount);
+                    mergedDataStart += itemCount;
+                    break;
+                }
+
+                T oldItem = mOldData[oldDataStart];
+                T newItem = mItems[newDataStart];
+                int compare = mItemCallback.compare(oldItem, newItem);
+                if (compare > 0) {
+                    mMergedData[mergedDataStart++] = newItem;
+                    newDataStart++;
+                    updateCallback.onInserted(mergedDataStart - 1, 1);
+                } else if (compare == 0 && mItemCallback.areItemsTheSame(oldItem, newItem)) {
+                    mMergedData[mergedDataStart++] = newItem;
+                    newDataStart++;
+                    oldDataStart++;
+                    if (!mItemCallback.areContentsTheSame(oldItem, newItem)) {
+                        updateCallback.onChanged(mergedDataStart - 1, 1,
+                                mItemCallback.getChangePayload(oldItem, newItem));
+                    }
+                } else {
+                    mMergedData[mergedDataStart++] = oldItem;
+                    oldDataStart++;
+                }
+            }
+            mMergedSize = mergedDataStart;
+        }
+
+        /**
+         * Same as {@link SortedList#replaceAllSorted(Object[], int)}, but writes into
+         * mMergedData.
+         */
+        private void replace(ListUpdateCallback updateCallback) {
+            int oldDataStart = 0;
+            int newDataStart = 0;
+            while (newDataStart < mItemCount || oldDataStart < mOldSize) {
+                if (oldDataStart >= mOldSize) {
+                    int itemCount = mItemCount - newDataStart;
+                    System.arraycopy(mItems, newDataStart, mMergedData, newDataStart, itemCount);
+                    updateCallback.onInserted(newDataStart, itemCount);
+                    break;
+                }
+                if (newDataStart >= mItemCount) {
+                    updateCallback.onRemoved(newDataStart, mOldSize - oldDataStart);
+                    break;
+                }
+
+                T oldItem = mOldData[oldDataStart];
+                T newItem = mItems[newDataStart];
+                int result = mItemCallback.compare(oldItem, newItem);
+                if (result < 0) {
+                    oldDataStart++;
+                    updateCallback.onRemoved(newDataStart, 1);
+                } else if (result > 0) {
+                    mMergedData[newDataStart++] = newItem;
+                    updateCallback.onInserted(newDataStart - 1, 1);
+                } else if (!mItemCallback.areItemsTheSame(oldItem, newItem)) {
+                    oldDataStart++;
+                    updateCallback.onRemoved(newDataStart, 1);
+                    mMergedData[newDataStart++] = newItem;
+                    updateCallback.onInserted(newDataStart - 1, 1);
+                } else {
+                    mMergedData[newDataStart++] = newItem;
+                    oldDataStart++;
+                    if (!mItemCallback.areContentsTheSame(oldItem, newItem)) {
+                        updateCallback.onChanged(newDataStart - 1, 1,
+                                mItemCallback.getChangePayload(oldItem, newItem));
+                    }
+                }
+            }
+            mMergedSize = mItemCount;
+        }
+    }
+
+    /**
+     * Records change events on the background thread so that they can be dispatched on the main
+     * thread.
+     */
+    private static final class UpdateLog implements ListUpdateCallback {
+        private static final int TYPE_ADD = 0;
+        private static final int TYPE_REMOVE = 1;
+        private static final int TYPE_CHANGE = 2;
+        private static final int TYPE_MOVE = 3;
+
+        // Type, position and count (or target position) of each event.
+        private int[] mEvents = new int[3 * 8];
+        private final ArrayList<Object> mPayloads = new ArrayList<>();
+
+        UpdateLog() {
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            addEvent(TYPE_ADD, position, count, null);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            addEvent(TYPE_REMOVE, position, count, null);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            addEvent(TYPE_MOVE, fromPosition, toPosition, null);
+        }
+
+        @Override
+        public void onChanged(int position, int count, @Nullable Object payload) {
+            addEvent(TYPE_CHANGE, position, count, payload);
+        }
+
+        private void addEvent(int type, int position, int count, @Nullable Object payload) {
+            final int index = mPayloads.size() * 3;
+            if (index + 3 > mEvents.length) {
+                mEvents = Arrays.copyOf(mEvents, mEvents.length * 2);
+            }
+            mEvents[index] = type;
+            mEvents[index + 1] = position;
+            mEvents[index + 2] = count;
+            mPayloads.add(payload);
+        }
+
+        void dispatchTo(ListUpdateCallback callback) {
+            for (int i = 0; i < mPayloads.size(); i++) {
+                final int position = mEvents[i * 3 + 1];
+                final int count = mEvents[i * 3 + 2];
+                switch (mEvents[i * 3]) {
+                    case TYPE_ADD:
+                        callback.onInserted(position, count);
+                        break;
+                    case TYPE_REMOVE:
+                        callback.onRemoved(position, count);
+                        break;
+                    case TYPE_CHANGE:
+                        callback.onChanged(position, count, mPayloads.get(i));
+                        break;
+                    case TYPE_MOVE:
+                        callback.onMoved(position, count);
+                        break;
+                }
+            }
+        }
+    }
 }
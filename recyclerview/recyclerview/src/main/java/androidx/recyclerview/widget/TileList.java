@@ -18,7 +18,10 @@ package androidx.recyclerview.widget;
 
 import android.util.SparseArray;
 
+import androidx.annotation.Nullable;
+
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
 
 /**
  * A sparse collection of tiles sorted for efficient access.
@@ -84,15 +87,43 @@ class TileList<T> {
     }
 
     public static class Tile<T> {
+        // Null if the items are encoded into a buffer.
         public final T[] mItems;
         public int mStartPosition;
         public int mItemCount;
         Tile<T> mNext;  // Used only for pooling recycled tiles.
 
+        @Nullable
+        final AsyncListUtil.ItemCodec<T> mCodec;
+        final int mItemSize;
+        // Two views of the same part of the tile buffer, so that the background thread writing
+        // the items and the main thread reading them never share a position.
+        @Nullable
+        private final ByteBuffer mWriteBuffer;
+        @Nullable
+        private final ByteBuffer mReadBuffer;
+
         public Tile(Class<T> klass, int size) {
             @SuppressWarnings("unchecked")
             T[] items = (T[]) Array.newInstance(klass, size);
             mItems = items;
+            mCodec = null;
+            mItemSize = 0;
+            mWriteBuffer = null;
+            mReadBuffer = null;
+        }
+
+        /**
+         * Creates a tile that stores its items in the given buffer, encoded with the codec.
+         *
+         * @param buffer The part of the tile buffer that belongs to this tile, starting at 0.
+         */
+        Tile(ByteBuffer buffer, AsyncListUtil.ItemCodec<T> codec) {
+            mItems = null;
+            mCodec = codec;
+            mItemSize = codec.getMaxItemSize();
+            mWriteBuffer = buffer.duplicate();
+            mReadBuffer = buffer.duplicate();
         }
 
         boolean containsPosition(int pos) {
@@ -100,7 +131,23 @@ class TileList<T> {
         }
 
         T getByPosition(int pos) {
-            return mItems[pos - mStartPosition];
+            if (mItems != null) {
+                return mItems[pos - mStartPosition];
+            }
+            //noinspection ConstantConditions
+            return mCodec.decode(itemBuffer(mReadBuffer, pos - mStartPosition));
+        }
+
+        void encodeItem(int index, T item) {
+            //noinspection ConstantConditions
+            mCodec.encode(item, itemBuffer(mWriteBuffer, index));
+        }
+
+        private ByteBuffer itemBuffer(ByteBuffer buffer, int index) {
+            buffer.clear();
+            buffer.position(index * mItemSize);
+            buffer.limit((index + 1) * mItemSize);
+            return buffer;
         }
     }
 }
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.recyclerview.widget;
+
+import android.content.Context;
+import android.util.SparseIntArray;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.LayoutRes;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.asynclayoutinflater.view.AsyncLayoutInflater;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Inflates the item views of a {@link RecyclerView} on a background thread while it prefetches,
+ * so that creating a new {@link RecyclerView.ViewHolder} does not have to happen on the main
+ * thread during a scroll.
+ * <p>
+ * When prefetching needs a ViewHolder of a type that the {@link RecyclerView.RecycledViewPool}
+ * does not have, RecyclerView asks this class to inflate the layout returned by
+ * {@link #getLayoutId(int)} in the background instead of calling
+ * {@link RecyclerView.Adapter#onCreateViewHolder(ViewGroup, int)}. Once the layout is inflated,
+ * {@link #onCreateViewHolder(View, int)} wraps it in a ViewHolder on the main thread, and the
+ * ViewHolder is put into the pool, where the next layout or prefetch picks it up.
+ * <p>
+ * Layouts are inflated with {@link AsyncLayoutInflater}, so they have the same restrictions: the
+ * views must not create a {@link android.os.Handler} or call {@link android.os.Looper#myLooper()}
+ * when they are constructed, and the RecyclerView's
+ * {@link ViewGroup#generateLayoutParams(android.util.AttributeSet)} must be thread-safe. Return
+ * {@code 0} from {@link #getLayoutId(int)} for the view types that do not meet them.
+ * <p>
+ * Items that have to be shown in the next frame are still created on the main thread, so
+ * pre-inflation never delays the content on the screen.
+ *
+ * @see RecyclerView#setViewHolderPreInflater(ViewHolderPreInflater)
+ */
+public abstract class ViewHolderPreInflater {
+    // Limits how many ViewHolders of a type are inflated ahead of the one being prefetched.
+    private static final int MAX_PENDING_INFLATIONS = 2;
+    // Limits the inflations of all pre-inflaters together. AsyncLayoutInflater hands requests to
+    // a single thread through a queue of 10 that is shared by the whole process, and blocks the
+    // main thread while the queue is full, so stay well below that.
+    static final int MAX_TOTAL_PENDING_INFLATIONS = 4;
+
+    // Only accessed on the main thread.
+    private static int sTotalPendingInflations = 0;
+
+    private final AsyncLayoutInflater mInflater;
+    private final SparseIntArray mPendingInflations = new SparseIntArray();
+    private long mPreInflatedCount = 0;
+    private long mUsedCount = 0;
+
+    /**
+     * Creates a ViewHolderPreInflater. Must be called on the main thread.
+     *
+     * @param context The context used to inflate the item views, usually the one of the
+     *                RecyclerView.
+     */
+    @MainThread
+    public ViewHolderPreInflater(@NonNull Context context) {
+        mInflater = new AsyncLayoutInflater(context);
+    }
+
+    /**
+     * Returns the layout that is inflated for the item views of the given type.
+     *
+     * @param viewType The view type of the ViewHolder.
+     * @return The layout of the item view, or {@code 0} if ViewHolders of this type must be
+     * created by the Adapter on the main thread.
+     */
+    @LayoutRes
+    public abstract int getLayoutId(int viewType);
+
+    /**
+     * Called on the main thread to create a ViewHolder for an item view inflated from
+     * {@link #getLayoutId(int)}. This should do the same as
+     * {@link RecyclerView.Adapter#onCreateViewHolder(ViewGroup, int)} without inflating the view.
+     *
+     * @param itemView The inflated item view.
+     * @param viewType The view type of the ViewHolder.
+     * @return A new ViewHolder that holds the given item view.
+     */
+    @NonNull
+    public abstract RecyclerView.ViewHolder onCreateViewHolder(@NonNull View itemView,
+            int viewType);
+
+    /**
+     * Returns the number of ViewHolders that were inflated in the background and added to the
+     * {@link RecyclerView.RecycledViewPool}.
+     *
+     * @return Number of pre-inflated ViewHolders.
+     */
+    public long getPreInflatedCount() {
+        return mPreInflatedCount;
+    }
+
+    /**
+     * Returns the number of pre-inflated ViewHolders RecyclerView took from the
+     * {@link RecyclerView.RecycledViewPool}, each of which saved an inflation on the main thread.
+     *
+     * @return Number of inflations that did not happen on the main thread.
+     */
+    public long getAvoidedInflationCount() {
+        return mUsedCount;
+    }
+
+    /**
+     * Inflates a ViewHolder of the given type for the RecyclerView, unless enough of them are
+     * already being inflated, for this type or in total.
+     *
+     * @return True if a ViewHolder of this type will be added to the pool, false if it has to be
+     * created on the main thread.
+     */
+    boolean requestInflation(@NonNull RecyclerView recyclerView, int viewType) {
+        final int layoutId = getLayoutId(viewType);
+        if (layoutId == 0) {
+            return false;
+        }
+        final int pending = mPendingInflations.get(viewType);
+        if (pending >= MAX_PENDING_INFLATIONS
+                || sTotalPendingInflations >= MAX_TOTAL_PENDING_INFLATIONS) {
+            // a ViewHolder is on its way if this type has an inflation pending
+            return pending > 0;
+        }
+        mPendingInflations.put(viewType, pending + 1);
+        sTotalPendingInflations++;
+        mInflater.inflate(layoutId, recyclerView,
+                new InflationCallback(recyclerView, recyclerView.getAdapter(), viewType));
+        return true;
+    }
+
+    static int getTotalPendingInflations() {
+        return sTotalPendingInflations;
+    }
+
+    void onPreInflatedViewHolderUsed() {
+        mUsedCount++;
+    }
+
+    void onInflated(@NonNull View view, @NonNull RecyclerView recyclerView,
+            @Nullable RecyclerView.Adapter adapter, int viewType) {
+        mPendingInflations.put(viewType, mPendingInflations.get(viewType) - 1);
+        sTotalPendingInflations--;
+        if (adapter == null || recyclerView.getAdapter() != adapter
+                || recyclerView.getViewHolderPreInflater() != this) {
+            // the view type may mean something else now
+            return;
+        }
+        final RecyclerView.ViewHolder holder = onCreateViewHolder(view, viewType);
+        if (holder.itemView.getParent() != null) {
+            throw new IllegalStateException("ViewHolder views must not be attached when"
+                    + " created. Ensure that you are not passing 'true' to the attachToRoot"
+                    + " parameter of LayoutInflater.inflate(..., boolean attachToRoot)");
+        }
+        holder.mItemViewType = viewType;
+        final RecyclerView innerView = RecyclerView.findNestedRecyclerView(holder.itemView);
+        if (innerView != null) {
+            holder.mNestedRecyclerView = new WeakReference<>(innerView);
+        }
+
+        final RecyclerView.RecycledViewPool pool = recyclerView.getRecycledViewPool();
+        final int count = pool.getRecycledViewCount(viewType);
+        pool.putRecycledView(holder);
+        if (pool.getRecycledViewCount(viewType) > count) {
+            holder.mPreInflater = this;
+            mPreInflatedCount++;
+        }
+    }
+
+    private final class InflationCallback implements AsyncLayoutInflater.OnInflateFinishedListener {
+        private final RecyclerView mRecyclerView;
+        private final RecyclerView.Adapter mAdapter;
+        private final int mViewType;
+
+        InflationCallback(RecyclerView recyclerView, RecyclerView.Adapter adapter, int viewType) {
+            mRecyclerView = recyclerView;
+            mAdapter = adapter;
+            mViewType = viewType;
+        }
+
+        @Override
+        public void onInflateFinished(@NonNull View view, int resid, @Nullable ViewGroup parent) {
+            onInflated(view, mRecyclerView, mAdapter, mViewType);
+        }
+    }
+}
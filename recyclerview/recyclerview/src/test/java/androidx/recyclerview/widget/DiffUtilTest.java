@@ -38,10 +38,14 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 @RunWith(JUnit4.class)
 public class DiffUtilTest {
     private static Random sRand = new Random(System.nanoTime());
+    private static final Executor PARALLEL_EXECUTOR = Executors.newFixedThreadPool(3);
+    private boolean mStableIds = true;
     private List<Item> mBefore = new ArrayList<>();
     private List<Item> mAfter = new ArrayList<>();
     private StringBuilder mLog = new StringBuilder();
@@ -78,6 +82,16 @@ public class DiffUtilTest {
                     not(CoreMatchers.equalTo(mAfter.get(newItemIndex).data)));
             return mAfter.get(newItemIndex).payload;
         }
+
+        @Override
+        public long getOldItemId(int oldItemPosition) {
+            return mStableIds ? mBefore.get(oldItemPosition).id : RecyclerView.NO_ID;
+        }
+
+        @Override
+        public long getNewItemId(int newItemPosition) {
+            return mStableIds ? mAfter.get(newItemPosition).id : RecyclerView.NO_ID;
+        }
     };
 
     @Rule
@@ -341,8 +355,64 @@ public class DiffUtilTest {
         check();
     }
 
+    @Test
+    public void testParallelRandom() {
+        for (int i = 0; i < 40; i += 3) {
+            for (int j = 2; j < 20; j += 3) {
+                testRandom(i, j);
+            }
+        }
+    }
+
+    @Test
+    public void testParallelRandomWithoutStableIds() {
+        mStableIds = false;
+        for (int i = 0; i < 40; i += 3) {
+            for (int j = 2; j < 20; j += 3) {
+                testRandom(i, j);
+            }
+        }
+    }
+
+    @Test
+    public void testParallelLargeList() {
+        testRandom(5000, 300);
+    }
+
+    @Test
+    public void testParallelMatchesPrefixAndSuffix() {
+        initWithSize(10);
+        add(5);
+        DiffUtil.DiffResult result = DiffUtil.calculateDiff(mCallback, true, PARALLEL_EXECUTOR);
+        List<DiffUtil.Snake> snakes = result.getSnakes();
+        assertThat(snakes.size(), is(2));
+        assertThat(snakes.get(0).size, is(5));
+        assertThat(snakes.get(1).x, is(5));
+        assertThat(snakes.get(1).y, is(6));
+        assertThat(snakes.get(1).size, is(5));
+    }
+
+    @Test
+    public void testParallelUsesCallingThread() {
+        initWithSize(50);
+        move(10, 40);
+        delete(3);
+        add(20);
+        Executor neverRuns = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                // never runs the command
+            }
+        };
+        check(DiffUtil.calculateDiff(mCallback, true, neverRuns));
+    }
+
     private void check() {
-        DiffUtil.DiffResult result = DiffUtil.calculateDiff(mCallback);
+        check(DiffUtil.calculateDiff(mCallback));
+        check(DiffUtil.calculateDiff(mCallback, true, PARALLEL_EXECUTOR));
+    }
+
+    private void check(DiffUtil.DiffResult result) {
         log("before", mBefore);
         log("after", mAfter);
         log("snakes", result.getSnakes());
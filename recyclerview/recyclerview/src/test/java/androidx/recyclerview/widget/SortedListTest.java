@@ -41,6 +41,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
 import java.util.Random;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @RunWith(JUnit4.class)
@@ -1495,6 +1496,147 @@ public class SortedListTest {
         assertTrue(mCallbackRunnables.isEmpty());
     }
 
+    @Test
+    public void addAllAsync_matchesAddAll() {
+        Item[] items1 = shuffle(createItems(0, 400, 2));
+        Item[] items2 = shuffle(createItems(1, 399, 4));
+        mList.addAll(items1);
+        mList.addAll(items2);
+        List<Event> expectedEvents = new ArrayList<>(mEvents);
+        List<Item> expectedItems = new ArrayList<>();
+        for (int i = 0; i < mList.size(); i++) {
+            expectedItems.add(mList.get(i));
+        }
+
+        mEvents.clear();
+        mList = createAsyncList(DIRECT_EXECUTOR);
+        mList.addAllAsync(Arrays.asList(items1), null);
+        mList.addAllAsync(Arrays.asList(items2), null);
+
+        assertEquals(expectedEvents, mEvents);
+        assertIntegrity(expectedItems.size(), "addAllAsync");
+        for (int i = 0; i < expectedItems.size(); i++) {
+            assertSame(expectedItems.get(i), mList.get(i));
+        }
+    }
+
+    @Test
+    public void replaceAllAsync_allTypesOfChanges_worksCorrectly() {
+        Item[] items2 = new Item[]{
+                new Item(1),
+                new Item(3, 2, 3),
+                new Item(6, 6, 7)
+        };
+        mList = createAsyncList(DIRECT_EXECUTOR);
+        mList.addAll(createItemsFromInts(2, 5, 6));
+        mEvents.clear();
+
+        mList.replaceAllAsync(Arrays.asList(items2), null);
+
+        assertEquals(new Event(TYPE.ADD, 0, 1), mEvents.get(0));
+        assertEquals(new Event(TYPE.REMOVE, 1, 1), mEvents.get(1));
+        assertEquals(new Event(TYPE.ADD, 1, 1), mEvents.get(2));
+        assertEquals(new Event(TYPE.REMOVE, 2, 1), mEvents.get(3));
+        assertEquals(new Event(TYPE.CHANGE, 2, 1), mEvents.get(4));
+        assertEquals(5, mEvents.size());
+        assertTrue(sortedListEquals(mList, items2));
+    }
+
+    @Test
+    public void addAllAsync_listUnchangedUntilCommitted() {
+        QueueExecutor background = new QueueExecutor();
+        mList = createAsyncList(background);
+        mList.addAll(createItemsFromInts(1, 3));
+        final AtomicInteger commits = new AtomicInteger();
+        mList.addAllAsync(Arrays.asList(createItemsFromInts(4, 2)), new Runnable() {
+            @Override
+            public void run() {
+                commits.incrementAndGet();
+            }
+        });
+
+        assertEquals(2, mList.size());
+        assertEquals(0, commits.get());
+        background.runAll();
+        assertEquals(1, commits.get());
+        assertTrue(sortedListEquals(mList, createItemsFromInts(1, 2, 3, 4)));
+    }
+
+    @Test
+    public void addAllAsync_listModifiedWhilePending() {
+        QueueExecutor background = new QueueExecutor();
+        mList = createAsyncList(background);
+        mList.addAll(createItemsFromInts(1, 3, 5));
+        mList.addAllAsync(Arrays.asList(createItemsFromInts(6, 2)), null);
+        mList.addAllAsync(Arrays.asList(createItemsFromInts(7)), null);
+
+        mList.add(new Item(4));
+        mList.remove(mList.get(0));
+        background.runAll();
+
+        assertTrue(sortedListEquals(mList, createItemsFromInts(2, 3, 4, 5, 6, 7)));
+        assertIntegrity(6, "addAllAsync after synchronous changes");
+    }
+
+    @Test
+    public void replaceAllAsync_discardsPendingUpdates() {
+        QueueExecutor background = new QueueExecutor();
+        mList = createAsyncList(background);
+        final List<String> commits = new ArrayList<>();
+        mList.addAllAsync(Arrays.asList(createItemsFromInts(1, 2)), new Runnable() {
+            @Override
+            public void run() {
+                commits.add("add1");
+            }
+        });
+        mList.addAllAsync(Arrays.asList(createItemsFromInts(3)), new Runnable() {
+            @Override
+            public void run() {
+                commits.add("add2");
+            }
+        });
+        mList.replaceAllAsync(Arrays.asList(createItemsFromInts(5, 4)), new Runnable() {
+            @Override
+            public void run() {
+                commits.add("replace");
+            }
+        });
+        background.runAll();
+
+        assertEquals(Collections.singletonList("replace"), commits);
+        assertTrue(sortedListEquals(mList, createItemsFromInts(4, 5)));
+        assertEquals(Collections.singletonList(new Event(TYPE.ADD, 0, 2)), mEvents);
+    }
+
+    private SortedList<Item> createAsyncList(Executor backgroundExecutor) {
+        SortedList<Item> list = new SortedList<>(Item.class, mCallback);
+        list.setBackgroundThreadExecutor(backgroundExecutor);
+        list.mMainThreadExecutor = DIRECT_EXECUTOR;
+        return list;
+    }
+
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private static class QueueExecutor implements Executor {
+        private final Queue<Runnable> mQueue = new LinkedList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            mQueue.add(command);
+        }
+
+        void runAll() {
+            while (!mQueue.isEmpty()) {
+                mQueue.poll().run();
+            }
+        }
+    }
+
     private int size() {
         return mList.size();
     }
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.benchmark
+
+import android.os.Build
+import androidx.benchmark.BenchmarkRule
+import androidx.benchmark.measureRepeated
+import androidx.room.Dao
+import androidx.room.Database
+import androidx.room.Entity
+import androidx.room.Insert
+import androidx.room.PrimaryKey
+import androidx.room.Query
+import androidx.room.Room
+import androidx.room.RoomDatabase
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.filters.LargeTest
+import androidx.test.filters.SdkSuppress
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+
+/**
+ * Compares inserting a list of entities, which uses multi-row INSERT statements, with inserting
+ * the same entities one at a time within a single transaction.
+ */
+@LargeTest
+@RunWith(Parameterized::class)
+@SdkSuppress(minSdkVersion = Build.VERSION_CODES.JELLY_BEAN)
+class InsertBenchmark(private val sampleSize: Int) {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    val context = ApplicationProvider.getApplicationContext() as android.content.Context
+
+    private lateinit var db: TestDatabase
+
+    @Before
+    fun setup() {
+        for (postfix in arrayOf("", "-wal", "-shm")) {
+            val dbFile = context.getDatabasePath(DB_NAME + postfix)
+            if (dbFile.exists()) {
+                assertTrue(dbFile.delete())
+            }
+        }
+        db = Room.databaseBuilder(context, TestDatabase::class.java, DB_NAME)
+            .setJournalMode(RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING)
+            .build()
+    }
+
+    @After
+    fun tearDown() {
+        db.close()
+    }
+
+    @Test
+    fun insertList() {
+        val dao = db.getUserDao()
+        val users = List(sampleSize) { User(it, "name$it", it) }
+        benchmarkRule.measureRepeated {
+            dao.insertAll(users)
+            runWithTimingDisabled {
+                assertEquals(sampleSize, dao.deleteAll())
+            }
+        }
+    }
+
+    @Test
+    fun insertEach() {
+        val dao = db.getUserDao()
+        val users = List(sampleSize) { User(it, "name$it", it) }
+        benchmarkRule.measureRepeated {
+            db.runInTransaction {
+                for (user in users) {
+                    dao.insert(user)
+                }
+            }
+            runWithTimingDisabled {
+                assertEquals(sampleSize, dao.deleteAll())
+            }
+        }
+    }
+
+    companion object {
+        @JvmStatic
+        @Parameterized.Parameters(name = "sampleSize={0}")
+        fun data() = arrayOf(100, 1000, 10000, 50000)
+
+        private const val DB_NAME = "insert-benchmark-test"
+    }
+
+    @Database(entities = [User::class], version = 1, exportSchema = false)
+    abstract class TestDatabase : RoomDatabase() {
+        abstract fun getUserDao(): UserDao
+    }
+
+    @Entity
+    data class User(@PrimaryKey val id: Int, val name: String, val age: Int)
+
+    @Dao
+    interface UserDao {
+        @Insert
+        fun insert(user: User)
+
+        @Insert
+        fun insertAll(users: List<User>)
+
+        @Query("DELETE FROM User")
+        fun deleteAll(): Int
+    }
+}
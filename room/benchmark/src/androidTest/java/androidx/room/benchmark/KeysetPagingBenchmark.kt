@@ -0,0 +1,139 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.benchmark
+
+import android.os.Build
+import androidx.benchmark.BenchmarkRule
+import androidx.benchmark.measureRepeated
+import androidx.paging.DataSource
+import androidx.room.Dao
+import androidx.room.Database
+import androidx.room.Entity
+import androidx.room.Insert
+import androidx.room.KeysetPaging
+import androidx.room.PrimaryKey
+import androidx.room.Query
+import androidx.room.Room
+import androidx.room.RoomDatabase
+import androidx.room.paging.KeysetDataSource
+import androidx.room.paging.LimitOffsetDataSource
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.filters.LargeTest
+import androidx.test.filters.SdkSuppress
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+
+/**
+ * Measures the time to load one page at a growing depth into a large table, paging with
+ * `LIMIT`/`OFFSET` and with [KeysetPaging].
+ */
+@LargeTest
+@RunWith(Parameterized::class)
+@SdkSuppress(minSdkVersion = Build.VERSION_CODES.JELLY_BEAN)
+class KeysetPagingBenchmark(private val depth: Int) {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    val context = ApplicationProvider.getApplicationContext() as android.content.Context
+
+    private lateinit var db: TestDatabase
+
+    @Before
+    fun setup() {
+        for (postfix in arrayOf("", "-journal")) {
+            val dbFile = context.getDatabasePath(DB_NAME + postfix)
+            if (dbFile.exists()) {
+                assertTrue(dbFile.delete())
+            }
+        }
+        db = Room.databaseBuilder(context, TestDatabase::class.java, DB_NAME)
+            .setJournalMode(RoomDatabase.JournalMode.TRUNCATE)
+            .build()
+        val dao = db.getUserDao()
+        db.runInTransaction {
+            for (batch in 0 until ROW_COUNT / BATCH_SIZE) {
+                dao.insert(List(BATCH_SIZE) {
+                    val id = batch * BATCH_SIZE + it
+                    User(id, "name$id", id % 100)
+                })
+            }
+        }
+    }
+
+    @After
+    fun tearDown() {
+        db.close()
+    }
+
+    @Test
+    fun limitOffset() {
+        @Suppress("UNCHECKED_CAST")
+        val dataSource = db.getUserDao().positional().create() as LimitOffsetDataSource<User>
+        benchmarkRule.measureRepeated {
+            assertEquals(PAGE_SIZE, dataSource.loadRange(depth, PAGE_SIZE).size)
+        }
+    }
+
+    @Test
+    fun keyset() {
+        @Suppress("UNCHECKED_CAST")
+        val dataSource = db.getUserDao().keyset().create() as KeysetDataSource<Int, User>
+        benchmarkRule.measureRepeated {
+            // ids start at 0, so the rows after depth - 1 start at position depth
+            assertEquals(PAGE_SIZE, dataSource.loadAfter(depth - 1, PAGE_SIZE).size)
+        }
+    }
+
+    companion object {
+        @JvmStatic
+        @Parameterized.Parameters(name = "depth={0}")
+        fun data() = listOf(0, 10_000, 100_000, 500_000, 990_000)
+
+        private const val DB_NAME = "keyset-paging-benchmark-test"
+        private const val ROW_COUNT = 1_000_000
+        private const val BATCH_SIZE = 10_000
+        private const val PAGE_SIZE = 50
+    }
+
+    @Database(entities = [User::class], version = 1, exportSchema = false)
+    abstract class TestDatabase : RoomDatabase() {
+        abstract fun getUserDao(): UserDao
+    }
+
+    @Entity
+    data class User(@PrimaryKey val id: Int, val name: String, val age: Int)
+
+    @Dao
+    interface UserDao {
+        @Insert
+        fun insert(users: List<User>)
+
+        @Query("SELECT * FROM User")
+        fun positional(): DataSource.Factory<Int, User>
+
+        @KeysetPaging(keyColumn = "id")
+        @Query("SELECT * FROM User")
+        fun keyset(): DataSource.Factory<Int, User>
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.benchmark
+
+import android.os.Build
+import androidx.benchmark.BenchmarkRule
+import androidx.benchmark.measureRepeated
+import androidx.room.DatabaseConfiguration
+import androidx.room.InvalidationTracker
+import androidx.room.Room
+import androidx.room.RoomDatabase
+import androidx.sqlite.db.SupportSQLiteDatabase
+import androidx.sqlite.db.SupportSQLiteOpenHelper
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.filters.LargeTest
+import androidx.test.filters.SdkSuppress
+import org.junit.After
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+/**
+ * Compares the default flag based invalidation with versioned invalidation, enabled via
+ * [RoomDatabase.Builder.enableVersionedInvalidation], while observing a varying number of tables.
+ */
+@LargeTest
+@RunWith(Parameterized::class)
+@SdkSuppress(minSdkVersion = Build.VERSION_CODES.JELLY_BEAN)
+class VersionedInvalidationBenchmark(
+    private val observedTables: Int,
+    private val versioned: Boolean
+) {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    val context = ApplicationProvider.getApplicationContext() as android.content.Context
+
+    private lateinit var db: InvalidationFixtureDatabase
+
+    @Before
+    fun setup() {
+        for (postfix in arrayOf("", "-wal", "-shm")) {
+            val dbFile = context.getDatabasePath(DB_NAME + postfix)
+            if (dbFile.exists()) {
+                assertTrue(dbFile.delete())
+            }
+        }
+        db = Room.databaseBuilder(context, InvalidationFixtureDatabase::class.java, DB_NAME)
+            .setJournalMode(RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING)
+            .apply { if (versioned) enableVersionedInvalidation() }
+            .build()
+    }
+
+    @After
+    fun tearDown() {
+        db.close()
+    }
+
+    @Test
+    fun insertThroughput() {
+        val observer = object : InvalidationTracker.Observer(tableNames()) {
+            override fun onInvalidated(tables: MutableSet<String>) {}
+        }
+        db.invalidationTracker.addObserver(observer)
+
+        var table = 0
+        benchmarkRule.measureRepeated {
+            insertInto(table)
+            table = (table + 1) % observedTables
+        }
+        db.invalidationTracker.removeObserver(observer)
+    }
+
+    @Test
+    fun notificationLatency() {
+        var latch = CountDownLatch(1)
+        val observer = object : InvalidationTracker.Observer(tableNames()) {
+            override fun onInvalidated(tables: MutableSet<String>) {
+                latch.countDown()
+            }
+        }
+        db.invalidationTracker.addObserver(observer)
+
+        var table = 0
+        benchmarkRule.measureRepeated {
+            runWithTimingDisabled {
+                latch = CountDownLatch(1)
+            }
+            insertInto(table)
+            assertTrue(latch.await(5, TimeUnit.SECONDS))
+            table = (table + 1) % observedTables
+        }
+        db.invalidationTracker.removeObserver(observer)
+    }
+
+    private fun tableNames() = Array(observedTables) { "Table$it" }
+
+    private fun insertInto(table: Int) {
+        db.runInTransaction {
+            db.openHelper.writableDatabase.execSQL("INSERT INTO Table$table (value) VALUES (0)")
+        }
+    }
+
+    companion object {
+        @JvmStatic
+        @Parameterized.Parameters(name = "observedTables={0}, versioned={1}")
+        fun data(): List<Array<Any>> {
+            return mutableListOf<Array<Any>>().apply {
+                arrayOf(false, true).forEach { versioned ->
+                    arrayOf(1, 10, 100).forEach { observedTables ->
+                        add(arrayOf(observedTables, versioned))
+                    }
+                }
+            }
+        }
+
+        private const val DB_NAME = "versioned-invalidation-benchmark-test"
+    }
+}
+
+/**
+ * A database with [TABLE_COUNT] identical tables, which would otherwise each need an entity class.
+ * It is still created through [Room.databaseBuilder], so that the builder options apply, with
+ * [InvalidationFixtureDatabase_Impl] in place of the implementation that Room generates.
+ */
+abstract class InvalidationFixtureDatabase : RoomDatabase() {
+    companion object {
+        const val TABLE_COUNT = 100
+        val TABLE_NAMES = Array(TABLE_COUNT) { "Table$it" }
+    }
+}
+
+@Suppress("ClassName")
+class InvalidationFixtureDatabase_Impl : InvalidationFixtureDatabase() {
+    override fun createOpenHelper(config: DatabaseConfiguration): SupportSQLiteOpenHelper {
+        val callback = object : SupportSQLiteOpenHelper.Callback(1) {
+            override fun onCreate(db: SupportSQLiteDatabase) {
+                for (table in TABLE_NAMES) {
+                    db.execSQL("CREATE TABLE `$table` (`id` INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                            "`value` INTEGER NOT NULL)")
+                }
+            }
+
+            override fun onUpgrade(db: SupportSQLiteDatabase, oldVersion: Int, newVersion: Int) {
+                throw UnsupportedOperationException()
+            }
+
+            override fun onOpen(db: SupportSQLiteDatabase) {
+                mDatabase = db
+                internalInitInvalidationTracker(db)
+            }
+        }
+        return config.sqliteOpenHelperFactory.create(
+            SupportSQLiteOpenHelper.Configuration.builder(config.context)
+                .name(config.name)
+                .callback(callback)
+                .build()
+        )
+    }
+
+    override fun createInvalidationTracker() = InvalidationTracker(this, *TABLE_NAMES)
+
+    override fun clearAllTables() {
+        throw UnsupportedOperationException()
+    }
+}
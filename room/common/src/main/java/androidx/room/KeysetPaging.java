@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@link Query} method that returns a
+ * {@link androidx.paging.DataSource.Factory DataSource.Factory} to be paged by the value of a
+ * key column instead of by position.
+ * <p>
+ * By default, Room pages a query with {@code LIMIT} and {@code OFFSET}, which gets slower the
+ * further the list is scrolled because SQLite has to step over every skipped row, and counts all
+ * rows of the query whenever the data changes. A keyset paged query instead loads the rows after
+ * the last loaded key with {@code WHERE key > ? ORDER BY key LIMIT ?}, which takes the same time
+ * for every page if the key column is indexed.
+ * <p>
+ * The key column must be unique and not null, and the rows are always returned in the order of
+ * the key. The returned {@code DataSource.Factory} must use the type of the key column as its key
+ * type and the key column must be a field of the returned type, or the only column of the query
+ * if it returns a single column. The key column must be a number, a boolean, a
+ * {@code String} or a {@code byte[]}; {@code char} keys and keys that need a
+ * {@link TypeConverter} are not supported.
+ * <pre>
+ * {@literal @}Dao
+ * public interface UserDao {
+ *     {@literal @}KeysetPaging(keyColumn = "id")
+ *     {@literal @}Query("SELECT * FROM user WHERE age > :minAge")
+ *     DataSource.Factory&lt;Long, User> loadUsersOlderThan(int minAge);
+ * }
+ * </pre>
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.CLASS)
+public @interface KeysetPaging {
+    /**
+     * The name of the column the query is paged by.
+     *
+     * @return The key column.
+     */
+    String keyColumn();
+
+    /**
+     * Whether the rows of the query should be counted on the initial load so that placeholders
+     * can be shown. Counting scans every row of the query, so this is off by default and has no
+     * effect if placeholders are disabled.
+     *
+     * @return True if the rows should be counted, false otherwise.
+     */
+    boolean countItems() default false;
+}
@@ -85,8 +85,14 @@ object RoomTypeNames {
             ClassName.get("$ROOM_PACKAGE.util", "ViewInfo")
     val LIMIT_OFFSET_DATA_SOURCE: ClassName =
             ClassName.get("$ROOM_PACKAGE.paging", "LimitOffsetDataSource")
+    val KEYSET_DATA_SOURCE: ClassName =
+            ClassName.get("$ROOM_PACKAGE.paging", "KeysetDataSource")
     val DB_UTIL: ClassName =
             ClassName.get("$ROOM_PACKAGE.util", "DBUtil")
+    val CLOSEABLE_ITERATOR: ClassName =
+            ClassName.get(ROOM_PACKAGE, "CloseableIterator")
+    val CURSOR_ITERATOR: ClassName =
+            ClassName.get(ROOM_PACKAGE, "CursorIterator")
     val CURSOR_UTIL: ClassName =
             ClassName.get("$ROOM_PACKAGE.util", "CursorUtil")
 }
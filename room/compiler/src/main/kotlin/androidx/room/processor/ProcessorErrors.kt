@@ -546,6 +546,34 @@ object ProcessorErrors {
 
     val PAGING_SPECIFY_DATA_SOURCE_TYPE = "For now, Room only supports PositionalDataSource class."
 
+    val CLOSEABLE_ITERATOR_CANNOT_HAVE_RELATIONS = "CloseableIterator return types read rows" +
+            " one at a time and cannot be used with Pojos that have @Relation fields. Return a" +
+            " List instead."
+
+    val CLOSEABLE_ITERATOR_CANNOT_BE_IN_TRANSACTION = "CloseableIterator return types read rows" +
+            " after the method returns, outside of any transaction. Remove the @Transaction" +
+            " annotation or return a List instead."
+
+    val KEYSET_PAGING_REQUIRES_DATA_SOURCE_FACTORY = "@KeysetPaging can only be used on query" +
+            " methods that return a DataSource.Factory."
+
+    fun keysetPagingMissingKeyColumn(keyColumn: String, type: String) = "@KeysetPaging key" +
+            " column `$keyColumn` must be a field of $type that is returned by the query." +
+            " Fields of @Embedded and @Relation fields cannot be used as the key."
+
+    fun keysetPagingKeyTypeMismatch(keyColumn: String, keyType: String, expected: String) =
+            "The key type of the returned DataSource.Factory ($keyType) must match the type" +
+                    " of the @KeysetPaging key column `$keyColumn` ($expected)."
+
+    fun keysetPagingSingleColumnMismatch(keyColumn: String, column: String) = "@KeysetPaging" +
+            " key column `$keyColumn` must be the column returned by the query (`$column`)" +
+            " when the query returns a single column."
+
+    fun keysetPagingUnsupportedKeyType(keyColumn: String, keyType: String) = "The type of the" +
+            " @KeysetPaging key column `$keyColumn` ($keyType) is not supported. The key must" +
+            " be a boxed primitive other than Character, a String or a byte[], and cannot use a" +
+            " TypeConverter."
+
     fun primaryKeyNull(field: String): String {
         return "You must annotate primary keys with @NonNull. \"$field\" is nullable. SQLite " +
                 "considers this a " +
@@ -16,6 +16,7 @@
 
 package androidx.room.processor
 
+import androidx.room.KeysetPaging
 import androidx.room.Query
 import androidx.room.SkipQueryVerification
 import androidx.room.Transaction
@@ -25,14 +26,26 @@ import androidx.room.ext.typeName
 import androidx.room.parser.ParsedQuery
 import androidx.room.parser.QueryType
 import androidx.room.parser.SqlParser
+import androidx.room.solver.query.result.CloseableIteratorQueryResultBinder
+import androidx.room.solver.query.result.DataSourceFactoryQueryResultBinder
+import androidx.room.solver.query.result.EntityRowAdapter
+import androidx.room.solver.query.result.KeysetDataSourceFactoryQueryResultBinder
+import androidx.room.solver.query.result.KeysetDataSourceQueryResultBinder
 import androidx.room.solver.query.result.PojoRowAdapter
+import androidx.room.solver.query.result.QueryResultBinder
+import androidx.room.solver.query.result.SingleColumnRowAdapter
 import androidx.room.verifier.DatabaseVerificaitonErrors
 import androidx.room.verifier.DatabaseVerifier
+import androidx.room.vo.Field
 import androidx.room.vo.WriteQueryMethod
 import androidx.room.vo.QueryMethod
 import androidx.room.vo.QueryParameter
 import androidx.room.vo.ReadQueryMethod
 import androidx.room.vo.Warning
+import com.google.auto.common.MoreTypes
+import com.squareup.javapoet.ArrayTypeName
+import com.squareup.javapoet.ClassName
+import com.squareup.javapoet.TypeName
 import javax.lang.model.element.ExecutableElement
 import javax.lang.model.type.DeclaredType
 import javax.lang.model.type.TypeKind
@@ -130,13 +143,24 @@ class QueryMethodProcessor(
         returnType: TypeMirror,
         query: ParsedQuery
     ): QueryMethod {
-        val resultBinder = delegate.findResultBinder(returnType, query)
+        val resultBinder = delegate.findResultBinder(returnType, query).let { binder ->
+            val keysetPaging = executableElement.toAnnotationBox(KeysetPaging::class)?.value
+            if (keysetPaging != null) {
+                createKeysetBinder(keysetPaging, returnType, query, binder) ?: binder
+            } else {
+                binder
+            }
+        }
         context.checker.check(
             resultBinder.adapter != null,
             executableElement,
             ProcessorErrors.cannotFindQueryResultAdapter(returnType.toString()))
 
         val inTransaction = executableElement.hasAnnotation(Transaction::class)
+        context.checker.check(
+            !inTransaction || resultBinder !is CloseableIteratorQueryResultBinder,
+            executableElement,
+            ProcessorErrors.CLOSEABLE_ITERATOR_CANNOT_BE_IN_TRANSACTION)
         if (query.type == QueryType.SELECT && !inTransaction) {
             // put a warning if it is has relations and not annotated w/ transaction
             resultBinder.adapter?.rowAdapter?.let { rowAdapter ->
@@ -159,7 +183,74 @@ class QueryMethodProcessor(
             queryResultBinder = resultBinder)
     }
 
+    /**
+     * Replaces the positional DataSource.Factory binder with one that pages by the key column.
+     * Returns null if the key column cannot be used, after reporting the error.
+     */
+    private fun createKeysetBinder(
+        keysetPaging: KeysetPaging,
+        returnType: TypeMirror,
+        query: ParsedQuery,
+        binder: QueryResultBinder
+    ): QueryResultBinder? {
+        if (binder !is DataSourceFactoryQueryResultBinder) {
+            context.logger.e(executableElement,
+                ProcessorErrors.KEYSET_PAGING_REQUIRES_DATA_SOURCE_FACTORY)
+            return null
+        }
+        val positionalBinder = binder.positionalDataSourceQueryResultBinder
+        val listAdapter = positionalBinder.listAdapter ?: return null
+        val keyColumn = keysetPaging.keyColumn
+        val keyTypeName = MoreTypes.asDeclared(returnType).typeArguments[0].typeName()
+        val itemTypeName = positionalBinder.itemTypeName
+        val rowAdapter = listAdapter.rowAdapter
+        val keyField: Field? = when (rowAdapter) {
+            is PojoRowAdapter -> rowAdapter.mapping.matchedFields
+            is EntityRowAdapter -> rowAdapter.entity.fields
+            else -> emptyList<Field>()
+        }.firstOrNull { it.parent == null && it.columnName == keyColumn }
+        if (keyField == null && rowAdapter !is SingleColumnRowAdapter) {
+            context.logger.e(executableElement,
+                ProcessorErrors.keysetPagingMissingKeyColumn(keyColumn, itemTypeName.toString()))
+            return null
+        }
+        if (keyField == null) {
+            // a single column result is its own key, so the key column must be that column
+            val columnName = query.resultInfo?.columns?.singleOrNull()?.name
+            if (columnName != null && columnName != keyColumn) {
+                context.logger.e(executableElement,
+                    ProcessorErrors.keysetPagingSingleColumnMismatch(keyColumn, columnName))
+                return null
+            }
+        }
+        val expectedKeyTypeName = keyField?.typeName?.box() ?: itemTypeName
+        if (keyTypeName != expectedKeyTypeName) {
+            context.logger.e(executableElement, ProcessorErrors.keysetPagingKeyTypeMismatch(
+                keyColumn, keyTypeName.toString(), expectedKeyTypeName.toString()))
+            return null
+        }
+        if (keyTypeName !in KEYSET_KEY_TYPES) {
+            // the data source binds the key by its runtime type, without type converters
+            context.logger.e(executableElement, ProcessorErrors.keysetPagingUnsupportedKeyType(
+                keyColumn, keyTypeName.toString()))
+            return null
+        }
+        return KeysetDataSourceFactoryQueryResultBinder(KeysetDataSourceQueryResultBinder(
+            listAdapter = listAdapter,
+            tableNames = positionalBinder.tableNames,
+            keyColumn = keyColumn,
+            keyField = keyField,
+            keyTypeName = keyTypeName,
+            countItems = keysetPaging.countItems))
+    }
+
     companion object {
         val PREPARED_TYPES = arrayOf(QueryType.INSERT, QueryType.DELETE, QueryType.UPDATE)
+
+        // the key types KeysetDataSource can bind
+        val KEYSET_KEY_TYPES = setOf(
+            TypeName.BYTE.box(), TypeName.SHORT.box(), TypeName.INT.box(), TypeName.LONG.box(),
+            TypeName.FLOAT.box(), TypeName.DOUBLE.box(), TypeName.BOOLEAN.box(),
+            ClassName.get(String::class.java), ArrayTypeName.of(TypeName.BYTE))
     }
 }
@@ -48,7 +48,7 @@ class CallablePreparedQueryResultBinder private constructor(
 
     override fun executeAndReturn(
         prepareQueryStmtBlock: CodeGenScope.() -> String,
-        preparedStmtField: String?,
+        releaseStmtBlock: CodeBlock.Builder.(stmtVar: String) -> Unit,
         dbField: FieldSpec,
         scope: CodeGenScope
     ) {
@@ -56,7 +56,7 @@ class CallablePreparedQueryResultBinder private constructor(
         val callableImpl = CallableTypeSpecBuilder(returnType.typeName()) {
             adapter?.executeAndReturn(
                 binderScope.prepareQueryStmtBlock(),
-                preparedStmtField,
+                releaseStmtBlock,
                 dbField,
                 binderScope)
             addCode(binderScope.generate())
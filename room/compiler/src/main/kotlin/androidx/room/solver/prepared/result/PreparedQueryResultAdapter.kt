@@ -24,6 +24,7 @@ import androidx.room.ext.typeName
 import androidx.room.parser.QueryType
 import androidx.room.solver.CodeGenScope
 import androidx.room.solver.prepared.binder.PreparedQueryResultBinder
+import com.squareup.javapoet.CodeBlock
 import com.squareup.javapoet.FieldSpec
 import isInt
 import isKotlinUnit
@@ -65,7 +66,7 @@ class PreparedQueryResultAdapter(
 
     fun executeAndReturn(
         stmtQueryVal: String,
-        preparedStmtField: String?,
+        releaseStmtBlock: CodeBlock.Builder.(stmtVar: String) -> Unit,
         dbField: FieldSpec,
         scope: CodeGenScope
     ) {
@@ -97,9 +98,7 @@ class PreparedQueryResultAdapter(
             }
             nextControlFlow("finally").apply {
                 addStatement("$N.endTransaction()", dbField)
-                if (preparedStmtField != null) {
-                    addStatement("$N.release($L)", preparedStmtField, stmtQueryVal)
-                }
+                releaseStmtBlock(stmtQueryVal)
             }
             endControlFlow()
         }
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.solver.query.result
+
+import androidx.room.ext.AndroidTypeNames
+import androidx.room.ext.L
+import androidx.room.ext.N
+import androidx.room.ext.RoomTypeNames
+import androidx.room.ext.T
+import androidx.room.solver.CodeGenScope
+import androidx.room.writer.DaoWriter
+import com.squareup.javapoet.FieldSpec
+
+/**
+ * Runs the query and returns a CloseableIterator over its cursor. Unlike the
+ * [InstantQueryResultBinder], the cursor and the query stay open until the iterator is consumed
+ * or closed, so they are only cleaned up here if creating the iterator fails.
+ */
+class CloseableIteratorQueryResultBinder(
+    private val iteratorAdapter: CloseableIteratorQueryResultAdapter?
+) : QueryResultBinder(iteratorAdapter) {
+    override fun convertAndReturn(
+        roomSQLiteQueryVar: String,
+        canReleaseQuery: Boolean,
+        dbField: FieldSpec,
+        inTransaction: Boolean,
+        scope: CodeGenScope
+    ) {
+        scope.builder().apply {
+            addStatement("$N.assertNotSuspendingTransaction()", DaoWriter.dbField)
+            val outVar = scope.getTmpVar("_result")
+            val cursorVar = scope.getTmpVar("_cursor")
+            addStatement("final $T $L = $T.query($N, $L, false)",
+                    AndroidTypeNames.CURSOR,
+                    cursorVar,
+                    RoomTypeNames.DB_UTIL,
+                    dbField,
+                    roomSQLiteQueryVar)
+            beginControlFlow("try").apply {
+                iteratorAdapter?.convert(outVar, cursorVar,
+                        if (canReleaseQuery) roomSQLiteQueryVar else null, scope)
+                addStatement("return $L", outVar)
+            }
+            val exceptionVar = scope.getTmpVar("_e")
+            nextControlFlow("catch ($T $L)", RuntimeException::class.java, exceptionVar).apply {
+                addStatement("$L.close()", cursorVar)
+                if (canReleaseQuery) {
+                    addStatement("$L.release()", roomSQLiteQueryVar)
+                }
+                addStatement("throw $L", exceptionVar)
+            }
+            endControlFlow()
+        }
+    }
+}
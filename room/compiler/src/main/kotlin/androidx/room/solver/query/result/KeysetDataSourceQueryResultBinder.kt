@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.solver.query.result
+
+import androidx.room.ext.AndroidTypeNames
+import androidx.room.ext.CommonTypeNames
+import androidx.room.ext.L
+import androidx.room.ext.N
+import androidx.room.ext.RoomTypeNames
+import androidx.room.ext.S
+import androidx.room.ext.typeName
+import androidx.room.solver.CodeGenScope
+import androidx.room.vo.Field
+import com.squareup.javapoet.FieldSpec
+import com.squareup.javapoet.MethodSpec
+import com.squareup.javapoet.ParameterSpec
+import com.squareup.javapoet.ParameterizedTypeName
+import com.squareup.javapoet.TypeName
+import com.squareup.javapoet.TypeSpec
+import javax.lang.model.element.Modifier
+
+/**
+ * Creates a KeysetDataSource that pages the query by [keyColumn].
+ *
+ * If [keyField] is null, the rows are single column values and each item is its own key.
+ */
+class KeysetDataSourceQueryResultBinder(
+        val listAdapter: ListQueryResultAdapter?,
+        val tableNames: Set<String>,
+        val keyColumn: String,
+        val keyField: Field?,
+        val keyTypeName: TypeName,
+        val countItems: Boolean) : QueryResultBinder(listAdapter) {
+    val itemTypeName: TypeName = listAdapter?.rowAdapter?.out?.typeName() ?: TypeName.OBJECT
+    val typeName: ParameterizedTypeName = ParameterizedTypeName.get(
+            RoomTypeNames.KEYSET_DATA_SOURCE, keyTypeName, itemTypeName)
+    override fun convertAndReturn(roomSQLiteQueryVar: String,
+                                  canReleaseQuery: Boolean,
+                                  dbField: FieldSpec,
+                                  inTransaction: Boolean,
+                                  scope: CodeGenScope) {
+        // see PositionalDataSourceQueryResultBinder for why the first comma is in the list
+        val tableNamesList = tableNames.joinToString("") { ", \"$it\"" }
+        val spec = TypeSpec.anonymousClassBuilder("$N, $L, $S, $L, $L $L",
+                dbField, roomSQLiteQueryVar, keyColumn, countItems, inTransaction,
+                tableNamesList).apply {
+            superclass(typeName)
+            addMethod(createConvertRowsMethod(scope))
+            addMethod(createGetKeyMethod(scope))
+        }.build()
+        scope.builder().apply {
+            addStatement("return $L", spec)
+        }
+    }
+
+    private fun createConvertRowsMethod(scope: CodeGenScope): MethodSpec =
+            MethodSpec.methodBuilder("convertRows").apply {
+                addAnnotation(Override::class.java)
+                addModifiers(Modifier.PROTECTED)
+                returns(ParameterizedTypeName.get(CommonTypeNames.LIST, itemTypeName))
+                val cursorParam = ParameterSpec.builder(AndroidTypeNames.CURSOR, "cursor")
+                        .build()
+                addParameter(cursorParam)
+                val resultVar = scope.getTmpVar("_res")
+                val rowsScope = scope.fork()
+                listAdapter?.convert(resultVar, cursorParam.name, rowsScope)
+                addCode(rowsScope.builder().build())
+                addStatement("return $L", resultVar)
+            }.build()
+
+    private fun createGetKeyMethod(scope: CodeGenScope): MethodSpec =
+            MethodSpec.methodBuilder("getKey").apply {
+                addAnnotation(Override::class.java)
+                addModifiers(Modifier.PUBLIC)
+                returns(keyTypeName)
+                val itemParam = ParameterSpec.builder(itemTypeName, "item").build()
+                addParameter(itemParam)
+                if (keyField == null) {
+                    addStatement("return $N", itemParam)
+                } else {
+                    val keyVar = scope.getTmpVar("_key")
+                    val getterScope = scope.fork()
+                    keyField.getter.writeGet(itemParam.name, keyVar, getterScope.builder())
+                    addCode(getterScope.builder().build())
+                    addStatement("return $L", keyVar)
+                }
+            }.build()
+}
@@ -23,6 +23,11 @@ import androidx.room.ext.SupportDbTypeNames
 import androidx.room.ext.T
 import androidx.room.processor.OnConflictProcessor
 import androidx.room.solver.CodeGenScope
+import androidx.room.solver.query.result.InstantQueryResultBinder
+import androidx.room.solver.query.result.SingleColumnRowAdapter
+import androidx.room.solver.query.result.SingleEntityQueryResultAdapter
+import androidx.room.solver.types.PrimitiveColumnTypeAdapter
+import androidx.room.solver.types.StringColumnTypeAdapter
 import androidx.room.vo.Dao
 import androidx.room.vo.Entity
 import androidx.room.vo.InsertionMethod
@@ -48,6 +53,7 @@ import javax.lang.model.element.Modifier.FINAL
 import javax.lang.model.element.Modifier.PRIVATE
 import javax.lang.model.element.Modifier.PUBLIC
 import javax.lang.model.type.DeclaredType
+import javax.lang.model.type.TypeKind
 
 /**
  * Creates the implementation for a class annotated with Dao.
@@ -151,7 +157,9 @@ class DaoWriter(val dao: Dao, val processingEnv: ProcessingEnvironment)
                 queryWriter.bindArgs(stmtName, emptyList(), this)
                 stmtName
             },
-            preparedStmtField = preparedStmtField.name,
+            releaseStmtBlock = { stmtVar ->
+                addStatement("$N.release($L)", preparedStmtField, stmtVar)
+            },
             dbField = dbField,
             scope = scope)
         return overrideWithoutAnnotations(method.element, declaredDao)
@@ -377,28 +385,37 @@ class DaoWriter(val dao: Dao, val processingEnv: ProcessingEnvironment)
 
     private fun createPreparedQueryMethodBody(method: WriteQueryMethod): CodeBlock {
         val scope = CodeGenScope(this)
+        // the statement is taken from the database's statement cache and given back once the
+        // query ran, so that calls with the same runtime SQL reuse the compiled statement.
+        lateinit var sqlVar: String
         method.preparedQueryResultBinder.executeAndReturn(
             prepareQueryStmtBlock = {
                 val queryWriter = QueryWriter(method)
-                val sqlVar = getTmpVar("_sql")
+                sqlVar = getTmpVar("_sql")
                 val stmtVar = getTmpVar("_stmt")
                 val listSizeArgs = queryWriter.prepareQuery(sqlVar, this)
                 builder().apply {
                     addStatement(
-                        "final $T $L = $N.compileStatement($L)",
+                        "final $T $L = $N.acquireCachedStatement($L)",
                         SupportDbTypeNames.SQLITE_STMT, stmtVar, dbField, sqlVar
                     )
                 }
                 queryWriter.bindArgs(stmtVar, listSizeArgs, this)
                 stmtVar
             },
-            preparedStmtField = null,
+            releaseStmtBlock = { stmtVar ->
+                addStatement("$N.releaseCachedStatement($L, $L)", dbField, sqlVar, stmtVar)
+            },
             dbField = dbField,
             scope = scope)
         return scope.generate()
     }
 
     private fun createQueryMethodBody(method: ReadQueryMethod): CodeBlock {
+        val simpleQuery = SimpleQuery.of(method)
+        if (simpleQuery != null) {
+            return createSimpleQueryMethodBody(method, simpleQuery)
+        }
         val queryWriter = QueryWriter(method)
         val scope = CodeGenScope(this)
         val sqlVar = scope.getTmpVar("_sql")
@@ -413,6 +430,40 @@ class DaoWriter(val dao: Dao, val processingEnv: ProcessingEnvironment)
         return scope.builder().build()
     }
 
+    /**
+     * Reads a single number or string with a statement from the database's statement cache
+     * instead of a Cursor, so that calls reuse the compiled statement, see [SimpleQuery].
+     */
+    private fun createSimpleQueryMethodBody(
+        method: ReadQueryMethod,
+        simpleQuery: SimpleQuery
+    ): CodeBlock {
+        val queryWriter = QueryWriter(method)
+        val scope = CodeGenScope(this)
+        val sqlVar = scope.getTmpVar("_sql")
+        val stmtVar = scope.getTmpVar("_stmt")
+        val outVar = scope.getTmpVar("_result")
+        val listSizeArgs = queryWriter.prepareQuery(sqlVar, scope)
+        scope.builder().apply {
+            addStatement("final $T $L = $N.acquireCachedStatement($L)",
+                    SupportDbTypeNames.SQLITE_STMT, stmtVar, dbField, sqlVar)
+        }
+        queryWriter.bindArgs(stmtVar, listSizeArgs, scope)
+        scope.builder().apply {
+            beginControlFlow("try").apply {
+                addStatement("final $T $L = $L$T.$L($L)", simpleQuery.type, outVar,
+                        simpleQuery.cast, RoomTypeNames.DB_UTIL, simpleQuery.dbUtilMethod,
+                        stmtVar)
+                addStatement("return $L", outVar)
+            }
+            nextControlFlow("finally").apply {
+                addStatement("$N.releaseCachedStatement($L, $L)", dbField, sqlVar, stmtVar)
+            }
+            endControlFlow()
+        }
+        return scope.builder().build()
+    }
+
     private fun overrideWithoutAnnotations(
         elm: ExecutableElement,
         owner: DeclaredType
@@ -432,6 +483,41 @@ class DaoWriter(val dao: Dao, val processingEnv: ProcessingEnvironment)
         }
     }
 
+    /**
+     * A read query that returns the first column of its first row as an int, a long or a String,
+     * e.g. a COUNT query. SQLiteStatement can run these without a Cursor, which lets them use the
+     * statement cache like the write queries do.
+     */
+    class SimpleQuery private constructor(
+        val type: TypeName,
+        val dbUtilMethod: String,
+        val cast: String
+    ) {
+        companion object {
+            fun of(method: ReadQueryMethod): SimpleQuery? {
+                if (method.inTransaction || method.queryResultBinder !is InstantQueryResultBinder) {
+                    return null
+                }
+                val adapter = method.queryResultBinder.adapter
+                        as? SingleEntityQueryResultAdapter ?: return null
+                val reader = (adapter.rowAdapter as? SingleColumnRowAdapter)?.reader
+                        ?: return null
+                // only readers that map the column value as is, SQLiteStatement cannot tell a
+                // NULL value apart from 0.
+                return when {
+                    reader is StringColumnTypeAdapter ->
+                        SimpleQuery(reader.outTypeName, "simpleQueryForString", "")
+                    reader.javaClass != PrimitiveColumnTypeAdapter::class.java -> null
+                    reader.typeMirror().kind == TypeKind.LONG ->
+                        SimpleQuery(TypeName.LONG, "simpleQueryForLong", "")
+                    reader.typeMirror().kind == TypeKind.INT ->
+                        SimpleQuery(TypeName.INT, "simpleQueryForLong", "(int) ")
+                    else -> null
+                }
+            }
+        }
+    }
+
     /**
      * Represents a query statement prepared in Dao implementation.
      *
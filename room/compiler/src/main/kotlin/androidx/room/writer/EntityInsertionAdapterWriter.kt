@@ -55,6 +55,15 @@ class EntityInsertionAdapterWriter(val entity: Entity, val onConflict: String) {
             } else {
                 null
             }
+            // The values of a single row, which a multi-row insert repeats.
+            val rowValues = "(" +
+                    entity.fields.joinToString(",") {
+                        if (primitiveAutoGenerateField == it) {
+                            "nullif(?, 0)"
+                        } else {
+                            "?"
+                        }
+                    } + ")"
             addMethod(MethodSpec.methodBuilder("createQuery").apply {
                 addAnnotation(Override::class.java)
                 returns(ClassName.get("java.lang", "String"))
@@ -62,14 +71,7 @@ class EntityInsertionAdapterWriter(val entity: Entity, val onConflict: String) {
                 val query =
                         "INSERT OR $onConflict INTO `${entity.tableName}`(" +
                                 entity.columnNames.joinToString(",") { "`$it`" } +
-                                ") VALUES (" +
-                                entity.fields.joinToString(",") {
-                                    if (primitiveAutoGenerateField == it) {
-                                        "nullif(?, 0)"
-                                    } else {
-                                        "?"
-                                    }
-                                } + ")"
+                                ") VALUES " + rowValues
                 addStatement("return $S", query)
             }.build())
             addMethod(MethodSpec.methodBuilder("bind").apply {
@@ -91,6 +93,18 @@ class EntityInsertionAdapterWriter(val entity: Entity, val onConflict: String) {
                 )
                 addCode(bindScope.builder().build())
             }.build())
+            addMethod(MethodSpec.methodBuilder("getBindArgCount").apply {
+                addAnnotation(Override::class.java)
+                returns(TypeName.INT)
+                addModifiers(PUBLIC)
+                addStatement("return $L", entity.fields.size)
+            }.build())
+            addMethod(MethodSpec.methodBuilder("createRowValues").apply {
+                addAnnotation(Override::class.java)
+                returns(ClassName.get("java.lang", "String"))
+                addModifiers(PUBLIC)
+                addStatement("return $S", rowValues)
+            }.build())
         }.build()
     }
 }
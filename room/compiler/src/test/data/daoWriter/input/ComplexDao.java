@@ -72,4 +72,7 @@ abstract class ComplexDao {
 
     @Query("SELECT * FROM Child2")
     abstract public List<Child2> getChild2List();
+
+    @Query("SELECT * FROM Child2")
+    abstract public CloseableIterator<Child2> iterateChild2();
 }
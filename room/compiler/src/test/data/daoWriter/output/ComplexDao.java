@@ -2,14 +2,18 @@ package foo.bar;
 
 import android.database.Cursor;
 import androidx.lifecycle.LiveData;
+import androidx.room.CloseableIterator;
+import androidx.room.CursorIterator;
 import androidx.room.RoomDatabase;
 import androidx.room.RoomSQLiteQuery;
 import androidx.room.util.CursorUtil;
 import androidx.room.util.DBUtil;
 import androidx.room.util.StringUtil;
+import androidx.sqlite.db.SupportSQLiteStatement;
 import java.lang.Exception;
 import java.lang.Integer;
 import java.lang.Override;
+import java.lang.RuntimeException;
 import java.lang.String;
 import java.lang.StringBuilder;
 import java.lang.SuppressWarnings;
@@ -184,22 +188,14 @@ public final class ComplexDao_Impl extends ComplexDao {
     @Override
     int getAge(final int id) {
         final String _sql = "SELECT ageColumn FROM user where uid = ?";
-        final RoomSQLiteQuery _statement = RoomSQLiteQuery.acquire(_sql, 1);
+        final SupportSQLiteStatement _stmt = __db.acquireCachedStatement(_sql);
         int _argIndex = 1;
-        _statement.bindLong(_argIndex, id);
-        __db.assertNotSuspendingTransaction();
-        final Cursor _cursor = DBUtil.query(__db, _statement, false);
+        _stmt.bindLong(_argIndex, id);
         try {
-            final int _result;
-            if(_cursor.moveToFirst()) {
-                _result = _cursor.getInt(0);
-            } else {
-                _result = 0;
-            }
+            final int _result = (int) DBUtil.simpleQueryForLong(_stmt);
             return _result;
         } finally {
-            _cursor.close();
-            _statement.release();
+            __db.releaseCachedStatement(_sql, _stmt);
         }
     }
 
@@ -281,7 +277,7 @@ public final class ComplexDao_Impl extends ComplexDao {
         final RoomSQLiteQuery _statement = RoomSQLiteQuery.acquire(_sql, 1);
         int _argIndex = 1;
         _statement.bindLong(_argIndex, id);
-        return __db.getInvalidationTracker().createLiveData(new String[]{"user"}, false, new Callable<User>() {
+        return __db.getInvalidationTracker().createLiveData(new String[]{"user"}, false, _statement, new Callable<User>() {
             @Override
             public User call() throws Exception {
                 final Cursor _cursor = DBUtil.query(__db, _statement, false);
@@ -330,7 +326,7 @@ public final class ComplexDao_Impl extends ComplexDao {
             _statement.bindLong(_argIndex, _item);
             _argIndex ++;
         }
-        return __db.getInvalidationTracker().createLiveData(new String[]{"user"}, false, new Callable<List<User>>() {
+        return __db.getInvalidationTracker().createLiveData(new String[]{"user"}, false, _statement, new Callable<List<User>>() {
             @Override
             public List<User> call() throws Exception {
                 final Cursor _cursor = DBUtil.query(__db, _statement, false);
@@ -491,4 +487,43 @@ public final class ComplexDao_Impl extends ComplexDao {
             _statement.release();
         }
     }
+
+    @Override
+    public CloseableIterator<Child2> iterateChild2() {
+        final String _sql = "SELECT * FROM Child2";
+        final RoomSQLiteQuery _statement = RoomSQLiteQuery.acquire(_sql, 0);
+        __db.assertNotSuspendingTransaction();
+        final Cursor _cursor = DBUtil.query(__db, _statement, false);
+        try {
+            final int _cursorIndexOfId = CursorUtil.getColumnIndexOrThrow(_cursor, "id");
+            final int _cursorIndexOfName = CursorUtil.getColumnIndexOrThrow(_cursor, "name");
+            final int _cursorIndexOfSerial = CursorUtil.getColumnIndexOrThrow(_cursor, "serial");
+            final int _cursorIndexOfCode = CursorUtil.getColumnIndexOrThrow(_cursor, "code");
+            final CloseableIterator<Child2> _result = new CursorIterator<Child2>(_cursor, _statement) {
+                @Override
+                protected Child2 convertRow(Cursor cursor) {
+                    final Child2 _item;
+                    final int _tmpId;
+                    _tmpId = cursor.getInt(_cursorIndexOfId);
+                    final String _tmpName;
+                    _tmpName = cursor.getString(_cursorIndexOfName);
+                    final Info _tmpInfo;
+                    if (! (cursor.isNull(_cursorIndexOfSerial) && cursor.isNull(_cursorIndexOfCode))) {
+                        _tmpInfo = new Info();
+                        _tmpInfo.serial = cursor.getInt(_cursorIndexOfSerial);
+                        _tmpInfo.code = cursor.getString(_cursorIndexOfCode);
+                    }  else  {
+                        _tmpInfo = null;
+                    }
+                    _item = new Child2(_tmpId,_tmpName,_tmpInfo);
+                    return _item;
+                }
+            };
+            return _result;
+        } catch (RuntimeException _e) {
+            _cursor.close();
+            _statement.release();
+            throw _e;
+        }
+    }
 }
\ No newline at end of file
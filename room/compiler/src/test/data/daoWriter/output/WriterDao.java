@@ -60,6 +60,16 @@ public final class WriterDao_Impl implements WriterDao {
                 }
                 stmt.bindLong(4, value.age);
             }
+
+            @Override
+            public int getBindArgCount() {
+                return 4;
+            }
+
+            @Override
+            public String createRowValues() {
+                return "(?,?,?,?)";
+            }
         };
         this.__insertionAdapterOfUser_1 = new EntityInsertionAdapter<User>(__db) {
             @Override
@@ -83,6 +93,16 @@ public final class WriterDao_Impl implements WriterDao {
                 }
                 stmt.bindLong(4, value.age);
             }
+
+            @Override
+            public int getBindArgCount() {
+                return 4;
+            }
+
+            @Override
+            public String createRowValues() {
+                return "(?,?,?,?)";
+            }
         };
         this.__insertionAdapterOfBook = new EntityInsertionAdapter<Book>(__db) {
             @Override
@@ -95,6 +115,16 @@ public final class WriterDao_Impl implements WriterDao {
                 stmt.bindLong(1, value.bookId);
                 stmt.bindLong(2, value.uid);
             }
+
+            @Override
+            public int getBindArgCount() {
+                return 2;
+            }
+
+            @Override
+            public String createRowValues() {
+                return "(?,?)";
+            }
         };
     }
 
@@ -27,12 +27,15 @@ import androidx.room.Transaction
 import androidx.room.ext.CommonTypeNames
 import androidx.room.ext.LifecyclesTypeNames
 import androidx.room.ext.PagingTypeNames
+import androidx.room.ext.RoomTypeNames
 import androidx.room.ext.hasAnnotation
 import androidx.room.ext.typeName
 import androidx.room.parser.QueryType
 import androidx.room.parser.Table
 import androidx.room.processor.ProcessorErrors.cannotFindQueryResultAdapter
+import androidx.room.solver.query.result.CloseableIteratorQueryResultBinder
 import androidx.room.solver.query.result.DataSourceFactoryQueryResultBinder
+import androidx.room.solver.query.result.KeysetDataSourceFactoryQueryResultBinder
 import androidx.room.solver.query.result.ListQueryResultAdapter
 import androidx.room.solver.query.result.LiveDataQueryResultBinder
 import androidx.room.solver.query.result.PojoRowAdapter
@@ -558,6 +561,142 @@ class QueryMethodProcessorTest(val enableVerification: Boolean) {
         }.compilesWithoutError()
     }
 
+    @Test
+    fun testCloseableIteratorQuery() {
+        singleQueryMethod<ReadQueryMethod>(
+                """
+                @Query("select name from user")
+                abstract ${RoomTypeNames.CLOSEABLE_ITERATOR}<String> iterateNames();
+                """
+        ) { parsedQuery, _ ->
+            assertThat(parsedQuery.returnType.typeName(),
+                    `is`(ParameterizedTypeName.get(RoomTypeNames.CLOSEABLE_ITERATOR,
+                            String::class.typeName()) as TypeName))
+            assertThat(parsedQuery.queryResultBinder,
+                    instanceOf(CloseableIteratorQueryResultBinder::class.java))
+            assertThat(parsedQuery.queryResultBinder.adapter, notNullValue())
+        }.compilesWithoutError()
+    }
+
+    @Test
+    fun testCloseableIteratorQueryInTransaction() {
+        singleQueryMethod<ReadQueryMethod>(
+                """
+                @Transaction
+                @Query("select name from user")
+                abstract ${RoomTypeNames.CLOSEABLE_ITERATOR}<String> iterateNames();
+                """
+        ) { _, _ ->
+        }.failsToCompile()
+                .withErrorContaining(ProcessorErrors.CLOSEABLE_ITERATOR_CANNOT_BE_IN_TRANSACTION)
+    }
+
+    @Test
+    fun testKeysetPagingQuery() {
+        singleQueryMethod<ReadQueryMethod>(
+                """
+                @KeysetPaging(keyColumn = "uid")
+                @Query("select * from user")
+                abstract ${PagingTypeNames.DATA_SOURCE_FACTORY}<Integer, ${COMMON.USER_TYPE_NAME}>
+                userDataSourceFactory();
+                """
+        ) { parsedQuery, _ ->
+            assertThat(parsedQuery.queryResultBinder,
+                    instanceOf(KeysetDataSourceFactoryQueryResultBinder::class.java))
+            val binder = (parsedQuery.queryResultBinder as KeysetDataSourceFactoryQueryResultBinder)
+                    .keysetDataSourceQueryResultBinder
+            assertThat(binder.keyColumn, `is`("uid"))
+            assertThat(binder.keyField?.name, `is`("uid"))
+            assertThat(binder.countItems, `is`(false))
+        }.compilesWithoutError()
+    }
+
+    @Test
+    fun testKeysetPagingQuery_singleColumn() {
+        singleQueryMethod<ReadQueryMethod>(
+                """
+                @KeysetPaging(keyColumn = "name", countItems = true)
+                @Query("select name from user")
+                abstract ${PagingTypeNames.DATA_SOURCE_FACTORY}<String, String>
+                nameDataSourceFactory();
+                """
+        ) { parsedQuery, _ ->
+            val binder = (parsedQuery.queryResultBinder as KeysetDataSourceFactoryQueryResultBinder)
+                    .keysetDataSourceQueryResultBinder
+            assertThat(binder.keyField, nullValue())
+            assertThat(binder.countItems, `is`(true))
+        }.compilesWithoutError()
+    }
+
+    @Test
+    fun testKeysetPagingQuery_keyTypeMismatch() {
+        singleQueryMethod<ReadQueryMethod>(
+                """
+                @KeysetPaging(keyColumn = "uid")
+                @Query("select * from user")
+                abstract ${PagingTypeNames.DATA_SOURCE_FACTORY}<Long, ${COMMON.USER_TYPE_NAME}>
+                userDataSourceFactory();
+                """
+        ) { _, _ ->
+        }.failsToCompile().withErrorContaining(ProcessorErrors.keysetPagingKeyTypeMismatch(
+                "uid", "java.lang.Long", "java.lang.Integer"))
+    }
+
+    @Test
+    fun testKeysetPagingQuery_missingKeyColumn() {
+        singleQueryMethod<ReadQueryMethod>(
+                """
+                @KeysetPaging(keyColumn = "foo")
+                @Query("select * from user")
+                abstract ${PagingTypeNames.DATA_SOURCE_FACTORY}<Integer, ${COMMON.USER_TYPE_NAME}>
+                userDataSourceFactory();
+                """
+        ) { _, _ ->
+        }.failsToCompile().withErrorContaining(ProcessorErrors.keysetPagingMissingKeyColumn(
+                "foo", COMMON.USER_TYPE_NAME.toString()))
+    }
+
+    @Test
+    fun testKeysetPagingQuery_singleColumnMismatch() {
+        singleQueryMethod<ReadQueryMethod>(
+                """
+                @KeysetPaging(keyColumn = "lastName")
+                @Query("select name from user")
+                abstract ${PagingTypeNames.DATA_SOURCE_FACTORY}<String, String>
+                nameDataSourceFactory();
+                """
+        ) { _, _ ->
+        }.failsToCompile().withErrorContaining(
+                ProcessorErrors.keysetPagingSingleColumnMismatch("lastName", "name"))
+    }
+
+    @Test
+    fun testKeysetPagingQuery_unsupportedKeyType() {
+        singleQueryMethod<ReadQueryMethod>(
+                """
+                @KeysetPaging(keyColumn = "uid")
+                @Query("select uid from user")
+                abstract ${PagingTypeNames.DATA_SOURCE_FACTORY}<Character, Character>
+                uidDataSourceFactory();
+                """
+        ) { _, _ ->
+        }.failsToCompile().withErrorContaining(ProcessorErrors.keysetPagingUnsupportedKeyType(
+                "uid", "java.lang.Character"))
+    }
+
+    @Test
+    fun testKeysetPagingQuery_notDataSourceFactory() {
+        singleQueryMethod<ReadQueryMethod>(
+                """
+                @KeysetPaging(keyColumn = "uid")
+                @Query("select * from user")
+                abstract java.util.List<${COMMON.USER_TYPE_NAME}> loadUsers();
+                """
+        ) { _, _ ->
+        }.failsToCompile()
+                .withErrorContaining(ProcessorErrors.KEYSET_PAGING_REQUIRES_DATA_SOURCE_FACTORY)
+    }
+
     @Test
     fun query_detectTransaction_select() {
         singleQueryMethod<ReadQueryMethod>(
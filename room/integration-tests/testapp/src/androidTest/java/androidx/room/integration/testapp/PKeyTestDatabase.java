@@ -52,6 +52,9 @@ public abstract class PKeyTestDatabase extends RoomDatabase {
 
         @Query("select data from IntAutoIncPKeyEntity WHERE pKey IN(:ids)")
         List<String> loadDataById(long... ids);
+
+        @Query("select * from IntAutoIncPKeyEntity ORDER BY pKey")
+        List<IntAutoIncPKeyEntity> loadAll();
     }
 
     @Dao
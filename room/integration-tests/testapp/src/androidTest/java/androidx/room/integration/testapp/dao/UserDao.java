@@ -23,6 +23,7 @@ import androidx.paging.DataSource;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
+import androidx.room.KeysetPaging;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
 import androidx.room.RawQuery;
@@ -243,6 +244,10 @@ public abstract class UserDao {
     @Query("SELECT * FROM user ORDER BY mAge DESC")
     public abstract DataSource.Factory<Integer, User> loadUsersByAgeDesc();
 
+    @KeysetPaging(keyColumn = "mId")
+    @Query("SELECT * FROM user WHERE mAge > :minAge")
+    public abstract DataSource.Factory<Integer, User> keysetUsersOlderThan(int minAge);
+
     @Query("DELETE FROM User WHERE mId IN (:ids) AND mAge == :age")
     public abstract int deleteByAgeAndIds(int age, List<Integer> ids);
 
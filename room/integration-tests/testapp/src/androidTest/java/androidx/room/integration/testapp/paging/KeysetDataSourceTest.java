@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.integration.testapp.paging;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import androidx.annotation.NonNull;
+import androidx.room.integration.testapp.test.TestDatabaseTest;
+import androidx.room.integration.testapp.test.TestUtil;
+import androidx.room.integration.testapp.vo.User;
+import androidx.room.paging.KeysetDataSource;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.MediumTest;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@MediumTest
+@RunWith(AndroidJUnit4.class)
+public class KeysetDataSourceTest extends TestDatabaseTest {
+
+    @After
+    public void teardown() {
+        mUserDao.deleteEverything();
+    }
+
+    private KeysetDataSource<Integer, User> keysetUsersOlderThan(int minAge) {
+        return (KeysetDataSource<Integer, User>) mUserDao.keysetUsersOlderThan(minAge).create();
+    }
+
+    @Test
+    public void getKey() {
+        List<User> users = createUsers(1);
+        KeysetDataSource<Integer, User> dataSource = keysetUsersOlderThan(0);
+        assertThat(dataSource.getKey(users.get(0)), is(users.get(0).getId()));
+    }
+
+    @Test
+    public void loadAfter() {
+        List<User> users = createUsers(10);
+        KeysetDataSource<Integer, User> dataSource = keysetUsersOlderThan(0);
+        assertThat(dataSource.loadAfter(3, 2), is(users.subList(4, 6)));
+        assertThat(dataSource.loadAfter(8, 5), is(users.subList(9, 10)));
+        assertThat(dataSource.loadAfter(9, 5), is(Collections.<User>emptyList()));
+    }
+
+    @Test
+    public void loadBefore() {
+        List<User> users = createUsers(10);
+        KeysetDataSource<Integer, User> dataSource = keysetUsersOlderThan(0);
+        assertThat(dataSource.loadBefore(6, 2), is(users.subList(4, 6)));
+        assertThat(dataSource.loadBefore(1, 5), is(users.subList(0, 1)));
+        assertThat(dataSource.loadBefore(0, 5), is(Collections.<User>emptyList()));
+    }
+
+    @Test
+    public void queryArguments() {
+        List<User> users = createUsers(10);
+        KeysetDataSource<Integer, User> dataSource = keysetUsersOlderThan(5);
+        assertThat(dataSource.loadAfter(0, 10), is(users.subList(6, 10)));
+    }
+
+    @Test
+    public void invalidatedOnChange() {
+        createUsers(2);
+        KeysetDataSource<Integer, User> dataSource = keysetUsersOlderThan(0);
+        assertThat(dataSource.isInvalid(), is(false));
+        mUserDao.insert(TestUtil.createUser(5));
+        assertThat(dataSource.isInvalid(), is(true));
+    }
+
+    @NonNull
+    private List<User> createUsers(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = TestUtil.createUser(i);
+            user.setAge(i);
+            mUserDao.insert(user);
+            users.add(user);
+        }
+        return users;
+    }
+}
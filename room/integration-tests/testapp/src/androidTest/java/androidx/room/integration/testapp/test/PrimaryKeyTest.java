@@ -101,6 +101,38 @@ public class PrimaryKeyTest {
         assertThat(mDatabase.intPKeyDao().loadDataById(ids), is(Arrays.asList("foo", "foo2")));
     }
 
+    @Test
+    public void insertAcrossMultiRowChunks() {
+        // two columns per row puts 499 rows into each multi-row statement; cover full chunks,
+        // a single leftover row and a multi-row leftover
+        final int[] batchSizes = {499 * 2 + 1, 499 + 3};
+        int total = 0;
+        for (int batchSize : batchSizes) {
+            IntAutoIncPKeyEntity[] entities = new IntAutoIncPKeyEntity[batchSize];
+            for (int i = 0; i < batchSize; i++) {
+                entities[i] = new IntAutoIncPKeyEntity();
+                entities[i].data = "item" + (total + i);
+            }
+            mDatabase.intPKeyDao().insertMe(entities);
+            total += batchSize;
+        }
+        IntAutoIncPKeyEntity entity = new IntAutoIncPKeyEntity();
+        entity.data = "item" + total;
+        IntAutoIncPKeyEntity entity2 = new IntAutoIncPKeyEntity();
+        entity2.data = "item" + (total + 1);
+        final long[] ids = mDatabase.intPKeyDao().insertAndGetIds(entity, entity2);
+        assertThat(ids[0], is((long) total + 1));
+        assertThat(ids[1], is((long) total + 2));
+        total += 2;
+
+        List<IntAutoIncPKeyEntity> loaded = mDatabase.intPKeyDao().loadAll();
+        assertThat(loaded.size(), is(total));
+        for (int i = 0; i < total; i++) {
+            assertThat(loaded.get(i).pKey, is(i + 1));
+            assertThat(loaded.get(i).data, is("item" + i));
+        }
+    }
+
     @Test
     public void getInsertedIdFromInteger() {
         IntegerAutoIncPKeyEntity entity = new IntegerAutoIncPKeyEntity();
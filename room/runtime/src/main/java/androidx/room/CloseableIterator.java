@@ -0,0 +1,50 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * An {@link Iterator} over the result of a query that reads rows lazily from the underlying
+ * cursor instead of loading them all into memory.
+ * <p>
+ * Can be used as the return type of a {@link Query} method to stream large results:
+ * <pre>
+ * {@literal @}Dao
+ * public interface EventDao {
+ *     {@literal @}Query("SELECT * FROM Event")
+ *     public CloseableIterator&lt;Event&gt; iterateAll();
+ * }
+ * </pre>
+ * The query is run when the method is called and each call to {@link #next()} converts the
+ * next row. The cursor is closed once the last row has been read but callers that stop early
+ * must call {@link #close()} themselves.
+ * <p>
+ * An iterator is not thread safe and should be consumed by a single thread. Since the rows are
+ * not read in a transaction, changes made to the database while iterating may or may not be
+ * visible in the remaining rows.
+ *
+ * @param <T> The type of the rows returned by the iterator.
+ */
+public interface CloseableIterator<T> extends Iterator<T>, Closeable {
+    /**
+     * Closes the underlying cursor. Calling this method more than once has no effect.
+     */
+    @Override
+    void close();
+}
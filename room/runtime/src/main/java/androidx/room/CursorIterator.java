@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A {@link CloseableIterator} implementation that converts the rows of a cursor one at a time.
+ * <p>
+ * Generated code resolves the column indices once and implements {@link #convertRow(Cursor)}
+ * to read the current row.
+ *
+ * @param <T> The type of the rows returned by the iterator.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
+public abstract class CursorIterator<T> implements CloseableIterator<T> {
+    private final Cursor mCursor;
+    @Nullable
+    private RoomSQLiteQuery mQuery;
+    private boolean mHasNext;
+    private boolean mMoved;
+    private boolean mClosed;
+
+    /**
+     * Creates an iterator over the given cursor.
+     *
+     * @param cursor The cursor to read.
+     * @param query  The query to release once the cursor is closed or null if the query is not
+     *               owned by Room.
+     */
+    protected CursorIterator(@NonNull Cursor cursor, @Nullable RoomSQLiteQuery query) {
+        mCursor = cursor;
+        mQuery = query;
+    }
+
+    /**
+     * Converts the row the cursor is currently positioned at.
+     *
+     * @param cursor The cursor to read.
+     * @return The converted row.
+     */
+    protected abstract T convertRow(@NonNull Cursor cursor);
+
+    @Override
+    public boolean hasNext() {
+        if (mClosed) {
+            return false;
+        }
+        if (!mMoved) {
+            mHasNext = mCursor.moveToNext();
+            mMoved = true;
+            if (!mHasNext) {
+                close();
+            }
+        }
+        return mHasNext;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        mMoved = false;
+        return convertRow(mCursor);
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Cannot remove rows through a query iterator");
+    }
+
+    @Override
+    public void close() {
+        if (mClosed) {
+            return;
+        }
+        mClosed = true;
+        mHasNext = false;
+        mCursor.close();
+        if (mQuery != null) {
+            mQuery.release();
+            mQuery = null;
+        }
+    }
+}
@@ -86,6 +86,23 @@ public class DatabaseConfiguration {
      */
     public final boolean multiInstanceInvalidation;
 
+    /**
+     * If true, table invalidation is tracked with per-table version counters that are checked
+     * synchronously at the end of each transaction.
+     */
+    public final boolean versionedInvalidation;
+
+    /**
+     * The maximum number of compiled statements kept in the {@link StatementCache}.
+     */
+    public final int statementCacheSize;
+
+    /**
+     * The maximum number of rows kept in the query result cache, or 0 if query results are not
+     * cached.
+     */
+    public final int queryResultCacheSize;
+
     /**
      * If true, Room should crash if a migration is missing.
      */
@@ -113,6 +130,12 @@ public class DatabaseConfiguration {
      * @param allowMainThreadQueries Whether to allow main thread reads/writes or not.
      * @param journalMode The journal mode. This has to be either TRUNCATE or WRITE_AHEAD_LOGGING.
      * @param queryExecutor The Executor used to execute asynchronous queries.
+     * @param transactionExecutor The Executor used to execute asynchronous transactions.
+     * @param multiInstanceInvalidation True if Room should perform multi-instance invalidation.
+     * @param versionedInvalidation True if Room should track invalidation with per-table version
+     *                              counters.
+     * @param statementCacheSize The maximum number of compiled statements to cache.
+     * @param queryResultCacheSize The maximum number of rows to keep in the query result cache.
      * @param requireMigration True if Room should require a valid migration if version changes,
      *                        instead of recreating the tables.
      * @param allowDestructiveMigrationOnDowngrade True if Room should recreate tables if no
@@ -132,6 +155,9 @@ public class DatabaseConfiguration {
             @NonNull Executor queryExecutor,
             @NonNull Executor transactionExecutor,
             boolean multiInstanceInvalidation,
+            boolean versionedInvalidation,
+            int statementCacheSize,
+            int queryResultCacheSize,
             boolean requireMigration,
             boolean allowDestructiveMigrationOnDowngrade,
             @Nullable Set<Integer> migrationNotRequiredFrom) {
@@ -145,11 +171,61 @@ public class DatabaseConfiguration {
         this.queryExecutor = queryExecutor;
         this.transactionExecutor = transactionExecutor;
         this.multiInstanceInvalidation = multiInstanceInvalidation;
+        this.versionedInvalidation = versionedInvalidation;
+        this.statementCacheSize = statementCacheSize;
+        this.queryResultCacheSize = queryResultCacheSize;
         this.requireMigration = requireMigration;
         this.allowDestructiveMigrationOnDowngrade = allowDestructiveMigrationOnDowngrade;
         this.mMigrationNotRequiredFrom = migrationNotRequiredFrom;
     }
 
+    /**
+     * Creates a database configuration with the given values.
+     *
+     * @deprecated Use {@link #DatabaseConfiguration(Context, String,
+     * SupportSQLiteOpenHelper.Factory, RoomDatabase.MigrationContainer, List, boolean,
+     * RoomDatabase.JournalMode, Executor, Executor, boolean, boolean, int, int, boolean, boolean,
+     * Set)}
+     *
+     * @param context The application context.
+     * @param name Name of the database, can be null if it is in memory.
+     * @param sqliteOpenHelperFactory The open helper factory to use.
+     * @param migrationContainer The migration container for migrations.
+     * @param callbacks The list of callbacks for database events.
+     * @param allowMainThreadQueries Whether to allow main thread reads/writes or not.
+     * @param journalMode The journal mode. This has to be either TRUNCATE or WRITE_AHEAD_LOGGING.
+     * @param queryExecutor The Executor used to execute asynchronous queries.
+     * @param transactionExecutor The Executor used to execute asynchronous transactions.
+     * @param multiInstanceInvalidation True if Room should perform multi-instance invalidation.
+     * @param requireMigration True if Room should require a valid migration if version changes,
+     *                        instead of recreating the tables.
+     * @param allowDestructiveMigrationOnDowngrade True if Room should recreate tables if no
+     *                                             migration is supplied during a downgrade.
+     * @param migrationNotRequiredFrom The collection of schema versions from which migrations
+     *                                 aren't required.
+     *
+     * @hide
+     */
+    @Deprecated
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
+    public DatabaseConfiguration(@NonNull Context context, @Nullable String name,
+            @NonNull SupportSQLiteOpenHelper.Factory sqliteOpenHelperFactory,
+            @NonNull RoomDatabase.MigrationContainer migrationContainer,
+            @Nullable List<RoomDatabase.Callback> callbacks,
+            boolean allowMainThreadQueries,
+            RoomDatabase.JournalMode journalMode,
+            @NonNull Executor queryExecutor,
+            @NonNull Executor transactionExecutor,
+            boolean multiInstanceInvalidation,
+            boolean requireMigration,
+            boolean allowDestructiveMigrationOnDowngrade,
+            @Nullable Set<Integer> migrationNotRequiredFrom) {
+        this(context, name, sqliteOpenHelperFactory, migrationContainer, callbacks,
+                allowMainThreadQueries, journalMode, queryExecutor, transactionExecutor,
+                multiInstanceInvalidation, false, RoomDatabase.DEFAULT_STATEMENT_CACHE_SIZE, 0,
+                requireMigration, allowDestructiveMigrationOnDowngrade, migrationNotRequiredFrom);
+    }
+
     /**
      * Returns whether a migration is required from the specified version.
      *
@@ -16,11 +16,18 @@
 
 package androidx.room;
 
+import android.os.Build;
+
+import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
+import androidx.annotation.VisibleForTesting;
 import androidx.sqlite.db.SupportSQLiteStatement;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -34,6 +41,13 @@ import java.util.List;
 @SuppressWarnings({"WeakerAccess", "unused"})
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
 public abstract class EntityInsertionAdapter<T> extends SharedSQLiteStatement {
+    // SQLite versions before 3.8.8 limit multi-row VALUES clauses to SQLITE_MAX_COMPOUND_SELECT.
+    @VisibleForTesting
+    static final int MAX_MULTI_ROW_COUNT = 500;
+
+    // insert query for a full chunk of rows, lazily created.
+    private volatile String mMultiRowQuery;
+
     /**
      * Creates an InsertionAdapter that can insert the entity type T into the given database.
      *
@@ -52,6 +66,73 @@ public abstract class EntityInsertionAdapter<T> extends SharedSQLiteStatement {
      */
     protected abstract void bind(SupportSQLiteStatement statement, T entity);
 
+    /**
+     * Returns the number of arguments {@link #bind(SupportSQLiteStatement, Object)} binds for a
+     * single entity.
+     * <p>
+     * Generated adapters override this to allow inserting multiple entities with a single
+     * multi-row {@code INSERT} statement. Adapters returning 0 always insert one row at a time.
+     *
+     * @return The number of bind arguments per entity.
+     */
+    protected int getBindArgCount() {
+        return 0;
+    }
+
+    /**
+     * Returns the values of a single row that {@link #createQuery()} ends with, such as
+     * {@code (?,?)}.
+     * <p>
+     * Generated adapters override this together with {@link #getBindArgCount()}, so that a
+     * multi-row {@code INSERT} statement can repeat the row. Adapters returning null always
+     * insert one row at a time.
+     *
+     * @return The values of a single row.
+     */
+    @Nullable
+    protected String createRowValues() {
+        return null;
+    }
+
+    /**
+     * Returns how many rows can be inserted by a single statement, which is bounded by the
+     * bind argument limit of SQLite. Returns 1 if multi-row inserts are not supported.
+     */
+    @VisibleForTesting
+    int getMultiRowChunkSize() {
+        final int argCount = getBindArgCount();
+        // multi-row VALUES clauses are supported since SQLite 3.7.11, shipped with API 16.
+        if (argCount <= 0 || Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+            return 1;
+        }
+        final String row = createRowValues();
+        if (row == null || !createQuery().endsWith(row)) {
+            return 1;
+        }
+        return Math.min(MAX_MULTI_ROW_COUNT, RoomDatabase.MAX_BIND_PARAMETER_CNT / argCount);
+    }
+
+    /**
+     * Creates an insert query that inserts the given number of rows, repeating the row values of
+     * {@link #createRowValues()}.
+     */
+    @VisibleForTesting
+    String createMultiRowQuery(int rowCount) {
+        final String query = createQuery();
+        final String row = createRowValues();
+        final int valuesStart = query.length() - row.length();
+        final StringBuilder builder = new StringBuilder(
+                valuesStart + (row.length() + 1) * rowCount);
+        builder.append(query, 0, valuesStart);
+        for (int i = 0; i < rowCount; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(row);
+        }
+        return builder.toString();
+    }
+
     /**
      * Inserts the entity into the database.
      *
@@ -73,6 +154,10 @@ public abstract class EntityInsertionAdapter<T> extends SharedSQLiteStatement {
      * @param entities Entities to insert
      */
     public final void insert(T[] entities) {
+        if (entities.length > 1 && getMultiRowChunkSize() > 1) {
+            insertMultiRow(Arrays.asList(entities).iterator());
+            return;
+        }
         final SupportSQLiteStatement stmt = acquire();
         try {
             for (T entity : entities) {
@@ -90,6 +175,10 @@ public abstract class EntityInsertionAdapter<T> extends SharedSQLiteStatement {
      * @param entities Entities to insert
      */
     public final void insert(Iterable<T> entities) {
+        if (getMultiRowChunkSize() > 1) {
+            insertMultiRow(entities.iterator());
+            return;
+        }
         final SupportSQLiteStatement stmt = acquire();
         try {
             for (T entity : entities) {
@@ -101,6 +190,68 @@ public abstract class EntityInsertionAdapter<T> extends SharedSQLiteStatement {
         }
     }
 
+    /**
+     * Inserts the given entities with multi-row statements, each inserting as many rows as the
+     * bind argument limit allows. Remaining rows are inserted by a smaller multi-row statement.
+     * <p>
+     * Only the statement of a full chunk is kept in the statement cache of the database. The
+     * smaller statement depends on the size of the collection, so caching it would fill the
+     * cache with statements that are rarely used again and evict the ones that are.
+     * <p>
+     * Row ids cannot be retrieved this way, so this is only used when no ids are returned.
+     */
+    private void insertMultiRow(Iterator<T> entities) {
+        final int chunkSize = getMultiRowChunkSize();
+        final int argCount = getBindArgCount();
+        final Object[] chunk = new Object[chunkSize];
+        final OffsetStatement offsetStmt = new OffsetStatement();
+        int count = 0;
+        while (entities.hasNext()) {
+            chunk[count++] = entities.next();
+            if (count == chunkSize) {
+                String query = mMultiRowQuery;
+                if (query == null) {
+                    query = createMultiRowQuery(chunkSize);
+                    mMultiRowQuery = query;
+                }
+                final SupportSQLiteStatement stmt = mDatabase.acquireCachedStatement(query);
+                try {
+                    insertRows(stmt, chunk, count, argCount, offsetStmt);
+                } finally {
+                    mDatabase.releaseCachedStatement(query, stmt);
+                }
+                count = 0;
+            }
+        }
+        if (count == 1) {
+            //noinspection unchecked
+            insert((T) chunk[0]);
+        } else if (count > 1) {
+            final SupportSQLiteStatement stmt =
+                    mDatabase.compileStatement(createMultiRowQuery(count));
+            try {
+                insertRows(stmt, chunk, count, argCount, offsetStmt);
+            } finally {
+                StatementCache.closeQuietly(stmt);
+            }
+        }
+    }
+
+    private void insertRows(SupportSQLiteStatement stmt, Object[] rows, int rowCount,
+            int argCount, OffsetStatement offsetStmt) {
+        try {
+            offsetStmt.mDelegate = stmt;
+            for (int i = 0; i < rowCount; i++) {
+                offsetStmt.mOffset = i * argCount;
+                //noinspection unchecked
+                bind(offsetStmt, (T) rows[i]);
+            }
+            stmt.executeInsert();
+        } finally {
+            offsetStmt.mDelegate = null;
+        }
+    }
+
     /**
      * Inserts the given entity into the database and returns the row id.
      *
@@ -248,4 +399,73 @@ public abstract class EntityInsertionAdapter<T> extends SharedSQLiteStatement {
             release(stmt);
         }
     }
+
+    /**
+     * Statement that shifts bind indices by an offset, used to bind an entity into its row of a
+     * multi-row insert statement. Everything other than binding goes straight to the delegate.
+     */
+    private static class OffsetStatement implements SupportSQLiteStatement {
+        SupportSQLiteStatement mDelegate;
+        int mOffset;
+
+        @Override
+        public void bindNull(int index) {
+            mDelegate.bindNull(index + mOffset);
+        }
+
+        @Override
+        public void bindLong(int index, long value) {
+            mDelegate.bindLong(index + mOffset, value);
+        }
+
+        @Override
+        public void bindDouble(int index, double value) {
+            mDelegate.bindDouble(index + mOffset, value);
+        }
+
+        @Override
+        public void bindString(int index, String value) {
+            mDelegate.bindString(index + mOffset, value);
+        }
+
+        @Override
+        public void bindBlob(int index, byte[] value) {
+            mDelegate.bindBlob(index + mOffset, value);
+        }
+
+        @Override
+        public void clearBindings() {
+            mDelegate.clearBindings();
+        }
+
+        @Override
+        public void close() throws IOException {
+            mDelegate.close();
+        }
+
+        @Override
+        public void execute() {
+            mDelegate.execute();
+        }
+
+        @Override
+        public int executeUpdateDelete() {
+            return mDelegate.executeUpdateDelete();
+        }
+
+        @Override
+        public long executeInsert() {
+            return mDelegate.executeInsert();
+        }
+
+        @Override
+        public long simpleQueryForLong() {
+            return mDelegate.simpleQueryForLong();
+        }
+
+        @Override
+        public String simpleQueryForString() {
+            return mDelegate.simpleQueryForString();
+        }
+    }
 }
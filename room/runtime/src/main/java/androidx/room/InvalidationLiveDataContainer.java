@@ -16,8 +16,10 @@
 
 package androidx.room;
 
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import androidx.lifecycle.LiveData;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
 import java.util.Collections;
 import java.util.IdentityHashMap;
@@ -45,7 +47,12 @@ class InvalidationLiveDataContainer {
 
     <T> LiveData<T> create(String[] tableNames, boolean inTransaction,
             Callable<T> computeFunction) {
-        return new RoomTrackingLiveData<>(mDatabase, this, inTransaction, computeFunction,
+        return create(tableNames, inTransaction, null, computeFunction);
+    }
+
+    <T> LiveData<T> create(String[] tableNames, boolean inTransaction,
+            @Nullable SupportSQLiteQuery query, Callable<T> computeFunction) {
+        return new RoomTrackingLiveData<>(mDatabase, this, inTransaction, query, computeFunction,
                 tableNames);
     }
 
@@ -33,6 +33,7 @@ import androidx.collection.ArraySet;
 import androidx.lifecycle.LiveData;
 import androidx.sqlite.db.SimpleSQLiteQuery;
 import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteQuery;
 import androidx.sqlite.db.SupportSQLiteStatement;
 
 import java.lang.ref.WeakReference;
@@ -62,6 +63,12 @@ import java.util.concurrent.locks.Lock;
 // memory table table, flipping the invalidated flag ON.
 // * When multi-instance invalidation is turned on, MultiInstanceInvalidationClient will be created.
 // It works as an Observer, and notifies other instances of table invalidation.
+// * When versioned invalidation is turned on, the invalidated column is used as a per-table
+// version counter instead of a flag. Triggers increment it, and the version rows are read on the
+// writing thread as soon as the outermost transaction ends and compared against the last seen
+// versions kept in memory, so no cleanup statement needs to be run. Invalidated tables are
+// accumulated and dispatched to observers in a single task on the query executor, coalescing
+// bursts of transactions into one notification.
 public class InvalidationTracker {
 
     private static final String[] TRIGGERS = new String[]{"UPDATE", "DELETE", "INSERT"};
@@ -84,6 +91,10 @@ public class InvalidationTracker {
     static final String SELECT_UPDATED_TABLES_SQL = "SELECT * FROM " + UPDATE_TABLE_NAME
             + " WHERE " + INVALIDATED_COLUMN_NAME + " = 1;";
 
+    @VisibleForTesting
+    static final String SELECT_TABLE_VERSIONS_SQL = "SELECT " + TABLE_ID_COLUMN_NAME + ", "
+            + INVALIDATED_COLUMN_NAME + " FROM " + UPDATE_TABLE_NAME;
+
     @NonNull
     @VisibleForTesting
     final ArrayMap<String, Integer> mTableIdLookup;
@@ -103,6 +114,27 @@ public class InvalidationTracker {
 
     private volatile boolean mInitialized = false;
 
+    /**
+     * True if triggers bump per-table version counters instead of setting an invalidated flag.
+     * Must be set before the tracker is initialized.
+     */
+    private boolean mVersionedInvalidation = false;
+
+    // last seen version of each table, only used in versioned invalidation mode.
+    // should be accessed with synchronization on itself only.
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    final long[] mTableVersions;
+
+    // tables invalidated since the last dispatch, only used in versioned invalidation mode.
+    // should be accessed with synchronization on mTableVersions only.
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    final BitSet mPendingInvalidatedTables;
+
+    private final AtomicBoolean mPendingDispatch = new AtomicBoolean(false);
+
+    @Nullable
+    private volatile QueryResultCache mQueryResultCache;
+
     @SuppressWarnings("WeakerAccess") /* synthetic access */
     volatile SupportSQLiteStatement mCleanupStatement;
 
@@ -165,6 +197,25 @@ public class InvalidationTracker {
             }
         }
         mTableInvalidStatus = new BitSet(tableNames.length);
+        mTableVersions = new long[size];
+        mPendingInvalidatedTables = new BitSet(size);
+    }
+
+    /**
+     * Switches this tracker to versioned invalidation, where triggers increment a per-table
+     * version counter that is checked synchronously at the end of each transaction, without a
+     * cleanup statement.
+     * <p>
+     * Must be called before the tracker is initialized.
+     */
+    void setVersionedInvalidationEnabled(boolean enabled) {
+        synchronized (this) {
+            if (mInitialized) {
+                throw new IllegalStateException(
+                        "Cannot change the invalidation mode after the database is opened.");
+            }
+            mVersionedInvalidation = enabled;
+        }
     }
 
     /**
@@ -188,12 +239,33 @@ public class InvalidationTracker {
             } finally {
                 database.endTransaction();
             }
+            // the tracking table is new, so are the versions in it.
+            synchronized (mTableVersions) {
+                Arrays.fill(mTableVersions, 0);
+                mPendingInvalidatedTables.clear();
+            }
             syncTriggers(database);
-            mCleanupStatement = database.compileStatement(RESET_UPDATED_TABLES_SQL);
+            if (!mVersionedInvalidation) {
+                mCleanupStatement = database.compileStatement(RESET_UPDATED_TABLES_SQL);
+            }
             mInitialized = true;
         }
     }
 
+    /**
+     * Called by RoomDatabase when its connection is closed.
+     * <p>
+     * The tracking table and the triggers are TEMP objects of the closed connection, so the tracker
+     * is initialized again, with all triggers re-created, when the database is reopened.
+     */
+    void onDatabaseClosed() {
+        synchronized (this) {
+            mInitialized = false;
+            mCleanupStatement = null;
+            mObservedTableTracker.resetTriggerState();
+        }
+    }
+
     void startMultiInstanceInvalidation(Context context, String name) {
         mMultiInstanceInvalidationClient = new MultiInstanceInvalidationClient(context, name, this,
                 mDatabase.getQueryExecutor());
@@ -242,10 +314,18 @@ public class InvalidationTracker {
                     .append(tableName)
                     .append("` BEGIN UPDATE ")
                     .append(UPDATE_TABLE_NAME)
-                    .append(" SET ").append(INVALIDATED_COLUMN_NAME).append(" = 1")
-                    .append(" WHERE ").append(TABLE_ID_COLUMN_NAME).append(" = ").append(tableId)
-                    .append(" AND ").append(INVALIDATED_COLUMN_NAME).append(" = 0")
-                    .append("; END");
+                    .append(" SET ").append(INVALIDATED_COLUMN_NAME);
+            if (mVersionedInvalidation) {
+                stringBuilder.append(" = ").append(INVALIDATED_COLUMN_NAME).append(" + 1")
+                        .append(" WHERE ").append(TABLE_ID_COLUMN_NAME).append(" = ")
+                        .append(tableId);
+            } else {
+                stringBuilder.append(" = 1")
+                        .append(" WHERE ").append(TABLE_ID_COLUMN_NAME).append(" = ")
+                        .append(tableId)
+                        .append(" AND ").append(INVALIDATED_COLUMN_NAME).append(" = 0");
+            }
+            stringBuilder.append("; END");
             writableDb.execSQL(stringBuilder.toString());
         }
     }
@@ -413,6 +493,7 @@ public class InvalidationTracker {
                 closeLock.unlock();
             }
             if (hasUpdatedTable) {
+                invalidateQueryResultCache(mTableInvalidStatus);
                 synchronized (mObserverMap) {
                     for (Map.Entry<Observer, ObserverWrapper> entry : mObserverMap) {
                         entry.getValue().notifyByTableInvalidStatus(mTableInvalidStatus);
@@ -424,6 +505,9 @@ public class InvalidationTracker {
         }
 
         private boolean checkUpdatedTable() {
+            if (mVersionedInvalidation) {
+                return checkTableVersions(mTableInvalidStatus);
+            }
             boolean hasUpdatedTable = false;
             Cursor cursor = mDatabase.query(new SimpleSQLiteQuery(SELECT_UPDATED_TABLES_SQL));
             //noinspection TryFinallyCanBeTryWithResources
@@ -443,6 +527,95 @@ public class InvalidationTracker {
         }
     };
 
+    /**
+     * Reads the version rows of the tracked tables and compares them with the last seen versions.
+     * Every table whose version changed is set in the given invalid status set.
+     *
+     * @param tableInvalidStatus The set to mark invalidated tables in.
+     * @return true if any of the tables has been updated.
+     */
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    boolean checkTableVersions(BitSet tableInvalidStatus) {
+        boolean hasUpdatedTable = false;
+        // Query the connection directly, this runs right after a transaction ends on the
+        // writing thread which may not be allowed to query through RoomDatabase.
+        Cursor cursor = mDatabase.getOpenHelper().getWritableDatabase()
+                .query(new SimpleSQLiteQuery(SELECT_TABLE_VERSIONS_SQL));
+        //noinspection TryFinallyCanBeTryWithResources
+        try {
+            synchronized (mTableVersions) {
+                while (cursor.moveToNext()) {
+                    final int tableId = cursor.getInt(0);
+                    final long version = cursor.getLong(1);
+                    if (mTableVersions[tableId] != version) {
+                        mTableVersions[tableId] = version;
+                        tableInvalidStatus.set(tableId);
+                        hasUpdatedTable = true;
+                    }
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+        return hasUpdatedTable;
+    }
+
+    @VisibleForTesting
+    Runnable mDispatchRunnable = new Runnable() {
+        @Override
+        public void run() {
+            final BitSet invalidatedTables;
+            synchronized (mTableVersions) {
+                mPendingDispatch.set(false);
+                if (mPendingInvalidatedTables.isEmpty()) {
+                    return;
+                }
+                invalidatedTables = (BitSet) mPendingInvalidatedTables.clone();
+                mPendingInvalidatedTables.clear();
+            }
+            invalidateQueryResultCache(invalidatedTables);
+            synchronized (mObserverMap) {
+                for (Map.Entry<Observer, ObserverWrapper> entry : mObserverMap) {
+                    entry.getValue().notifyByTableInvalidStatus(invalidatedTables);
+                }
+            }
+        }
+    };
+
+    /**
+     * Called by RoomDatabase after the outermost transaction ends.
+     * <p>
+     * In versioned invalidation mode, table versions are checked synchronously on the calling
+     * thread and the observers are notified from a single coalesced task. Otherwise a refresh is
+     * enqueued, see {@link #refreshVersionsAsync()}.
+     */
+    void onTransactionEnded() {
+        if (!mVersionedInvalidation) {
+            refreshVersionsAsync();
+            return;
+        }
+        final Lock closeLock = mDatabase.getCloseLock();
+        boolean hasUpdatedTable = false;
+        try {
+            closeLock.lock();
+            if (!ensureInitialization() || mDatabase.inTransaction()) {
+                return;
+            }
+            synchronized (mTableVersions) {
+                hasUpdatedTable = checkTableVersions(mPendingInvalidatedTables);
+            }
+        } catch (IllegalStateException | SQLiteException exception) {
+            // may happen if db is closed. just log.
+            Log.e(Room.LOG_TAG, "Cannot run invalidation tracker. Is the db closed?",
+                    exception);
+        } finally {
+            closeLock.unlock();
+        }
+        if (hasUpdatedTable && mPendingDispatch.compareAndSet(false, true)) {
+            mDatabase.getQueryExecutor().execute(mDispatchRunnable);
+        }
+    }
+
     /**
      * Enqueues a task to refresh the list of updated tables.
      * <p>
@@ -482,6 +655,16 @@ public class InvalidationTracker {
     @RestrictTo(RestrictTo.Scope.LIBRARY)
     @VisibleForTesting(otherwise = VisibleForTesting.PACKAGE_PRIVATE)
     public void notifyObserversByTableNames(String... tables) {
+        if (mQueryResultCache != null) {
+            final BitSet invalidatedTables = new BitSet(mTableNames.length);
+            for (String table : tables) {
+                final Integer tableId = mTableIdLookup.get(table.toLowerCase(Locale.US));
+                if (tableId != null) {
+                    invalidatedTables.set(tableId);
+                }
+            }
+            invalidateQueryResultCache(invalidatedTables);
+        }
         synchronized (mObserverMap) {
             for (Map.Entry<Observer, ObserverWrapper> entry : mObserverMap) {
                 if (!entry.getKey().isRemote()) {
@@ -491,6 +674,21 @@ public class InvalidationTracker {
         }
     }
 
+    /**
+     * Sets the cache whose entries should be dropped when their tables are invalidated.
+     */
+    void setQueryResultCache(@Nullable QueryResultCache queryResultCache) {
+        mQueryResultCache = queryResultCache;
+    }
+
+    // called before observers are notified so they never read a stale cached result
+    private void invalidateQueryResultCache(BitSet invalidatedTables) {
+        final QueryResultCache queryResultCache = mQueryResultCache;
+        if (queryResultCache != null) {
+            queryResultCache.invalidate(invalidatedTables);
+        }
+    }
+
     void syncTriggers(SupportSQLiteDatabase database) {
         if (database.inTransaction()) {
             // we won't run this inside another transaction.
@@ -592,8 +790,33 @@ public class InvalidationTracker {
     @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
     public <T> LiveData<T> createLiveData(String[] tableNames, boolean inTransaction,
             Callable<T> computeFunction) {
+        return createLiveData(tableNames, inTransaction, null, computeFunction);
+    }
+
+    /**
+     * Creates a LiveData that computes the given function once and for every other invalidation
+     * of the database.
+     * <p>
+     * Holds a strong reference to the created LiveData as long as it is active. If the database
+     * has a query result cache, LiveData instances of the same query and arguments share their
+     * results.
+     *
+     * @param tableNames      The list of tables to observe
+     * @param inTransaction   True if the computeFunction will be done in a transaction, false
+     *                        otherwise.
+     * @param query           The query run by the computeFunction with its arguments bound, or
+     *                        null if the result should not be cached.
+     * @param computeFunction The function that calculates the value
+     * @param <T>             The return type
+     * @return A new LiveData that computes the given function when the given list of tables
+     * invalidates.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
+    public <T> LiveData<T> createLiveData(String[] tableNames, boolean inTransaction,
+            @Nullable SupportSQLiteQuery query, Callable<T> computeFunction) {
         return mInvalidationLiveDataContainer.create(
-                validateAndResolveTableNames(tableNames), inTransaction, computeFunction);
+                validateAndResolveTableNames(tableNames), inTransaction, query, computeFunction);
     }
 
     /**
@@ -837,6 +1060,17 @@ public class InvalidationTracker {
                 mPendingSync = false;
             }
         }
+
+        /**
+         * Marks all triggers as removed so that the next sync creates the triggers of all observed
+         * tables, used when the connection that had them is closed.
+         */
+        void resetTriggerState() {
+            synchronized (this) {
+                Arrays.fill(mTriggerStates, false);
+                mNeedsSync = true;
+            }
+        }
     }
 
     /**
@@ -0,0 +1,395 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.collection.LruCache;
+import androidx.sqlite.db.SupportSQLiteProgram;
+import androidx.sqlite.db.SupportSQLiteQuery;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * An in-memory cache of decoded query results, keyed by the SQL and the bind arguments of a query
+ * along with the generated code that converts its rows.
+ * <p>
+ * Each entry remembers the tables it was read from. The {@link InvalidationTracker} drops the
+ * entries of invalidated tables before notifying its observers, so an observer that re-runs its
+ * query after an invalidation never reads a stale result. Entries of other tables are kept.
+ * <p>
+ * Results are only cached for keys that are in use, see {@link #acquire(Key, String[])}. The
+ * cache observes the tables of those keys and stops observing them once the last key that reads
+ * from a table is released.
+ * <p>
+ * The cache is bounded by the total number of rows it holds, counting a single object result as
+ * one row. Cached results are shared between all callers and must not be modified.
+ *
+ * @see RoomDatabase.Builder#setQueryResultCacheSize(int)
+ */
+final class QueryResultCache {
+    private final InvalidationTracker mTracker;
+    private final LruCache<Key, Entry> mCache;
+    // The number of users of each key, results of other keys are not cached.
+    private final Map<Key, Integer> mKeyUsers = new HashMap<>();
+    // Keeps the triggers of the tables of used keys installed.
+    private final Map<String, TableObserver> mObservers = new HashMap<>();
+    // Incremented on every invalidation so results computed concurrently are not cached.
+    private long mVersion;
+    private int mHitCount;
+    private int mMissCount;
+
+    QueryResultCache(@NonNull InvalidationTracker tracker, int maxRows) {
+        mTracker = tracker;
+        mCache = new LruCache<Key, Entry>(maxRows) {
+            @Override
+            protected int sizeOf(@NonNull Key key, @NonNull Entry value) {
+                return value.mRowCount;
+            }
+        };
+    }
+
+    /**
+     * Creates the key of a query that is converted by the given function.
+     *
+     * @param computeFunction The generated function that runs the query and converts its rows.
+     * @param query           The query with its arguments already bound.
+     */
+    @NonNull
+    static Key keyFor(@NonNull Callable<?> computeFunction, @NonNull SupportSQLiteQuery query) {
+        final ArgumentRecorder recorder = new ArgumentRecorder(query.getArgCount());
+        query.bindTo(recorder);
+        return new Key(computeFunction.getClass(), query.getSql(), recorder.mArgs);
+    }
+
+    /**
+     * Returns the cached result for the given key or runs the compute function and caches its
+     * result if the key is in use.
+     *
+     * @param key             The key of the query, see {@link #keyFor(Callable,
+     *                        SupportSQLiteQuery)}.
+     * @param tableNames      The tables the query reads from.
+     * @param computeFunction The function that runs the query.
+     */
+    @WorkerThread
+    @SuppressWarnings("unchecked")
+    <T> T getOrCompute(@NonNull Key key, @NonNull String[] tableNames,
+            @NonNull Callable<T> computeFunction) throws Exception {
+        final long version;
+        synchronized (this) {
+            final Entry entry = mCache.get(key);
+            if (entry != null) {
+                mHitCount++;
+                return (T) entry.mValue;
+            }
+            mMissCount++;
+        }
+        final int[] tableIds = resolveTableIds(tableNames);
+        synchronized (this) {
+            version = mVersion;
+        }
+        final T value = computeFunction.call();
+        synchronized (this) {
+            // a key that is not in use may not be observed anymore, so its result could go stale
+            if (version == mVersion && mKeyUsers.containsKey(key)) {
+                mCache.put(key, new Entry(value, tableIds));
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Drops the entries that were read from any of the given tables.
+     *
+     * @param invalidatedTableIds The ids of the invalidated tables.
+     */
+    void invalidate(@NonNull BitSet invalidatedTableIds) {
+        synchronized (this) {
+            mVersion++;
+            for (Map.Entry<Key, Entry> entry : mCache.snapshot().entrySet()) {
+                if (entry.getValue().readsFrom(invalidatedTableIds)) {
+                    mCache.remove(entry.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops all entries.
+     */
+    void clear() {
+        synchronized (this) {
+            mVersion++;
+            mCache.evictAll();
+        }
+    }
+
+    synchronized int hitCount() {
+        return mHitCount;
+    }
+
+    synchronized int missCount() {
+        return mMissCount;
+    }
+
+    synchronized int size() {
+        return mCache.size();
+    }
+
+    /**
+     * Marks the given key as in use and starts observing its tables. Must be called before the
+     * query of the key runs, so a change that happens meanwhile is not missed.
+     *
+     * @param key        The key of the query.
+     * @param tableNames The tables the query reads from.
+     */
+    @WorkerThread
+    void acquire(@NonNull Key key, @NonNull String[] tableNames) {
+        synchronized (this) {
+            final Integer users = mKeyUsers.get(key);
+            mKeyUsers.put(key, users == null ? 1 : users + 1);
+            if (users != null) {
+                return;
+            }
+        }
+        List<InvalidationTracker.Observer> added = null;
+        synchronized (mObservers) {
+            for (String tableName : tableNames) {
+                final String lowercase = tableName.toLowerCase(Locale.US);
+                TableObserver observer = mObservers.get(lowercase);
+                if (observer == null) {
+                    observer = new TableObserver(lowercase);
+                    mObservers.put(lowercase, observer);
+                    if (added == null) {
+                        added = new ArrayList<>();
+                    }
+                    added.add(observer);
+                }
+                observer.mKeyCount++;
+            }
+        }
+        if (added != null) {
+            // outside of the lock as the tracker may call back into the cache while notifying
+            for (InvalidationTracker.Observer observer : added) {
+                mTracker.addObserver(observer);
+            }
+        }
+    }
+
+    /**
+     * Releases a key acquired by {@link #acquire(Key, String[])}. Once a key has no users left
+     * its result is dropped, and tables that no other used key reads from are not observed
+     * anymore.
+     *
+     * @param key        The key of the query.
+     * @param tableNames The tables the query reads from.
+     */
+    @WorkerThread
+    void release(@NonNull Key key, @NonNull String[] tableNames) {
+        synchronized (this) {
+            final Integer users = mKeyUsers.get(key);
+            if (users == null) {
+                return;
+            }
+            if (users > 1) {
+                mKeyUsers.put(key, users - 1);
+                return;
+            }
+            mKeyUsers.remove(key);
+            mCache.remove(key);
+        }
+        List<InvalidationTracker.Observer> removed = null;
+        synchronized (mObservers) {
+            for (String tableName : tableNames) {
+                final String lowercase = tableName.toLowerCase(Locale.US);
+                final TableObserver observer = mObservers.get(lowercase);
+                if (observer != null && --observer.mKeyCount == 0) {
+                    mObservers.remove(lowercase);
+                    if (removed == null) {
+                        removed = new ArrayList<>();
+                    }
+                    removed.add(observer);
+                }
+            }
+        }
+        if (removed != null) {
+            for (InvalidationTracker.Observer observer : removed) {
+                mTracker.removeObserver(observer);
+            }
+        }
+    }
+
+    synchronized int keyCount() {
+        return mKeyUsers.size();
+    }
+
+    int observedTableCount() {
+        synchronized (mObservers) {
+            return mObservers.size();
+        }
+    }
+
+    private int[] resolveTableIds(String[] tableNames) {
+        final int[] tableIds = new int[tableNames.length];
+        for (int i = 0; i < tableNames.length; i++) {
+            final Integer tableId = mTracker.mTableIdLookup.get(
+                    tableNames[i].toLowerCase(Locale.US));
+            if (tableId == null) {
+                throw new IllegalArgumentException("There is no table with name "
+                        + tableNames[i]);
+            }
+            tableIds[i] = tableId;
+        }
+        return tableIds;
+    }
+
+    /**
+     * Keeps the triggers of a table installed while a used key reads from it.
+     */
+    private static final class TableObserver extends InvalidationTracker.Observer {
+        // guarded by mObservers
+        int mKeyCount;
+
+        TableObserver(String tableName) {
+            super(tableName);
+        }
+
+        @Override
+        public void onInvalidated(@NonNull Set<String> tables) {
+            // entries are dropped by the tracker before observers run
+        }
+    }
+
+    static final class Key {
+        private final Class<?> mComputeClass;
+        private final String mSql;
+        private final Object[] mArgs;
+        private final int mHashCode;
+
+        Key(Class<?> computeClass, String sql, Object[] args) {
+            mComputeClass = computeClass;
+            mSql = sql;
+            mArgs = args;
+            int hashCode = computeClass.hashCode();
+            hashCode = 31 * hashCode + sql.hashCode();
+            hashCode = 31 * hashCode + Arrays.deepHashCode(args);
+            mHashCode = hashCode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return mComputeClass == key.mComputeClass
+                    && mSql.equals(key.mSql)
+                    && Arrays.deepEquals(mArgs, key.mArgs);
+        }
+
+        @Override
+        public int hashCode() {
+            return mHashCode;
+        }
+    }
+
+    private static final class Entry {
+        final Object mValue;
+        final int[] mTableIds;
+        final int mRowCount;
+
+        Entry(Object value, int[] tableIds) {
+            mValue = value;
+            mTableIds = tableIds;
+            mRowCount = rowCount(value);
+        }
+
+        boolean readsFrom(BitSet tableIds) {
+            for (int tableId : mTableIds) {
+                if (tableIds.get(tableId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static int rowCount(@Nullable Object value) {
+            if (value instanceof Collection) {
+                return Math.max(1, ((Collection) value).size());
+            }
+            if (value != null && value.getClass().isArray()) {
+                return Math.max(1, Array.getLength(value));
+            }
+            return 1;
+        }
+    }
+
+    /**
+     * Captures the arguments a query binds, to use them as part of its key.
+     */
+    private static final class ArgumentRecorder implements SupportSQLiteProgram {
+        final Object[] mArgs;
+
+        ArgumentRecorder(int argCount) {
+            mArgs = new Object[argCount];
+        }
+
+        @Override
+        public void bindNull(int index) {
+            mArgs[index - 1] = null;
+        }
+
+        @Override
+        public void bindLong(int index, long value) {
+            mArgs[index - 1] = value;
+        }
+
+        @Override
+        public void bindDouble(int index, double value) {
+            mArgs[index - 1] = value;
+        }
+
+        @Override
+        public void bindString(int index, String value) {
+            mArgs[index - 1] = value;
+        }
+
+        @Override
+        public void bindBlob(int index, byte[] value) {
+            mArgs[index - 1] = value;
+        }
+
+        @Override
+        public void clearBindings() {
+            Arrays.fill(mArgs, null);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -72,6 +72,10 @@ public abstract class RoomDatabase {
      */
     @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
     public static final int MAX_BIND_PARAMETER_CNT = 999;
+    /**
+     * The default number of compiled statements kept in the {@link StatementCache}.
+     */
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 16;
     /**
      * Set by the generated open helper.
      *
@@ -85,6 +89,9 @@ public abstract class RoomDatabase {
     private final InvalidationTracker mInvalidationTracker;
     private boolean mAllowMainThreadQueries;
     boolean mWriteAheadLoggingEnabled;
+    private StatementCache mStatementCache;
+    @Nullable
+    private QueryResultCache mQueryResultCache;
 
     /**
      * @deprecated Will be hidden in the next release.
@@ -167,12 +174,30 @@ public abstract class RoomDatabase {
         mTransactionExecutor = new TransactionExecutor(configuration.transactionExecutor);
         mAllowMainThreadQueries = configuration.allowMainThreadQueries;
         mWriteAheadLoggingEnabled = wal;
+        mStatementCache = new StatementCache(configuration.statementCacheSize);
+        mInvalidationTracker.setVersionedInvalidationEnabled(configuration.versionedInvalidation);
+        if (configuration.queryResultCacheSize > 0) {
+            mQueryResultCache = new QueryResultCache(mInvalidationTracker,
+                    configuration.queryResultCacheSize);
+            mInvalidationTracker.setQueryResultCache(mQueryResultCache);
+        }
         if (configuration.multiInstanceInvalidation) {
             mInvalidationTracker.startMultiInstanceInvalidation(configuration.context,
                     configuration.name);
         }
     }
 
+    /**
+     * Returns the cache that LiveData queries share their results through.
+     *
+     * @return The query result cache or null if it is disabled.
+     * @see Builder#setQueryResultCacheSize(int)
+     */
+    @Nullable
+    QueryResultCache getQueryResultCache() {
+        return mQueryResultCache;
+    }
+
     /**
      * Returns the SQLite open helper used by this database.
      *
@@ -238,7 +263,14 @@ public abstract class RoomDatabase {
             try {
                 closeLock.lock();
                 mInvalidationTracker.stopMultiInstanceInvalidation();
+                if (mQueryResultCache != null) {
+                    mQueryResultCache.clear();
+                }
                 mOpenHelper.close();
+                // after the connection is closed, so that statements compiled concurrently
+                // are not cached again, see StatementCache#acquire
+                mStatementCache.clear();
+                mInvalidationTracker.onDatabaseClosed();
             } finally {
                 closeLock.unlock();
             }
@@ -317,6 +349,52 @@ public abstract class RoomDatabase {
         return mOpenHelper.getWritableDatabase().compileStatement(sql);
     }
 
+    /**
+     * Returns a compiled statement for the given query, reusing a previously compiled one from the
+     * {@link StatementCache} if available.
+     * <p>
+     * The statement must be given back via {@link #releaseCachedStatement(String,
+     * SupportSQLiteStatement)} once it is no longer used.
+     *
+     * @param sql The query to compile.
+     * @return The compiled query.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
+    // used in generated code
+    public SupportSQLiteStatement acquireCachedStatement(@NonNull String sql) {
+        assertNotMainThread();
+        assertNotSuspendingTransaction();
+        return mStatementCache.acquire(mOpenHelper.getWritableDatabase(), sql);
+    }
+
+    /**
+     * Gives back a statement obtained from {@link #acquireCachedStatement(String)}.
+     *
+     * @param sql       The query the statement was compiled from.
+     * @param statement The statement to release.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
+    // used in generated code
+    public void releaseCachedStatement(@NonNull String sql,
+            @NonNull SupportSQLiteStatement statement) {
+        mStatementCache.release(sql, statement);
+    }
+
+    /**
+     * Returns the cache of compiled statements used by this database.
+     * <p>
+     * The cache can be used to read hit and miss statistics.
+     *
+     * @return The statement cache of this database.
+     * @see Builder#setStatementCacheSize(int)
+     */
+    @NonNull
+    public StatementCache getStatementCache() {
+        return mStatementCache;
+    }
+
     /**
      * Wrapper for {@link SupportSQLiteDatabase#beginTransaction()}.
      *
@@ -339,9 +417,9 @@ public abstract class RoomDatabase {
     public void endTransaction() {
         mOpenHelper.getWritableDatabase().endTransaction();
         if (!inTransaction()) {
-            // enqueue refresh only if we are NOT in a transaction. Otherwise, wait for the last
+            // refresh only if we are NOT in a transaction. Otherwise, wait for the last
             // endTransaction call to do it.
-            mInvalidationTracker.refreshVersionsAsync();
+            mInvalidationTracker.onTransactionEnded();
         }
     }
 
@@ -514,6 +592,9 @@ public abstract class RoomDatabase {
         private boolean mAllowMainThreadQueries;
         private JournalMode mJournalMode;
         private boolean mMultiInstanceInvalidation;
+        private boolean mVersionedInvalidation;
+        private int mStatementCacheSize;
+        private int mQueryResultCacheSize;
         private boolean mRequireMigration;
         private boolean mAllowDestructiveMigrationOnDowngrade;
         /**
@@ -533,6 +614,7 @@ public abstract class RoomDatabase {
             mDatabaseClass = klass;
             mName = name;
             mJournalMode = JournalMode.AUTOMATIC;
+            mStatementCacheSize = DEFAULT_STATEMENT_CACHE_SIZE;
             mRequireMigration = true;
             mMigrationContainer = new MigrationContainer();
         }
@@ -622,6 +704,56 @@ public abstract class RoomDatabase {
             return this;
         }
 
+        /**
+         * Sets the maximum number of compiled statements kept in the {@link StatementCache} of
+         * the database.
+         * <p>
+         * Generated {@link Query} methods whose SQL is only known at runtime, such as
+         * {@code DELETE} queries with a collection argument, and read queries that return a
+         * single {@code int}, {@code long} or {@code String}, such as {@code COUNT} queries, take
+         * their compiled statement from this cache so repeated calls with the same SQL skip
+         * compilation. Other read queries return a Cursor, which a compiled statement cannot
+         * produce. A size of 0 disables the cache.
+         * <p>
+         * The default value is {@link RoomDatabase#DEFAULT_STATEMENT_CACHE_SIZE}.
+         *
+         * @param size The maximum number of cached statements.
+         * @return this
+         */
+        @NonNull
+        public Builder<T> setStatementCacheSize(int size) {
+            if (size < 0) {
+                throw new IllegalArgumentException("Statement cache size cannot be negative.");
+            }
+            mStatementCacheSize = size;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of rows kept in the query result cache of the database.
+         * <p>
+         * {@code LiveData} returned by {@link Query} methods with the same SQL and arguments
+         * share their results through this cache, so only the first one to become active runs
+         * the query. A cached result is dropped as soon as one of the tables it was read from is
+         * invalidated by the {@link InvalidationTracker}, and results of other tables are kept.
+         * Each result counts as many rows as it has items, single objects count as one row.
+         * <p>
+         * Cached objects are shared between all observers of a query and must not be modified.
+         * <p>
+         * The default value is 0, which disables the cache.
+         *
+         * @param maxRows The maximum number of cached rows.
+         * @return this
+         */
+        @NonNull
+        public Builder<T> setQueryResultCacheSize(int maxRows) {
+            if (maxRows < 0) {
+                throw new IllegalArgumentException("Query result cache size cannot be negative.");
+            }
+            mQueryResultCacheSize = maxRows;
+            return this;
+        }
+
         /**
          * Sets the {@link Executor} that will be used to execute all non-blocking asynchronous
          * queries and tasks, including {@code LiveData} invalidation, {@code Flowable} scheduling
@@ -692,6 +824,26 @@ public abstract class RoomDatabase {
             return this;
         }
 
+        /**
+         * Sets whether table invalidation should be tracked with per-table version counters.
+         * <p>
+         * By default, every observed table write flips an invalidated flag which is later read
+         * and reset on the query executor, costing an extra read and write after each
+         * transaction. With versioned invalidation, writes increment a version counter that is
+         * read on the writing thread as soon as the transaction ends, without any cleanup
+         * statement. Invalidations from a burst of transactions are coalesced into a single
+         * notification of the {@link InvalidationTracker.Observer}s on the query executor.
+         * <p>
+         * This is not enabled by default.
+         *
+         * @return this
+         */
+        @NonNull
+        public Builder<T> enableVersionedInvalidation() {
+            mVersionedInvalidation = true;
+            return this;
+        }
+
         /**
          * Allows Room to destructively recreate database tables if {@link Migration}s that would
          * migrate old database schemas to the latest schema version are not found.
@@ -804,7 +956,10 @@ public abstract class RoomDatabase {
                         + " extends RoomDatabase");
             }
             if (mQueryExecutor == null && mTransactionExecutor == null) {
-                mQueryExecutor = mTransactionExecutor = ArchTaskExecutor.getIOThreadExecutor();
+                // Key the tasks by database so that a sharded TaskExecutor keeps the queries of
+                // different databases apart.
+                mQueryExecutor = mTransactionExecutor = ArchTaskExecutor.getIOThreadExecutor(
+                        mName != null ? mName : mDatabaseClass);
             } else if (mQueryExecutor != null && mTransactionExecutor == null) {
                 mTransactionExecutor = mQueryExecutor;
             } else if (mQueryExecutor == null && mTransactionExecutor != null) {
@@ -840,6 +995,9 @@ public abstract class RoomDatabase {
                             mQueryExecutor,
                             mTransactionExecutor,
                             mMultiInstanceInvalidation,
+                            mVersionedInvalidation,
+                            mStatementCacheSize,
+                            mQueryResultCacheSize,
                             mRequireMigration,
                             mAllowDestructiveMigrationOnDowngrade,
                             mMigrationsNotRequiredFrom);
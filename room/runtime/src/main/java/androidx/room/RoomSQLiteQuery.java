@@ -25,9 +25,6 @@ import androidx.sqlite.db.SupportSQLiteQuery;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.Arrays;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.TreeMap;
 
 /**
  * This class is used as an intermediate place to keep binding arguments so that we can run
@@ -44,11 +41,6 @@ public class RoomSQLiteQuery implements SupportSQLiteQuery, SupportSQLiteProgram
     @VisibleForTesting
     // Maximum number of queries we'll keep cached.
     static final int POOL_LIMIT = 15;
-    @SuppressWarnings("WeakerAccess")
-    @VisibleForTesting
-    // Once we hit POOL_LIMIT, we'll bring the pool size back to the desired number. We always
-    // clear the bigger queries (# of arguments).
-    static final int DESIRED_POOL_SIZE = 10;
     private volatile String mQuery;
     @SuppressWarnings("WeakerAccess")
     @VisibleForTesting
@@ -76,7 +68,17 @@ public class RoomSQLiteQuery implements SupportSQLiteQuery, SupportSQLiteProgram
 
     @SuppressWarnings("WeakerAccess")
     @VisibleForTesting
-    static final TreeMap<Integer, RoomSQLiteQuery> sQueryPool = new TreeMap<>();
+    static final RoomSQLiteQueryPool sQueryPool = new RoomSQLiteQueryPool(POOL_LIMIT);
+
+    /**
+     * Returns the pool shared by all queries, e.g. to read its hit, miss and contention counters
+     * while profiling.
+     *
+     * @return The query pool.
+     */
+    public static RoomSQLiteQueryPool getQueryPool() {
+        return sQueryPool;
+    }
 
     /**
      * Copies the given SupportSQLiteQuery and converts it into RoomSQLiteQuery.
@@ -138,17 +140,10 @@ public class RoomSQLiteQuery implements SupportSQLiteQuery, SupportSQLiteProgram
      */
     @SuppressWarnings("WeakerAccess")
     public static RoomSQLiteQuery acquire(String query, int argumentCount) {
-        synchronized (sQueryPool) {
-            final Map.Entry<Integer, RoomSQLiteQuery> entry =
-                    sQueryPool.ceilingEntry(argumentCount);
-            if (entry != null) {
-                sQueryPool.remove(entry.getKey());
-                final RoomSQLiteQuery sqliteQuery = entry.getValue();
-                sqliteQuery.init(query, argumentCount);
-                return sqliteQuery;
-            }
+        RoomSQLiteQuery sqLiteQuery = sQueryPool.acquire(argumentCount);
+        if (sqLiteQuery == null) {
+            sqLiteQuery = new RoomSQLiteQuery(RoomSQLiteQueryPool.capacityFor(argumentCount));
         }
-        RoomSQLiteQuery sqLiteQuery = new RoomSQLiteQuery(argumentCount);
         sqLiteQuery.init(query, argumentCount);
         return sqLiteQuery;
     }
@@ -179,21 +174,7 @@ public class RoomSQLiteQuery implements SupportSQLiteQuery, SupportSQLiteProgram
      */
     @SuppressWarnings("WeakerAccess")
     public void release() {
-        synchronized (sQueryPool) {
-            sQueryPool.put(mCapacity, this);
-            prunePoolLocked();
-        }
-    }
-
-    private static void prunePoolLocked() {
-        if (sQueryPool.size() > POOL_LIMIT) {
-            int toBeRemoved = sQueryPool.size() - DESIRED_POOL_SIZE;
-            final Iterator<Integer> iterator = sQueryPool.descendingKeySet().iterator();
-            while (toBeRemoved-- > 0) {
-                iterator.next();
-                iterator.remove();
-            }
-        }
+        sQueryPool.release(this);
     }
 
     @Override
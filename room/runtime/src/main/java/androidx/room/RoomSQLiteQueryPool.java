@@ -0,0 +1,267 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A lock-free pool of {@link RoomSQLiteQuery} instances, bucketed by their argument capacity.
+ * <p>
+ * Small capacities get a bucket each while larger ones share power of two buckets, so a query
+ * taken from a bucket can always hold any argument count that maps to it. The pool is split into
+ * a few segments, each with a slot per bucket and its own size, and threads start probing from
+ * different segments, so concurrent acquire and release calls neither compete for the same slot
+ * nor for a shared counter. The total number of pooled queries never exceeds the limit given to
+ * the constructor.
+ * <p>
+ * The hit, miss, drop and contention counters are kept per segment as well, and each thread only
+ * updates the counters of its home segment, so profiling does not add a contended cache line.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
+public final class RoomSQLiteQueryPool {
+    // Capacities below this value have their own bucket.
+    private static final int EXACT_BUCKET_COUNT = 16;
+    // log2(EXACT_BUCKET_COUNT)
+    private static final int EXACT_BUCKET_SHIFT = 4;
+    // One power of two bucket for each remaining capacity bit.
+    private static final int BUCKET_COUNT = EXACT_BUCKET_COUNT + 32 - EXACT_BUCKET_SHIFT;
+    // Must be a power of two.
+    @VisibleForTesting
+    static final int SEGMENT_COUNT = 4;
+    // Distance between the sizes of two segments, so that they are on different cache lines.
+    private static final int SIZE_STRIDE = 16;
+
+    // Offsets of the counters of a segment.
+    private static final int HIT = 0;
+    private static final int MISS = 1;
+    private static final int DROP = 2;
+    private static final int CONTENDED = 3;
+    private static final int COUNTER_COUNT = 4;
+    // Distance between the counters of two segments, so that they are on different cache lines.
+    private static final int STATS_STRIDE = 8;
+
+    // BUCKET_COUNT slots for each segment, one segment after the other.
+    private final AtomicReferenceArray<RoomSQLiteQuery> mSlots =
+            new AtomicReferenceArray<>(SEGMENT_COUNT * BUCKET_COUNT);
+    private final AtomicIntegerArray mSizes = new AtomicIntegerArray(SEGMENT_COUNT * SIZE_STRIDE);
+    private final int[] mSegmentLimits = new int[SEGMENT_COUNT];
+    private final AtomicLongArray mStats = new AtomicLongArray(SEGMENT_COUNT * STATS_STRIDE);
+
+    RoomSQLiteQueryPool(int limit) {
+        for (int segment = 0; segment < SEGMENT_COUNT; segment++) {
+            mSegmentLimits[segment] = limit / SEGMENT_COUNT
+                    + (segment < limit % SEGMENT_COUNT ? 1 : 0);
+        }
+    }
+
+    /**
+     * Returns the capacity a new query should be created with to hold the given number of
+     * arguments, such that it can be pooled and reused for other argument counts of its bucket.
+     */
+    static int capacityFor(int argumentCount) {
+        if (argumentCount < EXACT_BUCKET_COUNT) {
+            return argumentCount;
+        }
+        return 1 << ceilLog2(argumentCount);
+    }
+
+    /**
+     * Takes a query that can hold at least the given number of arguments out of the pool.
+     *
+     * @return A pooled query or null if there is no suitable query in the pool.
+     */
+    @Nullable
+    RoomSQLiteQuery acquire(int argumentCount) {
+        final int home = currentSegment();
+        // a bit for each segment that has queries, so that empty ones are not probed
+        int nonEmpty = 0;
+        for (int segment = 0; segment < SEGMENT_COUNT; segment++) {
+            if (mSizes.get(segment * SIZE_STRIDE) != 0) {
+                nonEmpty |= 1 << segment;
+            }
+        }
+        // the smallest bucket of any segment first, so that the best fitting query is used
+        for (int bucket = ceilBucket(argumentCount); nonEmpty != 0 && bucket < BUCKET_COUNT;
+                bucket++) {
+            for (int i = 0; i < SEGMENT_COUNT; i++) {
+                final int segment = (home + i) & (SEGMENT_COUNT - 1);
+                if ((nonEmpty & (1 << segment)) == 0) {
+                    continue;
+                }
+                final int slot = segment * BUCKET_COUNT + bucket;
+                final RoomSQLiteQuery query = mSlots.get(slot);
+                if (query == null) {
+                    continue;
+                }
+                if (mSlots.compareAndSet(slot, query, null)) {
+                    mSizes.decrementAndGet(segment * SIZE_STRIDE);
+                    count(home, HIT);
+                    return query;
+                }
+                count(home, CONTENDED);
+            }
+        }
+        count(home, MISS);
+        return null;
+    }
+
+    /**
+     * Puts the given query back into the pool unless the pool is full.
+     *
+     * @return true if the query was pooled, false if it was dropped.
+     */
+    boolean release(RoomSQLiteQuery query) {
+        final int home = currentSegment();
+        final int bucket = floorBucket(query.mCapacity);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            final int segment = (home + i) & (SEGMENT_COUNT - 1);
+            final int slot = segment * BUCKET_COUNT + bucket;
+            if (mSlots.get(slot) != null || !reserve(home, segment)) {
+                continue;
+            }
+            if (mSlots.compareAndSet(slot, null, query)) {
+                return true;
+            }
+            mSizes.decrementAndGet(segment * SIZE_STRIDE);
+            count(home, CONTENDED);
+        }
+        // every segment is full or has a query of this bucket
+        count(home, DROP);
+        return false;
+    }
+
+    /**
+     * @return The number of queries currently in the pool.
+     */
+    public int size() {
+        int size = 0;
+        for (int segment = 0; segment < SEGMENT_COUNT; segment++) {
+            size += mSizes.get(segment * SIZE_STRIDE);
+        }
+        return size;
+    }
+
+    /**
+     * @return The number of acquire calls that were served from the pool.
+     */
+    public long getHitCount() {
+        return sum(HIT);
+    }
+
+    /**
+     * @return The number of acquire calls that had to create a new query.
+     */
+    public long getMissCount() {
+        return sum(MISS);
+    }
+
+    /**
+     * @return The number of released queries that were not kept because the pool or their
+     * bucket was full.
+     */
+    public long getDropCount() {
+        return sum(DROP);
+    }
+
+    /**
+     * @return The number of times a thread lost a race to another thread while updating the pool.
+     */
+    public long getContendedCount() {
+        return sum(CONTENDED);
+    }
+
+    /**
+     * Resets the hit, miss, drop and contention counters.
+     */
+    public void resetStats() {
+        for (int segment = 0; segment < SEGMENT_COUNT; segment++) {
+            for (int counter = 0; counter < COUNTER_COUNT; counter++) {
+                mStats.set(segment * STATS_STRIDE + counter, 0);
+            }
+        }
+    }
+
+    @VisibleForTesting
+    void clear() {
+        for (int i = 0; i < mSlots.length(); i++) {
+            if (mSlots.getAndSet(i, null) != null) {
+                mSizes.decrementAndGet(i / BUCKET_COUNT * SIZE_STRIDE);
+            }
+        }
+    }
+
+    // counts a query into the given segment unless the segment is full
+    private boolean reserve(int home, int segment) {
+        final int index = segment * SIZE_STRIDE;
+        while (true) {
+            final int size = mSizes.get(index);
+            if (size >= mSegmentLimits[segment]) {
+                return false;
+            }
+            if (mSizes.compareAndSet(index, size, size + 1)) {
+                return true;
+            }
+            count(home, CONTENDED);
+        }
+    }
+
+    // counters are only updated in the home segment of the calling thread
+    private void count(int home, int counter) {
+        mStats.incrementAndGet(home * STATS_STRIDE + counter);
+    }
+
+    private long sum(int counter) {
+        long sum = 0;
+        for (int segment = 0; segment < SEGMENT_COUNT; segment++) {
+            sum += mStats.get(segment * STATS_STRIDE + counter);
+        }
+        return sum;
+    }
+
+    private static int currentSegment() {
+        return (int) (Thread.currentThread().getId() & (SEGMENT_COUNT - 1));
+    }
+
+    // bucket of the smallest capacity that can hold the given argument count
+    private static int ceilBucket(int argumentCount) {
+        if (argumentCount < EXACT_BUCKET_COUNT) {
+            return argumentCount;
+        }
+        return EXACT_BUCKET_COUNT + ceilLog2(argumentCount) - EXACT_BUCKET_SHIFT;
+    }
+
+    // bucket of the largest argument count the given capacity can hold
+    private static int floorBucket(int capacity) {
+        if (capacity < EXACT_BUCKET_COUNT) {
+            return capacity;
+        }
+        return EXACT_BUCKET_COUNT + (31 - Integer.numberOfLeadingZeros(capacity))
+                - EXACT_BUCKET_SHIFT;
+    }
+
+    private static int ceilLog2(int value) {
+        return 32 - Integer.numberOfLeadingZeros(value - 1);
+    }
+}
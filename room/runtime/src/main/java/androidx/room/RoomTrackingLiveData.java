@@ -21,9 +21,11 @@ import android.annotation.SuppressLint;
 
 import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.WorkerThread;
 import androidx.arch.core.executor.ArchTaskExecutor;
 import androidx.lifecycle.LiveData;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
 import java.util.Set;
 import java.util.concurrent.Callable;
@@ -56,6 +58,14 @@ class RoomTrackingLiveData<T> extends LiveData<T> {
 
     private final InvalidationLiveDataContainer mContainer;
 
+    @SuppressWarnings("WeakerAccess")
+    final String[] mTableNames;
+
+    // null if the database has no query result cache
+    @SuppressWarnings("WeakerAccess")
+    @Nullable
+    final QueryResultCache.Key mCacheKey;
+
     @SuppressWarnings("WeakerAccess")
     final InvalidationTracker.Observer mObserver;
 
@@ -68,6 +78,10 @@ class RoomTrackingLiveData<T> extends LiveData<T> {
     @SuppressWarnings("WeakerAccess")
     final AtomicBoolean mRegisteredObserver = new AtomicBoolean(false);
 
+    // true while this LiveData holds its key in the query result cache
+    @SuppressWarnings("WeakerAccess")
+    final AtomicBoolean mAcquiredCacheKey = new AtomicBoolean(false);
+
     @SuppressWarnings("WeakerAccess")
     final Runnable mRefreshRunnable = new Runnable() {
         @WorkerThread
@@ -76,6 +90,9 @@ class RoomTrackingLiveData<T> extends LiveData<T> {
             if (mRegisteredObserver.compareAndSet(false, true)) {
                 mDatabase.getInvalidationTracker().addWeakObserver(mObserver);
             }
+            if (mCacheKey != null && mAcquiredCacheKey.compareAndSet(false, true)) {
+                mDatabase.getQueryResultCache().acquire(mCacheKey, mTableNames);
+            }
             boolean computed;
             do {
                 computed = false;
@@ -87,7 +104,7 @@ class RoomTrackingLiveData<T> extends LiveData<T> {
                         while (mInvalid.compareAndSet(true, false)) {
                             computed = true;
                             try {
-                                value = mComputeFunction.call();
+                                value = compute();
                             } catch (Exception e) {
                                 throw new RuntimeException("Exception while computing database"
                                         + " live data.", e);
@@ -125,17 +142,36 @@ class RoomTrackingLiveData<T> extends LiveData<T> {
             }
         }
     };
+
+    @SuppressWarnings("WeakerAccess")
+    final Runnable mReleaseCacheKeyRunnable = new Runnable() {
+        @WorkerThread
+        @Override
+        public void run() {
+            // skip if this LiveData became active again before the release ran
+            if (!hasActiveObservers() && mAcquiredCacheKey.compareAndSet(true, false)) {
+                mDatabase.getQueryResultCache().release(mCacheKey, mTableNames);
+            }
+        }
+    };
     @SuppressLint("RestrictedApi")
     RoomTrackingLiveData(
             RoomDatabase database,
             InvalidationLiveDataContainer container,
             boolean inTransaction,
+            @Nullable SupportSQLiteQuery query,
             Callable<T> computeFunction,
             String[] tableNames) {
         mDatabase = database;
         mInTransaction = inTransaction;
         mComputeFunction = computeFunction;
         mContainer = container;
+        mTableNames = tableNames;
+        if (query != null && database.getQueryResultCache() != null) {
+            mCacheKey = QueryResultCache.keyFor(computeFunction, query);
+        } else {
+            mCacheKey = null;
+        }
         mObserver = new InvalidationTracker.Observer(tableNames) {
             @Override
             public void onInvalidated(@NonNull Set<String> tables) {
@@ -144,6 +180,16 @@ class RoomTrackingLiveData<T> extends LiveData<T> {
         };
     }
 
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    @WorkerThread
+    T compute() throws Exception {
+        final QueryResultCache cache = mDatabase.getQueryResultCache();
+        if (cache == null || mCacheKey == null) {
+            return mComputeFunction.call();
+        }
+        return cache.getOrCompute(mCacheKey, mTableNames, mComputeFunction);
+    }
+
     @Override
     protected void onActive() {
         super.onActive();
@@ -155,13 +201,20 @@ class RoomTrackingLiveData<T> extends LiveData<T> {
     protected void onInactive() {
         super.onInactive();
         mContainer.onInactive(this);
+        if (mCacheKey != null) {
+            // releasing may remove observers of the tracker, which has to run on a worker thread
+            getQueryExecutor().execute(mReleaseCacheKeyRunnable);
+        }
     }
 
+    @SuppressLint("RestrictedApi")
     Executor getQueryExecutor() {
+        // An observer is waiting for the result, so run ahead of the other queries if the
+        // database uses the arch IO thread executor.
         if (mInTransaction) {
-            return mDatabase.getTransactionExecutor();
+            return ArchTaskExecutor.getPriorityExecutor(mDatabase.getTransactionExecutor());
         } else {
-            return mDatabase.getQueryExecutor();
+            return ArchTaskExecutor.getPriorityExecutor(mDatabase.getQueryExecutor());
         }
     }
 }
@@ -36,7 +36,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public abstract class SharedSQLiteStatement {
     private final AtomicBoolean mLock = new AtomicBoolean(false);
 
-    private final RoomDatabase mDatabase;
+    final RoomDatabase mDatabase;
     private volatile SupportSQLiteStatement mStmt;
 
     /**
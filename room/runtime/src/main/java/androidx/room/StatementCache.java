@@ -0,0 +1,173 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.collection.LruCache;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * A least recently used cache of compiled statements, keyed by their SQL.
+ * <p>
+ * Statements are checked out of the cache while in use so that a single compiled statement is
+ * never shared between two callers. A statement that is returned while another statement for the
+ * same SQL is cached is closed instead.
+ * <p>
+ * The size of the cache can be configured via
+ * {@link RoomDatabase.Builder#setStatementCacheSize(int)}.
+ */
+public final class StatementCache {
+    @Nullable
+    private final LruCache<String, SupportSQLiteStatement> mCache;
+    // statements handed out by acquire and not released yet. clear() empties it, so that the
+    // statements of a closed connection are closed on release instead of being cached again.
+    private final Set<SupportSQLiteStatement> mCheckedOut =
+            Collections.newSetFromMap(new IdentityHashMap<SupportSQLiteStatement, Boolean>());
+    private int mHitCount;
+    private int mMissCount;
+
+    StatementCache(int maxSize) {
+        if (maxSize > 0) {
+            mCache = new LruCache<String, SupportSQLiteStatement>(maxSize) {
+                @Override
+                protected void entryRemoved(boolean evicted, @NonNull String key,
+                        @NonNull SupportSQLiteStatement oldValue,
+                        @Nullable SupportSQLiteStatement newValue) {
+                    if (evicted) {
+                        closeQuietly(oldValue);
+                    }
+                }
+            };
+        } else {
+            mCache = null;
+        }
+    }
+
+    /**
+     * Returns a compiled statement for the given SQL, either taken out of the cache or newly
+     * compiled on the given database.
+     */
+    @NonNull
+    SupportSQLiteStatement acquire(@NonNull SupportSQLiteDatabase database, @NonNull String sql) {
+        if (mCache == null) {
+            return database.compileStatement(sql);
+        }
+        SupportSQLiteStatement statement;
+        synchronized (this) {
+            statement = mCache.remove(sql);
+            if (statement != null) {
+                mHitCount++;
+                mCheckedOut.add(statement);
+                return statement;
+            }
+            mMissCount++;
+        }
+        statement = database.compileStatement(sql);
+        synchronized (this) {
+            // the database may have been closed while compiling
+            if (database.isOpen()) {
+                mCheckedOut.add(statement);
+            }
+        }
+        return statement;
+    }
+
+    /**
+     * Returns a statement acquired via {@link #acquire(SupportSQLiteDatabase, String)} to the
+     * cache.
+     * <p>
+     * The statement is closed instead if the cache was cleared since it was acquired, e.g.
+     * because the database was closed.
+     */
+    void release(@NonNull String sql, @NonNull SupportSQLiteStatement statement) {
+        statement.clearBindings();
+        if (mCache != null) {
+            synchronized (this) {
+                if (mCheckedOut.remove(statement) && mCache.get(sql) == null) {
+                    mCache.put(sql, statement);
+                    return;
+                }
+            }
+        }
+        closeQuietly(statement);
+    }
+
+    /**
+     * Closes and removes all cached statements.
+     */
+    void clear() {
+        if (mCache != null) {
+            synchronized (this) {
+                mCheckedOut.clear();
+                mCache.evictAll();
+            }
+        }
+    }
+
+    /**
+     * @return The number of times a statement was taken out of the cache.
+     */
+    public synchronized int hitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * @return The number of times a statement had to be compiled because it was not cached.
+     */
+    public synchronized int missCount() {
+        return mMissCount;
+    }
+
+    /**
+     * @return The number of statements that have been evicted from the cache.
+     */
+    public synchronized int evictionCount() {
+        return mCache == null ? 0 : mCache.evictionCount();
+    }
+
+    /**
+     * @return The number of statements currently in the cache.
+     */
+    public synchronized int size() {
+        return mCache == null ? 0 : mCache.size();
+    }
+
+    /**
+     * @return The maximum number of statements the cache can hold, or 0 if it is disabled.
+     */
+    public int maxSize() {
+        return mCache == null ? 0 : mCache.maxSize();
+    }
+
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    static void closeQuietly(SupportSQLiteStatement statement) {
+        try {
+            statement.close();
+        } catch (IOException e) {
+            Log.w(Room.LOG_TAG, "Cannot close cached statement", e);
+        }
+    }
+}
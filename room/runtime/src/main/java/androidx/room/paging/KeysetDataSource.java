@@ -0,0 +1,247 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.paging;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+import androidx.paging.ItemKeyedDataSource;
+import androidx.room.InvalidationTracker;
+import androidx.room.RoomDatabase;
+import androidx.room.RoomSQLiteQuery;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A data source implementation that pages the query by seeking to the key of the last loaded
+ * row, using {@code WHERE key > ? ORDER BY key LIMIT ?}.
+ * <p>
+ * Unlike {@link LimitOffsetDataSource}, the cost of loading a page does not grow with the
+ * position of the page when the key column is indexed, and the rows of the query are only
+ * counted if {@code countItems} is set and placeholders are enabled. The key column must be
+ * unique and not null.
+ *
+ * @param <K> Type of the key column.
+ * @param <T> Data type returned by the data source.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
+public abstract class KeysetDataSource<K, T> extends ItemKeyedDataSource<K, T> {
+    private final RoomSQLiteQuery mSourceQuery;
+    private final String mFirstQuery;
+    private final String mInitialQuery;
+    private final String mAfterQuery;
+    private final String mBeforeQuery;
+    private final String mCountQuery;
+    private final String mCountBeforeQuery;
+    private final RoomDatabase mDb;
+    @SuppressWarnings("FieldCanBeLocal")
+    private final InvalidationTracker.Observer mObserver;
+    private final boolean mCountItems;
+    private final boolean mInTransaction;
+
+    protected KeysetDataSource(RoomDatabase db, RoomSQLiteQuery query, String keyColumn,
+            boolean countItems, boolean inTransaction, String... tables) {
+        mDb = db;
+        mSourceQuery = query;
+        mCountItems = countItems;
+        mInTransaction = inTransaction;
+        final String source = "SELECT * FROM ( " + mSourceQuery.getSql() + " )";
+        final String key = "`" + keyColumn + "`";
+        mFirstQuery = source + " ORDER BY " + key + " LIMIT ?";
+        mInitialQuery = source + " WHERE " + key + " >= ? ORDER BY " + key + " LIMIT ?";
+        mAfterQuery = source + " WHERE " + key + " > ? ORDER BY " + key + " LIMIT ?";
+        mBeforeQuery = source + " WHERE " + key + " < ? ORDER BY " + key + " DESC LIMIT ?";
+        mCountQuery = "SELECT COUNT(*) FROM ( " + mSourceQuery.getSql() + " )";
+        mCountBeforeQuery = mCountQuery + " WHERE " + key + " < ?";
+        mObserver = new InvalidationTracker.Observer(tables) {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                invalidate();
+            }
+        };
+        db.getInvalidationTracker().addWeakObserver(mObserver);
+    }
+
+    @Override
+    public boolean isInvalid() {
+        mDb.getInvalidationTracker().refreshVersionsSync();
+        return super.isInvalid();
+    }
+
+    @SuppressWarnings("WeakerAccess")
+    protected abstract List<T> convertRows(Cursor cursor);
+
+    @Override
+    public void loadInitial(@NonNull LoadInitialParams<K> params,
+            @NonNull LoadInitialCallback<T> callback) {
+        final K initialKey = params.requestedInitialKey;
+        final boolean count = mCountItems && params.placeholdersEnabled;
+        List<T> list = Collections.emptyList();
+        int totalCount = 0;
+        int position = 0;
+        final RoomSQLiteQuery sqLiteQuery;
+        if (initialKey == null) {
+            sqLiteQuery = getSQLiteQuery(mFirstQuery, null, params.requestedLoadSize);
+        } else {
+            sqLiteQuery = getSQLiteQuery(mInitialQuery, initialKey, params.requestedLoadSize);
+        }
+        Cursor cursor = null;
+        mDb.beginTransaction();
+        try {
+            if (count) {
+                totalCount = count(mCountQuery, null);
+                if (initialKey != null) {
+                    position = count(mCountBeforeQuery, initialKey);
+                }
+            }
+            if (!count || totalCount != 0) {
+                cursor = mDb.query(sqLiteQuery);
+                list = convertRows(cursor);
+            }
+            mDb.setTransactionSuccessful();
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+            mDb.endTransaction();
+            sqLiteQuery.release();
+        }
+
+        if (count) {
+            // the table may have shrunk between the count and the query
+            totalCount = Math.max(totalCount, position + list.size());
+            callback.onResult(list, position, totalCount);
+        } else {
+            callback.onResult(list);
+        }
+    }
+
+    @Override
+    public void loadAfter(@NonNull LoadParams<K> params, @NonNull LoadCallback<T> callback) {
+        callback.onResult(loadAfter(params.key, params.requestedLoadSize));
+    }
+
+    @Override
+    public void loadBefore(@NonNull LoadParams<K> params, @NonNull LoadCallback<T> callback) {
+        callback.onResult(loadBefore(params.key, params.requestedLoadSize));
+    }
+
+    /**
+     * Return up to loadCount rows that come after the given key.
+     *
+     * @hide
+     */
+    @NonNull
+    public List<T> loadAfter(@NonNull K key, int loadCount) {
+        return load(getSQLiteQuery(mAfterQuery, key, loadCount));
+    }
+
+    /**
+     * Return up to loadCount rows that come before the given key, in key order.
+     *
+     * @hide
+     */
+    @NonNull
+    public List<T> loadBefore(@NonNull K key, int loadCount) {
+        List<T> rows = load(getSQLiteQuery(mBeforeQuery, key, loadCount));
+        Collections.reverse(rows);
+        return rows;
+    }
+
+    @SuppressWarnings("deprecation")
+    private List<T> load(RoomSQLiteQuery sqLiteQuery) {
+        if (mInTransaction) {
+            mDb.beginTransaction();
+            Cursor cursor = null;
+            //noinspection TryFinallyCanBeTryWithResources
+            try {
+                cursor = mDb.query(sqLiteQuery);
+                List<T> rows = convertRows(cursor);
+                mDb.setTransactionSuccessful();
+                return rows;
+            } finally {
+                if (cursor != null) {
+                    cursor.close();
+                }
+                mDb.endTransaction();
+                sqLiteQuery.release();
+            }
+        } else {
+            Cursor cursor = mDb.query(sqLiteQuery);
+            //noinspection TryFinallyCanBeTryWithResources
+            try {
+                return convertRows(cursor);
+            } finally {
+                cursor.close();
+                sqLiteQuery.release();
+            }
+        }
+    }
+
+    private int count(String sql, @Nullable K key) {
+        final int argCount = mSourceQuery.getArgCount() + (key == null ? 0 : 1);
+        final RoomSQLiteQuery sqLiteQuery = RoomSQLiteQuery.acquire(sql, argCount);
+        sqLiteQuery.copyArgumentsFrom(mSourceQuery);
+        if (key != null) {
+            bindKey(sqLiteQuery, argCount, key);
+        }
+        Cursor cursor = mDb.query(sqLiteQuery);
+        try {
+            if (cursor.moveToFirst()) {
+                return cursor.getInt(0);
+            }
+            return 0;
+        } finally {
+            cursor.close();
+            sqLiteQuery.release();
+        }
+    }
+
+    private RoomSQLiteQuery getSQLiteQuery(String sql, @Nullable K key, int loadCount) {
+        final int argCount = mSourceQuery.getArgCount() + (key == null ? 1 : 2);
+        final RoomSQLiteQuery sqLiteQuery = RoomSQLiteQuery.acquire(sql, argCount);
+        sqLiteQuery.copyArgumentsFrom(mSourceQuery);
+        if (key != null) {
+            bindKey(sqLiteQuery, argCount - 1, key);
+        }
+        sqLiteQuery.bindLong(argCount, loadCount);
+        return sqLiteQuery;
+    }
+
+    private static void bindKey(RoomSQLiteQuery query, int index, @NonNull Object key) {
+        if (key instanceof Float || key instanceof Double) {
+            query.bindDouble(index, ((Number) key).doubleValue());
+        } else if (key instanceof Number) {
+            query.bindLong(index, ((Number) key).longValue());
+        } else if (key instanceof Boolean) {
+            query.bindLong(index, (Boolean) key ? 1 : 0);
+        } else if (key instanceof String) {
+            query.bindString(index, (String) key);
+        } else if (key instanceof byte[]) {
+            query.bindBlob(index, (byte[]) key);
+        } else {
+            throw new IllegalArgumentException("Cannot bind key " + key + " of type "
+                    + key.getClass());
+        }
+    }
+}
@@ -18,13 +18,16 @@ package androidx.room.util;
 
 import android.database.AbstractWindowedCursor;
 import android.database.Cursor;
+import android.database.sqlite.SQLiteDoneException;
 import android.os.Build;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 import androidx.room.RoomDatabase;
 import androidx.sqlite.db.SupportSQLiteDatabase;
 import androidx.sqlite.db.SupportSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteStatement;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -69,6 +72,37 @@ public class DBUtil {
         return cursor;
     }
 
+    /**
+     * Runs the given statement and returns the first column of its first row as a long, like a
+     * Cursor that maps an empty result to 0.
+     *
+     * @param statement The statement to run.
+     * @return The value of the first column of the first row or 0 if there is no row.
+     */
+    public static long simpleQueryForLong(@NonNull SupportSQLiteStatement statement) {
+        try {
+            return statement.simpleQueryForLong();
+        } catch (SQLiteDoneException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Runs the given statement and returns the first column of its first row as a String, like a
+     * Cursor that maps an empty result to null.
+     *
+     * @param statement The statement to run.
+     * @return The value of the first column of the first row or null if there is no row.
+     */
+    @Nullable
+    public static String simpleQueryForString(@NonNull SupportSQLiteStatement statement) {
+        try {
+            return statement.simpleQueryForString();
+        } catch (SQLiteDoneException e) {
+            return null;
+        }
+    }
+
     /**
      * Drops all FTS content sync triggers created by Room.
      * <p>
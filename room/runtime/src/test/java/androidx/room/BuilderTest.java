@@ -422,6 +422,21 @@ public class BuilderTest {
         assertThat(config.sqliteOpenHelperFactory, is(factory));
     }
 
+    @SuppressWarnings("deprecation")
+    @Test
+    public void deprecatedConfigurationConstructor() {
+        Executor executor = mock(Executor.class);
+        DatabaseConfiguration config = new DatabaseConfiguration(mock(Context.class), "foo",
+                mock(SupportSQLiteOpenHelper.Factory.class),
+                new RoomDatabase.MigrationContainer(), null, false,
+                RoomDatabase.JournalMode.TRUNCATE, executor, executor, false, true, false, null);
+        assertThat(config.versionedInvalidation, is(false));
+        assertThat(config.statementCacheSize, is(RoomDatabase.DEFAULT_STATEMENT_CACHE_SIZE));
+        assertThat(config.queryResultCacheSize, is(0));
+        assertThat(config.requireMigration, is(true));
+        assertThat(config.queryExecutor, is(executor));
+    }
+
     abstract static class TestDatabase extends RoomDatabase {
 
         DatabaseConfiguration mDatabaseConfiguration;
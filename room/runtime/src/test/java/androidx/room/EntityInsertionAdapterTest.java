@@ -0,0 +1,133 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+@RunWith(JUnit4.class)
+public class EntityInsertionAdapterTest {
+    private static final String BOOK_QUERY =
+            "INSERT OR ABORT INTO `Book`(`bookId`,`uid`) VALUES (?,?)";
+
+    @Test
+    public void multiRowQuery() {
+        TestAdapter adapter = new TestAdapter(BOOK_QUERY, "(?,?)", 2);
+        assertThat(adapter.createMultiRowQuery(1),
+                is("INSERT OR ABORT INTO `Book`(`bookId`,`uid`) VALUES (?,?)"));
+        assertThat(adapter.createMultiRowQuery(3),
+                is("INSERT OR ABORT INTO `Book`(`bookId`,`uid`) VALUES (?,?),(?,?),(?,?)"));
+    }
+
+    @Test
+    public void multiRowQueryAutoGenerate() {
+        TestAdapter adapter = new TestAdapter(
+                "INSERT OR REPLACE INTO `User`(`id`,`name`) VALUES (nullif(?, 0),?)",
+                "(nullif(?, 0),?)", 2);
+        assertThat(adapter.createMultiRowQuery(2),
+                is("INSERT OR REPLACE INTO `User`(`id`,`name`) VALUES "
+                        + "(nullif(?, 0),?),(nullif(?, 0),?)"));
+    }
+
+    @Test
+    public void singleRowWithoutArgCount() {
+        TestAdapter adapter = new TestAdapter(BOOK_QUERY, "(?,?)", 0);
+        assertThat(adapter.getMultiRowChunkSize(), is(1));
+    }
+
+    @Test
+    public void onlyFullChunkStatementIsCached() throws IOException {
+        final String chunkQuery =
+                "INSERT OR ABORT INTO `Book`(`bookId`,`uid`) VALUES (?,?),(?,?),(?,?)";
+        final String tailQuery = "INSERT OR ABORT INTO `Book`(`bookId`,`uid`) VALUES (?,?),(?,?)";
+        RoomDatabase db = mock(RoomDatabase.class);
+        SupportSQLiteStatement chunkStmt = mock(SupportSQLiteStatement.class);
+        SupportSQLiteStatement tailStmt = mock(SupportSQLiteStatement.class);
+        when(db.acquireCachedStatement(chunkQuery)).thenReturn(chunkStmt);
+        when(db.compileStatement(tailQuery)).thenReturn(tailStmt);
+        TestAdapter adapter = new TestAdapter(db, BOOK_QUERY, "(?,?)", 2, 3);
+
+        adapter.insert(Arrays.asList(new Object[8]));
+
+        verify(db, times(2)).acquireCachedStatement(chunkQuery);
+        verify(db, times(2)).releaseCachedStatement(chunkQuery, chunkStmt);
+        verify(chunkStmt, times(2)).executeInsert();
+        verify(db, never()).acquireCachedStatement(tailQuery);
+        verify(db).compileStatement(tailQuery);
+        verify(tailStmt).executeInsert();
+        verify(tailStmt).close();
+    }
+
+    private static class TestAdapter extends EntityInsertionAdapter<Object> {
+        private final String mQuery;
+        private final String mRowValues;
+        private final int mArgCount;
+        private final int mChunkSize;
+
+        TestAdapter(String query, String rowValues, int argCount) {
+            this(mock(RoomDatabase.class), query, rowValues, argCount, 1);
+        }
+
+        TestAdapter(RoomDatabase database, String query, String rowValues, int argCount,
+                int chunkSize) {
+            super(database);
+            mQuery = query;
+            mRowValues = rowValues;
+            mArgCount = argCount;
+            mChunkSize = chunkSize;
+        }
+
+        @Override
+        protected String createQuery() {
+            return mQuery;
+        }
+
+        @Override
+        protected void bind(SupportSQLiteStatement statement, Object entity) {
+        }
+
+        @Override
+        protected int getBindArgCount() {
+            return mArgCount;
+        }
+
+        @Override
+        protected String createRowValues() {
+            return mRowValues;
+        }
+
+        @Override
+        int getMultiRowChunkSize() {
+            // Build.VERSION.SDK_INT is 0 in host tests, so only pretend to chunk when asked to.
+            return mChunkSize > 1 ? mChunkSize : super.getMultiRowChunkSize();
+        }
+    }
+}
@@ -24,6 +24,7 @@ import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -435,6 +436,100 @@ public class InvalidationTrackerTest {
         }
     }
 
+    @Test
+    public void versionedInvalidation_triggers() {
+        InvalidationTracker tracker = createVersionedTracker();
+        tracker.addObserver(new LatchObserver(1, "b"));
+        ArgumentCaptor<String> sqlArgCaptor = ArgumentCaptor.forClass(String.class);
+        verify(mSqliteDb, times(4)).execSQL(sqlArgCaptor.capture());
+        List<String> sqlCaptorValues = sqlArgCaptor.getAllValues();
+        assertThat(sqlCaptorValues.get(1),
+                is("CREATE TEMP TRIGGER IF NOT EXISTS `room_table_modification_trigger_b_UPDATE` "
+                        + "AFTER UPDATE ON `b` BEGIN UPDATE room_table_modification_log "
+                        + "SET invalidated = invalidated + 1 WHERE table_id = 1; END"));
+        verify(mSqliteDb, times(0))
+                .compileStatement(eq(InvalidationTracker.RESET_UPDATED_TABLES_SQL));
+    }
+
+    @Test
+    public void versionedInvalidation_notifiesChangedVersionsOnly() throws Exception {
+        InvalidationTracker tracker = createVersionedTracker();
+        LatchObserver observer = new LatchObserver(1, "a", "b");
+        tracker.addObserver(observer);
+
+        setTableVersions(new int[]{0, 1}, new long[]{1, 0});
+        tracker.onTransactionEnded();
+        drainTasks();
+        assertThat(observer.await(), is(true));
+        assertThat(observer.getInvalidatedTables().size(), is(1));
+        assertThat(observer.getInvalidatedTables(), hasItem("a"));
+
+        observer.reset(1);
+        setTableVersions(new int[]{0, 1}, new long[]{1, 0});
+        tracker.onTransactionEnded();
+        drainTasks();
+        assertThat(observer.await(), is(false));
+    }
+
+    @Test
+    public void versionedInvalidation_coalescesDispatch() throws Exception {
+        InvalidationTracker tracker = createVersionedTracker();
+        final AtomicInteger invocations = new AtomicInteger(0);
+        final Set<String> invalidated = new HashSet<>();
+        tracker.addObserver(new InvalidationTracker.Observer("a", "b") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                invocations.incrementAndGet();
+                invalidated.addAll(tables);
+            }
+        });
+
+        setTableVersions(new int[]{0, 1}, new long[]{1, 0});
+        tracker.onTransactionEnded();
+        setTableVersions(new int[]{0, 1}, new long[]{1, 1});
+        tracker.onTransactionEnded();
+        drainTasks();
+        assertThat(invocations.get(), is(1));
+        assertThat(invalidated, hasItems("a", "b"));
+    }
+
+    @Test
+    public void versionedInvalidation_reopen() throws Exception {
+        InvalidationTracker tracker = createVersionedTracker();
+        LatchObserver observer = new LatchObserver(1, "a");
+        tracker.addObserver(observer);
+        setTableVersions(new int[]{0}, new long[]{1});
+        tracker.onTransactionEnded();
+        drainTasks();
+        assertThat(observer.await(), is(true));
+
+        // the new tracking table of the reopened connection starts counting at 0 again
+        reset(mSqliteDb);
+        tracker.onDatabaseClosed();
+        tracker.internalInit(mSqliteDb);
+        ArgumentCaptor<String> sqlArgCaptor = ArgumentCaptor.forClass(String.class);
+        verify(mSqliteDb, atLeastOnce()).execSQL(sqlArgCaptor.capture());
+        assertThat(sqlArgCaptor.getAllValues(), hasItem(
+                "CREATE TEMP TRIGGER IF NOT EXISTS `room_table_modification_trigger_a_UPDATE` "
+                        + "AFTER UPDATE ON `a` BEGIN UPDATE room_table_modification_log "
+                        + "SET invalidated = invalidated + 1 WHERE table_id = 0; END"));
+
+        observer.reset(1);
+        setTableVersions(new int[]{0}, new long[]{1});
+        tracker.onTransactionEnded();
+        drainTasks();
+        assertThat(observer.await(), is(true));
+        assertThat(observer.getInvalidatedTables(), hasItem("a"));
+    }
+
+    private InvalidationTracker createVersionedTracker() {
+        InvalidationTracker tracker = new InvalidationTracker(mRoomDatabase, "a", "b");
+        tracker.setVersionedInvalidationEnabled(true);
+        tracker.internalInit(mSqliteDb);
+        reset(mSqliteDb);
+        return tracker;
+    }
+
     // @Test - disabled due to flakiness b/65257997
     public void closedDbAfterOpen() throws InterruptedException {
         setInvalidatedTables(3, 1);
@@ -467,6 +562,41 @@ public class InvalidationTrackerTest {
         );
     }
 
+    /**
+     * Setup Cursor result to return the given versions for the given tableIds
+     */
+    private void setTableVersions(final int[] tableIds, final long[] versions) {
+        Cursor cursor = mock(Cursor.class);
+        final AtomicInteger index = new AtomicInteger(-1);
+        when(cursor.moveToNext()).thenAnswer(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(InvocationOnMock invocation) throws Throwable {
+                return index.addAndGet(1) < tableIds.length;
+            }
+        });
+        when(cursor.getInt(0)).thenAnswer(new Answer<Integer>() {
+            @Override
+            public Integer answer(InvocationOnMock invocation) throws Throwable {
+                return tableIds[index.intValue()];
+            }
+        });
+        when(cursor.getLong(1)).thenAnswer(new Answer<Long>() {
+            @Override
+            public Long answer(InvocationOnMock invocation) throws Throwable {
+                return versions[index.intValue()];
+            }
+        });
+        doReturn(cursor).when(mSqliteDb).query(
+                argThat(new ArgumentMatcher<SimpleSQLiteQuery>() {
+                    @Override
+                    public boolean matches(SimpleSQLiteQuery argument) {
+                        return argument.getSql().equals(
+                                InvalidationTracker.SELECT_TABLE_VERSIONS_SQL);
+                    }
+                })
+        );
+    }
+
     private Cursor createCursorWithValues(final int... tableIds) {
         Cursor cursor = mock(Cursor.class);
         final AtomicInteger index = new AtomicInteger(-1);
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+
+import androidx.sqlite.db.SimpleSQLiteQuery;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+@RunWith(JUnit4.class)
+public class QueryResultCacheTest {
+    private static final String[] TABLE_A = new String[]{"a"};
+    private static final String[] TABLE_B = new String[]{"b"};
+
+    private InvalidationTracker mTracker;
+    private QueryResultCache mCache;
+
+    @Before
+    public void setup() {
+        mTracker = new InvalidationTracker(mock(RoomDatabase.class),
+                new HashMap<String, String>(), new HashMap<String, Set<String>>(), "a", "b");
+        mCache = new QueryResultCache(mTracker, 10);
+    }
+
+    @Test
+    public void sameQuery() throws Exception {
+        CountingCallable compute = new CountingCallable(1);
+        QueryResultCache.Key key = acquiredKey(compute, "SELECT * FROM a WHERE x = ?", 1);
+        List<Integer> first = mCache.getOrCompute(key, TABLE_A, compute);
+        List<Integer> second = mCache.getOrCompute(key(compute, "SELECT * FROM a WHERE x = ?", 1),
+                TABLE_A, compute);
+        assertThat(second, sameInstance(first));
+        assertThat(compute.mCount, is(1));
+        assertThat(mCache.hitCount(), is(1));
+        assertThat(mCache.missCount(), is(1));
+    }
+
+    @Test
+    public void differentArguments() throws Exception {
+        CountingCallable compute = new CountingCallable(1);
+        List<Integer> first = mCache.getOrCompute(
+                acquiredKey(compute, "SELECT * FROM a WHERE x = ?", 1), TABLE_A, compute);
+        List<Integer> second = mCache.getOrCompute(
+                acquiredKey(compute, "SELECT * FROM a WHERE x = ?", 2), TABLE_A, compute);
+        assertThat(second, not(sameInstance(first)));
+        assertThat(compute.mCount, is(2));
+    }
+
+    @Test
+    public void differentComputeFunction() throws Exception {
+        CountingCallable compute = new CountingCallable(1);
+        Callable<List<Integer>> other = new Callable<List<Integer>>() {
+            @Override
+            public List<Integer> call() {
+                return Collections.singletonList(0);
+            }
+        };
+        mCache.getOrCompute(acquiredKey(compute, "SELECT * FROM a", 1), TABLE_A, compute);
+        List<Integer> result = mCache.getOrCompute(acquiredKey(other, "SELECT * FROM a", 1),
+                TABLE_A, other);
+        assertThat(result, is(Collections.singletonList(0)));
+    }
+
+    @Test
+    public void invalidateAffectedTablesOnly() throws Exception {
+        CountingCallable computeA = new CountingCallable(1);
+        CountingCallable computeB = new CountingCallable(1);
+        QueryResultCache.Key keyA = acquiredKey(computeA, "SELECT * FROM a");
+        QueryResultCache.Key keyB = acquiredKey(computeB, "SELECT * FROM b");
+        mCache.getOrCompute(keyA, TABLE_A, computeA);
+        mCache.getOrCompute(keyB, TABLE_B, computeB);
+        BitSet invalidated = new BitSet();
+        invalidated.set(mTracker.mTableIdLookup.get("a"));
+        mCache.invalidate(invalidated);
+        mCache.getOrCompute(keyA, TABLE_A, computeA);
+        mCache.getOrCompute(keyB, TABLE_B, computeB);
+        assertThat(computeA.mCount, is(2));
+        assertThat(computeB.mCount, is(1));
+    }
+
+    @Test
+    public void boundedByRows() throws Exception {
+        CountingCallable compute = new CountingCallable(6);
+        QueryResultCache.Key first = acquiredKey(compute, "SELECT * FROM a", 1);
+        mCache.getOrCompute(first, TABLE_A, compute);
+        mCache.getOrCompute(acquiredKey(compute, "SELECT * FROM a", 2), TABLE_A, compute);
+        assertThat(mCache.size(), is(6));
+        mCache.getOrCompute(first, TABLE_A, compute);
+        assertThat(compute.mCount, is(3));
+    }
+
+    @Test
+    public void dontCacheIfInvalidatedWhileComputing() throws Exception {
+        final BitSet invalidated = new BitSet();
+        invalidated.set(mTracker.mTableIdLookup.get("a"));
+        CountingCallable compute = new CountingCallable(1) {
+            @Override
+            public List<Integer> call() {
+                mCache.invalidate(invalidated);
+                return super.call();
+            }
+        };
+        mCache.getOrCompute(acquiredKey(compute, "SELECT * FROM a"), TABLE_A, compute);
+        assertThat(mCache.size(), is(0));
+    }
+
+    @Test
+    public void notCachedWithoutUsers() throws Exception {
+        CountingCallable compute = new CountingCallable(1);
+        mCache.getOrCompute(key(compute, "SELECT * FROM a"), TABLE_A, compute);
+        mCache.getOrCompute(key(compute, "SELECT * FROM a"), TABLE_A, compute);
+        assertThat(compute.mCount, is(2));
+        assertThat(mCache.size(), is(0));
+    }
+
+    @Test
+    public void releaseLastUser() throws Exception {
+        CountingCallable compute = new CountingCallable(1);
+        QueryResultCache.Key key = key(compute, "SELECT * FROM a");
+        mCache.acquire(key, TABLE_A);
+        mCache.acquire(key, TABLE_A);
+        mCache.getOrCompute(key, TABLE_A, compute);
+        assertThat(mTracker.mObserverMap.size(), is(1));
+
+        mCache.release(key, TABLE_A);
+        assertThat(mCache.size(), is(1));
+        assertThat(mCache.observedTableCount(), is(1));
+
+        mCache.release(key, TABLE_A);
+        assertThat(mCache.size(), is(0));
+        assertThat(mCache.keyCount(), is(0));
+        assertThat(mCache.observedTableCount(), is(0));
+        assertThat(mTracker.mObserverMap.size(), is(0));
+    }
+
+    @Test
+    public void keepObservingTablesOfOtherUsedKeys() throws Exception {
+        CountingCallable compute = new CountingCallable(1);
+        QueryResultCache.Key first = acquiredKey(compute, "SELECT * FROM a", 1);
+        QueryResultCache.Key second = acquiredKey(compute, "SELECT * FROM a", 2);
+        mCache.getOrCompute(first, TABLE_A, compute);
+        mCache.getOrCompute(second, TABLE_A, compute);
+
+        mCache.release(first, TABLE_A);
+        assertThat(mCache.size(), is(1));
+        assertThat(mTracker.mObserverMap.size(), is(1));
+
+        mCache.release(second, TABLE_A);
+        assertThat(mTracker.mObserverMap.size(), is(0));
+    }
+
+    private QueryResultCache.Key acquiredKey(Callable<?> compute, String sql, Object... args) {
+        QueryResultCache.Key key = key(compute, sql, args);
+        String[] tableNames = sql.endsWith(" b") ? TABLE_B : TABLE_A;
+        mCache.acquire(key, tableNames);
+        return key;
+    }
+
+    private static QueryResultCache.Key key(Callable<?> compute, String sql, Object... args) {
+        return QueryResultCache.keyFor(compute, new SimpleSQLiteQuery(sql, args));
+    }
+
+    private static class CountingCallable implements Callable<List<Integer>> {
+        private final int mRowCount;
+        int mCount;
+
+        CountingCallable(int rowCount) {
+            mRowCount = rowCount;
+        }
+
+        @Override
+        public List<Integer> call() {
+            mCount++;
+            List<Integer> result = new ArrayList<>();
+            for (int i = 0; i < mRowCount; i++) {
+                result.add(i);
+            }
+            return result;
+        }
+    }
+}
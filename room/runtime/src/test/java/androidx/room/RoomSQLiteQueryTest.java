@@ -31,7 +31,6 @@ import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 @RunWith(JUnit4.class)
@@ -39,6 +38,7 @@ public class RoomSQLiteQueryTest {
     @Before
     public void clear() {
         RoomSQLiteQuery.sQueryPool.clear();
+        RoomSQLiteQuery.sQueryPool.resetStats();
     }
 
     @Test
@@ -90,17 +90,92 @@ public class RoomSQLiteQueryTest {
     }
 
     @Test
-    public void dontKeepSameSizeTwice() {
-        RoomSQLiteQuery query1 = RoomSQLiteQuery.acquire("abc", 3);
-        RoomSQLiteQuery query2 = RoomSQLiteQuery.acquire("zx", 3);
-        RoomSQLiteQuery query3 = RoomSQLiteQuery.acquire("qw", 0);
+    public void dontKeepSameSizeMoreThanSegmentCount() {
+        List<RoomSQLiteQuery> queries = new ArrayList<>();
+        for (int i = 0; i <= RoomSQLiteQueryPool.SEGMENT_COUNT; i++) {
+            queries.add(RoomSQLiteQuery.acquire("abc", 3));
+        }
+        RoomSQLiteQuery other = RoomSQLiteQuery.acquire("qw", 0);
+
+        for (RoomSQLiteQuery query : queries) {
+            query.release();
+        }
+        assertThat(RoomSQLiteQuery.sQueryPool.size(), is(RoomSQLiteQueryPool.SEGMENT_COUNT));
+        assertThat(RoomSQLiteQuery.sQueryPool.getDropCount(), is(1L));
+
+        other.release();
+        assertThat(RoomSQLiteQuery.sQueryPool.size(), is(RoomSQLiteQueryPool.SEGMENT_COUNT + 1));
+    }
 
-        query1.release();
-        query2.release();
-        assertThat(RoomSQLiteQuery.sQueryPool.size(), is(1));
+    @Test
+    public void bucketLargeSizes() {
+        RoomSQLiteQuery query = RoomSQLiteQuery.acquire("abc", 20);
+        assertThat(query.mCapacity, is(32));
+        assertThat(query.mArgCount, is(20));
+        query.release();
+        assertThat(RoomSQLiteQuery.acquire("dsa", 32), sameInstance(query));
+    }
 
-        query3.release();
-        assertThat(RoomSQLiteQuery.sQueryPool.size(), is(2));
+    @Test
+    public void stats() {
+        RoomSQLiteQuery query = RoomSQLiteQuery.acquire("abc", 3);
+        query.release();
+        RoomSQLiteQuery.acquire("abc", 3);
+        assertThat(RoomSQLiteQuery.getQueryPool().getMissCount(), is(1L));
+        assertThat(RoomSQLiteQuery.getQueryPool().getHitCount(), is(1L));
+        assertThat(RoomSQLiteQuery.getQueryPool().getDropCount(), is(0L));
+
+        RoomSQLiteQuery.getQueryPool().resetStats();
+        assertThat(RoomSQLiteQuery.getQueryPool().getMissCount(), is(0L));
+        assertThat(RoomSQLiteQuery.getQueryPool().getHitCount(), is(0L));
+    }
+
+    @Test
+    public void statsFromManyThreads() throws InterruptedException {
+        Thread[] threads = new Thread[RoomSQLiteQueryPool.SEGMENT_COUNT * 2];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 1000; i++) {
+                        RoomSQLiteQuery.acquire("abc", i % 20).release();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        RoomSQLiteQueryPool pool = RoomSQLiteQuery.getQueryPool();
+        assertThat(pool.getHitCount() + pool.getMissCount(), is(threads.length * 1000L));
+    }
+
+    @Test
+    public void releaseFromManyThreads() throws InterruptedException {
+        Thread[] threads = new Thread[RoomSQLiteQueryPool.SEGMENT_COUNT * 2];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 1000; i++) {
+                        RoomSQLiteQuery.acquire("abc", i % 20).release();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        final int size = RoomSQLiteQuery.sQueryPool.size();
+        assertThat(size <= RoomSQLiteQuery.POOL_LIMIT, is(true));
+        int pooled = 0;
+        while (RoomSQLiteQuery.sQueryPool.acquire(0) != null) {
+            pooled++;
+        }
+        assertThat(pooled, is(size));
+        assertThat(RoomSQLiteQuery.sQueryPool.size(), is(0));
     }
 
     @Test
@@ -140,10 +215,11 @@ public class RoomSQLiteQueryTest {
     private void pruneCacheTest() {
         assertThat(RoomSQLiteQuery.sQueryPool.size(), is(RoomSQLiteQuery.POOL_LIMIT));
         RoomSQLiteQuery.acquire("dsadsa", RoomSQLiteQuery.POOL_LIMIT + 1).release();
-        assertThat(RoomSQLiteQuery.sQueryPool.size(), is(RoomSQLiteQuery.DESIRED_POOL_SIZE));
-        Iterator<RoomSQLiteQuery> itr = RoomSQLiteQuery.sQueryPool.values().iterator();
-        for (int i = 0; i < RoomSQLiteQuery.DESIRED_POOL_SIZE; i++) {
-            assertThat(itr.next().mCapacity, is(i));
+        assertThat(RoomSQLiteQuery.sQueryPool.size(), is(RoomSQLiteQuery.POOL_LIMIT));
+        assertThat(RoomSQLiteQuery.sQueryPool.getDropCount(), is(1L));
+        for (int i = 0; i < RoomSQLiteQuery.POOL_LIMIT; i++) {
+            assertThat(RoomSQLiteQuery.acquire("dsadsa", i).mCapacity, is(i));
         }
+        assertThat(RoomSQLiteQuery.sQueryPool.size(), is(0));
     }
 }
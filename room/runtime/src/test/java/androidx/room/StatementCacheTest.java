@@ -0,0 +1,132 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.IOException;
+
+@RunWith(JUnit4.class)
+public class StatementCacheTest {
+    private SupportSQLiteDatabase mDb;
+
+    @Before
+    public void init() {
+        mDb = mock(SupportSQLiteDatabase.class);
+        when(mDb.isOpen()).thenReturn(true);
+        when(mDb.compileStatement(anyString())).thenAnswer(
+                new Answer<SupportSQLiteStatement>() {
+                    @Override
+                    public SupportSQLiteStatement answer(InvocationOnMock invocation) {
+                        return mock(SupportSQLiteStatement.class);
+                    }
+                });
+    }
+
+    @Test
+    public void reuseReleased() {
+        StatementCache cache = new StatementCache(2);
+        SupportSQLiteStatement stmt = cache.acquire(mDb, "foo");
+        cache.release("foo", stmt);
+        verify(stmt).clearBindings();
+        assertThat(cache.acquire(mDb, "foo"), sameInstance(stmt));
+        assertThat(cache.missCount(), is(1));
+        assertThat(cache.hitCount(), is(1));
+    }
+
+    @Test
+    public void dontShareAcquired() {
+        StatementCache cache = new StatementCache(2);
+        SupportSQLiteStatement stmt1 = cache.acquire(mDb, "foo");
+        SupportSQLiteStatement stmt2 = cache.acquire(mDb, "foo");
+        assertThat(stmt1, not(sameInstance(stmt2)));
+    }
+
+    @Test
+    public void closeDuplicate() throws IOException {
+        StatementCache cache = new StatementCache(2);
+        SupportSQLiteStatement stmt1 = cache.acquire(mDb, "foo");
+        SupportSQLiteStatement stmt2 = cache.acquire(mDb, "foo");
+        cache.release("foo", stmt1);
+        cache.release("foo", stmt2);
+        verify(stmt1, never()).close();
+        verify(stmt2).close();
+        assertThat(cache.size(), is(1));
+    }
+
+    @Test
+    public void closeEvicted() throws IOException {
+        StatementCache cache = new StatementCache(1);
+        SupportSQLiteStatement stmt1 = cache.acquire(mDb, "foo");
+        SupportSQLiteStatement stmt2 = cache.acquire(mDb, "bar");
+        cache.release("foo", stmt1);
+        cache.release("bar", stmt2);
+        verify(stmt1).close();
+        assertThat(cache.evictionCount(), is(1));
+        cache.clear();
+        verify(stmt2).close();
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test
+    public void closeReleasedAfterClear() throws IOException {
+        StatementCache cache = new StatementCache(2);
+        SupportSQLiteStatement stmt = cache.acquire(mDb, "foo");
+        cache.clear();
+        cache.release("foo", stmt);
+        verify(stmt).close();
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test
+    public void closeCompiledOnClosedDatabase() throws IOException {
+        StatementCache cache = new StatementCache(2);
+        when(mDb.isOpen()).thenReturn(false);
+        SupportSQLiteStatement stmt = cache.acquire(mDb, "foo");
+        cache.release("foo", stmt);
+        verify(stmt).close();
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test
+    public void disabled() throws IOException {
+        StatementCache cache = new StatementCache(0);
+        SupportSQLiteStatement stmt = cache.acquire(mDb, "foo");
+        cache.release("foo", stmt);
+        verify(stmt).close();
+        assertThat(cache.acquire(mDb, "foo"), not(sameInstance(stmt)));
+        assertThat(cache.maxSize(), is(0));
+    }
+}
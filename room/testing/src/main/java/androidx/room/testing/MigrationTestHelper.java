@@ -160,6 +160,9 @@ public class MigrationTestHelper extends TestWatcher {
                 ArchTaskExecutor.getIOThreadExecutor(),
                 ArchTaskExecutor.getIOThreadExecutor(),
                 false,
+                false,
+                RoomDatabase.DEFAULT_STATEMENT_CACHE_SIZE,
+                0,
                 true,
                 false,
                 Collections.<Integer>emptySet());
@@ -218,6 +221,9 @@ public class MigrationTestHelper extends TestWatcher {
                 ArchTaskExecutor.getIOThreadExecutor(),
                 ArchTaskExecutor.getIOThreadExecutor(),
                 false,
+                false,
+                RoomDatabase.DEFAULT_STATEMENT_CACHE_SIZE,
+                0,
                 true,
                 false,
                 Collections.<Integer>emptySet());
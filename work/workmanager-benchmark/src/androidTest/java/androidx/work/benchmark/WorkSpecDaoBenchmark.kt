@@ -0,0 +1,148 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.work.benchmark
+
+import androidx.benchmark.BenchmarkRule
+import androidx.benchmark.measureRepeated
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.filters.LargeTest
+import androidx.work.WorkInfo
+import androidx.work.impl.Scheduler
+import androidx.work.impl.WorkDatabase
+import androidx.work.impl.model.WorkSpec
+import androidx.work.impl.model.WorkSpecDao
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+import java.util.UUID
+
+/**
+ * Measures the WorkSpec queries that run each time work is scheduled, on a database that holds
+ * a large history of finished work.
+ *
+ * Each query runs with and without the (state, schedule_requested_at) index, and the batched
+ * update and the count query are measured next to the per-row update and the full load they
+ * replaced.
+ */
+@LargeTest
+@RunWith(Parameterized::class)
+class WorkSpecDaoBenchmark(private val withStateIndex: Boolean) {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private lateinit var db: WorkDatabase
+    private lateinit var dao: WorkSpecDao
+    private lateinit var eligibleIds: List<String>
+
+    @Before
+    fun setup() {
+        db = WorkDatabase.create(ApplicationProvider.getApplicationContext(), true)
+        if (!withStateIndex) {
+            db.openHelper.writableDatabase.execSQL("DROP INDEX $STATE_INDEX")
+        }
+        dao = db.workSpecDao()
+        val now = System.currentTimeMillis()
+        db.runInTransaction {
+            repeat(FINISHED_COUNT) {
+                val workSpec = WorkSpec(UUID.randomUUID().toString(), WORKER_CLASS_NAME)
+                workSpec.state = WorkInfo.State.SUCCEEDED
+                workSpec.scheduleRequestedAt = now
+                dao.insertWorkSpec(workSpec)
+            }
+            repeat(SCHEDULED_COUNT) {
+                val workSpec = WorkSpec(UUID.randomUUID().toString(), WORKER_CLASS_NAME)
+                workSpec.scheduleRequestedAt = now
+                dao.insertWorkSpec(workSpec)
+            }
+            eligibleIds = List(ELIGIBLE_COUNT) {
+                val workSpec = WorkSpec(UUID.randomUUID().toString(), WORKER_CLASS_NAME)
+                dao.insertWorkSpec(workSpec)
+                workSpec.id
+            }
+        }
+    }
+
+    @After
+    fun tearDown() {
+        db.close()
+    }
+
+    @Test
+    fun getEligibleWorkForScheduling() {
+        benchmarkRule.measureRepeated {
+            assertEquals(
+                ELIGIBLE_COUNT,
+                dao.getEligibleWorkForScheduling(Scheduler.MAX_SCHEDULER_LIMIT).size
+            )
+        }
+    }
+
+    @Test
+    fun getScheduledWork_size() {
+        benchmarkRule.measureRepeated {
+            assertEquals(SCHEDULED_COUNT, dao.scheduledWork.size)
+        }
+    }
+
+    @Test
+    fun getScheduledWorkCount() {
+        benchmarkRule.measureRepeated {
+            assertEquals(SCHEDULED_COUNT, dao.scheduledWorkCount)
+        }
+    }
+
+    @Test
+    fun markWorkSpecScheduled_perRow() {
+        var time = 0L
+        benchmarkRule.measureRepeated {
+            time++
+            db.runInTransaction {
+                for (id in eligibleIds) {
+                    dao.markWorkSpecScheduled(id, time)
+                }
+            }
+        }
+    }
+
+    @Test
+    fun markWorkSpecsScheduled_batched() {
+        var time = 0L
+        benchmarkRule.measureRepeated {
+            time++
+            db.runInTransaction {
+                dao.markWorkSpecsScheduled(eligibleIds, time)
+            }
+        }
+    }
+
+    companion object {
+        @JvmStatic
+        @Parameterized.Parameters(name = "withStateIndex={0}")
+        fun data(): List<Array<Any>> = listOf(arrayOf<Any>(true), arrayOf<Any>(false))
+
+        private const val STATE_INDEX = "index_WorkSpec_state_schedule_requested_at"
+        private const val WORKER_CLASS_NAME = "androidx.work.benchmark.NoOpWorker"
+        private const val FINISHED_COUNT = 10000
+        private const val SCHEDULED_COUNT = 20
+        private const val ELIGIBLE_COUNT = Scheduler.MAX_SCHEDULER_LIMIT - SCHEDULED_COUNT
+    }
+}
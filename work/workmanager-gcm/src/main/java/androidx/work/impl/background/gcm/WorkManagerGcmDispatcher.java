@@ -29,6 +29,7 @@ import androidx.work.impl.Schedulers;
 import androidx.work.impl.WorkDatabase;
 import androidx.work.impl.WorkManagerImpl;
 import androidx.work.impl.model.WorkSpec;
+import androidx.work.impl.utils.taskexecutor.TaskExecutor;
 
 import com.google.android.gms.gcm.GcmNetworkManager;
 import com.google.android.gms.gcm.TaskParams;
@@ -68,7 +69,7 @@ public class WorkManagerGcmDispatcher {
                 Logger.get().debug(TAG, "onInitializeTasks(): Rescheduling work");
                 mWorkManagerImpl.rescheduleEligibleWork();
             }
-        });
+        }, TaskExecutor.LANE_SCHEDULING);
     }
 
     /**
@@ -70,6 +70,11 @@ class TestWorkManagerImpl extends WorkManagerImpl implements TestDriver {
                         runnable.run();
                     }
 
+                    @Override
+                    public void executeOnBackgroundThread(Runnable runnable, int lane) {
+                        runnable.run();
+                    }
+
                     @Override
                     public Executor getBackgroundExecutor() {
                         return mSynchronousExecutor;
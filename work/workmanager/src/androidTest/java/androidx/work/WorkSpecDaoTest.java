@@ -36,6 +36,7 @@ import androidx.work.worker.TestWorker;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -181,4 +182,36 @@ public class WorkSpecDaoTest extends DatabaseTest {
         // Not using contains in any order as the scheduleRequestedAt changes post reset.
         assertThat(eligibleWorkSpecs.get(0).id, is(enqueued.getStringId()));
     }
+
+    @Test
+    @SmallTest
+    public void testMarkWorkSpecsScheduled() {
+        WorkSpecDao workSpecDao = mDatabase.workSpecDao();
+
+        long startTime = System.currentTimeMillis();
+        OneTimeWorkRequest first = new OneTimeWorkRequest.Builder(TestWorker.class)
+                .setPeriodStartTime(startTime, TimeUnit.MILLISECONDS)
+                .build();
+        OneTimeWorkRequest second = new OneTimeWorkRequest.Builder(TestWorker.class)
+                .setPeriodStartTime(startTime, TimeUnit.MILLISECONDS)
+                .build();
+        OneTimeWorkRequest unscheduled = new OneTimeWorkRequest.Builder(TestWorker.class)
+                .setPeriodStartTime(startTime, TimeUnit.MILLISECONDS)
+                .build();
+
+        insertWork(first);
+        insertWork(second);
+        insertWork(unscheduled);
+
+        int updated = workSpecDao.markWorkSpecsScheduled(
+                Arrays.asList(first.getStringId(), second.getStringId()), startTime);
+        assertThat(updated, is(2));
+        assertThat(workSpecDao.getScheduledWorkCount(), is(2));
+        assertThat(workSpecDao.getWorkSpec(first.getStringId()).scheduleRequestedAt,
+                is(startTime));
+
+        List<WorkSpec> eligibleWorkSpecs =
+                workSpecDao.getEligibleWorkForScheduling(MAX_SCHEDULER_LIMIT);
+        assertThat(eligibleWorkSpecs, containsInAnyOrder(unscheduled.getWorkSpec()));
+    }
 }
@@ -129,8 +129,10 @@ public class ForceStopRunnableTest {
                 Collections.singletonList(workSpec));
 
         runnable.run();
-        verify(mWorkSpecDao, times(2))
-                .markWorkSpecScheduled(eq(id), anyLong());
+        verify(mWorkSpecDao, times(1))
+                .markWorkSpecScheduled(eq(id), eq(WorkSpec.SCHEDULE_NOT_REQUESTED_YET));
+        verify(mWorkSpecDao, times(1))
+                .markWorkSpecsScheduled(eq(Collections.singletonList(id)), anyLong());
 
         verify(mScheduler, times(1)).schedule(eq(workSpec));
     }
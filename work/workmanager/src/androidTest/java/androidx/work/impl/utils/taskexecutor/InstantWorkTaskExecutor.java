@@ -43,6 +43,11 @@ public class InstantWorkTaskExecutor implements TaskExecutor {
         runnable.run();
     }
 
+    @Override
+    public void executeOnBackgroundThread(Runnable runnable, int lane) {
+        runnable.run();
+    }
+
     @Override
     public Executor getBackgroundExecutor() {
         return mSynchronousExecutor;
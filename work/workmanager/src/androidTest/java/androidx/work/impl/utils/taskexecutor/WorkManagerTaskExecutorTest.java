@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.work.impl.utils.taskexecutor;
+
+import static androidx.work.impl.utils.taskexecutor.TaskExecutor.LANE_DEFAULT;
+import static androidx.work.impl.utils.taskexecutor.TaskExecutor.LANE_DISPATCH;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class WorkManagerTaskExecutorTest {
+
+    @Test
+    public void testLanesDisabled_shareThread() throws InterruptedException {
+        WorkManagerTaskExecutor taskExecutor = new WorkManagerTaskExecutor(false);
+        Thread dispatchThread = runOn(taskExecutor, LANE_DISPATCH);
+        assertThat(dispatchThread, is(sameInstance(taskExecutor.getBackgroundExecutorThread())));
+        assertThat(taskExecutor.getTaskCount(LANE_DISPATCH), is(1L));
+        assertThat(taskExecutor.getTaskCount(LANE_DEFAULT), is(0L));
+    }
+
+    @Test
+    public void testLanesEnabled_dispatchDoesNotWaitForDefaultLane()
+            throws InterruptedException {
+        WorkManagerTaskExecutor taskExecutor = new WorkManagerTaskExecutor(true);
+        final CountDownLatch blockDefaultLane = new CountDownLatch(1);
+        taskExecutor.executeOnBackgroundThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    blockDefaultLane.await();
+                } catch (InterruptedException ignored) {
+                    // Do nothing.
+                }
+            }
+        });
+
+        Thread dispatchThread = runOn(taskExecutor, LANE_DISPATCH);
+        blockDefaultLane.countDown();
+
+        assertThat(dispatchThread, is(not(sameInstance(
+                taskExecutor.getBackgroundExecutorThread()))));
+        assertThat(taskExecutor.getTaskCount(LANE_DISPATCH), is(1L));
+        assertThat(taskExecutor.getMaxQueueWaitNanos(LANE_DISPATCH)
+                <= taskExecutor.getTotalQueueWaitNanos(LANE_DISPATCH), is(true));
+    }
+
+    private static Thread runOn(TaskExecutor taskExecutor, int lane)
+            throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<Thread> thread = new AtomicReference<>();
+        taskExecutor.executeOnBackgroundThread(new Runnable() {
+            @Override
+            public void run() {
+                thread.set(Thread.currentThread());
+                latch.countDown();
+            }
+        }, lane);
+        assertThat(latch.await(5, TimeUnit.SECONDS), is(true));
+        return thread.get();
+    }
+}
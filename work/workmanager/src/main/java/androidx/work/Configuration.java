@@ -54,6 +54,7 @@ public final class Configuration {
     private final int mMinJobSchedulerId;
     private final int mMaxJobSchedulerId;
     private final int mMaxSchedulerLimit;
+    private final boolean mTaskExecutorLanesEnabled;
 
     Configuration(@NonNull Configuration.Builder builder) {
         if (builder.mExecutor == null) {
@@ -72,6 +73,7 @@ public final class Configuration {
         mMinJobSchedulerId = builder.mMinJobSchedulerId;
         mMaxJobSchedulerId = builder.mMaxJobSchedulerId;
         mMaxSchedulerLimit = builder.mMaxSchedulerLimit;
+        mTaskExecutorLanesEnabled = builder.mTaskExecutorLanesEnabled;
     }
 
     /**
@@ -138,6 +140,14 @@ public final class Configuration {
         }
     }
 
+    /**
+     * @return {@code true} if {@link WorkManager} starts and stops work and talks to the system
+     *         schedulers on threads separate from its database bookkeeping
+     */
+    public boolean isTaskExecutorLanesEnabled() {
+        return mTaskExecutorLanesEnabled;
+    }
+
     private @NonNull Executor createDefaultExecutor() {
         return Executors.newFixedThreadPool(
                 // This value is the same as the core pool size for AsyncTask#THREAD_POOL_EXECUTOR.
@@ -155,6 +165,7 @@ public final class Configuration {
         int mMinJobSchedulerId = IdGenerator.INITIAL_ID;
         int mMaxJobSchedulerId = Integer.MAX_VALUE;
         int mMaxSchedulerLimit = MIN_SCHEDULER_LIMIT;
+        boolean mTaskExecutorLanesEnabled;
 
         /**
          * Specifies a custom {@link WorkerFactory} for WorkManager.
@@ -255,6 +266,20 @@ public final class Configuration {
             return this;
         }
 
+        /**
+         * Specifies whether {@link WorkManager} uses separate threads for starting and stopping
+         * work, for handing work over to the system schedulers and for its other database
+         * bookkeeping. This keeps work from waiting to start while a large
+         * {@link WorkContinuation} is enqueued. By default, all of these run on a single thread.
+         *
+         * @param enabled {@code true} to use separate threads
+         * @return This {@link Builder} instance
+         */
+        public @NonNull Builder setTaskExecutorLanesEnabled(boolean enabled) {
+            mTaskExecutorLanesEnabled = enabled;
+            return this;
+        }
+
         /**
          * Builds a {@link Configuration} object.
          *
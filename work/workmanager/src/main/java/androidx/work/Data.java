@@ -341,6 +341,9 @@ public final class Data {
 
     /**
      * Converts {@link Data} to a byte array for persistent storage.
+     * <p>
+     * Values are written in a compact binary format. {@link #fromByteArray(byte[])} can also read
+     * payloads written with Java serialization by earlier versions.
      *
      * @param data The {@link Data} object to convert
      * @return The byte array representation of the input
@@ -351,6 +354,50 @@ public final class Data {
     @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
     @TypeConverter
     public static @NonNull byte[] toByteArray(@NonNull Data data) throws IllegalStateException {
+        byte[] bytes = DataSerializer.write(data.mValues);
+        if (bytes == null) {
+            // Arrays of boxed primitives with null elements need Java serialization.
+            bytes = toSerializedByteArray(data);
+        }
+        if (bytes.length > MAX_DATA_BYTES) {
+            throw new IllegalStateException(
+                    "Data cannot occupy more than " + MAX_DATA_BYTES
+                            + " bytes when serialized");
+        }
+        return bytes;
+    }
+
+    /**
+     * Converts a byte array to {@link Data}.
+     *
+     * @param bytes The byte array representation to convert
+     * @return An {@link Data} object built from the input
+     * @throws IllegalStateException if bytes is bigger than {@link #MAX_DATA_BYTES}
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    @TypeConverter
+    public static @NonNull Data fromByteArray(@NonNull byte[] bytes) throws IllegalStateException {
+        if (bytes.length > MAX_DATA_BYTES) {
+            throw new IllegalStateException(
+                    "Data cannot occupy more than " + MAX_DATA_BYTES + " bytes when serialized");
+        }
+
+        Map<String, Object> map = new HashMap<>();
+        if (DataSerializer.isCompact(bytes)) {
+            try {
+                DataSerializer.read(bytes, map);
+            } catch (IOException e) {
+                Log.e(TAG, "Error in Data#fromByteArray: ", e);
+            }
+        } else {
+            readSerializedByteArray(bytes, map);
+        }
+        return new Data(map);
+    }
+
+    @VisibleForTesting
+    static @NonNull byte[] toSerializedByteArray(@NonNull Data data) {
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
         ObjectOutputStream objectOutputStream = null;
         try {
@@ -379,32 +426,12 @@ public final class Data {
                 Log.e(TAG, "Error in Data#toByteArray: ", e);
             }
         }
-
-        if (outputStream.size() > MAX_DATA_BYTES) {
-            throw new IllegalStateException(
-                    "Data cannot occupy more than " + MAX_DATA_BYTES
-                            + " bytes when serialized");
-        }
         return outputStream.toByteArray();
     }
 
-    /**
-     * Converts a byte array to {@link Data}.
-     *
-     * @param bytes The byte array representation to convert
-     * @return An {@link Data} object built from the input
-     * @throws IllegalStateException if bytes is bigger than {@link #MAX_DATA_BYTES}
-     * @hide
-     */
-    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
-    @TypeConverter
-    public static @NonNull Data fromByteArray(@NonNull byte[] bytes) throws IllegalStateException {
-        if (bytes.length > MAX_DATA_BYTES) {
-            throw new IllegalStateException(
-                    "Data cannot occupy more than " + MAX_DATA_BYTES + " bytes when serialized");
-        }
-
-        Map<String, Object> map = new HashMap<>();
+    private static void readSerializedByteArray(
+            @NonNull byte[] bytes,
+            @NonNull Map<String, Object> map) {
         ByteArrayInputStream inputStream = new ByteArrayInputStream(bytes);
         ObjectInputStream objectInputStream = null;
         try {
@@ -428,7 +455,6 @@ public final class Data {
                 Log.e(TAG, "Error in Data#fromByteArray: ", e);
             }
         }
-        return new Data(map);
     }
 
     @Override
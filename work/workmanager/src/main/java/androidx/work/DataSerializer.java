@@ -0,0 +1,412 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.work;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes the compact binary representation of {@link Data}.
+ * <p>
+ * A payload starts with two magic bytes and a format version, followed by the number of entries
+ * and then each entry as its key, a type tag and its value. Integers are written as zig-zag
+ * varints, floating point values as their fixed width IEEE 754 bits and strings as UTF-8. A
+ * string that was already written is replaced by a reference to its first occurrence.
+ * <p>
+ * Payloads written by {@link java.io.ObjectOutputStream} always start with {@code 0xACED}, so
+ * they are never mistaken for compact payloads.
+ */
+final class DataSerializer {
+
+    static final int VERSION = 1;
+
+    private static final byte MAGIC_0 = 'W';
+    private static final byte MAGIC_1 = 'D';
+    private static final int HEADER_SIZE = 3;
+
+    private static final int TYPE_NULL = 0;
+    private static final int TYPE_BOOLEAN = 1;
+    private static final int TYPE_BYTE = 2;
+    private static final int TYPE_INT = 3;
+    private static final int TYPE_LONG = 4;
+    private static final int TYPE_FLOAT = 5;
+    private static final int TYPE_DOUBLE = 6;
+    private static final int TYPE_STRING = 7;
+    // Combined with the type of the elements.
+    private static final int TYPE_ARRAY = 0x10;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private DataSerializer() {
+    }
+
+    /**
+     * @return true if the given bytes were written by {@link #write(Map)}.
+     */
+    static boolean isCompact(@NonNull byte[] bytes) {
+        return bytes.length >= HEADER_SIZE && bytes[0] == MAGIC_0 && bytes[1] == MAGIC_1;
+    }
+
+    /**
+     * Writes the given values in the compact format.
+     *
+     * @return The serialized values, or null if a value cannot be represented in the compact
+     * format, such as a null element in an array of boxed primitives.
+     */
+    @Nullable
+    static byte[] write(@NonNull Map<String, Object> values) {
+        Writer writer = new Writer();
+        writer.writeByte(MAGIC_0);
+        writer.writeByte(MAGIC_1);
+        writer.writeByte(VERSION);
+        writer.writeVarint(values.size());
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            writer.writeString(entry.getKey());
+            if (!writer.writeValue(entry.getValue())) {
+                return null;
+            }
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * Reads the compact format into the given map.
+     *
+     * @throws IOException if the bytes are malformed or were written by a newer version. Entries
+     *                     read before the error are kept in the map.
+     */
+    static void read(@NonNull byte[] bytes, @NonNull Map<String, Object> values)
+            throws IOException {
+        if (!isCompact(bytes)) {
+            throw new IOException("Not a compact Data payload");
+        }
+        Reader reader = new Reader(bytes, HEADER_SIZE);
+        int version = bytes[2];
+        if (version > VERSION) {
+            throw new IOException("Unsupported Data format version " + version);
+        }
+        for (int i = reader.readVarint(); i > 0; i--) {
+            String key = reader.readString();
+            if (key == null) {
+                throw new IOException("Null key");
+            }
+            values.put(key, reader.readValue());
+        }
+    }
+
+    private static final class Writer {
+        private byte[] mBuffer = new byte[64];
+        private int mSize;
+        private final Map<String, Integer> mStrings = new HashMap<>();
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            mBuffer[mSize++] = (byte) value;
+        }
+
+        void writeVarint(int value) {
+            ensureCapacity(5);
+            while ((value & ~0x7F) != 0) {
+                mBuffer[mSize++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            mBuffer[mSize++] = (byte) value;
+        }
+
+        void writeVarlong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                mBuffer[mSize++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            mBuffer[mSize++] = (byte) value;
+        }
+
+        void writeFixed32(int value) {
+            ensureCapacity(4);
+            mBuffer[mSize++] = (byte) (value >>> 24);
+            mBuffer[mSize++] = (byte) (value >>> 16);
+            mBuffer[mSize++] = (byte) (value >>> 8);
+            mBuffer[mSize++] = (byte) value;
+        }
+
+        void writeFixed64(long value) {
+            writeFixed32((int) (value >>> 32));
+            writeFixed32((int) value);
+        }
+
+        /**
+         * Strings are prefixed with a varint: 0 for null, an odd value {@code (index << 1) | 1}
+         * for a reference to a previously written string and an even value
+         * {@code (length + 1) << 1} for a new string of {@code length} UTF-8 bytes.
+         */
+        void writeString(@Nullable String value) {
+            if (value == null) {
+                writeVarint(0);
+                return;
+            }
+            Integer index = mStrings.get(value);
+            if (index != null) {
+                writeVarint((index << 1) | 1);
+                return;
+            }
+            mStrings.put(value, mStrings.size());
+            byte[] bytes = value.getBytes(UTF_8);
+            writeVarint((bytes.length + 1) << 1);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, mBuffer, mSize, bytes.length);
+            mSize += bytes.length;
+        }
+
+        boolean writeValue(@Nullable Object value) {
+            if (value == null) {
+                writeByte(TYPE_NULL);
+                return true;
+            }
+            int type = typeOf(value.getClass());
+            if (type != TYPE_NULL) {
+                writeByte(type);
+                writeElement(type, value);
+                return true;
+            }
+            type = typeOf(value.getClass().getComponentType());
+            if (type == TYPE_NULL) {
+                return false;
+            }
+            Object[] array = (Object[]) value;
+            writeByte(TYPE_ARRAY | type);
+            writeVarint(array.length);
+            for (Object element : array) {
+                if (element == null && type != TYPE_STRING) {
+                    return false;
+                }
+                writeElement(type, element);
+            }
+            return true;
+        }
+
+        private void writeElement(int type, Object value) {
+            switch (type) {
+                case TYPE_BOOLEAN:
+                    writeByte((Boolean) value ? 1 : 0);
+                    break;
+                case TYPE_BYTE:
+                    writeByte((Byte) value);
+                    break;
+                case TYPE_INT:
+                    int intValue = (Integer) value;
+                    writeVarint((intValue << 1) ^ (intValue >> 31));
+                    break;
+                case TYPE_LONG:
+                    long longValue = (Long) value;
+                    writeVarlong((longValue << 1) ^ (longValue >> 63));
+                    break;
+                case TYPE_FLOAT:
+                    writeFixed32(Float.floatToIntBits((Float) value));
+                    break;
+                case TYPE_DOUBLE:
+                    writeFixed64(Double.doubleToLongBits((Double) value));
+                    break;
+                case TYPE_STRING:
+                    writeString((String) value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown type " + type);
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(mBuffer, mSize);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (mSize + extra > mBuffer.length) {
+                mBuffer = Arrays.copyOf(mBuffer, Math.max(mBuffer.length * 2, mSize + extra));
+            }
+        }
+
+        private static int typeOf(@Nullable Class<?> klass) {
+            if (klass == Boolean.class) {
+                return TYPE_BOOLEAN;
+            } else if (klass == Byte.class) {
+                return TYPE_BYTE;
+            } else if (klass == Integer.class) {
+                return TYPE_INT;
+            } else if (klass == Long.class) {
+                return TYPE_LONG;
+            } else if (klass == Float.class) {
+                return TYPE_FLOAT;
+            } else if (klass == Double.class) {
+                return TYPE_DOUBLE;
+            } else if (klass == String.class) {
+                return TYPE_STRING;
+            }
+            return TYPE_NULL;
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] mBuffer;
+        private int mPosition;
+        private final List<String> mStrings = new ArrayList<>();
+
+        Reader(byte[] buffer, int position) {
+            mBuffer = buffer;
+            mPosition = position;
+        }
+
+        byte readByte() throws EOFException {
+            if (mPosition >= mBuffer.length) {
+                throw new EOFException();
+            }
+            return mBuffer[mPosition++];
+        }
+
+        int readVarint() throws IOException {
+            int result = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                byte b = readByte();
+                result |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        long readVarlong() throws IOException {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        int readFixed32() throws EOFException {
+            return (readByte() & 0xFF) << 24
+                    | (readByte() & 0xFF) << 16
+                    | (readByte() & 0xFF) << 8
+                    | (readByte() & 0xFF);
+        }
+
+        long readFixed64() throws EOFException {
+            return ((long) readFixed32() << 32) | (readFixed32() & 0xFFFFFFFFL);
+        }
+
+        @Nullable
+        String readString() throws IOException {
+            int prefix = readVarint();
+            if (prefix == 0) {
+                return null;
+            }
+            if ((prefix & 1) != 0) {
+                int index = prefix >>> 1;
+                if (index >= mStrings.size()) {
+                    throw new IOException("Unknown string reference " + index);
+                }
+                return mStrings.get(index);
+            }
+            int length = (prefix >>> 1) - 1;
+            if (length > mBuffer.length - mPosition) {
+                throw new EOFException();
+            }
+            String value = new String(mBuffer, mPosition, length, UTF_8);
+            mPosition += length;
+            mStrings.add(value);
+            return value;
+        }
+
+        @Nullable
+        Object readValue() throws IOException {
+            int type = readByte();
+            if (type == TYPE_NULL) {
+                return null;
+            }
+            if ((type & TYPE_ARRAY) == 0) {
+                return readElement(type);
+            }
+            type &= ~TYPE_ARRAY;
+            int length = readVarint();
+            // every element takes at least one byte
+            if (length < 0 || length > mBuffer.length - mPosition) {
+                throw new EOFException();
+            }
+            Object[] array = newArray(type, length);
+            for (int i = 0; i < length; i++) {
+                array[i] = readElement(type);
+            }
+            return array;
+        }
+
+        private Object readElement(int type) throws IOException {
+            switch (type) {
+                case TYPE_BOOLEAN:
+                    return readByte() != 0;
+                case TYPE_BYTE:
+                    return readByte();
+                case TYPE_INT:
+                    int intValue = readVarint();
+                    return (intValue >>> 1) ^ -(intValue & 1);
+                case TYPE_LONG:
+                    long longValue = readVarlong();
+                    return (longValue >>> 1) ^ -(longValue & 1);
+                case TYPE_FLOAT:
+                    return Float.intBitsToFloat(readFixed32());
+                case TYPE_DOUBLE:
+                    return Double.longBitsToDouble(readFixed64());
+                case TYPE_STRING:
+                    return readString();
+                default:
+                    throw new IOException("Unknown type " + type);
+            }
+        }
+
+        private static Object[] newArray(int type, int length) throws IOException {
+            switch (type) {
+                case TYPE_BOOLEAN:
+                    return new Boolean[length];
+                case TYPE_BYTE:
+                    return new Byte[length];
+                case TYPE_INT:
+                    return new Integer[length];
+                case TYPE_LONG:
+                    return new Long[length];
+                case TYPE_FLOAT:
+                    return new Float[length];
+                case TYPE_DOUBLE:
+                    return new Double[length];
+                case TYPE_STRING:
+                    return new String[length];
+                default:
+                    throw new IOException("Unknown array type " + type);
+            }
+        }
+    }
+}
@@ -117,7 +117,7 @@ public class Processor implements ExecutionListener {
                     mWorkTaskExecutor.getMainThreadExecutor());
             mEnqueuedWorkMap.put(id, workWrapper);
         }
-        mWorkTaskExecutor.getBackgroundExecutor().execute(workWrapper);
+        mWorkTaskExecutor.executeOnBackgroundThread(workWrapper, TaskExecutor.LANE_DISPATCH);
         Logger.get().debug(TAG, String.format("%s: processing %s", getClass().getSimpleName(), id));
         return true;
     }
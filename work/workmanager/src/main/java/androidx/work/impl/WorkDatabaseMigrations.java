@@ -45,6 +45,7 @@ public class WorkDatabaseMigrations {
     public static final int VERSION_3 = 3;
     public static final int VERSION_4 = 4;
     public static final int VERSION_5 = 5;
+    public static final int VERSION_6 = 6;
 
     private static final String CREATE_SYSTEM_ID_INFO =
             "CREATE TABLE IF NOT EXISTS `SystemIdInfo` (`work_spec_id` TEXT NOT NULL, `system_id`"
@@ -71,6 +72,10 @@ public class WorkDatabaseMigrations {
             "ALTER TABLE workspec ADD COLUMN `trigger_max_content_delay` INTEGER NOT NULL DEFAULT"
                     + " -1";
 
+    private static final String WORKSPEC_INDEX_STATE_SCHEDULE_REQUESTED_AT =
+            "CREATE INDEX IF NOT EXISTS `index_WorkSpec_state_schedule_requested_at`"
+                    + " ON `WorkSpec` (`state`, `schedule_requested_at`)";
+
     /**
      * Removes the {@code alarmInfo} table and substitutes it for a more general
      * {@code SystemIdInfo} table.
@@ -128,4 +133,15 @@ public class WorkDatabaseMigrations {
             database.execSQL(WORKSPEC_ADD_TRIGGER_MAX_CONTENT_DELAY);
         }
     };
+
+    /**
+     * Adds an index on {@code state} and {@code schedule_requested_at} to the WorkSpec table so
+     * that looking up work that is eligible for scheduling does not scan finished work.
+     */
+    public static Migration MIGRATION_5_6 = new Migration(VERSION_5, VERSION_6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL(WORKSPEC_INDEX_STATE_SCHEDULE_REQUESTED_AT);
+        }
+    };
 }
@@ -179,7 +179,8 @@ public class WorkManagerImpl extends WorkManager {
                     sDefaultInstance = new WorkManagerImpl(
                             context,
                             configuration,
-                            new WorkManagerTaskExecutor());
+                            new WorkManagerTaskExecutor(
+                                    configuration.isTaskExecutorLanesEnabled()));
                 }
                 sDelegatedInstance = sDefaultInstance;
             }
@@ -553,7 +554,8 @@ public class WorkManagerImpl extends WorkManager {
     public void startWork(String workSpecId, WorkerParameters.RuntimeExtras runtimeExtras) {
         mWorkTaskExecutor
                 .executeOnBackgroundThread(
-                        new StartWorkRunnable(this, workSpecId, runtimeExtras));
+                        new StartWorkRunnable(this, workSpecId, runtimeExtras),
+                        TaskExecutor.LANE_DISPATCH);
     }
 
     /**
@@ -562,7 +564,9 @@ public class WorkManagerImpl extends WorkManager {
      */
     @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
     public void stopWork(String workSpecId) {
-        mWorkTaskExecutor.executeOnBackgroundThread(new StopWorkRunnable(this, workSpecId));
+        mWorkTaskExecutor.executeOnBackgroundThread(
+                new StopWorkRunnable(this, workSpecId),
+                TaskExecutor.LANE_DISPATCH);
     }
 
     /**
@@ -33,6 +33,7 @@ import androidx.work.impl.ExecutionListener;
 import androidx.work.impl.Processor;
 import androidx.work.impl.WorkManagerImpl;
 import androidx.work.impl.utils.WakeLocks;
+import androidx.work.impl.utils.taskexecutor.TaskExecutor;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -278,7 +279,7 @@ public class SystemAlarmDispatcher implements ExecutionListener {
                         }
                     }
                 }
-            });
+            }, TaskExecutor.LANE_SCHEDULING);
         } finally {
             processCommandLock.release();
         }
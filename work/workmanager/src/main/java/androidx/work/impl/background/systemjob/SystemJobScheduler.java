@@ -180,7 +180,7 @@ public class SystemJobScheduler implements Scheduler {
                             + "jobs in JobScheduler; we have %d tracked jobs in our DB; "
                             + "our Configuration limit is %d.",
                     numWorkManagerJobs,
-                    mWorkManager.getWorkDatabase().workSpecDao().getScheduledWork().size(),
+                    mWorkManager.getWorkDatabase().workSpecDao().getScheduledWorkCount(),
                     mWorkManager.getConfiguration().getMaxSchedulerLimit());
 
             Logger.get().error(TAG, message);
@@ -266,6 +266,16 @@ public interface WorkSpecDao {
     @Query("UPDATE workspec SET schedule_requested_at=:startTime WHERE id=:id")
     int markWorkSpecScheduled(@NonNull String id, long startTime);
 
+    /**
+     * Marks a set of {@link WorkSpec}s as scheduled.
+     *
+     * @param ids       The identifiers for the {@link WorkSpec}s
+     * @param startTime The time at which the {@link WorkSpec}s were scheduled.
+     * @return The number of rows that were updated
+     */
+    @Query("UPDATE workspec SET schedule_requested_at=:startTime WHERE id IN (:ids)")
+    int markWorkSpecsScheduled(@NonNull List<String> ids, long startTime);
+
     /**
      * Resets the scheduled state on the {@link WorkSpec}s that are not in a a completed state.
      * @return The number of rows that were updated
@@ -300,6 +310,17 @@ public interface WorkSpecDao {
     )
     List<WorkSpec> getScheduledWork();
 
+    /**
+     * @return The number of {@link WorkSpec}s that are unfinished and scheduled.
+     */
+    @Query("SELECT COUNT(*) FROM workspec WHERE "
+            // Unfinished work
+            + "state=" + WorkTypeConverters.StateIds.ENQUEUED
+            // We only want WorkSpecs which have been scheduled.
+            + " AND schedule_requested_at<>" + WorkSpec.SCHEDULE_NOT_REQUESTED_YET
+    )
+    int getScheduledWorkCount();
+
     /**
      * @return The List of {@link WorkSpec}s that are unfinished and scheduled.
      */
@@ -16,9 +16,12 @@
 
 package androidx.work.impl.utils.taskexecutor;
 
+import androidx.annotation.IntDef;
 import androidx.annotation.NonNull;
 import androidx.annotation.RestrictTo;
 
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
 import java.util.concurrent.Executor;
 
 /**
@@ -29,6 +32,31 @@ import java.util.concurrent.Executor;
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
 public interface TaskExecutor {
 
+    /**
+     * The lane for database bookkeeping such as enqueueing, cancelling and pruning work. Tasks
+     * submitted via {@link #executeOnBackgroundThread(Runnable)} and
+     * {@link #getBackgroundExecutor()} run on this lane.
+     */
+    int LANE_DEFAULT = 0;
+
+    /**
+     * The lane for handing work over to the system schedulers.
+     */
+    int LANE_SCHEDULING = 1;
+
+    /**
+     * The lane for starting and stopping workers.
+     */
+    int LANE_DISPATCH = 2;
+
+    /**
+     * The lanes a background task can be executed on.
+     */
+    @IntDef({LANE_DEFAULT, LANE_SCHEDULING, LANE_DISPATCH})
+    @Retention(RetentionPolicy.SOURCE)
+    @interface Lane {
+    }
+
     /**
      * @param runnable {@link Runnable} to post to the main thread
      */
@@ -44,6 +72,15 @@ public interface TaskExecutor {
      */
     void executeOnBackgroundThread(Runnable runnable);
 
+    /**
+     * Executes a task on the given lane. Tasks of the same lane run in submission order; an
+     * implementation may run different lanes on different threads.
+     *
+     * @param runnable {@link Runnable} to execute on a background thread
+     * @param lane     The lane to execute the {@link Runnable} on
+     */
+    void executeOnBackgroundThread(Runnable runnable, @Lane int lane);
+
     /**
      * @return the {@link Thread} being used by WorkManager's background task executor.
      */
@@ -26,9 +26,14 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Default Task Executor for executing common tasks in WorkManager
+ * <p>
+ * By default every lane shares a single background thread. When lanes are enabled, scheduling
+ * and dispatch tasks get a thread each so that they do not wait behind long database
+ * bookkeeping such as enqueueing a large continuation.
  * @hide
  */
 
@@ -46,23 +51,33 @@ public class WorkManagerTaskExecutor implements TaskExecutor {
 
     // Avoiding synthetic accessor.
     volatile Thread mCurrentBackgroundExecutorThread;
-    private final ThreadFactory mBackgroundThreadFactory = new ThreadFactory() {
 
-        private int mThreadsCreated = 0;
+    private final LaneExecutor mDefaultLane;
+    private final LaneExecutor mSchedulingLane;
+    private final LaneExecutor mDispatchLane;
 
-        @Override
-        public Thread newThread(@NonNull Runnable r) {
-            // Delegate to the default factory, but keep track of the current thread being used.
-            Thread thread = Executors.defaultThreadFactory().newThread(r);
-            thread.setName("WorkManager-WorkManagerTaskExecutor-thread-" + mThreadsCreated);
-            mThreadsCreated++;
-            mCurrentBackgroundExecutorThread = thread;
-            return thread;
-        }
-    };
+    public WorkManagerTaskExecutor() {
+        this(false);
+    }
 
-    private final ExecutorService mBackgroundExecutor =
-            Executors.newSingleThreadExecutor(mBackgroundThreadFactory);
+    /**
+     * @param lanesEnabled {@code true} to run the scheduling and dispatch lanes on their own
+     *                     threads
+     */
+    public WorkManagerTaskExecutor(boolean lanesEnabled) {
+        ExecutorService defaultExecutor = Executors.newSingleThreadExecutor(
+                new LaneThreadFactory("", true));
+        mDefaultLane = new LaneExecutor(defaultExecutor);
+        if (lanesEnabled) {
+            mSchedulingLane = new LaneExecutor(Executors.newSingleThreadExecutor(
+                    new LaneThreadFactory("scheduling-", false)));
+            mDispatchLane = new LaneExecutor(Executors.newSingleThreadExecutor(
+                    new LaneThreadFactory("dispatch-", false)));
+        } else {
+            mSchedulingLane = new LaneExecutor(defaultExecutor);
+            mDispatchLane = new LaneExecutor(defaultExecutor);
+        }
+    }
 
     @Override
     public void postToMainThread(Runnable r) {
@@ -76,12 +91,17 @@ public class WorkManagerTaskExecutor implements TaskExecutor {
 
     @Override
     public void executeOnBackgroundThread(Runnable r) {
-        mBackgroundExecutor.execute(r);
+        mDefaultLane.execute(r);
+    }
+
+    @Override
+    public void executeOnBackgroundThread(Runnable r, @Lane int lane) {
+        getLane(lane).execute(r);
     }
 
     @Override
     public Executor getBackgroundExecutor() {
-        return mBackgroundExecutor;
+        return mDefaultLane;
     }
 
     @NonNull
@@ -89,4 +109,100 @@ public class WorkManagerTaskExecutor implements TaskExecutor {
     public Thread getBackgroundExecutorThread() {
         return mCurrentBackgroundExecutorThread;
     }
+
+    /**
+     * @param lane The lane
+     * @return The number of tasks that started running on the given lane.
+     */
+    public long getTaskCount(@Lane int lane) {
+        return getLane(lane).mTaskCount.get();
+    }
+
+    /**
+     * @param lane The lane
+     * @return The total time in nanoseconds tasks of the given lane spent queued before they
+     *         started running.
+     */
+    public long getTotalQueueWaitNanos(@Lane int lane) {
+        return getLane(lane).mTotalWaitNanos.get();
+    }
+
+    /**
+     * @param lane The lane
+     * @return The longest time in nanoseconds a task of the given lane spent queued before it
+     *         started running.
+     */
+    public long getMaxQueueWaitNanos(@Lane int lane) {
+        return getLane(lane).mMaxWaitNanos.get();
+    }
+
+    private LaneExecutor getLane(@Lane int lane) {
+        switch (lane) {
+            case LANE_SCHEDULING:
+                return mSchedulingLane;
+            case LANE_DISPATCH:
+                return mDispatchLane;
+            default:
+                return mDefaultLane;
+        }
+    }
+
+    /**
+     * An {@link Executor} that keeps track of how long its tasks wait in the queue.
+     */
+    private static final class LaneExecutor implements Executor {
+        private final ExecutorService mExecutor;
+        final AtomicLong mTaskCount = new AtomicLong();
+        final AtomicLong mTotalWaitNanos = new AtomicLong();
+        final AtomicLong mMaxWaitNanos = new AtomicLong();
+
+        LaneExecutor(ExecutorService executor) {
+            mExecutor = executor;
+        }
+
+        @Override
+        public void execute(@NonNull final Runnable command) {
+            final long queuedAt = System.nanoTime();
+            mExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    onStart(System.nanoTime() - queuedAt);
+                    command.run();
+                }
+            });
+        }
+
+        void onStart(long waitNanos) {
+            mTaskCount.incrementAndGet();
+            mTotalWaitNanos.addAndGet(waitNanos);
+            long max = mMaxWaitNanos.get();
+            while (waitNanos > max && !mMaxWaitNanos.compareAndSet(max, waitNanos)) {
+                max = mMaxWaitNanos.get();
+            }
+        }
+    }
+
+    private final class LaneThreadFactory implements ThreadFactory {
+        private final String mName;
+        private final boolean mTrackThread;
+        private int mThreadsCreated = 0;
+
+        LaneThreadFactory(String name, boolean trackThread) {
+            mName = name;
+            mTrackThread = trackThread;
+        }
+
+        @Override
+        public Thread newThread(@NonNull Runnable r) {
+            // Delegate to the default factory, but keep track of the current thread being used.
+            Thread thread = Executors.defaultThreadFactory().newThread(r);
+            thread.setName("WorkManager-WorkManagerTaskExecutor-" + mName + "thread-"
+                    + mThreadsCreated);
+            mThreadsCreated++;
+            if (mTrackThread) {
+                mCurrentBackgroundExecutorThread = thread;
+            }
+            return thread;
+        }
+    }
 }
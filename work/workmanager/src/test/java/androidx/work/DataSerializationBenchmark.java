@@ -0,0 +1,94 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.work;
+
+import androidx.benchmark.BenchmarkRule;
+import androidx.benchmark.BenchmarkState;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Host benchmarks of {@link Data#toByteArray(Data)} and {@link Data#fromByteArray(byte[])}, run
+ * by the {@code hostBenchmark} task. The serialized variants measure the Java serialization
+ * format that was written before the compact one.
+ */
+@RunWith(JUnit4.class)
+public class DataSerializationBenchmark {
+    private static final int ARRAY_SIZE = 20;
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private final Data mData;
+    private final byte[] mCompactBytes;
+    private final byte[] mSerializedBytes;
+
+    public DataSerializationBenchmark() {
+        String[] tags = new String[ARRAY_SIZE];
+        long[] timestamps = new long[ARRAY_SIZE];
+        for (int i = 0; i < ARRAY_SIZE; i++) {
+            tags[i] = "tag" + (i % 4);
+            timestamps[i] = 1550000000000L + i * 1000L;
+        }
+        mData = new Data.Builder()
+                .putString("uri", "content://media/external/images/media/1234")
+                .putString("account", "user@example.com")
+                .putInt("retries", 3)
+                .putLong("deadline", 1550000000000L)
+                .putBoolean("charging", true)
+                .putStringArray("tags", tags)
+                .putLongArray("timestamps", timestamps)
+                .build();
+        mCompactBytes = Data.toByteArray(mData);
+        mSerializedBytes = Data.toSerializedByteArray(mData);
+    }
+
+    @Test
+    public void toByteArray_compact() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            Data.toByteArray(mData);
+        }
+    }
+
+    @Test
+    public void toByteArray_serialized() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            Data.toSerializedByteArray(mData);
+        }
+    }
+
+    @Test
+    public void fromByteArray_compact() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            Data.fromByteArray(mCompactBytes);
+        }
+    }
+
+    @Test
+    public void fromByteArray_serialized() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            Data.fromByteArray(mSerializedBytes);
+        }
+    }
+}
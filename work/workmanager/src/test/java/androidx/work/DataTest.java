@@ -24,6 +24,8 @@ import static org.hamcrest.MatcherAssert.assertThat;
 
 import org.junit.Test;
 
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -86,6 +88,110 @@ public class DataTest {
         assertThat(restoredData.getIntArray(KEY2), is(equalTo(expectedValue2)));
     }
 
+    @Test
+    public void testSerializeAllTypes() {
+        Data data = new Data.Builder()
+                .putBoolean("boolean", true)
+                .putByte("byte", (byte) -7)
+                .putInt("int", Integer.MIN_VALUE)
+                .putLong("long", Long.MAX_VALUE)
+                .putFloat("float", -1.5f)
+                .putDouble("double", Double.MIN_VALUE)
+                .putString("string", "\u00e9t\u00e9")
+                .putString("null", null)
+                .putBooleanArray("boolean array", new boolean[]{true, false})
+                .putByteArray("byte array", new byte[]{Byte.MIN_VALUE, 0, Byte.MAX_VALUE})
+                .putIntArray("int array", new int[]{-1, 0, 1 << 30})
+                .putLongArray("long array", new long[]{Long.MIN_VALUE, -1L, 300L})
+                .putFloatArray("float array", new float[]{Float.NaN, 0f})
+                .putDoubleArray("double array", new double[]{Double.NEGATIVE_INFINITY, 2.5})
+                .putStringArray("string array", new String[]{"a", null, "a", "string"})
+                .build();
+
+        Data restoredData = Data.fromByteArray(Data.toByteArray(data));
+
+        assertThat(restoredData.size(), is(data.size()));
+        assertThat(restoredData.getBoolean("boolean", false), is(true));
+        assertThat(restoredData.getByte("byte", (byte) 0), is((byte) -7));
+        assertThat(restoredData.getInt("int", 0), is(Integer.MIN_VALUE));
+        assertThat(restoredData.getLong("long", 0L), is(Long.MAX_VALUE));
+        assertThat(restoredData.getFloat("float", 0f), is(-1.5f));
+        assertThat(restoredData.getDouble("double", 0d), is(Double.MIN_VALUE));
+        assertThat(restoredData.getString("string"), is("\u00e9t\u00e9"));
+        assertThat(restoredData.getString("null"), is(nullValue()));
+        assertThat(restoredData.getBooleanArray("boolean array"),
+                is(equalTo(new boolean[]{true, false})));
+        assertThat(restoredData.getByteArray("byte array"),
+                is(equalTo(new byte[]{Byte.MIN_VALUE, 0, Byte.MAX_VALUE})));
+        assertThat(restoredData.getIntArray("int array"),
+                is(equalTo(new int[]{-1, 0, 1 << 30})));
+        assertThat(restoredData.getLongArray("long array"),
+                is(equalTo(new long[]{Long.MIN_VALUE, -1L, 300L})));
+        assertThat(restoredData.getFloatArray("float array"),
+                is(equalTo(new float[]{Float.NaN, 0f})));
+        assertThat(restoredData.getDoubleArray("double array"),
+                is(equalTo(new double[]{Double.NEGATIVE_INFINITY, 2.5})));
+        assertThat(restoredData.getStringArray("string array"),
+                is(equalTo(new String[]{"a", null, "a", "string"})));
+    }
+
+    @Test
+    public void testSerializeIsSmallerThanJavaSerialization() {
+        Data data = new Data.Builder()
+                .putString(KEY1, "value1")
+                .putIntArray(KEY2, new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10})
+                .build();
+
+        byte[] byteArray = Data.toByteArray(data);
+
+        assertThat(byteArray.length < Data.toSerializedByteArray(data).length, is(true));
+    }
+
+    @Test
+    public void testDeserializeJavaSerialization() {
+        Data data = new Data.Builder()
+                .putString(KEY1, "value1")
+                .putLong(KEY2, 42L)
+                .build();
+
+        Data restoredData = Data.fromByteArray(Data.toSerializedByteArray(data));
+
+        assertThat(restoredData, is(data));
+    }
+
+    @Test
+    public void testSerializeNullArrayElement() {
+        Data data = new Data.Builder()
+                .put(KEY1, new Integer[]{1, null})
+                .build();
+
+        byte[] byteArray = Data.toByteArray(data);
+        Data restoredData = Data.fromByteArray(byteArray);
+
+        assertThat(DataSerializer.isCompact(byteArray), is(false));
+        assertThat((Integer[]) restoredData.getKeyValueMap().get(KEY1),
+                is(equalTo(new Integer[]{1, null})));
+    }
+
+    @Test
+    public void testDeserializeTruncated() {
+        Data data = new Data.Builder()
+                .putString(KEY1, "value1")
+                .putString(KEY2, "value2")
+                .build();
+        byte[] byteArray = Data.toByteArray(data);
+
+        Map<String, Object> values = new HashMap<>();
+        boolean caughtIOException = false;
+        try {
+            DataSerializer.read(Arrays.copyOf(byteArray, byteArray.length - 1), values);
+        } catch (IOException e) {
+            caughtIOException = true;
+        }
+        assertThat(caughtIOException, is(true));
+        assertThat(values.size(), is(1));
+    }
+
     @Test
     public void testSerializePastMaxSize() {
         int[] payload = new int[Data.MAX_DATA_BYTES + 1];